@@ -1,13 +1,26 @@
 package com.aluracursos.literalura;
 
 import com.aluracursos.literalura.principal.App;
-import com.aluracursos.literalura.repository.AutorRepository;
-import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.service.ActualizadorDescargas;
+import com.aluracursos.literalura.service.BuscadorLibros;
+import com.aluracursos.literalura.service.CatalogoEnMemoria;
+import com.aluracursos.literalura.service.ConsultaLibros;
+import com.aluracursos.literalura.service.ConsultasCatalogo;
+import com.aluracursos.literalura.service.EstadisticasDescargas;
+import com.aluracursos.literalura.service.ImportadorCatalogo;
+import com.aluracursos.literalura.service.ImportadorCatalogoLocal;
+import com.aluracursos.literalura.service.IndiceLibros;
+import com.aluracursos.literalura.service.Metricas;
+import com.aluracursos.literalura.service.PersistenciaLotes;
+import com.aluracursos.literalura.service.RankingDescargas;
+import com.aluracursos.literalura.service.Trabajos;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.jdbc.autoconfigure.DataSourceAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
 
 // @SpringBootApplication(exclude = {DataSourceAutoConfiguration.class})
 // ↑ Se usa cuando aún no se ha configurado una base de datos.
@@ -21,14 +34,62 @@ public class LiteraluraHpgApplication implements CommandLineRunner {
 	// una vez que la aplicación Spring Boot ha iniciado.
 
 	@Autowired
-	// Inyección automática del repositorio de libros.
-	// Permite acceder a operaciones CRUD sobre la entidad Libro.
-	private LibroRepository repository;
+	// Inyección de la búsqueda por relevancia (BDD primero, luego Gutendex).
+	// Usa el cliente HTTP compartido, con la caché de respuestas delante.
+	private BuscadorLibros buscadorLibros;
 
 	@Autowired
-	// Inyección automática del repositorio de autores.
-	// Permite acceder a operaciones CRUD sobre la entidad Autor.
-	private AutorRepository autorRepository;
+	// Inyección del servicio de importación masiva del catálogo.
+	private ImportadorCatalogo importadorCatalogo;
+
+	@Autowired
+	// Inyección del servicio de importación desde el volcado local de Project Gutenberg.
+	private ImportadorCatalogoLocal importadorCatalogoLocal;
+
+	@Autowired
+	// Inyección de la ruta de escritura de libros (lotes JDBC y autores sin duplicar).
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	// Inyección de las consultas de listado (proyecciones paginadas).
+	private ConsultaLibros consultaLibros;
+
+	@Autowired
+	// Inyección del índice de texto sobre títulos y autores guardados.
+	private IndiceLibros indiceLibros;
+
+	@Autowired
+	// Inyección de la instantánea del catálogo en memoria (opciones 2 a 7 del menú).
+	private CatalogoEnMemoria catalogoEnMemoria;
+
+	@Autowired
+	// Inyección de los rankings de libros más descargados.
+	private RankingDescargas rankingDescargas;
+
+	@Autowired
+	// Inyección de las estadísticas de descargas (general y por idioma).
+	private EstadisticasDescargas estadisticasDescargas;
+
+	@Autowired
+	// Inyección de las métricas (deshabilitadas por defecto).
+	private Metricas metricas;
+
+	@Autowired
+	// Inyección del actualizador de descargas (opción 12 del menú).
+	private ActualizadorDescargas actualizadorDescargas;
+
+	@Autowired
+	// Inyección de los trabajos en segundo plano (importaciones, actualizaciones y búsquedas).
+	private Trabajos trabajos;
+
+	@Autowired
+	// El contexto se cierra al salir del menú (detiene la API y los trabajos en curso).
+	private ConfigurableApplicationContext contexto;
+
+	@Value("${literalura.consola.habilitada:true}")
+	// Permite arrancar el contexto sin el menú interactivo
+	// (por ejemplo, en las pruebas, donde no hay nadie escribiendo en la consola).
+	private boolean consolaHabilitada;
 
 	public static void main(String[] args) {
 		// Punto de entrada de la aplicación.
@@ -40,12 +101,30 @@ public class LiteraluraHpgApplication implements CommandLineRunner {
 	public void run(String... args) throws Exception {
 		// Este método se ejecuta automáticamente después de iniciar Spring Boot.
 
+		if (!consolaHabilitada) {
+			return;
+		}
+
 		// Se crea una instancia de la clase App,
 		// que contiene la lógica principal y el menú de la aplicación.
-		App app = new App(repository, autorRepository);
+		App app = new App(buscadorLibros, importadorCatalogo, importadorCatalogoLocal, persistenciaLotes,
+				consultaLibros, indiceLibros, metricas.medir(ConsultasCatalogo.class, catalogoEnMemoria), rankingDescargas, estadisticasDescargas,
+				actualizadorDescargas, trabajos);
 
-		// Ejecuta el flujo principal de la aplicación en consola.
-		app.aplicacionRun();
+		// Ejecuta el flujo principal de la aplicación en consola, en su propio hilo:
+		// run() vuelve enseguida y Spring termina de arrancar (ApplicationReadyEvent:
+		// catálogo en memoria, índice de texto y actualizador de descargas) mientras
+		// el menú espera al usuario. Si el menú corriera aquí, esos servicios
+		// recién arrancarían al salir del menú.
+		Thread consola = new Thread(() -> {
+			try {
+				app.aplicacionRun();
+			} finally {
+				// Al salir del menú se cierra la aplicación (con la API habilitada, su hilo la mantendría viva)
+				System.exit(SpringApplication.exit(contexto));
+			}
+		}, "consola");
+		consola.start();
 
 		// Iconos usados para mostrar resultados en consola.
 		// 📘 Libro encontrado
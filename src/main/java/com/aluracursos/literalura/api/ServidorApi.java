@@ -0,0 +1,526 @@
+package com.aluracursos.literalura.api;
+// Paquete de la API HTTP: las mismas consultas del menú, para otros programas.
+
+import com.aluracursos.literalura.model.AutorResumen;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.service.Avance;
+import com.aluracursos.literalura.service.BocetoDescargas;
+import com.aluracursos.literalura.service.CatalogoEnMemoria;
+import com.aluracursos.literalura.service.ConsultasCatalogo;
+import com.aluracursos.literalura.service.DescargasActualizadas;
+import com.aluracursos.literalura.service.EstadisticasDescargas;
+import com.aluracursos.literalura.service.Hilos;
+import com.aluracursos.literalura.service.ImportadorCatalogo;
+import com.aluracursos.literalura.service.ImportadorCatalogoLocal;
+import com.aluracursos.literalura.service.IndiceLibros;
+import com.aluracursos.literalura.service.LibrosGuardados;
+import com.aluracursos.literalura.service.Metricas;
+import com.aluracursos.literalura.service.RankingDescargas;
+import com.aluracursos.literalura.service.Trabajos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ API HTTP de solo lectura (más la importación) sobre los mismos servicios
+ que usa el menú de consola.
+
+   GET  /api/libros?pagina=0&tamano=20            libros por título
+   GET  /api/libros/buscar?q=texto                búsqueda de texto (IndiceLibros)
+   GET  /api/libros/idioma/{codigo}               libros en un idioma (es, en, fr...)
+   GET  /api/libros/top?cantidad=10[&idioma=es]   más descargados
+   GET  /api/autores                              autores por nombre
+   GET  /api/autores/vivos?anio=1850              autores vivos en un año (o desde/hasta)
+   GET  /api/estadisticas                         descargas: general y por idioma
+   POST /api/importaciones?fuente=gutendex|local   (local: literalura.catalogo-local.archivo)
+   GET  /api/importaciones                        estado de la última importación
+   DELETE /api/importaciones                      cancela la importación en curso
+   GET  /metrics                                  métricas en formato Prometheus
+
+ ✔ servidor HTTP del JDK (com.sun.net.httpserver): un hilo acepta las
+   conexiones y cada petición se atiende en su propio hilo virtual (Java 21+;
+   en Java 17, hilos de plataforma)
+ ✔ listados paginados: {"contenido": [...], "pagina", "tamano", "haySiguiente"},
+   sin COUNT(*) (mismas páginas Slice que el menú); tamano de 1 a 100
+ ✔ ETag débil con la versión del catálogo: cambia con cada guardado o
+   actualización de descargas y otra vez cuando cada servicio en memoria (catálogo,
+   índice, rankings, estadísticas) lo aplicó; con If-None-Match igual se responde
+   304 sin consultar nada
+ ✔ gzip cuando el cliente lo acepta y la respuesta pasa de 1 KB
+ ✔ las importaciones corren como trabajos (Trabajos): una a la vez, sea
+   lanzada desde la API o desde el menú, y visibles en la opción 11
+ ✔ errores en JSON: 400 (parámetro inválido), 404, 405, 409 (importación
+   en curso) y 500
+
+ Desactivada por defecto; se activa con:
+   literalura.api.habilitada=true
+   literalura.api.direccion=127.0.0.1
+   literalura.api.puerto=8080               (0 = cualquiera libre)
+   literalura.api.hilos-virtuales=true
+*/
+@Component
+public class ServidorApi {
+
+    private static final Logger log = LoggerFactory.getLogger(ServidorApi.class);
+
+    private static final int TAMANO_POR_DEFECTO = 20;
+    private static final int TAMANO_MAXIMO = 100;
+    private static final int COMPRIMIR_DESDE = 1024;
+
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
+    // TCP_NODELAY en las conexiones del servidor HTTP del JDK (se lee al crear el primer servidor)
+    private static final String SIN_DEMORA = "sun.net.httpserver.nodelay";
+
+    // Respuesta lista para enviar; "versionada" = lleva ETag de la versión del catálogo
+    private record Respuesta(int estado, byte[] cuerpo, String tipo, boolean versionada) {}
+
+    // Formas JSON de los resúmenes (idiomas por código)
+    private record LibroJson(long id, String titulo, double descargas, List<String> autores, List<String> idiomas) {}
+
+    private record AutorJson(long id, String nombre, Integer nacimiento, Integer defuncion, List<String> libros) {}
+
+    private record PaginaJson<T>(List<T> contenido, int pagina, int tamano, boolean haySiguiente) {}
+
+    private final ConsultasCatalogo consultas;
+    private final CatalogoEnMemoria catalogo;
+    private final IndiceLibros indiceLibros;
+    private final RankingDescargas ranking;
+    private final EstadisticasDescargas estadisticas;
+    private final ImportadorCatalogo importadorCatalogo;
+    private final ImportadorCatalogoLocal importadorCatalogoLocal;
+    private final Metricas metricas;
+    private final Trabajos trabajos;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final boolean habilitada;
+    private final String direccion;
+    private final int puerto;
+    private final boolean virtuales;
+
+    // Versión del catálogo para los ETag (ver versionCatalogo); el arranque evita repetir
+    // valores entre ejecuciones
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    // Última importación lanzada desde la API
+    private record Importacion(String fuente, Trabajos.Trabajo<Map<String, Object>> trabajo) {}
+
+    private volatile Importacion importacion;
+
+    private HttpServer servidor;
+    private ExecutorService hilos;
+
+    public ServidorApi(CatalogoEnMemoria catalogo, IndiceLibros indiceLibros, RankingDescargas ranking,
+                       EstadisticasDescargas estadisticas, ImportadorCatalogo importadorCatalogo,
+                       ImportadorCatalogoLocal importadorCatalogoLocal, Metricas metricas, Trabajos trabajos,
+                       @Value("${literalura.api.habilitada:false}") boolean habilitada,
+                       @Value("${literalura.api.direccion:127.0.0.1}") String direccion,
+                       @Value("${literalura.api.puerto:8080}") int puerto,
+                       @Value("${literalura.api.hilos-virtuales:true}") boolean virtuales) {
+        this.consultas = metricas.medir(ConsultasCatalogo.class, catalogo);
+        this.catalogo = catalogo;
+        this.indiceLibros = indiceLibros;
+        this.ranking = ranking;
+        this.estadisticas = estadisticas;
+        this.importadorCatalogo = importadorCatalogo;
+        this.importadorCatalogoLocal = importadorCatalogoLocal;
+        this.metricas = metricas;
+        this.trabajos = trabajos;
+        this.habilitada = habilitada;
+        this.direccion = direccion;
+        this.puerto = puerto;
+        this.virtuales = virtuales;
+    }
+
+    // ---------------- CICLO DE VIDA ----------------
+
+    // ApplicationStartedEvent llega antes que el menú de consola (CommandLineRunner)
+    @EventListener(ApplicationStartedEvent.class)
+    public void iniciar() throws IOException {
+        if (!habilitada) {
+            return;
+        }
+        // El servidor escribe cabeceras y cuerpo por separado: con el algoritmo de Nagle
+        // el cuerpo espera el ACK retrasado del cliente (~40 ms por respuesta)
+        if (System.getProperty(SIN_DEMORA) == null) {
+            System.setProperty(SIN_DEMORA, "true");
+        }
+        hilos = Hilos.porTarea("api", virtuales);
+        servidor = HttpServer.create(new InetSocketAddress(direccion, puerto), 1024);
+        servidor.setExecutor(hilos);
+        servidor.createContext("/", this::atender);
+        servidor.start();
+        log.info("API HTTP escuchando en http://{}:{}/api", direccion, puertoLocal());
+    }
+
+    // Puerto en el que escucha (útil con literalura.api.puerto=0), o -1 si está apagada
+    public int puertoLocal() {
+        return servidor == null ? -1 : servidor.getAddress().getPort();
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (servidor != null) {
+            servidor.stop(0);
+            hilos.shutdownNow();
+        }
+    }
+
+    // Cualquier escritura confirmada invalida los ETag entregados
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alGuardar(LibrosGuardados evento) {
+        version.incrementAndGet();
+    }
+
+    @EventListener
+    public void alActualizarDescargas(DescargasActualizadas evento) {
+        version.incrementAndGet();
+    }
+
+    /*
+     Versión de lo que responden las rutas GET. "version" sube con cada escritura
+     confirmada (cubre las consultas que van a la base); las generaciones de los
+     servicios en memoria suben después de que cada uno aplicó el cambio, en el orden
+     que sea que Spring les entregue el evento. Como la versión se lee antes de
+     consultar, un cuerpo nunca es más viejo que su ETag; si un servicio todavía no
+     aplicó el cambio, su generación sube después y el ETag vuelve a cambiar.
+     Cada contador solo sube: la suma cambia si cambia cualquiera.
+    */
+    private long versionCatalogo() {
+        return version.get() + catalogo.generacion() + indiceLibros.generacion() + ranking.generacion()
+                + estadisticas.generacion();
+    }
+
+    // ---------------- PETICIONES ----------------
+
+    private void atender(HttpExchange intercambio) {
+        try (intercambio) {
+            String ruta = intercambio.getRequestURI().getPath();
+            String metodo = intercambio.getRequestMethod();
+            Map<String, String> parametros = parametros(intercambio.getRequestURI().getRawQuery());
+            String etag = "W/\"" + arranque + "-" + versionCatalogo() + "\"";
+
+            Respuesta respuesta;
+            try {
+                respuesta = responder(metodo, ruta, parametros,
+                        intercambio.getRequestHeaders().getFirst("If-None-Match"), etag);
+            } catch (IllegalArgumentException e) {
+                respuesta = error(400, e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("Error al atender {} {}", metodo, ruta, e);
+                respuesta = error(500, "Error interno");
+            }
+            enviar(intercambio, respuesta, etag);
+        } catch (IOException e) {
+            // El cliente cerró la conexión antes de recibir la respuesta
+            log.debug("No se pudo enviar la respuesta: {}", e.getMessage());
+        }
+    }
+
+    private Respuesta responder(String metodo, String ruta, Map<String, String> p, String siNoCoincide, String etag) {
+        if (ruta.equals("/api/importaciones")) {
+            return switch (metodo) {
+                case "POST" -> importar(p);
+                case "GET" -> json(200, estadoImportacion(), false);
+                case "DELETE" -> cancelarImportacion();
+                default -> error(405, "Método no permitido: " + metodo);
+            };
+        }
+        if (!metodo.equals("GET") && !metodo.equals("HEAD")) {
+            return error(405, "Método no permitido: " + metodo);
+        }
+        if (ruta.equals("/metrics")) {
+            String texto = metricas.prometheus();
+            return texto.isEmpty() ? error(404, "Métricas deshabilitadas (literalura.metricas.habilitadas=false)")
+                    : new Respuesta(200, texto.getBytes(StandardCharsets.UTF_8), PROMETHEUS, false);
+        }
+
+        Supplier<Object> consulta = consulta(ruta, p);
+        if (consulta == null) {
+            return error(404, "Ruta desconocida: " + ruta);
+        }
+        // El cliente ya tiene esta versión: no se consulta nada
+        if (siNoCoincide != null && siNoCoincide.contains(etag)) {
+            return new Respuesta(304, null, null, true);
+        }
+        return json(200, consulta.get(), true);
+    }
+
+    // La consulta de una ruta GET versionada, o null si la ruta no existe
+    private Supplier<Object> consulta(String ruta, Map<String, String> p) {
+        switch (ruta) {
+            case "/api/libros":
+                return () -> libros(consultas.listar(pagina(p)));
+            case "/api/libros/buscar": {
+                String texto = requerido(p, "q");
+                return () -> libros(indiceLibros.buscar(texto, pagina(p)));
+            }
+            case "/api/libros/top": {
+                int cantidad = entero(p, "cantidad", 10, 1, TAMANO_MAXIMO);
+                String codigo = p.get("idioma");
+                return () -> (codigo == null ? ranking.top(cantidad) : ranking.topPorIdioma(idioma(codigo), cantidad))
+                        .stream().map(ServidorApi::libro).toList();
+            }
+            case "/api/autores":
+                return () -> autores(consultas.listarAutores(pagina(p)));
+            case "/api/autores/vivos": {
+                Integer anio = p.containsKey("anio") ? entero(p, "anio", 0, Integer.MIN_VALUE, Integer.MAX_VALUE) : null;
+                int desde = anio != null ? anio : entero(p, "desde", 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                int hasta = anio != null ? anio : entero(p, "hasta", desde, desde, Integer.MAX_VALUE);
+                if (anio == null && !p.containsKey("desde")) {
+                    throw new IllegalArgumentException("Falta el parámetro 'anio' (o 'desde' y 'hasta')");
+                }
+                return () -> autores(consultas.listarAutoresVivosEntre(desde, hasta, pagina(p)));
+            }
+            case "/api/estadisticas":
+                return this::estadisticas;
+            default:
+                if (ruta.startsWith("/api/libros/idioma/")) {
+                    Idioma idioma = idioma(ruta.substring("/api/libros/idioma/".length()));
+                    return () -> libros(consultas.listarPorIdioma(idioma, pagina(p)));
+                }
+                return null;
+        }
+    }
+
+    // ---------------- IMPORTACIÓN ----------------
+
+    private Respuesta importar(Map<String, String> p) {
+        String fuente = p.getOrDefault("fuente", "gutendex");
+        Function<Avance, Map<String, Object>> tarea = switch (fuente) {
+            case "gutendex" -> avance -> {
+                ImportadorCatalogo.ResultadoImportacion r = importadorCatalogo.importar(avance);
+                return mapa("paginas", r.paginas(), "libros", r.libros(), "ultimaPagina", r.ultimaPagina(),
+                        "totalPaginas", r.totalPaginas(), "duracionMs", r.duracion().toMillis(),
+                        "librosPorSegundo", Math.round(r.librosPorSegundo() * 10) / 10.0);
+            };
+            case "local" -> {
+                // Solo el archivo configurado: la API no tiene autenticación y no debe abrir
+                // cualquier archivo del servidor que un cliente nombre
+                if (p.containsKey("archivo")) {
+                    throw new IllegalArgumentException("El parámetro 'archivo' no se acepta: se importa el archivo"
+                            + " configurado en literalura.catalogo-local.archivo");
+                }
+                Path archivo = Path.of(importadorCatalogoLocal.getArchivo());
+                yield avance -> {
+                    ImportadorCatalogoLocal.ResultadoImportacionLocal r = importadorCatalogoLocal.importar(archivo, avance);
+                    return mapa("registros", r.registros(), "descartados", r.descartados(), "libros", r.libros(),
+                            "duracionMs", r.duracion().toMillis(),
+                            "librosPorSegundo", Math.round(r.librosPorSegundo() * 10) / 10.0);
+                };
+            }
+            default -> throw new IllegalArgumentException("Fuente desconocida: " + fuente + " (gutendex o local)");
+        };
+
+        try {
+            importacion = new Importacion(fuente, trabajos.enviarUnico(Trabajos.IMPORTACION,
+                    "Importar (API, " + fuente + ")", tarea,
+                    r -> r.get("libros") + " libros nuevos · " + r.get("librosPorSegundo") + " libros/s"));
+        } catch (IllegalStateException e) {
+            return error(409, e.getMessage());
+        }
+        return json(202, estadoImportacion(), false);
+    }
+
+    private Respuesta cancelarImportacion() {
+        Importacion actual = importacion;
+        if (actual == null || !trabajos.cancelar(actual.trabajo().id())) {
+            return error(409, "No hay una importación de la API en curso");
+        }
+        return json(202, estadoImportacion(), false);
+    }
+
+    private Map<String, Object> estadoImportacion() {
+        Importacion actual = importacion;
+        if (actual == null) {
+            return mapa("estado", "sin iniciar");
+        }
+        Trabajos.Trabajo<Map<String, Object>> trabajo = actual.trabajo();
+        return switch (trabajo.estado()) {
+            case EN_COLA, EN_CURSO -> mapa("estado", trabajo.cancelado() ? "cancelando" : "en curso",
+                    "fuente", actual.fuente(), "trabajo", trabajo.id(), "avance", trabajo.detalle());
+            case TERMINADO -> mapa("estado", "terminada", "fuente", actual.fuente(), "trabajo", trabajo.id(),
+                    "resultado", trabajo.resultado());
+            case CANCELADO -> mapa("estado", "cancelada", "fuente", actual.fuente(), "trabajo", trabajo.id(),
+                    "resultado", trabajo.resultado());
+            case FALLIDO -> mapa("estado", "fallida", "fuente", actual.fuente(), "trabajo", trabajo.id(),
+                    "error", trabajo.resumen());
+        };
+    }
+
+    // ---------------- FORMAS JSON ----------------
+
+    private static PaginaJson<LibroJson> libros(Slice<LibroResumen> pagina) {
+        return new PaginaJson<>(pagina.map(ServidorApi::libro).getContent(),
+                pagina.getNumber(), pagina.getSize(), pagina.hasNext());
+    }
+
+    private static PaginaJson<AutorJson> autores(Slice<AutorResumen> pagina) {
+        return new PaginaJson<>(pagina.map(a -> new AutorJson(a.id(), a.nombre(), a.nacimiento(), a.defuncion(),
+                a.libros())).getContent(), pagina.getNumber(), pagina.getSize(), pagina.hasNext());
+    }
+
+    private static LibroJson libro(LibroResumen l) {
+        return new LibroJson(l.idLibro(), l.titulo(), l.numeroDeDescargas() != null ? l.numeroDeDescargas() : 0,
+                l.autores(), l.idiomas().stream().map(Idioma::getLenguajeGutendex).toList());
+    }
+
+    private Map<String, Object> estadisticas() {
+        EstadisticasDescargas.Resumen resumen = estadisticas.resumen();
+        Map<String, Object> porIdioma = new LinkedHashMap<>();
+        resumen.porIdioma().forEach((idioma, boceto) -> porIdioma.put(idioma.getLenguajeGutendex(), boceto(boceto)));
+        return mapa("general", boceto(resumen.general()), "porIdioma", porIdioma);
+    }
+
+    private static Map<String, Object> boceto(BocetoDescargas b) {
+        if (b.cantidad() == 0) {
+            return mapa("cantidad", 0);
+        }
+        return mapa("cantidad", b.cantidad(), "minimo", b.minimo(), "maximo", b.maximo(), "suma", b.suma(),
+                "promedio", b.promedio(), "mediana", Math.round(b.cuantil(0.5)), "p90", Math.round(b.cuantil(0.9)));
+    }
+
+    private static Map<String, Object> mapa(Object... claveValor) {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        for (int i = 0; i < claveValor.length; i += 2) {
+            mapa.put((String) claveValor[i], claveValor[i + 1]);
+        }
+        return mapa;
+    }
+
+    // ---------------- PARÁMETROS ----------------
+
+    private static Map<String, String> parametros(String consulta) {
+        Map<String, String> parametros = new HashMap<>();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String clave = URLDecoder.decode(igual < 0 ? par : par.substring(0, igual), StandardCharsets.UTF_8);
+            String valor = igual < 0 ? "" : URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8);
+            parametros.putIfAbsent(clave, valor);
+        }
+        return parametros;
+    }
+
+    private static Pageable pagina(Map<String, String> p) {
+        return PageRequest.of(entero(p, "pagina", 0, 0, 100_000),
+                entero(p, "tamano", TAMANO_POR_DEFECTO, 1, TAMANO_MAXIMO));
+    }
+
+    private static int entero(Map<String, String> p, String nombre, int porDefecto, int minimo, int maximo) {
+        String valor = p.get(nombre);
+        if (valor == null || valor.isBlank()) {
+            return porDefecto;
+        }
+        try {
+            int numero = Integer.parseInt(valor.trim());
+            if (numero < minimo || numero > maximo) {
+                throw new IllegalArgumentException("'" + nombre + "' debe estar entre " + minimo + " y " + maximo);
+            }
+            return numero;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + nombre + "' no es un número: " + valor);
+        }
+    }
+
+    private static String requerido(Map<String, String> p, String nombre) {
+        String valor = p.get(nombre);
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalArgumentException("Falta el parámetro '" + nombre + "'");
+        }
+        return valor;
+    }
+
+    private static Idioma idioma(String codigo) {
+        Idioma idioma = Idioma.desdeCodigo(codigo.trim().toLowerCase());
+        if (idioma == Idioma.DESCONOCIDO) {
+            throw new IllegalArgumentException("Código de idioma no reconocido: " + codigo);
+        }
+        return idioma;
+    }
+
+    // ---------------- RESPUESTAS ----------------
+
+    private Respuesta json(int estado, Object valor, boolean versionada) {
+        try {
+            return new Respuesta(estado, mapper.writeValueAsBytes(valor), JSON, versionada);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Respuesta error(int estado, String mensaje) {
+        return json(estado, Map.of("error", mensaje), false);
+    }
+
+    private static void enviar(HttpExchange intercambio, Respuesta r, String etag) throws IOException {
+        // Sin leer la petición hasta el final, el servidor del JDK corta la conexión
+        // keep-alive tras una respuesta sin cuerpo (304, HEAD)
+        intercambio.getRequestBody().close();
+        var cabeceras = intercambio.getResponseHeaders();
+        if (r.versionada()) {
+            cabeceras.set("ETag", etag);
+            cabeceras.set("Cache-Control", "no-cache");
+        }
+        if (r.cuerpo() == null) {
+            intercambio.sendResponseHeaders(r.estado(), -1);
+            return;
+        }
+        cabeceras.set("Content-Type", r.tipo());
+        cabeceras.set("Vary", "Accept-Encoding");
+
+        byte[] cuerpo = r.cuerpo();
+        String acepta = intercambio.getRequestHeaders().getFirst("Accept-Encoding");
+        if (cuerpo.length >= COMPRIMIR_DESDE && acepta != null && acepta.contains("gzip")) {
+            ByteArrayOutputStream comprimido = new ByteArrayOutputStream(cuerpo.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+                gzip.write(cuerpo);
+            }
+            cuerpo = comprimido.toByteArray();
+            cabeceras.set("Content-Encoding", "gzip");
+        }
+        boolean sinCuerpo = intercambio.getRequestMethod().equals("HEAD");
+        intercambio.sendResponseHeaders(r.estado(), sinCuerpo ? -1 : cuerpo.length);
+        if (!sinCuerpo) {
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.aluracursos.literalura.config;
+// Paquete de configuración de Spring.
+
+import com.aluracursos.literalura.service.Metricas;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocationResult.State;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ Tiempo de cada método de repositorio (literalura.bd.consultas).
+
+ Spring Data ya mide cada invocación cuando el repositorio tiene un
+ RepositoryMethodInvocationListener (lo mismo que usa Actuator); aquí se le
+ agrega uno que pasa la duración a Metricas.
+
+ Con literalura.metricas.habilitadas=false no se agrega el oyente, y Spring
+ Data no mide nada: el costo es cero.
+*/
+@Configuration
+public class MetricasConfig {
+
+    // static: los BeanPostProcessor se crean antes que el resto de los beans
+    @Bean
+    public static BeanPostProcessor metricasRepositorios(Environment entorno, ObjectProvider<Metricas> metricas) {
+        boolean habilitadas = entorno.getProperty("literalura.metricas.habilitadas", Boolean.class, false);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String nombre) {
+                if (habilitadas && bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositorio) {
+                    RepositoryMethodInvocationListener oyente = invocacion -> metricas.getObject().consultaBd(
+                            invocacion.getRepositoryInterface(), invocacion.getMethod(),
+                            invocacion.getDuration(TimeUnit.NANOSECONDS),
+                            invocacion.getResult().getState() == State.SUCCESS);
+                    repositorio.addRepositoryFactoryCustomizer(fabrica -> fabrica.addInvocationListener(oyente));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,264 @@
+package com.aluracursos.literalura.config;
+// Paquete de configuración de Spring.
+
+import com.aluracursos.literalura.model.Idioma;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/*
+ Ajustes de esquema que "ddl-auto=update" no sabe hacer por sí solo.
+ Se ejecuta al arrancar, ANTES del menú de consola, y solo sobre PostgreSQL
+ (las bases embebidas de pruebas se crean desde cero y no los necesitan).
+
+ Cada paso es idempotente: se puede ejecutar en cada arranque.
+*/
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MigracionEsquema implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionEsquema.class);
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbc;
+
+    public MigracionEsquema(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!esPostgres()) {
+            return;
+        }
+        ajustarSecuencia("libros_seq", "libros", "id_libro");
+        ajustarSecuencia("autores_seq", "autores", "id");
+        normalizarAutores();
+        crearIndiceUnicoAutores();
+        pasarIdiomasAMascara();
+        crearIndicesPorIdioma();
+        crearIndiceTrigramasTitulo();
+    }
+
+    /*
+     bitand(idiomas_mascara, bit) <> 0 no puede usar un índice común: sin
+     ayuda, filtrar por un idioma poco frecuente (latín, japonés) recorre
+     toda la tabla por orden de título o de descargas sin llenar la página.
+     Por cada idioma se crean dos índices parciales, uno por cada orden de
+     los listados (ver LibroRepository):
+     ✔ (titulo) y (numero_de_descargas DESC, titulo)
+     ✔ WHERE (idiomas_mascara & bit) <> 0, la misma expresión que genera
+       bitand; PostgreSQL planifica esas consultas con el valor del bit
+       (plan "custom") y reconoce el índice del idioma pedido
+     Cada índice guarda solo los libros de su idioma: guardar un libro
+     actualiza los índices de sus idiomas (uno o dos), no los de todos.
+    */
+    private void crearIndicesPorIdioma() {
+        try {
+            for (Idioma idioma : Idioma.values()) {
+                String nombre = "idx_libro_idioma_" + idioma.getLenguajeGutendex();
+                String filtro = " WHERE (idiomas_mascara & " + idioma.bit() + ") <> 0";
+                jdbc.execute("CREATE INDEX IF NOT EXISTS " + nombre + "_titulo"
+                        + " ON libros (titulo)" + filtro);
+                jdbc.execute("CREATE INDEX IF NOT EXISTS " + nombre + "_descargas"
+                        + " ON libros (numero_de_descargas DESC, titulo)" + filtro);
+            }
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron crear los índices por idioma: {}", e.getMessage());
+        }
+    }
+
+    /*
+     Índice de trigramas (extensión pg_trgm) sobre lower(titulo).
+     Permite que la búsqueda "contiene" (lower(titulo) LIKE '%texto%')
+     use un índice en lugar de recorrer toda la tabla.
+     Crear la extensión requiere permisos; si no los hay, la búsqueda
+     sigue funcionando, solo que sin índice.
+    */
+    private void crearIndiceTrigramasTitulo() {
+        try {
+            jdbc.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbc.execute("CREATE INDEX IF NOT EXISTS idx_libros_titulo_trgm"
+                    + " ON libros USING gin (lower(titulo) gin_trgm_ops)");
+        } catch (DataAccessException e) {
+            log.warn("No se pudo crear el índice de trigramas de títulos: {}", e.getMessage());
+        }
+    }
+
+    /*
+     Antes cada libro guardaba su propia copia de sus autores
+     (columna autores.libro_id_libro). Si esa columna todavía existe:
+     1. se crean los vínculos en libro_autor apuntando a una copia "canónica"
+        de cada autor (el menor id por nombre + años)
+     2. se borran las copias repetidas
+     3. se elimina la columna vieja y se crea la restricción UNIQUE
+        (ddl-auto no pudo crearla mientras había duplicados)
+     Todo en una sola transacción: si algo falla, la base queda como estaba.
+    */
+    private void normalizarAutores() {
+        if (!existeColumna("autores", "libro_id_libro")) {
+            return;
+        }
+        log.info("Migrando autores a la tabla intermedia libro_autor...");
+
+        String mismaClave = " a.nombre IS NOT DISTINCT FROM c.nombre"
+                + " AND a.fecha_de_nacimiento IS NOT DISTINCT FROM c.fecha_de_nacimiento"
+                + " AND a.fecha_de_defuncion IS NOT DISTINCT FROM c.fecha_de_defuncion";
+
+        ejecutarEnTransaccion(
+                "INSERT INTO libro_autor (libro_id_libro, autor_id)"
+                        + " SELECT DISTINCT a.libro_id_libro, c.id_canonico FROM autores a"
+                        + " JOIN (SELECT MIN(id) AS id_canonico, nombre, fecha_de_nacimiento, fecha_de_defuncion"
+                        + "       FROM autores GROUP BY nombre, fecha_de_nacimiento, fecha_de_defuncion) c"
+                        + " ON" + mismaClave
+                        + " WHERE a.libro_id_libro IS NOT NULL"
+                        + " AND NOT EXISTS (SELECT 1 FROM libro_autor la"
+                        + "     WHERE la.libro_id_libro = a.libro_id_libro AND la.autor_id = c.id_canonico)",
+                "DELETE FROM autores a USING autores c WHERE" + mismaClave + " AND a.id > c.id",
+                "ALTER TABLE autores DROP COLUMN libro_id_libro",
+                "ALTER TABLE autores DROP CONSTRAINT IF EXISTS uk_autor_nombre_fechas",
+                "ALTER TABLE autores ADD CONSTRAINT uk_autor_nombre_fechas"
+                        + " UNIQUE (nombre, fecha_de_nacimiento, fecha_de_defuncion)");
+
+        log.info("Autores normalizados.");
+    }
+
+    /*
+     En PostgreSQL, UNIQUE (nombre, fecha_de_nacimiento, fecha_de_defuncion)
+     considera distintos dos NULL: no impide repetir los autores con algún año
+     desconocido, que en Gutenberg son muchos. Se agrega un índice único
+     sobre los años con coalesce (sirve en cualquier versión; NULLS NOT
+     DISTINCT pide PostgreSQL 15). Si el índice todavía no existe:
+     1. los libros de cada copia repetida pasan a la copia "canónica"
+        (el menor id por nombre + años, con NULL igual a NULL)
+     2. se borran las copias y se crea el índice
+     Todo en una sola transacción.
+    */
+    private void crearIndiceUnicoAutores() {
+        if (existeIndice("uk_autor_clave")) {
+            return;
+        }
+        String canonico = "SELECT a.id, c.id_canonico FROM autores a"
+                + " JOIN (SELECT MIN(id) AS id_canonico, nombre, fecha_de_nacimiento, fecha_de_defuncion"
+                + "       FROM autores GROUP BY nombre, fecha_de_nacimiento, fecha_de_defuncion) c"
+                + " ON a.nombre IS NOT DISTINCT FROM c.nombre"
+                + " AND a.fecha_de_nacimiento IS NOT DISTINCT FROM c.fecha_de_nacimiento"
+                + " AND a.fecha_de_defuncion IS NOT DISTINCT FROM c.fecha_de_defuncion"
+                + " WHERE a.id <> c.id_canonico";
+
+        ejecutarEnTransaccion(
+                "INSERT INTO libro_autor (libro_id_libro, autor_id)"
+                        + " SELECT DISTINCT la.libro_id_libro, r.id_canonico FROM libro_autor la"
+                        + " JOIN (" + canonico + ") r ON la.autor_id = r.id"
+                        + " WHERE NOT EXISTS (SELECT 1 FROM libro_autor x"
+                        + "     WHERE x.libro_id_libro = la.libro_id_libro AND x.autor_id = r.id_canonico)",
+                "DELETE FROM libro_autor WHERE autor_id IN (SELECT id FROM (" + canonico + ") r)",
+                "DELETE FROM autores WHERE id IN (SELECT id FROM (" + canonico + ") r)",
+                "CREATE UNIQUE INDEX uk_autor_clave ON autores (nombre,"
+                        + " coalesce(fecha_de_nacimiento, " + Integer.MIN_VALUE + "),"
+                        + " coalesce(fecha_de_defuncion, " + Integer.MIN_VALUE + "))");
+    }
+
+    /*
+     Antes los idiomas de cada libro estaban en la tabla libro_idiomas
+     (una fila por idioma, con el nombre del enum). Si esa tabla todavía existe:
+     1. se llena libros.idiomas_mascara (ddl-auto ya la agregó con DEFAULT 0)
+        con el bit de cada idioma; un nombre desconocido cuenta como DESCONOCIDO
+     2. se borra la tabla vieja
+     Todo en una sola transacción.
+    */
+    private void pasarIdiomasAMascara() {
+        if (!existeTabla("libro_idiomas")) {
+            return;
+        }
+        log.info("Migrando idiomas a la columna libros.idiomas_mascara...");
+
+        StringBuilder bit = new StringBuilder("CASE i.idiomas");
+        for (Idioma idioma : Idioma.values()) {
+            bit.append(" WHEN '").append(idioma.name()).append("' THEN ").append(idioma.bit());
+        }
+        bit.append(" ELSE ").append(Idioma.DESCONOCIDO.bit()).append(" END");
+
+        ejecutarEnTransaccion(
+                "UPDATE libros l SET idiomas_mascara = m.mascara"
+                        + " FROM (SELECT i.libro_id_libro, bit_or(" + bit + ") AS mascara"
+                        + "       FROM libro_idiomas i GROUP BY i.libro_id_libro) m"
+                        + " WHERE l.id_libro = m.libro_id_libro",
+                "DROP TABLE libro_idiomas");
+
+        log.info("Idiomas migrados.");
+    }
+
+    private boolean existeTabla(String tabla) {
+        Integer cantidad = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_name = ?", Integer.class, tabla);
+        return cantidad != null && cantidad > 0;
+    }
+
+    private boolean existeIndice(String indice) {
+        Integer cantidad = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM pg_indexes WHERE indexname = ?", Integer.class, indice);
+        return cantidad != null && cantidad > 0;
+    }
+
+    private boolean existeColumna(String tabla, String columna) {
+        Integer cantidad = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_name = ? AND column_name = ?",
+                Integer.class, tabla, columna);
+        return cantidad != null && cantidad > 0;
+    }
+
+    // Ejecuta las sentencias en orden dentro de una única transacción
+    private void ejecutarEnTransaccion(String... sentencias) {
+        try (Connection conexion = dataSource.getConnection()) {
+            conexion.setAutoCommit(false);
+            try (Statement st = conexion.createStatement()) {
+                for (String sentencia : sentencias) {
+                    st.execute(sentencia);
+                }
+                conexion.commit();
+            } catch (SQLException e) {
+                conexion.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("La migración de esquema falló y se revirtió: {}", e.getMessage());
+        }
+    }
+
+    /*
+     Las tablas creadas cuando los ids eran IDENTITY ya tienen filas;
+     la secuencia nueva empezaría en 1 y chocaría con ellas.
+     Si el mayor id guardado supera el último valor de la secuencia,
+     se adelanta la secuencia hasta ese id.
+    */
+    private void ajustarSecuencia(String secuencia, String tabla, String columna) {
+        try {
+            jdbc.queryForList(
+                    "SELECT setval('" + secuencia + "', t.m) FROM (SELECT MAX(" + columna + ") AS m FROM " + tabla + ") t"
+                            + " WHERE t.m > (SELECT last_value FROM " + secuencia + ")");
+        } catch (DataAccessException e) {
+            log.warn("No se pudo ajustar la secuencia {}: {}", secuencia, e.getMessage());
+        }
+    }
+
+    private boolean esPostgres() {
+        try (Connection conexion = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(conexion.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
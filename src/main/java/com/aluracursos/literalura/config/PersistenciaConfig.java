@@ -0,0 +1,34 @@
+package com.aluracursos.literalura.config;
+// Paquete de configuración de Spring.
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ Ajustes de Hibernate para escrituras de alto volumen.
+ Se definen en código para no depender del application.properties
+ de cada usuario (que solo debe contener los datos de conexión).
+
+ ✔ hibernate.jdbc.batch_size: agrupa los INSERT/UPDATE en lotes JDBC
+ ✔ order_inserts / order_updates: ordena las sentencias por tabla
+   para que los lotes no se corten al alternar libros, autores y libro_autor
+ ✔ batch_versioned_data: permite lotes también en entidades versionadas
+
+ El tamaño del lote se puede cambiar con literalura.jpa.tamano-lote.
+ Debe coincidir con el allocationSize de las secuencias de Libro y Autor.
+*/
+@Configuration
+public class PersistenciaConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer lotesJdbc(@Value("${literalura.jpa.tamano-lote:50}") int tamanoLote) {
+        return propiedades -> {
+            propiedades.putIfAbsent("hibernate.jdbc.batch_size", tamanoLote);
+            propiedades.putIfAbsent("hibernate.order_inserts", true);
+            propiedades.putIfAbsent("hibernate.order_updates", true);
+            propiedades.putIfAbsent("hibernate.jdbc.batch_versioned_data", true);
+        };
+    }
+}
@@ -2,16 +2,29 @@ package com.aluracursos.literalura.model;
 
 import jakarta.persistence.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 // Indica que esta clase es una entidad JPA (se mapeará a una tabla en la BD)
 @Entity
-// Nombre de la tabla en la base de datos
-@Table(name = "autores")
+// Nombre de la tabla en la base de datos.
+// Cada autor se guarda UNA sola vez: la combinación nombre + años lo identifica.
+// (En PostgreSQL esta restricción deja repetir los NULL; el índice único con los
+// años desconocidos incluidos lo crea MigracionEsquema.)
+// El índice por (nacimiento, defunción) sirve a la consulta "autores vivos en un año":
+// recorre solo el tramo de nacidos hasta ese año y filtra la defunción dentro del índice.
+@Table(name = "autores", uniqueConstraints = @UniqueConstraint(
+        name = "uk_autor_nombre_fechas",
+        columnNames = {"nombre", "fecha_de_nacimiento", "fecha_de_defuncion"}),
+        indexes = @Index(name = "idx_autor_vida", columnList = "fecha_de_nacimiento, fecha_de_defuncion"))
 public class Autor {
 
     // Clave primaria de la tabla
     @Id
-    // El ID se genera automáticamente (auto incremental)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // El ID sale de la secuencia "autores_seq" en bloques de 50,
+    // lo que permite insertar autores en lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "autores_seq")
+    @SequenceGenerator(name = "autores_seq", sequenceName = "autores_seq", allocationSize = 50)
     private Long id; // JPA necesita un ID propio para la tabla de autores
 
     // Nombre completo del autor
@@ -23,11 +36,10 @@ public class Autor {
     // Año de defunción del autor (puede ser null si sigue vivo)
     private Integer fechaDeDefuncion;
 
-    // Muchos autores pueden estar asociados a un mismo libro
-    @ManyToOne
-    // Define la columna de la clave foránea que apunta a la tabla libros
-    @JoinColumn(name = "libro_id_libro") // Fuerza a JPA a usar exactamente esta columna
-    private Libro libro;
+    // Libros escritos por este autor.
+    // La relación muchos a muchos la controla Libro (tabla intermedia libro_autor).
+    @ManyToMany(mappedBy = "autores")
+    private List<Libro> libros = new ArrayList<>();
 
     // Constructor vacío obligatorio para JPA
     public Autor() {}
@@ -79,14 +91,9 @@ public class Autor {
         this.fechaDeDefuncion = fechaDeDefuncion;
     }
 
-    // Getter del libro asociado
-    public Libro getLibro() {
-        return libro;
-    }
-
-    // Setter del libro asociado
-    public void setLibro(Libro libro) {
-        this.libro = libro;
+    // Getter de los libros del autor
+    public List<Libro> getLibros() {
+        return libros;
     }
 
     // Representación en texto del autor (usada al imprimir en consola)
@@ -0,0 +1,20 @@
+package com.aluracursos.literalura.model;
+
+import java.util.List;
+
+/*
+ Vista liviana de un autor para las pantallas de listado.
+ Igual que LibroResumen, no es una entidad: se arma con proyecciones
+ o desde el catálogo en memoria.
+
+ ✔ nacimiento y defuncion pueden ser null (año desconocido)
+ ✔ libros contiene solo los títulos
+*/
+public record AutorResumen(
+        Long id,
+        String nombre,
+        Integer nacimiento,
+        Integer defuncion,
+        List<String> libros
+) {
+}
@@ -6,13 +6,19 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.util.List;
 
 // Ignora cualquier propiedad del JSON que no esté definida en este record
-// (por ejemplo: "count", "next", "previous")
+// (por ejemplo: "previous")
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record Datos(
 
         // Mapea la clave "results" del JSON de la API Gutendex
         // hacia esta lista de objetos DatosLibro
-        @JsonAlias("results") List<DatosLibro> resultados
+        @JsonAlias("results") List<DatosLibro> resultados,
+
+        // Total de libros que coinciden con la consulta (todas las páginas)
+        @JsonAlias("count") Integer total,
+
+        // URL de la página siguiente (null en la última página)
+        @JsonAlias("next") String siguiente
 
 ) {
 }
@@ -30,7 +36,8 @@ public record Datos(
    ]
  }
 
- - Solo nos interesa "results", por eso:
-   ✔ usamos @JsonAlias("results")
+ - Nos interesan "results", "count" y "next", por eso:
+   ✔ usamos @JsonAlias para cada una
    ✔ ignoramos las demás claves con @JsonIgnoreProperties
+ - "count" y "next" permiten recorrer el catálogo completo página a página
 */
\ No newline at end of file
@@ -1,11 +1,21 @@
 package com.aluracursos.literalura.model;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 /*
  Enum que representa los idiomas soportados por la aplicación.
  Se usa para:
  ✔ traducir los códigos ISO de la API Gutendex (es, en, fr, etc.)
  ✔ mostrar los idiomas de forma amigable al usuario
  ✔ evitar Strings sueltos y errores tipográficos
+
+ Los idiomas de un libro se guardan como máscara de bits (bit i = idioma con
+ ordinal i, ver Libro.idiomas). Por eso el ORDEN de las constantes es parte
+ del formato guardado: no reordenar ni borrar; los idiomas nuevos se agregan
+ al final, hasta un máximo de 16 (columna smallint).
 */
 public enum Idioma {
 
@@ -41,19 +51,107 @@ public enum Idioma {
     }
 
     /*
-     Convierte un String ingresado por el usuario o recibido desde la API
+     Tabla de búsqueda por código de dos letras, armada una sola vez:
+     posición (primera letra - 'a') * 26 + (segunda letra - 'a').
+     Evita recorrer Idioma.values() (que copia el arreglo en cada llamada)
+     y comparar con equalsIgnoreCase contra cada constante.
+    */
+    private static final Idioma[] POR_CODIGO = new Idioma[26 * 26];
+
+    private static final Idioma[] TODOS = values();
+
+    // SOLO.get(i): lista con el idioma de ordinal i, el caso de casi todos los libros
+    private static final List<List<Idioma>> SOLO;
+
+    static {
+        if (TODOS.length > 16) {
+            throw new IllegalStateException("La máscara de idiomas es un smallint: como mucho 16 idiomas");
+        }
+        List<List<Idioma>> solo = new ArrayList<>(TODOS.length);
+        for (Idioma idioma : TODOS) {
+            String codigo = idioma.lenguajeGutendex;
+            if (codigo.length() == 2) {
+                POR_CODIGO[(codigo.charAt(0) - 'a') * 26 + (codigo.charAt(1) - 'a')] = idioma;
+            }
+            solo.add(List.of(idioma));
+        }
+        SOLO = List.copyOf(solo);
+    }
+
+    /*
+     Idioma de un código de Gutendex ("es", "EN"...), sin distinguir mayúsculas.
+     Un código desconocido (o nulo) devuelve DESCONOCIDO: no lanza excepciones
+     ni crea objetos, porque se llama por cada idioma de cada libro importado.
+    */
+    public static Idioma desdeCodigo(String codigo) {
+        if (codigo == null || codigo.length() != 2) {
+            return DESCONOCIDO;
+        }
+        int primera = letra(codigo.charAt(0));
+        int segunda = letra(codigo.charAt(1));
+        if (primera < 0 || segunda < 0) {
+            return DESCONOCIDO;
+        }
+        Idioma idioma = POR_CODIGO[primera * 26 + segunda];
+        return idioma != null ? idioma : DESCONOCIDO;
+    }
+
+    // Posición de una letra ASCII en el alfabeto (0 a 25, sin importar mayúsculas) o -1
+    private static int letra(char c) {
+        int minuscula = (c | 0x20) - 'a';
+        return minuscula >= 0 && minuscula < 26 ? minuscula : -1;
+    }
+
+    /*
+     Convierte un String ingresado por el usuario
      (por ejemplo "es" o "en") al enum correspondiente.
-     Si no existe coincidencia, lanza una excepción.
+     Si no existe coincidencia, lanza una excepción: en el menú
+     un código mal escrito es un error que hay que informar.
     */
     public static Idioma fromString(String text) {
-        for (Idioma idioma : Idioma.values()) {
-            // Compara el código del enum con el texto recibido
-            if (idioma.lenguajeGutendex.equalsIgnoreCase(text)) {
-                return idioma;
-            }
+        Idioma idioma = desdeCodigo(text);
+        if (idioma == DESCONOCIDO && !DESCONOCIDO.lenguajeGutendex.equalsIgnoreCase(text)) {
+            throw new IllegalArgumentException("Ningún idioma encontrado para: " + text);
         }
-        // Se lanza excepción si el código no corresponde a ningún idioma válido
-        throw new IllegalArgumentException("Ningún idioma encontrado para: " + text);
+        return idioma;
+    }
+
+    // Bit de este idioma en la máscara
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    // Máscara con los idiomas indicados
+    public static short mascara(Collection<Idioma> idiomas) {
+        int mascara = 0;
+        for (Idioma idioma : idiomas) {
+            mascara |= idioma.bit();
+        }
+        return (short) mascara;
+    }
+
+    /*
+     Idiomas de una máscara, en el orden en que están declarados.
+     Con un solo idioma devuelve una lista compartida, sin crear objetos.
+    */
+    public static List<Idioma> deMascara(int mascara) {
+        mascara &= 0xFFFF;
+        if (mascara == 0) {
+            return List.of();
+        }
+        if ((mascara & (mascara - 1)) == 0) {
+            return SOLO.get(Integer.numberOfTrailingZeros(mascara));
+        }
+        List<Idioma> idiomas = new ArrayList<>(Integer.bitCount(mascara));
+        for (int resto = mascara; resto != 0; resto &= resto - 1) {
+            idiomas.add(TODOS[Integer.numberOfTrailingZeros(resto)]);
+        }
+        return Collections.unmodifiableList(idiomas);
+    }
+
+    // Código de Gutendex ("es", "en"...)
+    public String getLenguajeGutendex() {
+        return lenguajeGutendex;
     }
 
     /*
@@ -1,7 +1,9 @@
 package com.aluracursos.literalura.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.util.ArrayList; // Se usa explícitamente para asegurar listas mutables
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -13,20 +15,39 @@ import java.util.stream.Collectors;
  ✔ mapear datos provenientes de la API (DatosLibro → Libro)
 */
 @Entity
-@Table(name = "libros")
+@Table(name = "libros",
+        // Índice único sobre el id de Gutendex: la detección de duplicados
+        // es una búsqueda exacta por índice en lugar de un LIKE sobre el título.
+        // El índice por descargas permite leer los más descargados con ORDER BY ... LIMIT
+        // sin ordenar toda la tabla.
+        indexes = {
+                @Index(name = "uk_libro_id_gutendex", columnList = "id", unique = true),
+                @Index(name = "idx_libro_descargas", columnList = "numero_de_descargas DESC, titulo")
+        })
+/*
+ Plan de carga para las pantallas que muestran el detalle completo:
+ trae los autores en la misma consulta (JOIN FETCH).
+ Los idiomas son una columna de la fila (máscara), llegan siempre.
+ Se usa con @EntityGraph("Libro.detalle") en el repositorio.
+*/
+@NamedEntityGraph(name = "Libro.detalle", attributeNodes = @NamedAttributeNode("autores"))
 public class Libro {
 
     /*
      ID primario de la tabla "libros".
-     Es generado automáticamente por la base de datos.
+     Se obtiene de la secuencia "libros_seq" reservando bloques de 50 valores:
+     Hibernate asigna los ids en memoria y puede agrupar los INSERT en lotes JDBC
+     (con IDENTITY necesitaría un viaje a la base de datos por cada fila).
     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "libros_seq")
+    @SequenceGenerator(name = "libros_seq", sequenceName = "libros_seq", allocationSize = 50)
     private Long idLibro;
 
     /*
      ID del libro proveniente de la API Gutendex.
-     No es clave primaria en la base de datos.
+     No es clave primaria en la base de datos, pero es único
+     (índice uk_libro_id_gutendex) y es la clave para evitar duplicados.
     */
     private Integer id;
 
@@ -38,23 +59,42 @@ public class Libro {
     private String titulo;
 
     /*
-     Relación uno a muchos con Autor.
-     - mappedBy: la relación es controlada desde la entidad Autor
-     - cascade: permite guardar autores automáticamente al guardar el libro
-     - fetch EAGER: carga los autores junto con el libro
+     Relación muchos a muchos con Autor.
+     - Un autor se guarda una sola vez y lo comparten todos sus libros
+     - JoinTable: tabla intermedia libro_autor (libro_id_libro, autor_id)
+     - Sin cascade: los autores nuevos los persiste PersistenciaLotes,
+       que antes reutiliza los que ya existen (ver CacheAutores)
+     - fetch LAZY: los autores solo se cargan cuando la consulta lo pide
+       (entity graph "Libro.detalle" o proyecciones de LibroResumen)
+     - índices en ambas columnas: al ser una lista, la tabla no tiene clave
+       primaria y sin ellos cada JOIN recorrería la tabla entera
     */
-    @OneToMany(mappedBy = "libro", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "libro_autor",
+            joinColumns = @JoinColumn(name = "libro_id_libro"),
+            inverseJoinColumns = @JoinColumn(name = "autor_id"),
+            indexes = {
+                    @Index(name = "idx_libro_autor_libro", columnList = "libro_id_libro"),
+                    @Index(name = "idx_libro_autor_autor", columnList = "autor_id")
+            })
     private List<Autor> autores;
 
     /*
-     Colección de enums Idioma.
-     - ElementCollection crea una tabla intermedia
-     - EnumType.STRING guarda el nombre del enum (ESPANOL, INGLES, etc.)
-     - fetch EAGER carga los idiomas junto con el libro
+     Idiomas del libro como máscara de bits (bit i = Idioma con ordinal i,
+     ver Idioma.deMascara) en una columna smallint de la propia tabla libros.
+     - sin tabla intermedia: guardar un libro es un solo INSERT y leerlo no
+       necesita otra consulta ni carga perezosa
+     - el filtro por idioma es bitand(idiomas_mascara, bit) <> 0; en PostgreSQL
+       cada idioma tiene índices parciales por título y por descargas
+       (MigracionEsquema), así que un idioma poco frecuente no recorre toda
+       la tabla; en H2 los listados recorren el índice de su orden y se
+       detienen al llenar la página
+     - DEFAULT 0 para que ddl-auto=update pueda agregar la columna a una tabla
+       con filas (MigracionEsquema la llena desde la tabla vieja libro_idiomas)
     */
-    @ElementCollection(fetch = FetchType.EAGER)
-    @Enumerated(EnumType.STRING)
-    private List<Idioma> idiomas;
+    @Column(name = "idiomas_mascara", nullable = false)
+    @ColumnDefault("0")
+    private short idiomas;
 
     /*
      Número total de descargas del libro.
@@ -79,36 +119,26 @@ public class Libro {
         /*
          Mapeo de autores:
          - Se convierte cada DatosAutor en Autor
-         - Se establece la relación bidireccional con el libro
+         - Al guardar, los autores ya existentes se sustituyen por su id
          - Se usa ArrayList para asegurar que la colección sea mutable
         */
         this.autores = datosLibro.autores().stream()
-                .map(a -> {
-                    Autor autor = new Autor(a);
-                    autor.setLibro(this); // Relación inversa
-                    return autor;
-                })
+                .map(Autor::new)
                 .collect(Collectors.toCollection(ArrayList::new));
 
         /*
          Mapeo de idiomas:
-         - Convierte Strings ("es", "en") al enum Idioma
-         - Si el idioma no existe, se asigna DESCONOCIDO
-         - Evita listas nulas
+         - Convierte Strings ("es", "en") al bit del enum Idioma
+         - Si el idioma no existe, se marca DESCONOCIDO (sin excepciones)
+         - Sin idiomas, la máscara queda en 0
         */
-        if (datosLibro.idiomas() != null && !datosLibro.idiomas().isEmpty()) {
-            this.idiomas = datosLibro.idiomas().stream()
-                    .map(i -> {
-                        try {
-                            return Idioma.fromString(i);
-                        } catch (IllegalArgumentException e) {
-                            return Idioma.DESCONOCIDO;
-                        }
-                    })
-                    .collect(Collectors.toCollection(ArrayList::new));
-        } else {
-            this.idiomas = new ArrayList<>();
+        int mascara = 0;
+        if (datosLibro.idiomas() != null) {
+            for (String codigo : datosLibro.idiomas()) {
+                mascara |= Idioma.desdeCodigo(codigo).bit();
+            }
         }
+        this.idiomas = (short) mascara;
 
         // Descargas (valor por defecto 0.0 si viene nulo)
         this.numeroDeDescargas =
@@ -128,19 +158,12 @@ public class Libro {
 
     public List<Autor> getAutores() { return autores; }
 
-    /*
-     Al asignar autores manualmente,
-     se asegura la relación bidireccional correcta.
-    */
-    public void setAutores(List<Autor> autores) {
-        if (autores != null) {
-            autores.forEach(a -> a.setLibro(this));
-        }
-        this.autores = autores;
-    }
+    public void setAutores(List<Autor> autores) { this.autores = autores; }
+
+    public List<Idioma> getIdiomas() { return Idioma.deMascara(idiomas); }
+    public void setIdiomas(Collection<Idioma> idiomas) { this.idiomas = Idioma.mascara(idiomas); }
 
-    public List<Idioma> getIdiomas() { return idiomas; }
-    public void setIdiomas(List<Idioma> idiomas) { this.idiomas = idiomas; }
+    public short getIdiomasMascara() { return idiomas; }
 
     public Double getNumeroDeDescargas() { return numeroDeDescargas; }
     public void setNumeroDeDescargas(Double numeroDeDescargas) {
@@ -159,6 +182,6 @@ public class Libro {
                 | Idiomas en BDD: %s
                 | Descargas: %.1f
                 | ---------------------------""",
-                titulo, idiomas, numeroDeDescargas);
+                titulo, getIdiomas(), numeroDeDescargas);
     }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.aluracursos.literalura.model;
+
+import java.util.List;
+
+/*
+ Vista liviana de un libro para las pantallas de listado.
+ No es una entidad JPA: se arma con proyecciones (solo las columnas necesarias),
+ sin cargar entidades Autor ni colecciones perezosas.
+
+ ✔ idLibro, titulo y numeroDeDescargas vienen de la tabla libros
+ ✔ autores contiene solo los nombres
+ ✔ idiomas contiene los enums del libro
+*/
+public record LibroResumen(
+        Long idLibro,
+        String titulo,
+        Double numeroDeDescargas,
+        List<String> autores,
+        List<Idioma> idiomas
+) {
+
+    /*
+     Construye el resumen a partir de una entidad cuyas colecciones
+     ya están cargadas (por ejemplo, un libro recién guardado).
+    */
+    public static LibroResumen de(Libro libro) {
+        return new LibroResumen(
+                libro.getIdLibro(),
+                libro.getTitulo(),
+                libro.getNumeroDeDescargas(),
+                libro.getAutores() == null ? List.of()
+                        : libro.getAutores().stream().map(Autor::getNombre).toList(),
+                libro.getIdiomas() == null ? List.of() : List.copyOf(libro.getIdiomas()));
+    }
+}
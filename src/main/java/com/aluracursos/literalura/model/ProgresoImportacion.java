@@ -0,0 +1,54 @@
+package com.aluracursos.literalura.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/*
+ Entidad JPA que guarda hasta dónde llegó una importación masiva.
+ Se actualiza en la MISMA transacción que los libros de cada página,
+ por lo que si el proceso se interrumpe se puede reanudar
+ desde la última página confirmada sin perder ni duplicar libros.
+*/
+@Entity
+@Table(name = "progreso_importacion")
+public class ProgresoImportacion {
+
+    /*
+     Nombre del proceso de importación (por ejemplo "catalogo-gutendex-por-id").
+     Funciona como clave primaria: hay una fila por proceso.
+    */
+    @Id
+    private String proceso;
+
+    // Última página cuyos libros ya están guardados en la base de datos
+    private Integer ultimaPaginaConfirmada;
+
+    // Total de páginas conocido en la última ejecución
+    private Integer totalPaginas;
+
+    // Fecha y hora de la última actualización
+    private LocalDateTime actualizado;
+
+    // Constructor vacío obligatorio para JPA
+    public ProgresoImportacion() {}
+
+    public ProgresoImportacion(String proceso) {
+        this.proceso = proceso;
+        this.ultimaPaginaConfirmada = 0;
+    }
+
+    // ---------------- GETTERS Y SETTERS ----------------
+
+    public String getProceso() { return proceso; }
+
+    public Integer getUltimaPaginaConfirmada() { return ultimaPaginaConfirmada; }
+    public void setUltimaPaginaConfirmada(Integer ultimaPaginaConfirmada) {
+        this.ultimaPaginaConfirmada = ultimaPaginaConfirmada;
+        this.actualizado = LocalDateTime.now();
+    }
+
+    public Integer getTotalPaginas() { return totalPaginas; }
+    public void setTotalPaginas(Integer totalPaginas) { this.totalPaginas = totalPaginas; }
+
+    public LocalDateTime getActualizado() { return actualizado; }
+}
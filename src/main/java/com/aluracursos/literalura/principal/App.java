@@ -4,38 +4,94 @@ package com.aluracursos.literalura.principal;
 import com.aluracursos.literalura.model.*;
 // Importa todas las entidades y records del modelo (Libro, Autor, Idioma, Datos, etc.)
 
-import com.aluracursos.literalura.repository.AutorRepository;
-import com.aluracursos.literalura.repository.LibroRepository;
-// Repositorios JPA para acceder a la base de datos
-
-import com.aluracursos.literalura.service.ConsumoAPI;
-import com.aluracursos.literalura.service.ConvierteDatos;
+import com.aluracursos.literalura.service.ActualizadorDescargas;
+import com.aluracursos.literalura.service.ConsultaLibros;
+import com.aluracursos.literalura.service.ConsultasCatalogo;
+import com.aluracursos.literalura.service.BocetoDescargas;
+import com.aluracursos.literalura.service.BuscadorLibros;
+import com.aluracursos.literalura.service.ErrorGutendex;
+import com.aluracursos.literalura.service.EstadisticasDescargas;
+import com.aluracursos.literalura.service.ImportadorCatalogo;
+import com.aluracursos.literalura.service.ImportadorCatalogoLocal;
+import com.aluracursos.literalura.service.IndiceLibros;
+import com.aluracursos.literalura.service.PersistenciaLotes;
+import com.aluracursos.literalura.service.RankingDescargas;
+import com.aluracursos.literalura.service.Trabajos;
 // Servicios para consumir la API externa y convertir JSON a objetos Java
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+// Paginación de Spring Data para no cargar listados completos en memoria
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Collectors;
 // Utilidades de Java: listas, opcionales, estadísticas y streams
 
 public class App {
 
-    // Servicio que se encarga de hacer peticiones HTTP a la API Gutendex
-    private final ConsumoAPI consumoAPI = new ConsumoAPI();
+    // Líneas de la consola leídas en un hilo propio (el menú puede esperar una línea o un trabajo)
+    private final EntradaConsola consola = new EntradaConsola(System.in);
+
+    // Cantidad de libros que se muestran por página en los listados
+    private static final int LIBROS_POR_PAGINA = 10;
+
+    // Una búsqueda rápida (BDD o caché) se muestra sin más; si tarda más que esto,
+    // se ofrece dejarla en segundo plano y se revisa cada ESPERA_ENTRE_REVISIONES si terminó
+    private static final Duration ESPERA_INICIAL = Duration.ofMillis(300);
+    private static final Duration ESPERA_ENTRE_REVISIONES = Duration.ofMillis(100);
+
+    // Primera página de una búsqueda en Gutendex, lista para mostrar
+    private record ResultadoBusqueda(BuscadorLibros.Busqueda busqueda, List<BuscadorLibros.Candidato> primera) {}
+
+    // Búsqueda por relevancia (BDD primero, luego Gutendex con la página siguiente por adelantado)
+    private BuscadorLibros buscador;
+
+    // Servicio de importación masiva del catálogo de Gutendex
+    private ImportadorCatalogo importadorCatalogo;
 
-    // Servicio que convierte JSON en objetos Java usando Jackson
-    private final ConvierteDatos convierteDatos = new ConvierteDatos();
+    // Servicio de importación desde el volcado local de Project Gutenberg (pg_catalog.csv)
+    private ImportadorCatalogoLocal importadorCatalogoLocal;
 
-    // Scanner para leer la entrada del usuario desde la consola
-    private final Scanner sc = new Scanner(System.in);
+    // Ruta de escritura que reutiliza los autores ya guardados
+    private PersistenciaLotes persistenciaLotes;
 
-    // URLs base para consumir la API de Gutendex
-    private final String URL_BASE = "https://gutendex.com";
-    private final String URL_BOOKS = "/books/";
+    // Consultas de listado basadas en proyecciones (sin cargar entidades completas)
+    private ConsultaLibros consultaLibros;
 
-    // Repositorio para gestionar libros en la base de datos
-    private LibroRepository repository;
+    // Búsqueda de texto sobre los libros guardados (acentos, prefijos y errores de tipeo)
+    private IndiceLibros indiceLibros;
 
-    // Repositorio para gestionar autores en la base de datos
-    private AutorRepository autorRepository;
+    // Consultas del menú (opciones 2 a 7) servidas desde la instantánea en memoria
+    private ConsultasCatalogo consultas;
+
+    // Rankings de más descargados mantenidos con cada guardado
+    private RankingDescargas ranking;
+
+    // Estadísticas de descargas mantenidas con cada guardado (general y por idioma)
+    private EstadisticasDescargas estadisticasDescargas;
+
+    // Actualización de las descargas de los libros guardados (opción 12)
+    private ActualizadorDescargas actualizador;
+
+    // Trabajos en segundo plano: importaciones, actualización de descargas y búsquedas en Gutendex
+    private Trabajos trabajos;
+
+    // Búsquedas dejadas en segundo plano cuyos resultados todavía no se vieron
+    private final Map<Long, Trabajos.Trabajo<ResultadoBusqueda>> busquedasPendientes = new LinkedHashMap<>();
+
+    // Banner ASCII que se muestra sobre el menú
+    private final String banner = ("""
+  _     _ _                 _
+ | |   (_) |_ ___ _ __ __ _| |_   _ _ __ __ _
+ | |   | | __/ _ \\ '__/ _` | | | | | '__/ _` |
+ | |___| | ||  __/ | | (_| | | |_| | | | (_| |
+ |_____|_|\\__\\___|_|  \\__,_|_|\\__,_|_|  \\__,_|
+""");
 
     // Menú visual que se muestra en consola
     private final String menu = ("""
@@ -50,63 +106,134 @@ public class App {
 │   🌍  [5] Listar libros por idioma                                         │
 │   🏆  [6] Top 10 libros más descargados                                    │
 │   📊  [7] Estadísticas generales de descargas                              │
+│   📦  [8] Importar catálogo completo de Gutendex                           │
+│   💾  [9] Importar catálogo desde archivo local (pg_catalog.csv)           │
+│   🔎  [10] Buscar en libros guardados (título o autor)                     │
+│   ⚙️  [11] Trabajos en segundo plano (avance y cancelación)                │
+│   🔄  [12] Actualizar descargas de los libros guardados                    │
 │                                                                           │
 ├───────────────────────────────────────────────────────────────────────────┤
 │   🚪  [0] Salir del sistema                                                │
 └───────────────────────────────────────────────────────────────────────────┘
 """);
 
-    // Constructor que recibe los repositorios desde Spring
-    public App(LibroRepository repository, AutorRepository autorRepository) {
-        this.repository = repository;
-        this.autorRepository = autorRepository;
+    // Constructor que recibe los servicios desde Spring
+    public App(BuscadorLibros buscador,
+               ImportadorCatalogo importadorCatalogo, ImportadorCatalogoLocal importadorCatalogoLocal,
+               PersistenciaLotes persistenciaLotes,
+               ConsultaLibros consultaLibros, IndiceLibros indiceLibros,
+               ConsultasCatalogo consultas, RankingDescargas ranking,
+               EstadisticasDescargas estadisticasDescargas, ActualizadorDescargas actualizador,
+               Trabajos trabajos) {
+        this.buscador = buscador;
+        this.importadorCatalogo = importadorCatalogo;
+        this.importadorCatalogoLocal = importadorCatalogoLocal;
+        this.persistenciaLotes = persistenciaLotes;
+        this.consultaLibros = consultaLibros;
+        this.indiceLibros = indiceLibros;
+        this.consultas = consultas;
+        this.ranking = ranking;
+        this.estadisticasDescargas = estadisticasDescargas;
+        this.actualizador = actualizador;
+        this.trabajos = trabajos;
     }
 
     // Método principal que controla el flujo del programa
     public void aplicacionRun() {
         var opcion = -1;
 
-        // Bucle principal del menú
-        while (opcion != 0) {
-            System.out.println(banner); // Banner ASCII (definido en otra parte)
-            System.out.println(menu);
-            System.out.print("| ➤ Seleccione una opción: ");
-
-            try {
-                // Validamos que el usuario ingrese un número
-                if (sc.hasNextInt()) {
-                    opcion = sc.nextInt();
-                    sc.nextLine(); // Limpia el buffer
-
-                    // Control de opciones del menú
-                    switch (opcion) {
-                        case 1 -> buscarLibroWeb();
-                        case 2 -> listarLibros();
-                        case 3 -> listarAutoresRegistrados();
-                        case 4 -> buscarAutoresPorAnio();
-                        case 5 -> listarLibrosPorIdioma();
-                        case 6 -> top10LibrosMasDescargados();
-                        case 7 -> obtenerEstadisticaDeLosLibros();
-                        case 0 -> System.out.println("\n| - ¡Gracias por usar Literalura! Vuelve pronto.");
-                        default -> System.out.println("\n| [!] Opción inválida.");
-                    }
-
-                    // Pausa para que el usuario pueda leer el resultado
-                    if (opcion != 0) {
+        try {
+            // Bucle principal del menú
+            while (opcion != 0) {
+                System.out.println(banner); // Banner ASCII
+                System.out.println(menu);
+                avisarTrabajosTerminados();
+                System.out.print("| ➤ Seleccione una opción: ");
+
+                try {
+                    String linea = consola.leerLinea().trim();
+
+                    // Validamos que el usuario ingrese un número
+                    if (linea.matches("\\d{1,9}")) {
+                        opcion = Integer.parseInt(linea);
+
+                        // Control de opciones del menú
+                        switch (opcion) {
+                            case 1 -> buscarLibroWeb();
+                            case 2 -> listarLibros();
+                            case 3 -> listarAutoresRegistrados();
+                            case 4 -> buscarAutoresPorAnio();
+                            case 5 -> listarLibrosPorIdioma();
+                            case 6 -> top10LibrosMasDescargados();
+                            case 7 -> obtenerEstadisticaDeLosLibros();
+                            case 8 -> importarCatalogoCompleto();
+                            case 9 -> importarCatalogoLocal();
+                            case 10 -> buscarEnGuardados();
+                            case 11 -> verTrabajos();
+                            case 12 -> actualizarDescargas();
+                            case 0 -> {
+                                if (confirmarSalida()) {
+                                    System.out.println("\n| - ¡Gracias por usar Literalura! Vuelve pronto.");
+                                } else {
+                                    opcion = -1;
+                                }
+                            }
+                            default -> System.out.println("\n| [!] Opción inválida.");
+                        }
+
+                        // Pausa para que el usuario pueda leer el resultado
+                        if (opcion != 0) {
+                            presionarEnterParaContinuar();
+                        }
+
+                    } else {
+                        // Manejo de entrada no numérica
+                        System.out.println("\n| [!] Error: Formato incorrecto.");
                         presionarEnterParaContinuar();
                     }
-
-                } else {
-                    // Manejo de entrada no numérica
-                    System.out.println("\n| [!] Error: Formato incorrecto.");
-                    sc.next();
+                } catch (EntradaConsola.Cerrada e) {
+                    throw e;
+                } catch (ErrorGutendex e) {
+                    // Gutendex no respondió bien ni después de los reintentos
+                    System.out.println("\n| [!] Gutendex no está disponible: " + e.getMessage());
+                    if (e.getReintentarEn() != null) {
+                        System.out.println("| - Intente de nuevo en " + Math.max(1, e.getReintentarEn().toSeconds()) + " s.");
+                    }
+                    presionarEnterParaContinuar();
+                } catch (Exception e) {
+                    // Captura de errores inesperados
+                    System.out.println("\n| [!] Error inesperado.");
                     presionarEnterParaContinuar();
                 }
-            } catch (Exception e) {
-                // Captura de errores inesperados
-                System.out.println("\n| [!] Error inesperado.");
-                presionarEnterParaContinuar();
             }
+        } catch (EntradaConsola.Cerrada e) {
+            // Ctrl+D o una entrada redirigida que se terminó
+            System.out.println("\n| - " + e.getMessage() + ": se sale del sistema.");
+        }
+    }
+
+    // ---------------- FUNCIONALIDAD: LISTAR LIBROS REGISTRADOS ----------------
+    private void listarLibros() {
+
+        System.out.println("""
+        |===================================================================================|
+        |                📖  LIBROS REGISTRADOS                |
+        |===================================================================================|""");
+
+        // Página servida desde la instantánea en memoria (o desde la BDD mientras se carga)
+        Slice<LibroResumen> libros = consultas.listar(PageRequest.of(0, LIBROS_POR_PAGINA));
+
+        if (libros.isEmpty()) {
+            System.out.println("\n| [!] No hay libros registrados.");
+            return;
+        }
+
+        libros.forEach(this::mostrarResumenLibro);
+
+        // Pide la página siguiente solo si el usuario quiere seguir viendo
+        while (libros.hasNext() && quiereVerMas()) {
+            libros = consultas.listar(libros.nextPageable());
+            libros.forEach(this::mostrarResumenLibro);
         }
     }
 
@@ -119,7 +246,7 @@ public class App {
         |===================================================================================|""");
 
         System.out.print("| ➤ Ingrese el código (es, en, fr, pt): ");
-        var codigo = sc.nextLine().trim().toLowerCase();
+        var codigo = consola.leerLinea().trim().toLowerCase();
 
         try {
             // Convierte el código ingresado a un enum Idioma
@@ -127,20 +254,22 @@ public class App {
 
             System.out.println("| - Buscando libros en: " + idiomaBusqueda.getLenguajeEspanol() + "...");
 
-            // Obtiene todos los libros desde la base de datos
-            List<Libro> todosLosLibros = repository.findAll();
-
-            // Filtra los libros que contengan el idioma solicitado
-            List<Libro> librosFiltrados = todosLosLibros.stream()
-                    .filter(l -> l.getIdiomas().stream()
-                            .anyMatch(i -> i.name().equalsIgnoreCase(idiomaBusqueda.name())))
-                    .collect(Collectors.toList());
+            // Se recorre una página a la vez
+            Pageable pagina = PageRequest.of(0, LIBROS_POR_PAGINA);
+            Slice<LibroResumen> librosFiltrados = consultas.listarPorIdioma(idiomaBusqueda, pagina);
 
             if (librosFiltrados.isEmpty()) {
                 System.out.println("\n| [!] No se hallaron libros registrados en " + idiomaBusqueda.getLenguajeEspanol());
-            } else {
-                System.out.println("\n--- RESULTADOS PARA " + idiomaBusqueda.getLenguajeEspanol().toUpperCase() + " ---");
-                librosFiltrados.forEach(this::mostrarDetallesLibroEntidad);
+                return;
+            }
+
+            System.out.println("\n--- RESULTADOS PARA " + idiomaBusqueda.getLenguajeEspanol().toUpperCase() + " ---");
+            librosFiltrados.forEach(this::mostrarResumenLibro);
+
+            // Pide la página siguiente solo si el usuario quiere seguir viendo
+            while (librosFiltrados.hasNext() && quiereVerMas()) {
+                librosFiltrados = consultas.listarPorIdioma(idiomaBusqueda, librosFiltrados.nextPageable());
+                librosFiltrados.forEach(this::mostrarResumenLibro);
             }
         } catch (IllegalArgumentException e) {
             // Si el código no coincide con ningún idioma válido
@@ -148,6 +277,139 @@ public class App {
         }
     }
 
+    // ---------------- FUNCIONALIDAD: LISTAR AUTORES REGISTRADOS ----------------
+    private void listarAutoresRegistrados() {
+
+        System.out.println("""
+        |===================================================================================|
+        |                ✍️  AUTORES REGISTRADOS                |
+        |===================================================================================|""");
+
+        Slice<AutorResumen> autores = consultas.listarAutores(PageRequest.of(0, LIBROS_POR_PAGINA));
+
+        if (autores.isEmpty()) {
+            System.out.println("\n| [!] No hay autores registrados.");
+            return;
+        }
+
+        autores.forEach(this::mostrarResumenAutor);
+
+        while (autores.hasNext() && quiereVerMas()) {
+            autores = consultas.listarAutores(autores.nextPageable());
+            autores.forEach(this::mostrarResumenAutor);
+        }
+    }
+
+    // ---------------- FUNCIONALIDAD: AUTORES VIVOS EN UN AÑO ----------------
+    private void buscarAutoresPorAnio() {
+
+        System.out.println("""
+        |===================================================================================|
+        |                ⏳  AUTORES VIVOS POR AÑO                |
+        |===================================================================================|""");
+
+        System.out.print("| ➤ Ingrese el año o un rango (ej. 1800 o 1800:1850): ");
+        String entrada = consola.leerLinea().trim();
+
+        // "desde:hasta" busca a quienes vivieron en algún momento del rango
+        int desde;
+        int hasta;
+        try {
+            String[] partes = entrada.split(":", 2);
+            desde = Integer.parseInt(partes[0].trim());
+            hasta = partes.length == 2 ? Integer.parseInt(partes[1].trim()) : desde;
+        } catch (NumberFormatException e) {
+            System.out.println("\n| [!] Año inválido: " + entrada);
+            return;
+        }
+        if (desde > hasta) {
+            System.out.println("\n| [!] El rango está invertido: " + entrada);
+            return;
+        }
+        String periodo = desde == hasta ? "en " + desde : "entre " + desde + " y " + hasta;
+
+        Slice<AutorResumen> autores =
+                consultas.listarAutoresVivosEntre(desde, hasta, PageRequest.of(0, LIBROS_POR_PAGINA));
+
+        if (autores.isEmpty()) {
+            System.out.println("\n| [!] No hay autores registrados vivos " + periodo);
+            return;
+        }
+
+        autores.forEach(this::mostrarResumenAutor);
+
+        while (autores.hasNext() && quiereVerMas()) {
+            autores = consultas.listarAutoresVivosEntre(desde, hasta, autores.nextPageable());
+            autores.forEach(this::mostrarResumenAutor);
+        }
+    }
+
+    // ---------------- FUNCIONALIDAD: TOP 10 MÁS DESCARGADOS ----------------
+    private void top10LibrosMasDescargados() {
+
+        System.out.println("""
+        |===================================================================================|
+        |                🏆  TOP 10 MÁS DESCARGADOS                |
+        |===================================================================================|""");
+
+        System.out.print("| ➤ Código de idioma (es, en, fr, pt) o ENTER para todos: ");
+        var codigo = consola.leerLinea().trim().toLowerCase();
+
+        List<LibroResumen> top;
+        if (codigo.isEmpty()) {
+            top = ranking.top(10);
+        } else {
+            try {
+                top = ranking.topPorIdioma(Idioma.fromString(codigo), 10);
+            } catch (IllegalArgumentException e) {
+                System.out.println("\n| [!] Código de idioma no reconocido: " + codigo);
+                return;
+            }
+        }
+
+        if (top.isEmpty()) {
+            System.out.println("\n| [!] No hay libros registrados.");
+            return;
+        }
+
+        top.forEach(this::mostrarResumenLibro);
+    }
+
+    // ---------------- FUNCIONALIDAD: ESTADÍSTICAS DE DESCARGAS ----------------
+    private void obtenerEstadisticaDeLosLibros() {
+
+        System.out.println("""
+        |===================================================================================|
+        |                📊  ESTADÍSTICAS DE DESCARGAS                |
+        |===================================================================================|""");
+
+        EstadisticasDescargas.Resumen resumen = estadisticasDescargas.resumen();
+        BocetoDescargas general = resumen.general();
+
+        if (general.cantidad() == 0) {
+            System.out.println("\n| [!] No hay libros registrados.");
+            return;
+        }
+
+        System.out.println("| Libros evaluados: " + general.cantidad());
+        System.out.printf("| Media de descargas: %.2f%n", general.promedio());
+        System.out.println("| Máximo de descargas: " + (long) general.maximo());
+        System.out.println("| Mínimo de descargas: " + (long) general.minimo());
+        System.out.println("| Total de descargas: " + (long) general.suma());
+        // Percentiles aproximados (error menor al 1%)
+        System.out.printf("| Mediana: ~%d · Percentil 90: ~%d · Percentil 99: ~%d%n",
+                Math.round(general.cuantil(0.5)), Math.round(general.cuantil(0.9)),
+                Math.round(general.cuantil(0.99)));
+
+        if (!resumen.porIdioma().isEmpty()) {
+            System.out.println("|");
+            System.out.printf("| %-12s %10s %12s %10s%n", "Idioma", "Libros", "Media", "Mediana");
+            resumen.porIdioma().forEach((idioma, boceto) -> System.out.printf("| %-12s %10d %12.1f %10d%n",
+                    idioma.getLenguajeEspanol(), boceto.cantidad(), boceto.promedio(),
+                    Math.round(boceto.cuantil(0.5))));
+        }
+    }
+
     // ---------------- FUNCIONALIDAD: BUSCAR LIBRO EN LA WEB ----------------
     public void buscarLibroWeb() {
 
@@ -157,69 +419,443 @@ public class App {
         |===================================================================================|""");
 
         System.out.print("| - Ingrese el nombre del libro: ");
-        String nombre = sc.nextLine();
+        String nombre = consola.leerLinea();
+
+        // Resultados ordenados por relevancia: primero la BDD, luego Gutendex
+        // (las búsquedas repetidas se responden desde la BDD o desde la caché).
+        // Corre como trabajo: si Gutendex tarda, se puede dejar en segundo plano
+        Trabajos.Trabajo<ResultadoBusqueda> trabajo = trabajos.enviar("Buscar \"" + nombre.trim() + "\"", avance -> {
+            BuscadorLibros.Busqueda busqueda = buscador.buscar(nombre);
+            // Cancelada mientras respondía Gutendex: no se guarda un resultado que nadie va a ver
+            if (avance.cancelado()) {
+                busqueda.close();
+                throw new CancellationException("Búsqueda cancelada");
+            }
+            return new ResultadoBusqueda(busqueda, busqueda.siguientePagina(LIBROS_POR_PAGINA));
+        }, r -> r.primera().isEmpty() ? "sin resultados"
+                : r.primera().size() + (r.busqueda().hayMas() ? " o más" : "") + " resultados");
+
+        if (!esperarEnPrimerPlano(trabajo, "Buscando en Gutendex")) {
+            busquedasPendientes.put(trabajo.id(), trabajo);
+            System.out.println("| - La búsqueda sigue en segundo plano (trabajo #" + trabajo.id()
+                    + "); vea sus resultados con la opción 11.");
+            return;
+        }
+        trabajo.marcarAvisado();
+        mostrarBusqueda(trabajo);
+    }
 
-        // Consume la API de Gutendex
-        String json = consumoAPI.obtenerDatos(URL_BASE + URL_BOOKS + "?search=" + nombre.replace(" ", "+"));
+    /*
+     Resultados de una búsqueda terminada. Las páginas siguientes se piden en
+     primer plano: Gutendex ya las está descargando por adelantado.
+    */
+    private void mostrarBusqueda(Trabajos.Trabajo<ResultadoBusqueda> trabajo) {
+        ResultadoBusqueda resultado = trabajo.resultado();
+        if (trabajo.estado() != Trabajos.Estado.TERMINADO) {
+            if (resultado != null) {
+                resultado.busqueda().close();
+            }
+            if (trabajo.error() instanceof ErrorGutendex e) {
+                // La informa el menú, con el tiempo de espera sugerido
+                throw e;
+            }
+            System.out.println("\n| [!] La búsqueda no terminó (" + trabajo.estado().getDescripcion() + "): "
+                    + trabajo.resumen());
+            return;
+        }
 
-        // Convierte el JSON a objeto Datos
-        Datos datos = convierteDatos.obtenerDatos(json, Datos.class);
+        try (BuscadorLibros.Busqueda busqueda = resultado.busqueda()) {
+            List<BuscadorLibros.Candidato> mostrados = new ArrayList<>();
+            List<BuscadorLibros.Candidato> pagina = resultado.primera();
 
-        // Busca el primer libro que coincida con el título
-        Optional<DatosLibro> libroBuscado = datos.resultados().stream()
-                .filter(l -> l.titulo().toLowerCase().contains(nombre.toLowerCase()))
-                .findFirst();
+            if (pagina.isEmpty()) {
+                System.out.println("\n| [!] Libro no encontrado.");
+                return;
+            }
+            if (busqueda.soloLocal()) {
+                System.out.println("| - Resultados de la BDD (sin consultar Gutendex):");
+            }
 
-        if (libroBuscado.isPresent()) {
-            DatosLibro datosLibro = libroBuscado.get();
+            while (!pagina.isEmpty()) {
+                for (BuscadorLibros.Candidato candidato : pagina) {
+                    mostrados.add(candidato);
+                    mostrarCandidato(mostrados.size(), candidato);
+                }
 
-            // Verifica si el libro ya existe en la base de datos
-            Optional<Libro> libroExistente =
-                    repository.findByTituloContainsIgnoreCase(datosLibro.titulo());
+                System.out.print("\n| ➤ Número del libro a guardar"
+                        + (busqueda.hayMas() ? ", 's' para ver más" : "") + " o ENTER para volver: ");
+                String entrada = consola.leerLinea().trim();
 
-            if (libroExistente.isPresent()) {
-                // Evita duplicados
-                System.out.println("| ⚠️  EL LIBRO YA EXISTE EN LA BDD");
-                mostrarDetallesLibroEntidad(libroExistente.get());
-            } else {
-                // Guarda el libro nuevo
-                Libro libro = new Libro(datosLibro);
-                repository.save(libro);
-                System.out.println("\n| - ¡Libro encontrado y guardado con éxito!");
-                mostrarDetallesLibroEntidad(libro);
+                if (entrada.equalsIgnoreCase("s") && busqueda.hayMas()) {
+                    pagina = busqueda.siguientePagina(LIBROS_POR_PAGINA);
+                    continue;
+                }
+                if (entrada.matches("\\d{1,4}")) {
+                    int numero = Integer.parseInt(entrada);
+                    if (numero >= 1 && numero <= mostrados.size()) {
+                        guardarCandidato(mostrados.get(numero - 1));
+                    } else {
+                        System.out.println("\n| [!] Número fuera de la lista.");
+                    }
+                }
+                return;
             }
+            System.out.println("\n| - No hay más resultados.");
+        }
+    }
+
+    // Guarda el libro elegido, salvo que ya esté en la BDD
+    private void guardarCandidato(BuscadorLibros.Candidato candidato) {
+        if (candidato.guardado() != null) {
+            System.out.println("| ⚠️  EL LIBRO YA EXISTE EN LA BDD");
+            mostrarResumenLibro(candidato.guardado());
+            return;
+        }
+        DatosLibro datosLibro = candidato.datos();
+
+        // Verifica si el libro ya existe en la base de datos
+        // (igualdad exacta por id de Gutendex o título, ambos con índice único)
+        Optional<LibroResumen> libroExistente =
+                consultaLibros.buscarExistente(datosLibro.id(), datosLibro.titulo());
+
+        if (libroExistente.isPresent()) {
+            // Evita duplicados
+            System.out.println("| ⚠️  EL LIBRO YA EXISTE EN LA BDD");
+            mostrarResumenLibro(libroExistente.get());
         } else {
-            System.out.println("\n| [!] Libro no encontrado en la web.");
+            // Guarda el libro nuevo (sus autores se reutilizan si ya existían)
+            Libro libro = new Libro(datosLibro);
+            persistenciaLotes.guardarEnLotes(List.of(libro));
+            System.out.println("\n| - ¡Libro guardado con éxito!");
+            mostrarDetallesLibroEntidad(libro);
+        }
+    }
+
+    // Una línea por resultado de búsqueda, numerada para poder elegirlo
+    private void mostrarCandidato(int numero, BuscadorLibros.Candidato candidato) {
+        String autores = candidato.autores().isEmpty() ? "Desconocido" : String.join(", ", candidato.autores());
+        String idiomas = candidato.idiomas().stream()
+                .map(Idioma::getLenguajeGutendex)
+                .collect(Collectors.joining(", "));
+        System.out.printf("| [%d] %s — %s (%s) · %.0f descargas%s%n", numero, candidato.titulo(), autores,
+                idiomas, candidato.descargas(), candidato.guardado() != null ? " · en la BDD" : "");
+    }
+
+    // ---------------- FUNCIONALIDAD: IMPORTAR CATÁLOGO COMPLETO ----------------
+    private void importarCatalogoCompleto() {
+
+        System.out.println("""
+        |===================================================================================|
+        |                📦 IMPORTANDO CATÁLOGO                |
+        |===================================================================================|""");
+
+        System.out.println("| - Descargando páginas de Gutendex en paralelo (se puede reanudar si se interrumpe)...");
+
+        try {
+            Trabajos.Trabajo<?> trabajo = trabajos.enviarUnico(Trabajos.IMPORTACION, "Importar catálogo de Gutendex",
+                    importadorCatalogo::importar, App::resumenImportacion);
+            System.out.println("| - Importación iniciada en segundo plano (trabajo #" + trabajo.id() + ").");
+            // Lo ya guardado queda confirmado; la próxima ejecución continúa desde ahí
+            System.out.println("| - Vea su avance o cancélela con la opción 11; la opción 8 la reanuda"
+                    + " si se detiene.");
+        } catch (IllegalStateException e) {
+            System.out.println("\n| [!] " + e.getMessage());
+        }
+    }
+
+    private static String resumenImportacion(ImportadorCatalogo.ResultadoImportacion r) {
+        return String.format("%d libros nuevos · %d páginas (última confirmada: %d/%d) · %.1f páginas/s · %.1f libros/s",
+                r.libros(), r.paginas(), r.ultimaPagina(), r.totalPaginas(), r.paginasPorSegundo(),
+                r.librosPorSegundo());
+    }
+
+    // ---------------- FUNCIONALIDAD: IMPORTAR CATÁLOGO DESDE ARCHIVO LOCAL ----------------
+    private void importarCatalogoLocal() {
+
+        System.out.println("""
+        |===================================================================================|
+        |                💾 IMPORTANDO CATÁLOGO LOCAL                |
+        |===================================================================================|""");
+
+        System.out.println("| ➤ Ruta de pg_catalog.csv o pg_catalog.csv.gz (ENTER = "
+                + importadorCatalogoLocal.getArchivo() + "):");
+        String entrada = consola.leerLinea().trim();
+        Path archivo = Path.of(entrada.isEmpty() ? importadorCatalogoLocal.getArchivo() : entrada);
+
+        if (!Files.isReadable(archivo)) {
+            System.out.println("\n| [!] No se puede leer el archivo: " + archivo.toAbsolutePath());
+            return;
+        }
+
+        System.out.println("| - Leyendo " + archivo.getFileName() + " y guardando en paralelo...");
+
+        try {
+            Trabajos.Trabajo<?> trabajo = trabajos.enviarUnico(Trabajos.IMPORTACION,
+                    "Importar " + archivo.getFileName(),
+                    avance -> importadorCatalogoLocal.importar(archivo, avance), App::resumenImportacionLocal);
+            System.out.println("| - Importación iniciada en segundo plano (trabajo #" + trabajo.id() + ").");
+            // Los tramos ya guardados quedan confirmados; repetir la importación los salta
+            System.out.println("| - Vea su avance o cancélela con la opción 11.");
+        } catch (IllegalStateException e) {
+            System.out.println("\n| [!] " + e.getMessage());
+        }
+    }
+
+    private static String resumenImportacionLocal(ImportadorCatalogoLocal.ResultadoImportacionLocal r) {
+        return String.format("%d libros nuevos · %d registros leídos (descartados: %d) · %.1f registros/s",
+                r.libros(), r.registros(), r.descartados(), r.registrosPorSegundo());
+    }
+
+    // ---------------- FUNCIONALIDAD: BUSCAR EN LIBROS GUARDADOS ----------------
+    private void buscarEnGuardados() {
+
+        System.out.println("""
+        |===================================================================================|
+        |                🔎 BUSCANDO EN LA BDD                    |
+        |===================================================================================|""");
+
+        System.out.println("| - Palabras del título o del autor; \"*\" al final busca por prefijo"
+                + " y \"~\" admite errores (ej.: dicken*, quijotte~).");
+        System.out.print("| ➤ Buscar: ");
+        String texto = consola.leerLinea();
+
+        if (!indiceLibros.estaListo()) {
+            System.out.println("| - El índice aún se está armando: se busca solo en los títulos.");
+        }
+
+        Slice<LibroResumen> libros = indiceLibros.buscar(texto, PageRequest.of(0, LIBROS_POR_PAGINA));
+        if (libros.isEmpty()) {
+            System.out.println("\n| [!] Ningún libro guardado coincide con la búsqueda.");
+            return;
+        }
+
+        libros.forEach(this::mostrarResumenLibro);
+
+        // Pide la página siguiente solo si el usuario quiere seguir viendo
+        while (libros.hasNext() && quiereVerMas()) {
+            libros = indiceLibros.buscar(texto, libros.nextPageable());
+            libros.forEach(this::mostrarResumenLibro);
         }
     }
 
+    // ---------------- FUNCIONALIDAD: TRABAJOS EN SEGUNDO PLANO ----------------
+    private void verTrabajos() {
+
+        System.out.println("""
+        |===================================================================================|
+        |                ⚙️  TRABAJOS EN SEGUNDO PLANO                |
+        |===================================================================================|""");
+
+        while (true) {
+            descartarBusquedasPodadas();
+            List<Trabajos.Trabajo<?>> lista = trabajos.listar();
+            if (lista.isEmpty()) {
+                System.out.println("\n| [!] No hay trabajos: los crean las opciones 1, 8, 9 y 12.");
+                return;
+            }
+            lista.forEach(this::mostrarTrabajo);
+
+            System.out.print("\n| ➤ 'c N' cancela el trabajo N, 'v N' muestra los resultados de la búsqueda N,"
+                    + " 'a' actualiza la lista o ENTER para volver: ");
+            String[] partes = consola.leerLinea().trim().toLowerCase().split("\\s+");
+
+            if (partes[0].isEmpty()) {
+                return;
+            }
+            if (partes[0].equals("a")) {
+                continue;
+            }
+            if (partes.length != 2 || !partes[0].matches("[cv]") || !partes[1].matches("#?\\d{1,9}")) {
+                System.out.println("\n| [!] Opción inválida.");
+                continue;
+            }
+            long id = Long.parseLong(partes[1].replace("#", ""));
+
+            if (partes[0].equals("c")) {
+                if (trabajos.cancelar(id)) {
+                    System.out.println("| - Se pidió cancelar el trabajo #" + id
+                            + ": se detiene al terminar la página o el tramo en curso.");
+                } else {
+                    System.out.println("\n| [!] El trabajo #" + id + " no existe o ya terminó.");
+                }
+                continue;
+            }
+
+            Trabajos.Trabajo<ResultadoBusqueda> busqueda = busquedasPendientes.get(id);
+            if (busqueda == null) {
+                System.out.println("\n| [!] El trabajo #" + id + " no es una búsqueda con resultados por ver.");
+            } else if (busqueda.estado().activo()) {
+                System.out.println("\n| [!] La búsqueda #" + id + " todavía está en curso.");
+            } else {
+                busquedasPendientes.remove(id);
+                mostrarBusqueda(busqueda);
+                return;
+            }
+        }
+    }
+
+    // ---------------- FUNCIONALIDAD: ACTUALIZAR DESCARGAS ----------------
+    private void actualizarDescargas() {
+
+        System.out.println("""
+        |===================================================================================|
+        |                🔄 ACTUALIZANDO DESCARGAS                |
+        |===================================================================================|""");
+
+        System.out.println("| - Se consultan en Gutendex las descargas de los libros guardados"
+                + " (una petición por tramo de libros).");
+
+        try {
+            Trabajos.Trabajo<?> trabajo = trabajos.enviarUnico("descargas", "Actualizar descargas",
+                    actualizador::actualizar, App::resumenActualizacion);
+            System.out.println("| - Actualización iniciada en segundo plano (trabajo #" + trabajo.id() + ").");
+            System.out.println("| - Vea su avance o cancélela con la opción 11.");
+        } catch (IllegalStateException e) {
+            System.out.println("\n| [!] " + e.getMessage());
+        }
+    }
+
+    private static String resumenActualizacion(ActualizadorDescargas.Resultado r) {
+        if (r == null) {
+            return "ya había una actualización en curso (la programada)";
+        }
+        return String.format("%d libros revisados · %d actualizados · %d peticiones (%d ahorradas)",
+                r.revisados(), r.actualizados(), r.peticiones(), r.peticionesAhorradas());
+    }
+
     // ---------------- MÉTODOS AUXILIARES ----------------
 
+    /*
+     Espera un trabajo corto (una búsqueda). Si tarda, ENTER lo deja en
+     segundo plano y el menú vuelve a estar disponible.
+     Devuelve true si terminó y false si quedó en segundo plano.
+    */
+    private boolean esperarEnPrimerPlano(Trabajos.Trabajo<?> trabajo, String accion) {
+        try {
+            if (trabajo.esperar(ESPERA_INICIAL)) {
+                return true;
+            }
+            System.out.println("| - " + accion + "... (ENTER para seguir usando el menú mientras tanto)");
+            while (!trabajo.esperar(Duration.ZERO)) {
+                if (consola.leerLinea(ESPERA_ENTRE_REVISIONES).isPresent()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EntradaConsola.Cerrada("Espera interrumpida");
+        }
+    }
+
+    // Aviso de los trabajos que terminaron mientras se usaba el menú
+    private void avisarTrabajosTerminados() {
+        descartarBusquedasPodadas();
+        for (Trabajos.Trabajo<?> trabajo : trabajos.terminadosSinAviso()) {
+            System.out.println("| 🔔 Trabajo #" + trabajo.id() + " (" + trabajo.nombre() + ") "
+                    + trabajo.estado().getDescripcion() + ": " + trabajo.resumen()
+                    + (busquedasPendientes.containsKey(trabajo.id()) ? " · véalos con la opción 11" : ""));
+        }
+    }
+
+    // Las búsquedas que ya salieron del historial de Trabajos no se pueden ver: se cierran y se olvidan
+    private void descartarBusquedasPodadas() {
+        busquedasPendientes.values().removeIf(busqueda -> {
+            if (trabajos.buscar(busqueda.id()).isPresent()) {
+                return false;
+            }
+            ResultadoBusqueda resultado = busqueda.resultado();
+            if (resultado != null) {
+                resultado.busqueda().close();
+            }
+            return true;
+        });
+    }
+
+    // Una línea por trabajo: número, estado, nombre y duración; debajo, su avance o su resumen
+    private void mostrarTrabajo(Trabajos.Trabajo<?> trabajo) {
+        Trabajos.Estado estado = trabajo.estado();
+        String situacion = estado.activo() && trabajo.cancelado() ? "cancelando" : estado.getDescripcion();
+
+        String avance;
+        if (estado == Trabajos.Estado.EN_COLA) {
+            avance = "esperando un hilo libre";
+        } else if (estado.activo()) {
+            avance = (trabajo.porcentaje() >= 0 ? trabajo.porcentaje() + "% · " : "")
+                    + (trabajo.detalle().isEmpty() ? "..." : trabajo.detalle());
+        } else {
+            avance = trabajo.resumen()
+                    + (busquedasPendientes.containsKey(trabajo.id()) ? " · 'v " + trabajo.id() + "' para verlos" : "");
+        }
+
+        System.out.printf("%n| #%d %s · %s · %s%n", trabajo.id(), situacion, trabajo.nombre(),
+                duracion(trabajo.duracion()));
+        System.out.println("|    " + avance);
+    }
+
+    private static String duracion(Duration duracion) {
+        long segundos = duracion.toSeconds();
+        return segundos < 60 ? String.format("%.1f s", duracion.toMillis() / 1000.0)
+                : String.format("%d min %02d s", segundos / 60, segundos % 60);
+    }
+
+    // Si hay trabajos en curso, avisa que al salir se cancelan
+    private boolean confirmarSalida() {
+        long activos = trabajos.activos();
+        if (activos == 0) {
+            return true;
+        }
+        System.out.print("\n| ➤ Hay " + activos + " trabajo(s) en curso; al salir se cancelan"
+                + " (lo ya guardado queda confirmado). ¿Salir igual? (s/n): ");
+        return consola.leerLinea().trim().equalsIgnoreCase("s");
+    }
+
+
     // Muestra los detalles de un libro guardado en la BDD
+    // (sus autores e idiomas deben estar en memoria, como en un libro recién guardado)
     private void mostrarDetallesLibroEntidad(Libro libro) {
+        mostrarResumenLibro(LibroResumen.de(libro));
+    }
 
-        String autores = (libro.getAutores() == null) ? "Desconocido" :
-                libro.getAutores().stream()
-                        .map(Autor::getNombre)
-                        .collect(Collectors.joining(", "));
+    // Muestra un libro de un listado
+    private void mostrarResumenLibro(LibroResumen libro) {
+
+        String autores = libro.autores().isEmpty() ? "Desconocido" :
+                String.join(", ", libro.autores());
 
-        String idiomas = (libro.getIdiomas() == null) ? "No disponible" :
-                libro.getIdiomas().stream()
+        String idiomas = libro.idiomas().isEmpty() ? "No disponible" :
+                libro.idiomas().stream()
                         .map(Idioma::getLenguajeEspanol)
                         .collect(Collectors.joining(", "));
 
         System.out.println("\n| ---------- LIBRO N° " +
-                (libro.getIdLibro() != null ? libro.getIdLibro() : "---") + " ----------");
-        System.out.println("| Título: " + libro.getTitulo().toUpperCase());
+                (libro.idLibro() != null ? libro.idLibro() : "---") + " ----------");
+        System.out.println("| Título: " + libro.titulo().toUpperCase());
         System.out.println("| Autor: " + autores);
         System.out.println("| Idioma: " + idiomas);
-        System.out.println("| Descargas: " + libro.getNumeroDeDescargas().intValue());
+        System.out.println("| Descargas: " + (libro.numeroDeDescargas() != null ? libro.numeroDeDescargas().intValue() : 0));
         System.out.println("| ------------------------------------");
     }
 
+    // Muestra un autor con sus años y los títulos guardados
+    private void mostrarResumenAutor(AutorResumen autor) {
+        System.out.println("\n| ---------- AUTOR ----------");
+        System.out.println("| Nombre: " + autor.nombre());
+        System.out.println("| Nacimiento: " + (autor.nacimiento() != null ? autor.nacimiento() : "Desconocido"));
+        System.out.println("| Defunción: " + (autor.defuncion() != null ? autor.defuncion() : "Desconocido"));
+        System.out.println("| Libros: " + (autor.libros().isEmpty() ? "---" : String.join(", ", autor.libros())));
+        System.out.println("| ---------------------------");
+    }
+
+    // Pregunta si se desea ver la siguiente página de resultados
+    private boolean quiereVerMas() {
+        System.out.print("\n| ➤ ¿Ver más resultados? (s/n): ");
+        return consola.leerLinea().trim().equalsIgnoreCase("s");
+    }
+
     // Pausa el programa hasta que el usuario presione ENTER
     private void presionarEnterParaContinuar() {
         System.out.println("\n| ➤ Presione ENTER para continuar...");
-        sc.nextLine();
+        consola.leerLinea();
     }
 }
\ No newline at end of file
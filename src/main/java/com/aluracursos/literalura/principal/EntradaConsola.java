@@ -0,0 +1,97 @@
+package com.aluracursos.literalura.principal;
+// Paquete principal: lectura de la consola para el menú
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Líneas de la consola leídas en un hilo propio ("consola-entrada").
+ Con Scanner el hilo del menú quedaba bloqueado en System.in; así el menú
+ puede esperar "una línea o que termine un trabajo, lo que pase primero".
+
+ ✔ las líneas se entregan en el orden en que llegan
+ ✔ al terminar la entrada (Ctrl+D, tubería cerrada) toda lectura lanza Cerrada
+   y el menú sale ordenadamente (antes Scanner lanzaba NoSuchElementException
+   y el menú repetía "Error inesperado" sin fin)
+ ✔ el hilo lector es daemon y arranca con la primera lectura
+*/
+final class EntradaConsola {
+
+    // Fin de la entrada (o espera interrumpida): el menú debe terminar
+    static final class Cerrada extends RuntimeException {
+        Cerrada(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    // Marca de fin en la cola; se vuelve a encolar para que toda lectura posterior la vea
+    private static final Optional<String> FIN = Optional.empty();
+
+    private final InputStream origen;
+    private final BlockingQueue<Optional<String>> lineas = new LinkedBlockingQueue<>();
+    private Thread lector;
+
+    EntradaConsola(InputStream origen) {
+        this.origen = origen;
+    }
+
+    // Siguiente línea; espera lo que haga falta
+    String leerLinea() {
+        iniciar();
+        try {
+            return recibir(lineas.take());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Cerrada("Lectura interrumpida");
+        }
+    }
+
+    // Siguiente línea si llega dentro de la espera
+    Optional<String> leerLinea(Duration espera) {
+        iniciar();
+        try {
+            Optional<String> linea = lineas.poll(espera.toNanos(), TimeUnit.NANOSECONDS);
+            return linea == null ? Optional.empty() : Optional.of(recibir(linea));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Cerrada("Lectura interrumpida");
+        }
+    }
+
+    private String recibir(Optional<String> linea) {
+        if (linea.isEmpty()) {
+            lineas.add(FIN);
+            throw new Cerrada("Fin de la entrada");
+        }
+        return linea.get();
+    }
+
+    private void iniciar() {
+        if (lector != null) {
+            return;
+        }
+        lector = new Thread(this::leer, "consola-entrada");
+        lector.setDaemon(true);
+        lector.start();
+    }
+
+    private void leer() {
+        try (BufferedReader entrada = new BufferedReader(new InputStreamReader(origen))) {
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                lineas.add(Optional.of(linea));
+            }
+        } catch (IOException e) {
+            // Una entrada ilegible equivale a una entrada terminada
+        } finally {
+            lineas.add(FIN);
+        }
+    }
+}
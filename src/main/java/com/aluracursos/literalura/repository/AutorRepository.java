@@ -5,10 +5,13 @@ package com.aluracursos.literalura.repository;
 import com.aluracursos.literalura.model.Autor;
 // Importa la entidad Autor, que representa la tabla autores en la base de datos.
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 // Importaciones de Spring Data JPA para repositorios y consultas personalizadas.
 
+import java.util.Collection;
 import java.util.List;
 // Importación para trabajar con colecciones de resultados.
 
@@ -39,4 +42,70 @@ public interface AutorRepository extends JpaRepository<Autor, Long> {
     @Query("SELECT a FROM Autor a WHERE a.fechaDeNacimiento <= :anio AND a.fechaDeDefuncion >= :anio")
     List<Autor> buscarAutoresVivosEnDeterminadoAnio(Integer anio);
     // Devuelve una lista de autores que cumplen la condición
-}
\ No newline at end of file
+
+    /*
+      Proyección liviana con la clave natural de un autor.
+      Se usa para precargar la caché de autores sin materializar entidades.
+     */
+    interface ClaveAutorProyeccion {
+        Long getId();
+        String getNombre();
+        Integer getFechaDeNacimiento();
+        Integer getFechaDeDefuncion();
+    }
+
+    // Todas las claves de autores guardados (una sola consulta)
+    @Query("SELECT a.id AS id, a.nombre AS nombre, a.fechaDeNacimiento AS fechaDeNacimiento, "
+            + "a.fechaDeDefuncion AS fechaDeDefuncion FROM Autor a")
+    List<ClaveAutorProyeccion> listarClaves();
+
+    /*
+      Busca el id de un autor por su clave natural (nombre + años).
+      Los años pueden ser null, por eso se compara también con IS NULL.
+     */
+    @Query("""
+            SELECT a.id FROM Autor a
+            WHERE a.nombre = :nombre
+              AND (a.fechaDeNacimiento = :nacimiento OR (a.fechaDeNacimiento IS NULL AND :nacimiento IS NULL))
+              AND (a.fechaDeDefuncion = :defuncion OR (a.fechaDeDefuncion IS NULL AND :defuncion IS NULL))
+            """)
+    List<Long> buscarIdPorClave(String nombre, Integer nacimiento, Integer defuncion);
+
+    /*
+      Proyecciones para los listados de autores (ver ConsultaLibros).
+      Records construidos con "SELECT new", sin entidades administradas.
+     */
+    record AutorFila(Long id, String nombre, Integer nacimiento, Integer defuncion) {}
+
+    record TituloDeAutor(Long idAutor, String titulo) {}
+
+    // Página de autores ordenada por nombre
+    @Query("SELECT new com.aluracursos.literalura.repository.AutorRepository$AutorFila("
+            + "a.id, a.nombre, a.fechaDeNacimiento, a.fechaDeDefuncion) FROM Autor a ORDER BY a.nombre, a.id")
+    Slice<AutorFila> listarFilas(Pageable pageable);
+
+    /*
+      Autores que vivieron en algún momento entre :desde y :hasta (para un solo año, desde = hasta).
+      Versión paginada de buscarAutoresVivosEnDeterminadoAnio: exige ambos años,
+      y con el índice idx_autor_vida recorre solo los nacidos hasta :hasta.
+     */
+    @Query("SELECT new com.aluracursos.literalura.repository.AutorRepository$AutorFila("
+            + "a.id, a.nombre, a.fechaDeNacimiento, a.fechaDeDefuncion) FROM Autor a "
+            + "WHERE a.fechaDeNacimiento <= :hasta AND a.fechaDeDefuncion >= :desde ORDER BY a.nombre, a.id")
+    Slice<AutorFila> listarFilasVivasEntre(Integer desde, Integer hasta, Pageable pageable);
+
+    /*
+      Igual que listarFilasVivasEntre, pero el año que falta se supone a :anios del conocido
+      (ver PoliticaVidas). Los autores sin ningún año quedan fuera.
+     */
+    @Query("SELECT new com.aluracursos.literalura.repository.AutorRepository$AutorFila("
+            + "a.id, a.nombre, a.fechaDeNacimiento, a.fechaDeDefuncion) FROM Autor a "
+            + "WHERE COALESCE(a.fechaDeNacimiento, a.fechaDeDefuncion - :anios) <= :hasta "
+            + "AND COALESCE(a.fechaDeDefuncion, a.fechaDeNacimiento + :anios) >= :desde ORDER BY a.nombre, a.id")
+    Slice<AutorFila> listarFilasVivasEntreSuponiendo(Integer desde, Integer hasta, Integer anios, Pageable pageable);
+
+    // Títulos de los libros de los autores indicados (una consulta por página)
+    @Query("SELECT new com.aluracursos.literalura.repository.AutorRepository$TituloDeAutor(a.id, l.titulo) "
+            + "FROM Autor a JOIN a.libros l WHERE a.id IN :ids ORDER BY l.titulo")
+    List<TituloDeAutor> buscarTitulos(Collection<Long> ids);
+}
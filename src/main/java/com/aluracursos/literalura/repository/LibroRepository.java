@@ -3,18 +3,20 @@ package com.aluracursos.literalura.repository;
 // Contiene las interfaces que permiten acceder a la base de datos
 // mediante Spring Data JPA.
 
-import com.aluracursos.literalura.model.Idioma;
 import com.aluracursos.literalura.model.Libro;
 // Importa las entidades usadas por este repositorio.
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 // Importaciones necesarias para trabajar con JPA y consultas personalizadas.
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 // List se usa para múltiples resultados
-// Optional se usa para manejar valores que pueden o no existir.
 
 /*
   Repositorio JPA para la entidad Libro.
@@ -31,23 +33,137 @@ public interface LibroRepository extends JpaRepository<Libro, Long> {
 
       Busca libros por idioma.
 
-      - Se hace un JOIN entre Libro y su colección de idiomas.
-      - CAST(i AS string) se utiliza para comparar el enum Idioma
-        con un String, ya que Postgres maneja el enum como texto.
-      - :idioma es el valor recibido por parámetro.
+      - Los idiomas son una máscara de bits en la fila (ver Libro.idiomas):
+        bitand deja solo el bit del idioma buscado.
+      - :bitIdioma es Idioma.bit() del idioma solicitado.
      */
-    @Query("SELECT l FROM Libro l JOIN l.idiomas i WHERE CAST(i AS string) = :idioma")
-    List<Libro> encontrarLibrosPorIdioma(String idioma);
+    @EntityGraph("Libro.detalle")
+    @Query("SELECT l FROM Libro l WHERE bitand(l.idiomas, cast(:bitIdioma as Integer)) <> 0")
+    List<Libro> encontrarLibrosPorIdioma(int bitIdioma);
     // Devuelve una lista de libros escritos en el idioma solicitado.
 
     /*
-      Consulta derivada de Spring Data JPA.
+      Proyecciones para los listados (ver ConsultaLibros).
+      Son records construidos con "SELECT new": Hibernate crea un objeto
+      simple por fila, sin entidad administrada ni proxy de Spring Data.
+     */
+    record LibroFila(Long idLibro, String titulo, Double numeroDeDescargas, short idiomas) {}
+
+    record AutorDeLibro(Long idLibro, String nombre) {}
+
+    /*
+      Página de libros ordenada por título, solo con columnas escalares.
+      Devuelve un Slice: la página pedida y si existe una siguiente,
+      sin el COUNT(*) adicional que necesitaría un Page.
+     */
+    @Query("SELECT new com.aluracursos.literalura.repository.LibroRepository$LibroFila("
+            + "l.idLibro, l.titulo, l.numeroDeDescargas, l.idiomas) FROM Libro l ORDER BY l.titulo")
+    Slice<LibroFila> listarFilas(Pageable pageable);
+
+    /*
+      Versión paginada del filtro por idioma.
+      En PostgreSQL recorre el índice parcial de títulos del idioma
+      (idx_libro_idioma_<código>_titulo, ver MigracionEsquema); en H2 recorre
+      los libros en orden de título (índice único) descartando los de otros
+      idiomas, hasta llenar la página.
+     */
+    @Query("SELECT new com.aluracursos.literalura.repository.LibroRepository$LibroFila("
+            + "l.idLibro, l.titulo, l.numeroDeDescargas, l.idiomas) FROM Libro l "
+            + "WHERE bitand(l.idiomas, cast(:bitIdioma as Integer)) <> 0 ORDER BY l.titulo")
+    Slice<LibroFila> listarFilasPorIdioma(int bitIdioma, Pageable pageable);
+
+    // Filas de los libros indicados, en cualquier orden (por clave primaria)
+    @Query("SELECT new com.aluracursos.literalura.repository.LibroRepository$LibroFila("
+            + "l.idLibro, l.titulo, l.numeroDeDescargas, l.idiomas) FROM Libro l WHERE l.idLibro IN :ids")
+    List<LibroFila> listarFilasPorIds(Collection<Long> ids);
+
+    // Nombres de los autores de los libros indicados (una consulta por página)
+    @Query("SELECT new com.aluracursos.literalura.repository.LibroRepository$AutorDeLibro(l.idLibro, a.nombre) "
+            + "FROM Libro l JOIN l.autores a WHERE l.idLibro IN :ids")
+    List<AutorDeLibro> buscarNombresDeAutores(Collection<Long> ids);
+
+    /*
+      Detección de duplicados por igualdad exacta, usando índices únicos.
+      Son dos consultas separadas a propósito: con "id = ? OR titulo = ?"
+      algunos motores (H2, por ejemplo) no usan ningún índice y recorren la tabla.
+      Como ambas columnas son únicas, cada una devuelve a lo sumo un libro.
+      Los autores llegan con JOIN FETCH escrito en la consulta y no con el
+      entity graph: Hibernate no guarda en caché el plan de las consultas con
+      entity graph y lo traduce a SQL en cada llamada (unas 3 veces más lento
+      en esta ruta, que se ejecuta en cada búsqueda).
+     */
+    @Query("SELECT l FROM Libro l LEFT JOIN FETCH l.autores WHERE l.id = :idGutendex")
+    Optional<Libro> buscarPorIdGutendex(Integer idGutendex);
+
+    @Query("SELECT l FROM Libro l LEFT JOIN FETCH l.autores WHERE l.titulo = :titulo")
+    Optional<Libro> buscarPorTituloExacto(String titulo);
+
+    // ¿Ya está guardado el libro con este id de Gutendex? (solo lee el índice)
+    @Query("SELECT COUNT(l) > 0 FROM Libro l WHERE l.id = :idGutendex")
+    boolean existePorIdGutendex(Integer idGutendex);
 
-      Busca un libro cuyo título contenga el texto indicado,
-      sin distinguir entre mayúsculas y minúsculas.
+    // Los libros más descargados primero (a igual cantidad, por título)
+    @Query("SELECT new com.aluracursos.literalura.repository.LibroRepository$LibroFila("
+            + "l.idLibro, l.titulo, l.numeroDeDescargas, l.idiomas) FROM Libro l "
+            + "ORDER BY l.numeroDeDescargas DESC, l.titulo")
+    Slice<LibroFila> listarFilasPorDescargas(Pageable pageable);
 
-      - Si el libro existe, lo devuelve dentro de un Optional
-      - Si no existe, devuelve Optional.empty()
+    // Los más descargados en un idioma (a igual cantidad, por título);
+    // en PostgreSQL recorre idx_libro_idioma_<código>_descargas, en H2
+    // idx_libro_descargas, y se detiene al juntar los pedidos
+    @Query("SELECT new com.aluracursos.literalura.repository.LibroRepository$LibroFila("
+            + "l.idLibro, l.titulo, l.numeroDeDescargas, l.idiomas) FROM Libro l "
+            + "WHERE bitand(l.idiomas, cast(:bitIdioma as Integer)) <> 0 ORDER BY l.numeroDeDescargas DESC, l.titulo")
+    Slice<LibroFila> listarFilasPorIdiomaYDescargas(int bitIdioma, Pageable pageable);
+
+    // Los más descargados de un autor (a igual cantidad, por título)
+    @Query("SELECT new com.aluracursos.literalura.repository.LibroRepository$LibroFila("
+            + "l.idLibro, l.titulo, l.numeroDeDescargas, l.idiomas) FROM Libro l JOIN l.autores a "
+            + "WHERE a.id = :autorId ORDER BY l.numeroDeDescargas DESC, l.titulo")
+    Slice<LibroFila> listarFilasPorAutorYDescargas(Long autorId, Pageable pageable);
+
+    // Cantidad, mínimo, máximo y suma de descargas, calculados por la base de datos
+    record ResumenDescargas(Long cantidad, Double minimo, Double maximo, Double suma) {}
+
+    @Query("SELECT new com.aluracursos.literalura.repository.LibroRepository$ResumenDescargas("
+            + "COUNT(l), MIN(l.numeroDeDescargas), MAX(l.numeroDeDescargas), SUM(l.numeroDeDescargas)) "
+            + "FROM Libro l")
+    ResumenDescargas resumirDescargas();
+
+    /*
+      Búsqueda "contiene" por título, sin distinguir mayúsculas, paginada.
+      - lower(titulo) LIKE '%texto%' coincide con el índice de trigramas
+        idx_libros_titulo_trgm que crea MigracionEsquema en PostgreSQL
+        (un índice B-tree común no sirve para comodines al inicio)
+      - el texto llega ya en minúsculas y con % y _ escapados (ver ConsultaLibros)
+     */
+    @Query("SELECT new com.aluracursos.literalura.repository.LibroRepository$LibroFila("
+            + "l.idLibro, l.titulo, l.numeroDeDescargas, l.idiomas) FROM Libro l "
+            + "WHERE lower(l.titulo) LIKE CONCAT('%', :texto, '%') ESCAPE '\\' ORDER BY l.titulo")
+    Slice<LibroFila> buscarFilasPorTitulo(String texto, Pageable pageable);
+
+    /*
+      Misma búsqueda, pero los más descargados primero: son los candidatos
+      locales que BuscadorLibros vuelve a ordenar por relevancia.
+     */
+    @Query("SELECT new com.aluracursos.literalura.repository.LibroRepository$LibroFila("
+            + "l.idLibro, l.titulo, l.numeroDeDescargas, l.idiomas) FROM Libro l "
+            + "WHERE lower(l.titulo) LIKE CONCAT('%', :texto, '%') ESCAPE '\\' "
+            + "ORDER BY l.numeroDeDescargas DESC, l.titulo")
+    Slice<LibroFila> buscarFilasPorTituloYDescargas(String texto, Pageable pageable);
+
+    /*
+      Devuelve, de entre los ids de Gutendex indicados,
+      los que ya están guardados. Se usa en la importación masiva
+      para descartar duplicados con una sola consulta por página.
+     */
+    @Query("SELECT l.id FROM Libro l WHERE l.id IN :ids")
+    List<Integer> buscarIdsGutendexExistentes(Collection<Integer> ids);
+
+    /*
+      Igual que la anterior, pero por título
+      (la columna titulo tiene restricción UNIQUE).
      */
-    Optional<Libro> findByTituloContainsIgnoreCase(String titulo);
-}
\ No newline at end of file
+    @Query("SELECT l.titulo FROM Libro l WHERE l.titulo IN :titulos")
+    List<String> buscarTitulosExistentes(Collection<String> titulos);
+}
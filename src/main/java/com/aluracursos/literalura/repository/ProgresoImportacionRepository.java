@@ -0,0 +1,12 @@
+package com.aluracursos.literalura.repository;
+// Paquete de repositorios JPA.
+
+import com.aluracursos.literalura.model.ProgresoImportacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/*
+  Repositorio del progreso de las importaciones masivas.
+  La clave primaria es el nombre del proceso (String).
+ */
+public interface ProgresoImportacionRepository extends JpaRepository<ProgresoImportacion, String> {
+}
@@ -0,0 +1,276 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Idioma;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/*
+ Actualización periódica del número de descargas de los libros guardados.
+ numero_de_descargas se copia de Gutendex al guardar el libro y después
+ no cambia; con el tiempo los rankings y las estadísticas se alejan de la realidad.
+
+ ✔ recorre los libros por id de Gutendex en tramos de "tramo" libros (como mucho 32 = una
+   página de Gutendex; un valor mayor se recorta, porque no se siguen las páginas "next")
+ ✔ pide cada tramo con UNA petición: /books/?ids=1,2,3...
+ ✔ compara con lo guardado y hace UPDATE en lote (JDBC batch) solo de las filas que cambiaron
+ ✔ respeta un máximo de peticiones por segundo (LimitadorTasa)
+ ✔ corre en un hilo propio (virtual con literalura.hilos.virtuales=true):
+   el menú de consola no se bloquea
+ ✔ avisa los cambios con el evento DescargasActualizadas
+
+ Propiedades:
+   literalura.descargas.actualizar-cada=24h          (0 = sin actualización automática)
+   literalura.descargas.primera-actualizacion=5m
+   literalura.descargas.tramo=32
+   literalura.descargas.peticiones-por-segundo=2
+*/
+@Service
+public class ActualizadorDescargas {
+
+    private static final Logger log = LoggerFactory.getLogger(ActualizadorDescargas.class);
+
+    // Gutendex responde /books/?ids= de a 32 libros por página; este actualizador no sigue "next"
+    private static final int LIBROS_POR_PAGINA_GUTENDEX = 32;
+
+    /*
+     Resumen de una pasada completa.
+     "peticionesAhorradas" compara con pedir cada libro por separado.
+    */
+    public record Resultado(int revisados, int actualizados, int peticiones, Duration duracion) {
+
+        public int peticionesAhorradas() {
+            return Math.max(0, revisados - peticiones);
+        }
+
+        public double filasPorSegundo() {
+            return revisados / Math.max(duracion.toNanos() / 1e9, 0.001);
+        }
+    }
+
+    // Fila leída de la base: clave interna, id de Gutendex, descargas guardadas y máscara de idiomas
+    private record Guardado(long idLibro, int idGutendex, double descargas, short idiomas) {}
+
+    private final ConsumoAPI consumoAPI;
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher eventos;
+    private final IConvierteDatos conversor = new ConvierteDatosStreaming();
+    private final LimitadorTasa limitador;
+    private final String urlBase;
+    private final Duration cada;
+    private final Duration primera;
+    private final int tramo;
+
+    private final ScheduledExecutorService ejecutor;
+
+    // Evita dos pasadas a la vez (la programada y una pedida a mano)
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+
+    private volatile Resultado ultimoResultado;
+
+    public ActualizadorDescargas(ConsumoAPI consumoAPI,
+                                 DataSource dataSource,
+                                 ApplicationEventPublisher eventos,
+                                 @Value("${literalura.gutendex.url:https://gutendex.com}") String urlBase,
+                                 @Value("${literalura.descargas.actualizar-cada:24h}") Duration cada,
+                                 @Value("${literalura.descargas.primera-actualizacion:5m}") Duration primera,
+                                 @Value("${literalura.descargas.tramo:32}") int tramo,
+                                 @Value("${literalura.descargas.peticiones-por-segundo:2}") double peticionesPorSegundo,
+                                 @Value("${literalura.hilos.virtuales:false}") boolean virtuales) {
+        this.consumoAPI = consumoAPI;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.eventos = eventos;
+        this.urlBase = urlBase;
+        this.cada = cada;
+        this.primera = primera;
+        // Con un tramo mayor, los libros que no entran en la primera página no se actualizarían
+        if (tramo > LIBROS_POR_PAGINA_GUTENDEX) {
+            log.warn("literalura.descargas.tramo={} supera los {} libros por página de Gutendex; se usa {}",
+                    tramo, LIBROS_POR_PAGINA_GUTENDEX, LIBROS_POR_PAGINA_GUTENDEX);
+        }
+        this.tramo = Math.max(1, Math.min(tramo, LIBROS_POR_PAGINA_GUTENDEX));
+        this.limitador = new LimitadorTasa(peticionesPorSegundo);
+        // Con hilos virtuales, la espera del limitador y de cada petición no ocupa un hilo de plataforma
+        this.ejecutor = Executors.newSingleThreadScheduledExecutor(Hilos.fabrica("descargas-actualizador", virtuales));
+    }
+
+    // Programa las pasadas periódicas una vez que la aplicación arrancó
+    @EventListener(ApplicationReadyEvent.class)
+    public void programar() {
+        if (cada.isZero() || cada.isNegative()) {
+            return;
+        }
+        ejecutor.scheduleWithFixedDelay(this::actualizarYRegistrar,
+                primera.toMillis(), cada.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Lanza una pasada ahora, en el hilo del actualizador
+    public CompletableFuture<Resultado> actualizarAhora() {
+        return CompletableFuture.supplyAsync(this::actualizar, ejecutor);
+    }
+
+    public Resultado ultimoResultado() {
+        return ultimoResultado;
+    }
+
+    /*
+     Una pasada completa sobre todos los libros guardados (en el hilo que llama).
+     Si ya hay una en curso devuelve null sin hacer nada.
+    */
+    public Resultado actualizar() {
+        return actualizar(Avance.NINGUNO);
+    }
+
+    // Igual, informando el avance con cada tramo; si se cancela, devuelve lo revisado hasta ahí
+    public Resultado actualizar(Avance avance) {
+        if (!enCurso.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            long inicio = System.nanoTime();
+            long total = jdbc.queryForObject("SELECT COUNT(*) FROM libros", Long.class);
+            int revisados = 0;
+            int actualizados = 0;
+            int peticiones = 0;
+            int ultimoId = Integer.MIN_VALUE;
+
+            List<Guardado> guardados;
+            while (!avance.cancelado() && !(guardados = leerTramo(ultimoId)).isEmpty()) {
+                ultimoId = guardados.get(guardados.size() - 1).idGutendex();
+
+                limitador.adquirir();
+                Map<Integer, Double> actuales = consultarGutendex(guardados);
+                peticiones++;
+
+                actualizados += aplicar(guardados, actuales);
+                revisados += guardados.size();
+                avance.informar(revisados, total, String.format("%d de %d libros revisados · %d actualizados",
+                        revisados, total, actualizados));
+            }
+
+            Resultado resultado = new Resultado(revisados, actualizados, peticiones,
+                    Duration.ofNanos(System.nanoTime() - inicio));
+            ultimoResultado = resultado;
+            return resultado;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Actualización de descargas interrumpida", e);
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    // Pasada programada: los errores se registran y la próxima vuelve a intentar
+    private void actualizarYRegistrar() {
+        try {
+            Resultado r = actualizar();
+            if (r != null) {
+                log.info("Descargas actualizadas: {} libros revisados, {} cambiaron, {} peticiones "
+                                + "({} ahorradas), {} filas/s",
+                        r.revisados(), r.actualizados(), r.peticiones(), r.peticionesAhorradas(),
+                        Math.round(r.filasPorSegundo()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron actualizar las descargas: {}", e.getMessage());
+        }
+    }
+
+    // Siguiente tramo por id de Gutendex (recorrido por clave, sin OFFSET)
+    private List<Guardado> leerTramo(int despuesDe) {
+        return jdbc.query("SELECT id_libro, id, numero_de_descargas, idiomas_mascara FROM libros"
+                        + " WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, fila) -> new Guardado(rs.getLong(1), rs.getInt(2), rs.getDouble(3), rs.getShort(4)),
+                despuesDe, tramo);
+    }
+
+    // Descargas actuales en Gutendex de los libros del tramo (id de Gutendex → descargas)
+    private Map<Integer, Double> consultarGutendex(List<Guardado> guardados) {
+        String ids = guardados.stream()
+                .map(g -> String.valueOf(g.idGutendex()))
+                .collect(Collectors.joining(","));
+        Map<Integer, Double> actuales = new HashMap<>();
+        String url = urlBase + "/books/?ids=" + ids;
+        Datos datos = consumoAPI.obtenerDatos(url, Datos.class, conversor);
+        if (datos.resultados() != null) {
+            for (DatosLibro libro : datos.resultados()) {
+                if (libro.id() != null && libro.numeroDeDescargas() != null) {
+                    actuales.put(libro.id(), libro.numeroDeDescargas());
+                }
+            }
+        }
+        return actuales;
+    }
+
+    /*
+     UPDATE en lote de los libros cuyo número cambió y aviso del cambio.
+     Devuelve cuántas filas se actualizaron.
+    */
+    private int aplicar(List<Guardado> guardados, Map<Integer, Double> actuales) {
+        List<Guardado> cambiados = new ArrayList<>();
+        List<Object[]> parametros = new ArrayList<>();
+        for (Guardado g : guardados) {
+            Double actual = actuales.get(g.idGutendex());
+            if (actual != null && actual != g.descargas()) {
+                cambiados.add(g);
+                parametros.add(new Object[]{actual, g.idLibro()});
+            }
+        }
+        if (cambiados.isEmpty()) {
+            return 0;
+        }
+        jdbc.batchUpdate("UPDATE libros SET numero_de_descargas = ? WHERE id_libro = ?", parametros);
+
+        // Los idiomas (los necesitan las estadísticas por idioma) llegaron con el tramo;
+        // los autores (los necesita el ranking por autor) se leen solo para los cambiados
+        Map<Long, List<Long>> autores = autoresDe(cambiados);
+        List<DescargasActualizadas.Cambio> cambios = new ArrayList<>(cambiados.size());
+        for (Guardado g : cambiados) {
+            cambios.add(new DescargasActualizadas.Cambio(g.idLibro(), g.descargas(),
+                    actuales.get(g.idGutendex()), Idioma.deMascara(g.idiomas()),
+                    autores.getOrDefault(g.idLibro(), List.of())));
+        }
+        eventos.publishEvent(new DescargasActualizadas(cambios));
+        return cambios.size();
+    }
+
+    // Ids de los autores de cada libro (una consulta por tramo)
+    private Map<Long, List<Long>> autoresDe(List<Guardado> libros) {
+        Map<Long, List<Long>> autores = new HashMap<>();
+        jdbc.query("SELECT libro_id_libro, autor_id FROM libro_autor WHERE libro_id_libro IN ("
+                        + String.join(",", Collections.nCopies(libros.size(), "?")) + ")",
+                (RowCallbackHandler) rs -> autores.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>())
+                        .add(rs.getLong(2)),
+                libros.stream().map(Guardado::idLibro).toArray());
+        return autores;
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,141 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Ámbito de tareas con cancelación estructurada (parecido a StructuredTaskScope
+ de Java 21, que en Java 17 no existe).
+
+   try (AmbitoTareas ambito = new AmbitoTareas(ejecutor)) {
+       CompletableFuture<Datos> a = ambito.lanzar(() -> ...);
+       CompletableFuture<Datos> b = ambito.lanzar(() -> ...);
+       ... a.join(), b.join() ...
+   }
+
+ ✔ si una tarea falla, se cancelan las demás (se interrumpe su hilo, lo que
+   corta una petición HTTP bloqueante en curso)
+ ✔ al cerrar el ámbito se cancelan las tareas que sigan pendientes y se
+   espera a que sus hilos las abandonen: ninguna tarea sobrevive al bloque try
+ ✔ funciona con cualquier ejecutor; con hilos virtuales (Hilos.porTarea)
+   cada tarea bloqueante cuesta muy poca memoria
+
+ El ejecutor es de quien crea el ámbito: cerrar el ámbito no lo apaga.
+*/
+public final class AmbitoTareas implements AutoCloseable {
+
+    // Espera máxima al cerrar a que las tareas canceladas terminen
+    private static final long ESPERA_CIERRE_MS = 5_000;
+
+    private final Executor ejecutor;
+    // Tareas entregadas al ejecutor cuyo hilo todavía no salió de ellas
+    private final List<FutureTask<?>> tareas = new ArrayList<>();
+    private boolean cerrado;
+
+    public AmbitoTareas(Executor ejecutor) {
+        this.ejecutor = ejecutor;
+    }
+
+    /*
+     Ejecuta la tarea en el ejecutor del ámbito.
+     El futuro devuelto se completa con el resultado o con el error de la tarea,
+     o se cancela si el ámbito se cierra antes. Cancelarlo interrumpe la tarea.
+    */
+    public <T> CompletableFuture<T> lanzar(Callable<T> tarea) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        FutureTask<Void> enEjecucion = new FutureTask<>(() -> {
+            try {
+                resultado.complete(tarea.call());
+            } catch (Throwable e) {
+                resultado.completeExceptionally(e);
+            }
+        }, null);
+
+        synchronized (this) {
+            if (cerrado) {
+                throw new IllegalStateException("El ámbito ya está cerrado");
+            }
+            tareas.add(enEjecucion);
+        }
+        resultado.whenComplete((r, e) -> {
+            if (resultado.isCancelled()) {
+                enEjecucion.cancel(true);
+            }
+        });
+
+        try {
+            // El envoltorio corre siempre, aunque la tarea se haya cancelado antes
+            // de empezar (en ese caso FutureTask.run() vuelve enseguida)
+            ejecutor.execute(() -> {
+                try {
+                    enEjecucion.run();
+                } finally {
+                    if (enEjecucion.isCancelled()) {
+                        resultado.cancel(false);
+                    }
+                    terminada(enEjecucion);
+                    // Una tarea que falló cancela a las demás
+                    if (resultado.isCompletedExceptionally() && !resultado.isCancelled()) {
+                        cancelarTodas();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            terminada(enEjecucion);
+            resultado.completeExceptionally(e);
+        }
+        return resultado;
+    }
+
+    // Cancela las tareas no terminadas y espera a que sus hilos las abandonen
+    @Override
+    public void close() {
+        synchronized (this) {
+            cerrado = true;
+        }
+        cancelarTodas();
+
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_CIERRE_MS);
+        boolean interrumpido = false;
+        synchronized (this) {
+            while (!tareas.isEmpty()) {
+                long restante = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime());
+                if (restante <= 0) {
+                    break;
+                }
+                try {
+                    wait(restante);
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void cancelarTodas() {
+        List<FutureTask<?>> copia;
+        synchronized (this) {
+            copia = new ArrayList<>(tareas);
+        }
+        for (FutureTask<?> tarea : copia) {
+            tarea.cancel(true);
+        }
+    }
+
+    private synchronized void terminada(FutureTask<?> tarea) {
+        tareas.remove(tarea);
+        if (tareas.isEmpty()) {
+            notifyAll();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+/*
+ Lo que ve una tarea larga (importación, actualización de descargas) del
+ trabajo que la ejecuta:
+ ✔ informar: cuánto lleva hecho, de cuánto (0 = total desconocido) y una
+   línea de detalle para el listado de trabajos del menú
+ ✔ cancelado: la tarea lo consulta entre páginas o tramos y termina dejando
+   confirmado lo ya guardado
+
+ NINGUNO es para las llamadas directas (pruebas, benchmarks): no informa nada
+ y nunca se cancela.
+*/
+public interface Avance {
+
+    Avance NINGUNO = new Avance() {
+        @Override
+        public void informar(long hechos, long total, String detalle) {
+        }
+
+        @Override
+        public boolean cancelado() {
+            return false;
+        }
+    };
+
+    void informar(long hechos, long total, String detalle);
+
+    boolean cancelado();
+}
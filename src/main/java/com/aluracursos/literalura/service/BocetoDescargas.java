@@ -0,0 +1,165 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import java.util.Arrays;
+
+/*
+ Resumen aproximado de una serie de cantidades de descargas:
+ cantidad, suma, mínimo y máximo exactos + percentiles con 1% de error relativo.
+
+ ✔ histograma de cubetas logarítmicas (como DDSketch / HdrHistogram):
+   la cubeta k guarda los valores en (γ^(k-1), γ^k], con γ = 1.01 / 0.99
+ ✔ memoria fija (~1.000 contadores) sin importar cuántos libros haya
+ ✔ se puede combinar (sumar cubetas) y quitar valores, así un cambio de
+   descargas se aplica como "quitar el viejo + agregar el nuevo"
+
+ Los valores menores que 1 (libros sin descargas) van a una cubeta aparte.
+ Si se quita el mínimo o el máximo, pasan a ser el borde de la primera/última
+ cubeta con valores (con el mismo error del 1%).
+*/
+public final class BocetoDescargas {
+
+    public static final double ERROR_RELATIVO = 0.01;
+
+    private static final double GAMMA = (1 + ERROR_RELATIVO) / (1 - ERROR_RELATIVO);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    // Hasta 10^9 descargas; los valores mayores van a la última cubeta
+    private static final int CUBETAS = (int) Math.ceil(Math.log(1e9) / LOG_GAMMA) + 1;
+
+    private final long[] cubetas = new long[CUBETAS];
+    private long ceros;
+    private long cantidad;
+    private double suma;
+    private double minimo = Double.POSITIVE_INFINITY;
+    private double maximo = Double.NEGATIVE_INFINITY;
+
+    public void agregar(double valor) {
+        if (valor < 1) {
+            ceros++;
+        } else {
+            cubetas[cubeta(valor)]++;
+        }
+        cantidad++;
+        suma += valor;
+        minimo = Math.min(minimo, valor);
+        maximo = Math.max(maximo, valor);
+    }
+
+    public void quitar(double valor) {
+        if (cantidad == 0) {
+            return;
+        }
+        if (valor < 1) {
+            if (ceros == 0) return;
+            ceros--;
+        } else {
+            int k = cubeta(valor);
+            if (cubetas[k] == 0) return;
+            cubetas[k]--;
+        }
+        cantidad--;
+        suma -= valor;
+        if (cantidad == 0) {
+            limpiar();
+            return;
+        }
+        if (valor <= minimo) {
+            minimo = ceros > 0 ? 0 : estimacion(primeraCubeta());
+        }
+        if (valor >= maximo) {
+            int ultima = ultimaCubeta();
+            maximo = ultima >= 0 ? estimacion(ultima) : 0;
+        }
+    }
+
+    // Suma las cubetas de otro boceto a este
+    public void combinar(BocetoDescargas otro) {
+        for (int k = 0; k < CUBETAS; k++) {
+            cubetas[k] += otro.cubetas[k];
+        }
+        ceros += otro.ceros;
+        cantidad += otro.cantidad;
+        suma += otro.suma;
+        minimo = Math.min(minimo, otro.minimo);
+        maximo = Math.max(maximo, otro.maximo);
+    }
+
+    public BocetoDescargas copia() {
+        BocetoDescargas copia = new BocetoDescargas();
+        copia.combinar(this);
+        return copia;
+    }
+
+    public long cantidad() {
+        return cantidad;
+    }
+
+    public double suma() {
+        return suma;
+    }
+
+    public double minimo() {
+        return cantidad == 0 ? 0 : minimo;
+    }
+
+    public double maximo() {
+        return cantidad == 0 ? 0 : maximo;
+    }
+
+    public double promedio() {
+        return cantidad == 0 ? 0 : suma / cantidad;
+    }
+
+    /*
+     Valor aproximado del cuantil q (0 = mínimo, 0.5 = mediana, 1 = máximo).
+     Recorre las cubetas: el costo depende de la precisión, no de la cantidad de libros.
+    */
+    public double cuantil(double q) {
+        if (cantidad == 0) {
+            return 0;
+        }
+        long rango = (long) Math.floor(q * (cantidad - 1));
+        if (rango < ceros) {
+            return minimo();
+        }
+        long acumulado = ceros;
+        for (int k = 0; k < CUBETAS; k++) {
+            acumulado += cubetas[k];
+            if (acumulado > rango) {
+                return Math.max(minimo(), Math.min(maximo(), estimacion(k)));
+            }
+        }
+        return maximo();
+    }
+
+    private void limpiar() {
+        Arrays.fill(cubetas, 0);
+        ceros = 0;
+        suma = 0;
+        minimo = Double.POSITIVE_INFINITY;
+        maximo = Double.NEGATIVE_INFINITY;
+    }
+
+    private int primeraCubeta() {
+        for (int k = 0; k < CUBETAS; k++) {
+            if (cubetas[k] > 0) return k;
+        }
+        return -1;
+    }
+
+    private int ultimaCubeta() {
+        for (int k = CUBETAS - 1; k >= 0; k--) {
+            if (cubetas[k] > 0) return k;
+        }
+        return -1;
+    }
+
+    private static int cubeta(double valor) {
+        return Math.min(CUBETAS - 1, (int) Math.ceil(Math.log(valor) / LOG_GAMMA));
+    }
+
+    // Punto de la cubeta k con error relativo <= ERROR_RELATIVO para cualquier valor dentro de ella
+    private static double estimacion(int k) {
+        return 2 * Math.pow(GAMMA, k) / (GAMMA + 1);
+    }
+}
@@ -0,0 +1,272 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.LibroResumen;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/*
+ Búsqueda de libros por texto con resultados ordenados por relevancia.
+
+ ✔ primero busca en la base de datos: si algún libro guardado tiene en el título
+   todas las palabras buscadas, se responde sin consultar Gutendex
+   (repetir una búsqueda no usa la red)
+ ✔ los candidatos locales salen del índice de texto (IndiceLibros), que también
+   encuentra palabras mal escritas; mientras no está listo, de un LIKE
+   por la palabra más larga
+ ✔ si no, junta los candidatos locales con los de Gutendex, les asigna un
+   puntaje (Relevancia) y los ordena: puntaje, luego descargas, luego título
+ ✔ mientras el usuario lee una página de resultados, la siguiente página de
+   Gutendex ya se está descargando en otro hilo
+ ✔ los resultados se entregan de a páginas; lo ya mostrado no cambia de lugar
+   aunque después lleguen candidatos mejores
+*/
+@Service
+public class BuscadorLibros {
+
+    private static final Logger log = LoggerFactory.getLogger(BuscadorLibros.class);
+
+    // Candidatos locales que se puntúan
+    private static final int CANDIDATOS_LOCALES = 100;
+
+    // Puntaje de un candidato del índice que solo coincide con palabras aproximadas
+    private static final double APROXIMADO = 1;
+
+    // Páginas de Gutendex que se recorren como máximo en una búsqueda
+    private static final int PAGINAS_MAXIMAS = 10;
+
+    // Orden de los resultados: relevancia, descargas y título
+    static final Comparator<Candidato> ORDEN = Comparator.comparingDouble(Candidato::puntaje).reversed()
+            .thenComparing(Comparator.comparingDouble(Candidato::descargas).reversed())
+            .thenComparing(Candidato::titulo);
+
+    private final ConsumoAPICacheado consumoAPI;
+    private final ConsultaLibros consultaLibros;
+    private final IndiceLibros indiceLibros;
+    private final IConvierteDatos conversor = new ConvierteDatosStreaming();
+    private final String urlBase;
+
+    // Descarga anticipada de la página siguiente
+    private final ExecutorService hilos;
+
+    public BuscadorLibros(ConsumoAPICacheado consumoAPI,
+                          ConsultaLibros consultaLibros,
+                          IndiceLibros indiceLibros,
+                          @Value("${literalura.gutendex.url:https://gutendex.com}") String urlBase,
+                          @Value("${literalura.hilos.virtuales:false}") boolean virtuales) {
+        this.consumoAPI = consumoAPI;
+        this.consultaLibros = consultaLibros;
+        this.indiceLibros = indiceLibros;
+        this.urlBase = urlBase;
+        this.hilos = Hilos.porTarea("busqueda-siguiente", virtuales);
+    }
+
+    /*
+     Un resultado: un libro de Gutendex (datos) o uno ya guardado (guardado),
+     con su puntaje.
+    */
+    public record Candidato(DatosLibro datos, LibroResumen guardado, double puntaje) {
+
+        public String titulo() {
+            return guardado != null ? guardado.titulo() : datos.titulo();
+        }
+
+        public double descargas() {
+            Double descargas = guardado != null ? guardado.numeroDeDescargas() : datos.numeroDeDescargas();
+            return descargas != null ? descargas : 0;
+        }
+
+        public List<String> autores() {
+            if (guardado != null) {
+                return guardado.autores();
+            }
+            return datos.autores() == null ? List.of() : datos.autores().stream().map(DatosAutor::nombre).toList();
+        }
+
+        public List<Idioma> idiomas() {
+            if (guardado != null) {
+                return guardado.idiomas();
+            }
+            return datos.idiomas() == null ? List.of()
+                    : datos.idiomas().stream().map(Idioma::desdeCodigo).distinct().toList();
+        }
+    }
+
+    /*
+     Empieza una búsqueda. La primera página de Gutendex (si hace falta) se pide
+     aquí mismo; las siguientes, por adelantado. Cerrar la búsqueda cancela
+     la descarga pendiente.
+    */
+    public Busqueda buscar(String texto) {
+        Busqueda busqueda = new Busqueda(Relevancia.palabras(texto));
+        busqueda.iniciar(texto);
+        return busqueda;
+    }
+
+    public class Busqueda implements AutoCloseable {
+
+        private final List<String> palabras;
+
+        // Candidatos aún no mostrados y títulos ya vistos (para no repetir un libro)
+        private final List<Candidato> pendientes = new ArrayList<>();
+        private final Set<String> titulos = new HashSet<>();
+
+        private boolean soloLocal;
+        private String siguienteUrl;
+        private CompletableFuture<Datos> enCamino;
+        private int paginasPedidas;
+
+        private Busqueda(List<String> palabras) {
+            this.palabras = palabras;
+        }
+
+        // true si se respondió solo con la base de datos, sin consultar Gutendex
+        public boolean soloLocal() {
+            return soloLocal;
+        }
+
+        public boolean hayMas() {
+            return !pendientes.isEmpty() || enCamino != null;
+        }
+
+        /*
+         Los "cantidad" mejores candidatos aún no mostrados.
+         Solo espera a Gutendex si lo ya recibido no alcanza para llenar la página.
+        */
+        public List<Candidato> siguientePagina(int cantidad) {
+            while (pendientes.size() < cantidad && enCamino != null) {
+                CompletableFuture<Datos> pedida = enCamino;
+                enCamino = null;
+                agregarPagina(esperar(pedida));
+            }
+            pendientes.sort(ORDEN);
+            List<Candidato> pagina = new ArrayList<>(pendientes.subList(0, Math.min(cantidad, pendientes.size())));
+            pendientes.subList(0, pagina.size()).clear();
+            pedirSiguiente();
+            return pagina;
+        }
+
+        @Override
+        public void close() {
+            if (enCamino != null) {
+                enCamino.cancel(true);
+                enCamino = null;
+            }
+        }
+
+        private void iniciar(String texto) {
+            if (palabras.isEmpty()) {
+                return;
+            }
+            boolean conIndice = indiceLibros.estaListo();
+            for (LibroResumen libro : candidatosLocales(texto, conIndice)) {
+                double puntaje = Relevancia.puntaje(palabras, libro.titulo(), libro.autores());
+                // El índice ya filtró: lo que no puntúa coincide con palabras aproximadas
+                if (conIndice) {
+                    puntaje = Math.max(puntaje, APROXIMADO);
+                }
+                if (puntaje > 0 && titulos.add(libro.titulo())) {
+                    pendientes.add(new Candidato(null, libro, puntaje));
+                    soloLocal |= Relevancia.cubre(palabras, libro.titulo());
+                }
+            }
+            if (soloLocal) {
+                return;
+            }
+
+            try {
+                paginasPedidas = 1;
+                agregarPagina(consumoAPI.obtenerDatos(
+                        urlBase + "/books/?search=" + URLEncoder.encode(texto.trim(), StandardCharsets.UTF_8),
+                        Datos.class, conversor));
+            } catch (ErrorGutendex e) {
+                // Con candidatos locales se muestran esos; sin ninguno, el error llega al menú
+                if (pendientes.isEmpty()) {
+                    throw e;
+                }
+                log.warn("Búsqueda sin Gutendex, solo con la base de datos: {}", e.getMessage());
+            }
+            pedirSiguiente();
+        }
+
+        private List<LibroResumen> candidatosLocales(String texto, boolean conIndice) {
+            if (conIndice) {
+                return indiceLibros.buscar(texto, PageRequest.of(0, CANDIDATOS_LOCALES)).getContent();
+            }
+            // La palabra más larga es la que menos libros locales trae
+            String masLarga = palabras.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+            return consultaLibros.buscarCandidatos(masLarga, CANDIDATOS_LOCALES);
+        }
+
+        private void agregarPagina(Datos datos) {
+            if (datos == null || datos.resultados() == null) {
+                siguienteUrl = null;
+                return;
+            }
+            siguienteUrl = paginasPedidas < PAGINAS_MAXIMAS ? datos.siguiente() : null;
+            for (DatosLibro libro : datos.resultados()) {
+                if (libro.titulo() == null) {
+                    continue;
+                }
+                List<String> autores = libro.autores() == null ? List.of()
+                        : libro.autores().stream().map(DatosAutor::nombre).toList();
+                double puntaje = Relevancia.puntaje(palabras, libro.titulo(), autores);
+                if (puntaje > 0 && titulos.add(libro.titulo())) {
+                    pendientes.add(new Candidato(libro, null, puntaje));
+                }
+            }
+        }
+
+        // Lanza la descarga de la página siguiente de Gutendex, si hay y no está ya en camino
+        private void pedirSiguiente() {
+            if (enCamino != null || siguienteUrl == null) {
+                return;
+            }
+            String url = enLaUrlBase(siguienteUrl);
+            siguienteUrl = null;
+            paginasPedidas++;
+            enCamino = CompletableFuture.supplyAsync(() -> consumoAPI.obtenerDatos(url, Datos.class, conversor), hilos);
+        }
+
+        // Una página adelantada que falla solo acorta los resultados
+        private Datos esperar(CompletableFuture<Datos> pedida) {
+            try {
+                return pedida.join();
+            } catch (CompletionException e) {
+                log.warn("No se pudo descargar la página siguiente de la búsqueda: {}", e.getCause().getMessage());
+                return null;
+            }
+        }
+    }
+
+    // Gutendex devuelve "next" con su propio host: se conserva la consulta y se usa la URL configurada
+    private String enLaUrlBase(String siguiente) {
+        int consulta = siguiente.indexOf('?');
+        return consulta < 0 ? siguiente : urlBase + "/books/" + siguiente.substring(consulta);
+    }
+
+    @PreDestroy
+    public void detener() {
+        hilos.shutdownNow();
+    }
+}
@@ -0,0 +1,230 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.Autor;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.repository.AutorRepository;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ Caché en memoria "clave natural del autor → id" usada al guardar libros.
+
+ Sin ella, cada autor de cada libro importado requeriría un SELECT
+ para saber si ya existe. Con ella:
+ ✔ precargar() trae todas las claves con UNA consulta al iniciar una importación
+ ✔ los autores existentes se enlazan por id, sin volver a consultarlos
+ ✔ los autores nuevos se insertan una sola vez, aunque aparezcan en varios libros
+ ✔ si la caché no fue precargada, un fallo se consulta en la base de datos
+
+ Varios escritores a la vez (menú, importación de Gutendex, API, archivo local):
+ ✔ solo una transacción por vez inserta autores: la que necesita uno nuevo
+   toma el candado y lo suelta al terminar (tras el COMMIT o el ROLLBACK).
+   Sin él, dos transacciones que no ven los autores no confirmados de la
+   otra insertarían el mismo dos veces (o una fallaría por la clave única
+   y se perdería su tramo entero)
+ ✔ los ids nuevos se publican en la caché recién tras el COMMIT; hasta
+   entonces solo los ve la transacción que los insertó
+ ✔ las transacciones que solo enlazan autores existentes no esperan
+*/
+@Service
+public class CacheAutores {
+
+    // Espera máxima por el candado antes de desistir (y revertir la transacción)
+    private static final long SEGUNDOS_ESPERA_CANDADO = 60;
+
+    /*
+     Clave natural de un autor. Los años pueden ser null;
+     los records comparan null con null como iguales.
+    */
+    public record ClaveAutor(String nombre, Integer nacimiento, Integer defuncion) {
+        public static ClaveAutor de(Autor autor) {
+            return new ClaveAutor(autor.getNombre(), autor.getFechaDeNacimiento(), autor.getFechaDeDefuncion());
+        }
+    }
+
+    private final AutorRepository autorRepository;
+
+    // Ids confirmados por clave natural
+    private final Map<ClaveAutor, Long> ids = new ConcurrentHashMap<>();
+
+    // true cuando "ids" contiene todos los autores de la base de datos
+    private volatile boolean completa;
+
+    // Lo tiene la transacción que está insertando autores, hasta que termina
+    private final ReentrantLock candado = new ReentrantLock();
+
+    public CacheAutores(AutorRepository autorRepository) {
+        this.autorRepository = autorRepository;
+    }
+
+    /*
+     Carga todas las claves existentes. Se llama al empezar una importación masiva.
+    */
+    public void precargar() {
+        for (AutorRepository.ClaveAutorProyeccion a : autorRepository.listarClaves()) {
+            ids.put(new ClaveAutor(a.getNombre(), a.getFechaDeNacimiento(), a.getFechaDeDefuncion()), a.getId());
+        }
+        completa = true;
+    }
+
+    public int tamano() {
+        return ids.size();
+    }
+
+    /*
+     Prepara los autores de un tramo de libros antes de guardarlo
+     (debe llamarse dentro de la transacción que guarda el tramo):
+     - si el autor ya existe, se le asigna su id y se enlaza sin insertarlo
+     - si es nuevo, se persiste una sola vez y todos los libros del tramo
+       que lo mencionan comparten la misma instancia; la transacción toma
+       el candado de inserción hasta terminar
+     Devuelve los autores nuevos, para registrarlos tras el flush.
+    */
+    public List<Autor> resolver(List<Libro> libros, EntityManager entityManager) {
+        Map<ClaveAutor, Autor> nuevos = new HashMap<>();
+        Pendientes pendientes = pendientes();
+
+        for (Libro libro : libros) {
+            if (libro.getAutores() == null) {
+                continue;
+            }
+            ListIterator<Autor> it = libro.getAutores().listIterator();
+            while (it.hasNext()) {
+                Autor autor = it.next();
+                if (autor.getId() != null) {
+                    continue;
+                }
+                ClaveAutor clave = ClaveAutor.de(autor);
+
+                Long id = buscarId(clave, pendientes);
+                if (id == null && pendientes != null && pendientes.tomarCandado()) {
+                    // Otra transacción pudo confirmarlo mientras se esperaba el candado
+                    id = buscarId(clave, pendientes);
+                }
+                if (id != null) {
+                    autor.setId(id);
+                    continue;
+                }
+
+                Autor compartido = nuevos.get(clave);
+                if (compartido == null) {
+                    entityManager.persist(autor);
+                    nuevos.put(clave, autor);
+                } else {
+                    it.set(compartido);
+                }
+            }
+        }
+        return List.copyOf(nuevos.values());
+    }
+
+    /*
+     Registra los ids de los autores recién insertados. Los siguientes tramos
+     de la misma transacción los ven de inmediato; el resto, tras el COMMIT
+     (si la transacción se revierte, se descartan).
+    */
+    public void registrar(List<Autor> autores) {
+        Pendientes pendientes = pendientes();
+        for (Autor autor : autores) {
+            (pendientes != null ? pendientes.ids : ids).put(ClaveAutor.de(autor), autor.getId());
+        }
+    }
+
+    // Busca en la transacción, luego en memoria; si la caché no está completa, consulta la base de datos
+    private Long buscarId(ClaveAutor clave, Pendientes pendientes) {
+        Long id = pendientes != null ? pendientes.ids.get(clave) : null;
+        if (id == null) {
+            id = ids.get(clave);
+        }
+        if (id != null || completa) {
+            return id;
+        }
+        List<Long> encontrados = autorRepository.buscarIdPorClave(clave.nombre(), clave.nacimiento(), clave.defuncion());
+        if (encontrados.isEmpty()) {
+            return null;
+        }
+        ids.put(clave, encontrados.get(0));
+        return encontrados.get(0);
+    }
+
+    // Estado de la transacción en curso, o null si no hay una (se usa la caché sin candado)
+    private Pendientes pendientes() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Pendientes pendientes = (Pendientes) TransactionSynchronizationManager.getResource(this);
+        if (pendientes == null) {
+            pendientes = new Pendientes();
+            TransactionSynchronizationManager.bindResource(this, pendientes);
+            TransactionSynchronizationManager.registerSynchronization(pendientes);
+        }
+        return pendientes;
+    }
+
+    /*
+     Autores insertados por una transacción que todavía no confirmó,
+     y si esa transacción tiene el candado.
+    */
+    private final class Pendientes implements TransactionSynchronization {
+
+        private final Map<ClaveAutor, Long> ids = new HashMap<>();
+        private boolean conCandado;
+
+        // Toma el candado la primera vez; devuelve true si hubo que tomarlo ahora
+        private boolean tomarCandado() {
+            if (conCandado) {
+                return false;
+            }
+            try {
+                if (!candado.tryLock(SEGUNDOS_ESPERA_CANDADO, TimeUnit.SECONDS)) {
+                    throw new CannotAcquireLockException(
+                            "Otra transacción lleva más de " + SEGUNDOS_ESPERA_CANDADO + " s insertando autores");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CannotAcquireLockException("Espera del candado de autores interrumpida", e);
+            }
+            conCandado = true;
+            return true;
+        }
+
+        // Una transacción anidada (REQUIRES_NEW) lleva su propio estado
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(CacheAutores.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(CacheAutores.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            CacheAutores.this.ids.putAll(ids);
+        }
+
+        // Tras afterCommit: quien espera el candado ya encuentra los ids en la caché
+        @Override
+        public void afterCompletion(int estado) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheAutores.this);
+            if (conCandado) {
+                conCandado = false;
+                candado.unlock();
+            }
+        }
+    }
+}
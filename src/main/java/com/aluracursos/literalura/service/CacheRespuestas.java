@@ -0,0 +1,418 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ Caché de respuestas de Gutendex en dos niveles.
+
+ ✔ memoria: LRU (LinkedHashMap en orden de acceso) acotada por bytes de cuerpo
+ ✔ disco: un archivo JSON comprimido con gzip por URL, que sobrevive reinicios
+   y también está acotado por tamaño (se borran primero los menos usados)
+ ✔ cada entrada guarda ETag y Last-Modified para revalidarla con una petición
+   condicional cuando vence su TTL (ver ConsumoAPICacheado)
+ ✔ contadores de aciertos, fallos, revalidaciones y expulsiones
+
+ Las claves son URLs normalizadas (ver normalizarClave): la misma búsqueda
+ escrita con otras mayúsculas o espacios comparte la misma entrada.
+*/
+@Service
+public class CacheRespuestas {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheRespuestas.class);
+
+    // Versión del formato de los archivos en disco
+    private static final int VERSION_FORMATO = 1;
+
+    private static final String EXTENSION = ".json.gz";
+
+    /*
+     Respuesta guardada.
+     "guardadaEn" es el momento (epoch en ms) de la última descarga o revalidación.
+    */
+    public record Entrada(byte[] cuerpo, String etag, String ultimaModificacion, long guardadaEn) {
+
+        public boolean estaFresca(Duration ttl, long ahora) {
+            return ahora - guardadaEn < ttl.toMillis();
+        }
+
+        // La misma respuesta, confirmada por el servidor (304) en el instante indicado
+        public Entrada revalidada(String nuevoEtag, String nuevaModificacion, long ahora) {
+            return new Entrada(cuerpo,
+                    nuevoEtag != null ? nuevoEtag : etag,
+                    nuevaModificacion != null ? nuevaModificacion : ultimaModificacion,
+                    ahora);
+        }
+    }
+
+    // Resultado de una búsqueda: la entrada y el nivel donde se encontró
+    public record Encontrada(Entrada entrada, boolean desdeMemoria) {
+    }
+
+    // Copia instantánea de los contadores
+    public record Estadisticas(long aciertosMemoria, long aciertosDisco, long revalidaciones,
+                               long fallos, long expulsionesMemoria, long expulsionesDisco,
+                               int entradasMemoria, long bytesMemoria) {
+
+        public long consultas() {
+            return aciertosMemoria + aciertosDisco + revalidaciones + fallos;
+        }
+
+        public double tasaDeAciertos() {
+            long total = consultas();
+            return total == 0 ? 0 : (double) (aciertosMemoria + aciertosDisco + revalidaciones) / total;
+        }
+    }
+
+    private final Duration ttl;
+    private final long maxBytesMemoria;
+    private final long maxBytesDisco;
+
+    // null = nivel de disco desactivado
+    private final Path directorio;
+
+    // Nivel en memoria; todo acceso se sincroniza sobre el propio mapa
+    private final LinkedHashMap<String, Entrada> memoria = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytesMemoria;
+
+    // Tamaño estimado del directorio (-1 = aún no calculado)
+    private final AtomicLong bytesDisco = new AtomicLong(-1);
+
+    private final LongAdder aciertosMemoria = new LongAdder();
+    private final LongAdder aciertosDisco = new LongAdder();
+    private final LongAdder revalidaciones = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder expulsionesMemoria = new LongAdder();
+    private final LongAdder expulsionesDisco = new LongAdder();
+
+    /*
+     Constructor usado por Spring. Valores configurables:
+       literalura.cache.ttl=10m
+       literalura.cache.memoria-max-kb=16384
+       literalura.cache.disco-max-mb=64
+       literalura.cache.directorio=/ruta/a/la/cache   (vacío = solo memoria)
+    */
+    @Autowired
+    public CacheRespuestas(@Value("${literalura.cache.ttl:10m}") Duration ttl,
+                           @Value("${literalura.cache.memoria-max-kb:16384}") long memoriaMaxKb,
+                           @Value("${literalura.cache.disco-max-mb:64}") long discoMaxMb,
+                           @Value("${literalura.cache.directorio:${user.home}/.literalura/cache}") String directorio) {
+        this(ttl, memoriaMaxKb * 1024, discoMaxMb * 1024 * 1024,
+                directorio == null || directorio.isBlank() ? null : Path.of(directorio));
+    }
+
+    // Constructor usado fuera de Spring (pruebas, benchmarks); límites en bytes
+    public CacheRespuestas(Duration ttl, long maxBytesMemoria, long maxBytesDisco, Path directorio) {
+        this.ttl = ttl;
+        this.maxBytesMemoria = maxBytesMemoria;
+        this.maxBytesDisco = maxBytesDisco;
+        this.directorio = directorio;
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    /*
+     Busca primero en memoria y después en disco.
+     Lo encontrado en disco se promueve a memoria.
+     Puede devolver una entrada vencida: quien llama decide si revalidarla.
+     Devuelve null si no está en ningún nivel.
+    */
+    public Encontrada buscar(String clave) {
+        synchronized (memoria) {
+            Entrada entrada = memoria.get(clave);
+            if (entrada != null) {
+                return new Encontrada(entrada, true);
+            }
+        }
+        Entrada enDisco = leerDeDisco(clave);
+        if (enDisco == null) {
+            return null;
+        }
+        guardarEnMemoria(clave, enDisco);
+        return new Encontrada(enDisco, false);
+    }
+
+    // Guarda (o reemplaza) una entrada en ambos niveles
+    public void guardar(String clave, Entrada entrada) {
+        guardarEnMemoria(clave, entrada);
+        escribirEnDisco(clave, entrada);
+    }
+
+    // ---------------- CONTADORES ----------------
+
+    public void registrarAciertoMemoria() { aciertosMemoria.increment(); }
+    public void registrarAciertoDisco() { aciertosDisco.increment(); }
+    public void registrarRevalidacion() { revalidaciones.increment(); }
+    public void registrarFallo() { fallos.increment(); }
+
+    public Estadisticas estadisticas() {
+        int entradas;
+        long bytes;
+        synchronized (memoria) {
+            entradas = memoria.size();
+            bytes = bytesMemoria;
+        }
+        return new Estadisticas(aciertosMemoria.sum(), aciertosDisco.sum(), revalidaciones.sum(),
+                fallos.sum(), expulsionesMemoria.sum(), expulsionesDisco.sum(), entradas, bytes);
+    }
+
+    // ---------------- NIVEL EN MEMORIA ----------------
+
+    private void guardarEnMemoria(String clave, Entrada entrada) {
+        int tamano = entrada.cuerpo().length;
+        if (tamano > maxBytesMemoria) {
+            // Una respuesta más grande que toda la memoria solo va a disco
+            return;
+        }
+        synchronized (memoria) {
+            Entrada anterior = memoria.put(clave, entrada);
+            bytesMemoria += tamano - (anterior != null ? anterior.cuerpo().length : 0);
+
+            // Expulsa las menos usadas recientemente hasta volver al límite
+            Iterator<Entrada> it = memoria.values().iterator();
+            while (bytesMemoria > maxBytesMemoria && it.hasNext()) {
+                Entrada expulsada = it.next();
+                it.remove();
+                bytesMemoria -= expulsada.cuerpo().length;
+                expulsionesMemoria.increment();
+            }
+        }
+    }
+
+    // ---------------- NIVEL EN DISCO ----------------
+
+    /*
+     Formato del archivo (todo dentro de un flujo gzip):
+     versión, clave, etag, last-modified, guardadaEn, largo del cuerpo, cuerpo.
+     La clave se guarda para descartar colisiones del nombre de archivo.
+    */
+    private Entrada leerDeDisco(String clave) {
+        if (directorio == null) {
+            return null;
+        }
+        Path archivo = archivoDe(clave);
+        try (DataInputStream entrada = new DataInputStream(new GZIPInputStream(Files.newInputStream(archivo)))) {
+            if (entrada.readInt() != VERSION_FORMATO || !clave.equals(entrada.readUTF())) {
+                return null;
+            }
+            String etag = vacioANulo(entrada.readUTF());
+            String modificacion = vacioANulo(entrada.readUTF());
+            long guardadaEn = entrada.readLong();
+            byte[] cuerpo = new byte[entrada.readInt()];
+            entrada.readFully(cuerpo);
+
+            // La fecha de modificación del archivo marca el último uso (para expulsar por LRU)
+            Files.setLastModifiedTime(archivo, FileTime.fromMillis(System.currentTimeMillis()));
+            return new Entrada(cuerpo, etag, modificacion, guardadaEn);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            // Archivo truncado o corrupto: se descarta y se vuelve a descargar
+            log.debug("Entrada de caché ilegible {}: {}", archivo, e.getMessage());
+            borrar(archivo);
+            return null;
+        }
+    }
+
+    /*
+     Escribe en un archivo temporal y lo mueve en un solo paso,
+     así un lector concurrente nunca ve un archivo a medio escribir.
+    */
+    private void escribirEnDisco(String clave, Entrada entrada) {
+        if (directorio == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directorio);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(entrada.cuerpo().length / 4 + 256);
+            try (DataOutputStream salida = new DataOutputStream(new GZIPOutputStream(buffer))) {
+                salida.writeInt(VERSION_FORMATO);
+                salida.writeUTF(clave);
+                salida.writeUTF(entrada.etag() != null ? entrada.etag() : "");
+                salida.writeUTF(entrada.ultimaModificacion() != null ? entrada.ultimaModificacion() : "");
+                salida.writeLong(entrada.guardadaEn());
+                salida.writeInt(entrada.cuerpo().length);
+                salida.write(entrada.cuerpo());
+            }
+
+            Path destino = archivoDe(clave);
+            long tamanoAnterior = Files.exists(destino) ? Files.size(destino) : 0;
+            Path temporal = Files.createTempFile(directorio, "entrada", ".tmp");
+            try (OutputStream archivo = Files.newOutputStream(temporal)) {
+                buffer.writeTo(archivo);
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            if (bytesDisco.get() < 0) {
+                bytesDisco.compareAndSet(-1, medirDirectorio());
+            } else {
+                bytesDisco.addAndGet(buffer.size() - tamanoAnterior);
+            }
+            if (bytesDisco.get() > maxBytesDisco) {
+                recortarDisco();
+            }
+        } catch (IOException e) {
+            // El disco es una mejora, no un requisito: se sigue solo con memoria
+            log.warn("No se pudo escribir la caché en disco: {}", e.getMessage());
+        }
+    }
+
+    /*
+     Borra los archivos usados hace más tiempo hasta quedar en el 90% del límite,
+     para no recortar en cada escritura.
+    */
+    private synchronized void recortarDisco() {
+        List<Path> archivos = new ArrayList<>();
+        try (Stream<Path> lista = Files.list(directorio)) {
+            lista.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).forEach(archivos::add);
+        } catch (IOException e) {
+            return;
+        }
+        Map<Path, FileTime> usos = new LinkedHashMap<>();
+        long total = 0;
+        for (Path archivo : archivos) {
+            try {
+                usos.put(archivo, Files.getLastModifiedTime(archivo));
+                total += Files.size(archivo);
+            } catch (IOException ignorado) {
+                // Borrado por otro hilo mientras se listaba
+            }
+        }
+        long objetivo = maxBytesDisco * 9 / 10;
+        List<Path> porUso = new ArrayList<>(usos.keySet());
+        porUso.sort((a, b) -> usos.get(a).compareTo(usos.get(b)));
+        for (Path archivo : porUso) {
+            if (total <= objetivo) {
+                break;
+            }
+            try {
+                long tamano = Files.size(archivo);
+                if (borrar(archivo)) {
+                    total -= tamano;
+                    expulsionesDisco.increment();
+                }
+            } catch (IOException ignorado) {
+                // Ya no existe
+            }
+        }
+        bytesDisco.set(total);
+    }
+
+    private long medirDirectorio() {
+        try (Stream<Path> lista = Files.list(directorio)) {
+            return lista.filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                    .mapToLong(p -> {
+                        try {
+                            return Files.size(p);
+                        } catch (IOException e) {
+                            return 0;
+                        }
+                    }).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path archivoDe(String clave) {
+        try {
+            byte[] resumen = MessageDigest.getInstance("SHA-256").digest(clave.getBytes(StandardCharsets.UTF_8));
+            return directorio.resolve(HexFormat.of().formatHex(resumen, 0, 16) + EXTENSION);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 está presente en toda JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean borrar(Path archivo) {
+        try {
+            return Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static String vacioANulo(String texto) {
+        return texto.isEmpty() ? null : texto;
+    }
+
+    // ---------------- NORMALIZACIÓN DE CLAVES ----------------
+
+    /*
+     Convierte una URL en la clave de la caché:
+     ✔ esquema y host en minúsculas
+     ✔ parámetros de la consulta ordenados por nombre
+     ✔ el texto de "search" en minúsculas, sin espacios repetidos
+       (Gutendex no distingue mayúsculas en las búsquedas)
+     Así "?search=Don  Quijote" y "?search=don+quijote" comparten entrada.
+    */
+    public static String normalizarClave(String url) {
+        URI uri = URI.create(url);
+        String consulta = uri.getRawQuery();
+
+        List<String> parametros = new ArrayList<>();
+        if (consulta != null && !consulta.isEmpty()) {
+            for (String par : consulta.split("&")) {
+                if (par.isEmpty()) {
+                    continue;
+                }
+                int igual = par.indexOf('=');
+                String nombre = decodificar(igual < 0 ? par : par.substring(0, igual));
+                String valor = igual < 0 ? "" : decodificar(par.substring(igual + 1));
+                valor = valor.trim().replaceAll("\\s+", " ");
+                if ("search".equals(nombre)) {
+                    valor = valor.toLowerCase(Locale.ROOT);
+                }
+                parametros.add(URLEncoder.encode(nombre, StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(valor, StandardCharsets.UTF_8));
+            }
+            parametros.sort(null);
+        }
+
+        String esquema = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "https";
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "";
+        String puerto = uri.getPort() >= 0 ? ":" + uri.getPort() : "";
+        String ruta = uri.getRawPath() != null ? uri.getRawPath() : "";
+        return esquema + "://" + host + puerto + ruta
+                + (parametros.isEmpty() ? "" : "?" + String.join("&", parametros));
+    }
+
+    private static String decodificar(String texto) {
+        return URLDecoder.decode(texto, StandardCharsets.UTF_8);
+    }
+}
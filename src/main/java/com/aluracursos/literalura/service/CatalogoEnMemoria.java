@@ -0,0 +1,727 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.Autor;
+import com.aluracursos.literalura.model.AutorResumen;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.LibroResumen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/*
+ Instantánea del catálogo en memoria para las consultas del menú (opciones 2 a 7).
+
+ ✔ se construye al arrancar, en segundo plano, con cuatro SELECT planos por JDBC;
+   si la base no responde, se reintenta con esperas crecientes (hasta 5 min)
+ ✔ guarda los datos en arreglos por columna (ids, años, descargas, máscara de idiomas)
+   en lugar de entidades: poca memoria por libro y recorridos secuenciales
+ ✔ se actualiza con cada guardado: PersistenciaLotes publica LibrosGuardados
+   y un hilo aparte incorpora los libros nuevos (sin volver a leer la base)
+   armando una instantánea nueva que reemplaza a la vigente; las consultas
+   nunca esperan esa reconstrucción: responden con la vigente, así que un
+   libro recién guardado aparece unos milisegundos después. Los guardados que
+   llegan mientras se reconstruye se juntan en la vuelta siguiente (en una
+   importación, una reconstrucción por vuelta y no una por página)
+ ✔ las descargas que trae ActualizadorDescargas (evento DescargasActualizadas)
+   se aplican sin reordenar todo: se copian las cantidades y solo los libros
+   que cambiaron se vuelven a ubicar en el orden por descargas
+ ✔ mientras no hay instantánea ni carga en curso, los eventos se descartan
+   (la próxima carga los lee de la base), así las colas no crecen sin límite
+ ✔ "autores vivos" usa un índice de intervalos (IndiceVidas) en lugar de
+   recorrer todos los autores; los años que faltan se tratan según PoliticaVidas
+ ✔ responde sin pasar por JPA; mientras no está lista (o si está desactivada)
+   delega en ConsultaLibros
+
+ Los títulos y nombres se ordenan con String.compareTo; en PostgreSQL el orden
+ de ORDER BY depende de la collation de la base y puede diferir en mayúsculas
+ y signos de puntuación.
+
+ Se desactiva con literalura.catalogo.en-memoria=false.
+*/
+@Service
+public class CatalogoEnMemoria implements ConsultasCatalogo {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoEnMemoria.class);
+
+    // Marca de "año desconocido" en los arreglos de años
+    static final int SIN_ANIO = Integer.MIN_VALUE;
+
+    private static final Idioma[] IDIOMAS = Idioma.values();
+
+    // Esperas entre reintentos de la carga inicial (se duplican hasta el máximo)
+    private static final long SEGUNDOS_PRIMER_REINTENTO = 5;
+    private static final long SEGUNDOS_MAXIMO_REINTENTO = 300;
+
+    // Filas intermedias: se usan solo al construir una instantánea
+    record FilaAutor(long id, String nombre, int nacimiento, int defuncion) {}
+
+    record FilaLibro(long id, int idGutendex, String titulo, double descargas, int idiomas, long[] autores) {}
+
+    private final ConsultaLibros respaldo;
+    private final PoliticaVidas politicaVidas;
+    private final JdbcTemplate jdbc;
+    private final boolean habilitado;
+
+    // Instantánea vigente (null hasta que termina la primera carga)
+    private volatile Instantanea actual;
+
+    // Sube con cada instantánea nueva (la API la usa en los ETag)
+    private final AtomicLong generacion = new AtomicLong();
+
+    // true mientras se lee la base: lo guardado en ese lapso se aplica encima
+    private volatile boolean cargando;
+
+    // Hay un hilo incorporando pendientes
+    private final AtomicBoolean incorporando = new AtomicBoolean();
+
+    // Libros guardados que todavía no se incorporaron a la instantánea
+    private final ConcurrentLinkedQueue<FilaLibro> librosPendientes = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<FilaAutor> autoresPendientes = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<DescargasActualizadas.Cambio> descargasPendientes = new ConcurrentLinkedQueue<>();
+
+    public CatalogoEnMemoria(ConsultaLibros respaldo, PoliticaVidas politicaVidas, DataSource dataSource,
+                             @Value("${literalura.catalogo.en-memoria:true}") boolean habilitado) {
+        this.respaldo = respaldo;
+        this.politicaVidas = politicaVidas;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.habilitado = habilitado;
+    }
+
+    // ---------------- CICLO DE VIDA ----------------
+
+    /*
+     Carga inicial en un hilo aparte. El menú de consola corre en su propio
+     hilo (ver LiteraluraHpgApplication), así que ApplicationReadyEvent llega
+     apenas arranca la aplicación y no al salir del menú.
+    */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (!habilitado) {
+            return;
+        }
+        Thread hilo = new Thread(this::cargarConReintentos, "catalogo-en-memoria");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    // Mientras la carga falle, se reintenta; entre tanto las consultas van a la base
+    private void cargarConReintentos() {
+        long espera = SEGUNDOS_PRIMER_REINTENTO;
+        while (!reconstruir()) {
+            log.info("Se reintenta cargar el catálogo en memoria en {} s", espera);
+            try {
+                TimeUnit.SECONDS.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            espera = Math.min(espera * 2, SEGUNDOS_MAXIMO_REINTENTO);
+        }
+    }
+
+    /*
+     Vuelve a leer todo el catálogo desde la base de datos y devuelve si lo logró.
+     Los libros guardados mientras tanto quedan en la cola de pendientes
+     y se aplican encima (los repetidos se descartan por id).
+    */
+    public boolean reconstruir() {
+        cargando = true;
+        try {
+            long inicio = System.nanoTime();
+            Instantanea cargada = cargarDesdeBase();
+            synchronized (this) {
+                instalar(aplicarPendientes(cargada));
+            }
+            log.info("Catálogo en memoria listo: {} libros, {} autores en {} ms",
+                    actual.cantidadLibros(), actual.cantidadAutores(), (System.nanoTime() - inicio) / 1_000_000);
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("No se pudo cargar el catálogo en memoria; se consultará la base de datos: {}", e.getMessage());
+            return false;
+        } finally {
+            cargando = false;
+            if (actual == null) {
+                // Sin instantánea no hay dónde aplicarlos: la próxima carga los lee de la base
+                librosPendientes.clear();
+                autoresPendientes.clear();
+                descargasPendientes.clear();
+            } else if (hayPendientes()) {
+                // Llegaron mientras se armaba la instantánea, cuando todavía no había dónde incorporarlos
+                programarIncorporacion();
+            }
+        }
+    }
+
+    // Recibe los libros insertados, solo si la transacción se confirmó
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alGuardar(LibrosGuardados evento) {
+        if (!recibeCambios()) {
+            return;
+        }
+        for (Libro libro : evento.libros()) {
+            List<Autor> autores = libro.getAutores() != null ? libro.getAutores() : List.of();
+            long[] ids = new long[autores.size()];
+            for (int i = 0; i < ids.length; i++) {
+                Autor a = autores.get(i);
+                ids[i] = a.getId();
+                autoresPendientes.add(new FilaAutor(a.getId(), a.getNombre(),
+                        anio(a.getFechaDeNacimiento()), anio(a.getFechaDeDefuncion())));
+            }
+            // La máscara de la entidad usa los mismos bits que la instantánea
+            librosPendientes.add(new FilaLibro(libro.getIdLibro(),
+                    libro.getId() != null ? libro.getId() : 0, libro.getTitulo(),
+                    libro.getNumeroDeDescargas() != null ? libro.getNumeroDeDescargas() : 0,
+                    libro.getIdiomasMascara() & 0xFFFF, ids));
+        }
+        programarIncorporacion();
+    }
+
+    // Cantidades traídas de Gutendex por ActualizadorDescargas
+    @EventListener
+    public void alActualizarDescargas(DescargasActualizadas evento) {
+        if (recibeCambios()) {
+            descargasPendientes.addAll(evento.cambios());
+            programarIncorporacion();
+        }
+    }
+
+    public boolean estaLista() {
+        return actual != null;
+    }
+
+    // Instantánea vigente, o null si todavía no hay ninguna (en ese caso se usa el respaldo)
+    Instantanea instantanea() {
+        return actual;
+    }
+
+    /*
+     Cuenta las instantáneas instaladas. Sube después de cambiar la vigente:
+     quien lee una generación consulta esa instantánea o una más nueva.
+    */
+    public long generacion() {
+        return generacion.get();
+    }
+
+    private void instalar(Instantanea nueva) {
+        actual = nueva;
+        generacion.incrementAndGet();
+    }
+
+    // Hay dónde aplicar los cambios: una instantánea o una carga que los tomará al terminar
+    private boolean recibeCambios() {
+        return habilitado && (actual != null || cargando);
+    }
+
+    private boolean hayPendientes() {
+        return !librosPendientes.isEmpty() || !autoresPendientes.isEmpty() || !descargasPendientes.isEmpty();
+    }
+
+    // Lanza el hilo que incorpora los pendientes, si no hay uno ya (sin instantánea, la carga los aplica)
+    private void programarIncorporacion() {
+        if (actual == null || !incorporando.compareAndSet(false, true)) {
+            return;
+        }
+        Thread hilo = new Thread(this::incorporar, "catalogo-en-memoria-incorporar");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    // Arma instantáneas nuevas hasta vaciar las colas; las consultas siguen con la vigente
+    private void incorporar() {
+        try {
+            while (hayPendientes()) {
+                synchronized (this) {
+                    instalar(aplicarPendientes(actual));
+                }
+            }
+        } finally {
+            incorporando.set(false);
+        }
+        // Lo que llegó entre la última vuelta y la bajada de la marca
+        if (hayPendientes()) {
+            programarIncorporacion();
+        }
+    }
+
+    // ---------------- CONSULTAS ----------------
+
+    @Override
+    public Slice<LibroResumen> listar(Pageable pagina) {
+        Instantanea i = instantanea();
+        return i == null ? respaldo.listar(pagina) : i.listar(pagina);
+    }
+
+    @Override
+    public Slice<LibroResumen> listarPorIdioma(Idioma idioma, Pageable pagina) {
+        Instantanea i = instantanea();
+        return i == null ? respaldo.listarPorIdioma(idioma, pagina) : i.listarPorIdioma(idioma, pagina);
+    }
+
+    @Override
+    public Slice<AutorResumen> listarAutores(Pageable pagina) {
+        Instantanea i = instantanea();
+        return i == null ? respaldo.listarAutores(pagina) : i.listarAutores(pagina);
+    }
+
+    @Override
+    public Slice<AutorResumen> listarAutoresVivosEntre(int desde, int hasta, Pageable pagina) {
+        Instantanea i = instantanea();
+        return i == null ? respaldo.listarAutoresVivosEntre(desde, hasta, pagina)
+                : i.listarAutoresVivosEntre(desde, hasta, pagina);
+    }
+
+    @Override
+    public List<LibroResumen> masDescargados(int cantidad) {
+        Instantanea i = instantanea();
+        return i == null ? respaldo.masDescargados(cantidad) : i.masDescargados(cantidad);
+    }
+
+    @Override
+    public DoubleSummaryStatistics estadisticasDescargas() {
+        Instantanea i = instantanea();
+        return i == null ? respaldo.estadisticasDescargas() : i.estadisticasDescargas();
+    }
+
+    // ---------------- CARGA E INCORPORACIÓN ----------------
+
+    private Instantanea cargarDesdeBase() {
+        Map<Long, FilaAutor> autores = new HashMap<>();
+        jdbc.query("SELECT id, nombre, fecha_de_nacimiento, fecha_de_defuncion FROM autores", rs -> {
+            long id = rs.getLong(1);
+            int nacimiento = rs.getInt(3);
+            if (rs.wasNull()) nacimiento = SIN_ANIO;
+            int defuncion = rs.getInt(4);
+            if (rs.wasNull()) defuncion = SIN_ANIO;
+            autores.put(id, new FilaAutor(id, rs.getString(2), nacimiento, defuncion));
+        });
+
+        Map<Long, List<Long>> autoresPorLibro = new HashMap<>();
+        jdbc.query("SELECT libro_id_libro, autor_id FROM libro_autor", rs -> {
+            autoresPorLibro.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>(2)).add(rs.getLong(2));
+        });
+
+        List<FilaLibro> libros = new ArrayList<>();
+        jdbc.query("SELECT id_libro, id, titulo, numero_de_descargas, idiomas_mascara FROM libros", rs -> {
+            long id = rs.getLong(1);
+            List<Long> ids = autoresPorLibro.getOrDefault(id, List.of());
+            libros.add(new FilaLibro(id, rs.getInt(2), rs.getString(3), rs.getDouble(4),
+                    rs.getShort(5) & 0xFFFF,
+                    ids.stream().mapToLong(Long::longValue).toArray()));
+        });
+
+        return new Instantanea(libros, autores.values(), politicaVidas);
+    }
+
+    /*
+     Incorpora a la instantánea los libros, autores y descargas pendientes.
+     Se llama siempre con el monitor tomado, así dos hilos no aplican
+     la misma cola a la vez.
+    */
+    private Instantanea aplicarPendientes(Instantanea base) {
+        if (librosPendientes.isEmpty() && autoresPendientes.isEmpty()) {
+            return descargasPendientes.isEmpty() ? base : base.conDescargas(tomarDescargas());
+        }
+        Map<Long, FilaAutor> autores = new LinkedHashMap<>();
+        base.filasAutores().forEach(a -> autores.put(a.id(), a));
+        for (FilaAutor a; (a = autoresPendientes.poll()) != null; ) {
+            autores.putIfAbsent(a.id(), a);
+        }
+
+        Map<Long, FilaLibro> libros = new LinkedHashMap<>();
+        base.filasLibros().forEach(l -> libros.put(l.id(), l));
+        for (FilaLibro l; (l = librosPendientes.poll()) != null; ) {
+            libros.put(l.id(), l);
+        }
+        for (DescargasActualizadas.Cambio c; (c = descargasPendientes.poll()) != null; ) {
+            double nueva = c.nueva();
+            libros.computeIfPresent(c.idLibro(), (id, l) ->
+                    new FilaLibro(l.id(), l.idGutendex(), l.titulo(), nueva, l.idiomas(), l.autores()));
+        }
+        return new Instantanea(new ArrayList<>(libros.values()), autores.values(), politicaVidas);
+    }
+
+    // Vacía la cola de descargas; si un libro cambió varias veces, vale la última
+    private Map<Long, Double> tomarDescargas() {
+        Map<Long, Double> cambios = new HashMap<>();
+        for (DescargasActualizadas.Cambio c; (c = descargasPendientes.poll()) != null; ) {
+            cambios.put(c.idLibro(), c.nueva());
+        }
+        return cambios;
+    }
+
+    private static int anio(Integer anio) {
+        return anio != null ? anio : SIN_ANIO;
+    }
+
+    /*
+     Catálogo inmutable en arreglos por columna.
+     Libros ordenados por título y autores por nombre, como los ORDER BY
+     de ConsultaLibros; las relaciones se guardan en formato CSR
+     (arreglo de inicios + arreglo plano de índices).
+    */
+    static final class Instantanea {
+
+        // Libros (posición = orden por título)
+        private final long[] idLibro;
+        private final int[] idGutendex;
+        private final String[] titulo;
+        private final double[] descargas;
+        private final int[] idiomas;          // bit i = Idioma con ordinal i
+        private final int[] autoresInicio;    // autores del libro i: autoresIndice[autoresInicio[i] .. autoresInicio[i+1])
+        private final int[] autoresIndice;
+
+        // Autores (posición = orden por nombre)
+        private final long[] idAutor;
+        private final String[] nombre;
+        private final int[] nacimiento;
+        private final int[] defuncion;
+        private final int[] librosInicio;
+        private final int[] librosIndice;
+
+        // Índices precalculados
+        private final int[] porDescargas;     // posiciones de libros, más descargados primero
+        private final int[][] porIdioma;      // posiciones de libros de cada idioma, por título
+        private final DoubleSummaryStatistics estadisticas;
+        private final IndiceVidas vidas;      // años de vida de los autores, según PoliticaVidas
+
+        Instantanea(List<FilaLibro> libros, java.util.Collection<FilaAutor> filasAutores, PoliticaVidas politica) {
+            // Autores por nombre (a igual nombre, por id)
+            FilaAutor[] autores = filasAutores.toArray(FilaAutor[]::new);
+            Arrays.sort(autores, Comparator.comparing(FilaAutor::nombre, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparingLong(FilaAutor::id));
+            int m = autores.length;
+            idAutor = new long[m];
+            nombre = new String[m];
+            nacimiento = new int[m];
+            defuncion = new int[m];
+            Map<Long, Integer> posicionAutor = new HashMap<>(m * 2);
+            for (int j = 0; j < m; j++) {
+                idAutor[j] = autores[j].id();
+                nombre[j] = autores[j].nombre();
+                nacimiento[j] = autores[j].nacimiento();
+                defuncion[j] = autores[j].defuncion();
+                posicionAutor.put(idAutor[j], j);
+            }
+            vidas = indexarVidas(politica);
+
+            // Libros por título
+            libros.sort(Comparator.comparing(FilaLibro::titulo, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparingLong(FilaLibro::id));
+            int n = libros.size();
+            idLibro = new long[n];
+            idGutendex = new int[n];
+            titulo = new String[n];
+            descargas = new double[n];
+            idiomas = new int[n];
+            autoresInicio = new int[n + 1];
+            int[] librosPorAutor = new int[m];
+            int enlaces = 0;
+            for (FilaLibro l : libros) {
+                enlaces += l.autores().length;
+            }
+            autoresIndice = new int[enlaces];
+            int k = 0;
+            estadisticas = new DoubleSummaryStatistics();
+            for (int i = 0; i < n; i++) {
+                FilaLibro l = libros.get(i);
+                idLibro[i] = l.id();
+                idGutendex[i] = l.idGutendex();
+                titulo[i] = l.titulo();
+                descargas[i] = l.descargas();
+                idiomas[i] = l.idiomas();
+                estadisticas.accept(l.descargas());
+                autoresInicio[i] = k;
+                for (long id : l.autores()) {
+                    Integer j = posicionAutor.get(id);
+                    if (j != null) {
+                        autoresIndice[k++] = j;
+                        librosPorAutor[j]++;
+                    }
+                }
+            }
+            autoresInicio[n] = k;
+
+            // Relación inversa autor → libros (los libros quedan en orden de título)
+            librosInicio = new int[m + 1];
+            for (int j = 0; j < m; j++) {
+                librosInicio[j + 1] = librosInicio[j] + librosPorAutor[j];
+            }
+            librosIndice = new int[k];
+            int[] llenos = Arrays.copyOf(librosInicio, m);
+            for (int i = 0; i < n; i++) {
+                for (int p = autoresInicio[i]; p < autoresInicio[i + 1]; p++) {
+                    int j = autoresIndice[p];
+                    librosIndice[llenos[j]++] = i;
+                }
+            }
+
+            // Más descargados primero; a igual cantidad, por título (= posición)
+            porDescargas = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.<Integer>comparingDouble(i -> -descargas[i]).thenComparingInt(i -> i))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            // Un arreglo de posiciones por idioma
+            int[] cantidadPorIdioma = new int[IDIOMAS.length];
+            for (int i = 0; i < n; i++) {
+                for (int b = 0; b < IDIOMAS.length; b++) {
+                    if ((idiomas[i] & (1 << b)) != 0) cantidadPorIdioma[b]++;
+                }
+            }
+            porIdioma = new int[IDIOMAS.length][];
+            for (int b = 0; b < IDIOMAS.length; b++) {
+                porIdioma[b] = new int[cantidadPorIdioma[b]];
+            }
+            int[] llenosIdioma = new int[IDIOMAS.length];
+            for (int i = 0; i < n; i++) {
+                for (int b = 0; b < IDIOMAS.length; b++) {
+                    if ((idiomas[i] & (1 << b)) != 0) porIdioma[b][llenosIdioma[b]++] = i;
+                }
+            }
+        }
+
+        // Igual a "base" salvo las descargas; comparte el resto de los arreglos
+        private Instantanea(Instantanea base, double[] descargas, int[] porDescargas,
+                            DoubleSummaryStatistics estadisticas) {
+            idLibro = base.idLibro;
+            idGutendex = base.idGutendex;
+            titulo = base.titulo;
+            idiomas = base.idiomas;
+            autoresInicio = base.autoresInicio;
+            autoresIndice = base.autoresIndice;
+            idAutor = base.idAutor;
+            nombre = base.nombre;
+            nacimiento = base.nacimiento;
+            defuncion = base.defuncion;
+            librosInicio = base.librosInicio;
+            librosIndice = base.librosIndice;
+            porIdioma = base.porIdioma;
+            vidas = base.vidas;
+            this.descargas = descargas;
+            this.porDescargas = porDescargas;
+            this.estadisticas = estadisticas;
+        }
+
+        /*
+         Copia con otras cantidades de descargas (por id de libro; los que no
+         están se ignoran). En lugar de volver a ordenar todo: los libros que
+         cambiaron salen del orden por descargas, se ordenan entre ellos y se
+         intercalan con el resto, que ya estaba en orden. O(n + c·log c).
+        */
+        Instantanea conDescargas(Map<Long, Double> cambios) {
+            int n = idLibro.length;
+            double[] nuevas = descargas.clone();
+            boolean[] cambiado = new boolean[n];
+            List<Integer> movidos = new ArrayList<>(cambios.size());
+            for (int i = 0; i < n && movidos.size() < cambios.size(); i++) {
+                Double d = cambios.get(idLibro[i]);
+                if (d != null && d != nuevas[i]) {
+                    nuevas[i] = d;
+                    cambiado[i] = true;
+                    movidos.add(i);
+                }
+            }
+            if (movidos.isEmpty()) {
+                return this;
+            }
+            // Mismo orden que al construir: más descargados primero y, a igual cantidad, por posición
+            Comparator<Integer> orden = Comparator.<Integer>comparingDouble(i -> -nuevas[i]).thenComparingInt(i -> i);
+            movidos.sort(orden);
+
+            int[] intercalado = new int[n];
+            int k = 0;
+            int m = 0;
+            for (int p : porDescargas) {
+                if (cambiado[p]) {
+                    continue;
+                }
+                while (m < movidos.size() && orden.compare(movidos.get(m), p) < 0) {
+                    intercalado[k++] = movidos.get(m++);
+                }
+                intercalado[k++] = p;
+            }
+            while (m < movidos.size()) {
+                intercalado[k++] = movidos.get(m++);
+            }
+
+            DoubleSummaryStatistics nuevasEstadisticas = new DoubleSummaryStatistics();
+            for (double d : nuevas) {
+                nuevasEstadisticas.accept(d);
+            }
+            return new Instantanea(this, nuevas, intercalado, nuevasEstadisticas);
+        }
+
+        int cantidadLibros() {
+            return idLibro.length;
+        }
+
+        int cantidadAutores() {
+            return idAutor.length;
+        }
+
+        Slice<LibroResumen> listar(Pageable pagina) {
+            int desde = (int) Math.min(pagina.getOffset(), idLibro.length);
+            int hasta = Math.min(desde + pagina.getPageSize(), idLibro.length);
+            List<LibroResumen> contenido = new ArrayList<>(hasta - desde);
+            for (int i = desde; i < hasta; i++) {
+                contenido.add(libro(i));
+            }
+            return new SliceImpl<>(contenido, pagina, hasta < idLibro.length);
+        }
+
+        Slice<LibroResumen> listarPorIdioma(Idioma idioma, Pageable pagina) {
+            int[] posiciones = porIdioma[idioma.ordinal()];
+            int desde = (int) Math.min(pagina.getOffset(), posiciones.length);
+            int hasta = Math.min(desde + pagina.getPageSize(), posiciones.length);
+            List<LibroResumen> contenido = new ArrayList<>(hasta - desde);
+            for (int p = desde; p < hasta; p++) {
+                contenido.add(libro(posiciones[p]));
+            }
+            return new SliceImpl<>(contenido, pagina, hasta < posiciones.length);
+        }
+
+        Slice<AutorResumen> listarAutores(Pageable pagina) {
+            int desde = (int) Math.min(pagina.getOffset(), idAutor.length);
+            int hasta = Math.min(desde + pagina.getPageSize(), idAutor.length);
+            List<AutorResumen> contenido = new ArrayList<>(hasta - desde);
+            for (int j = desde; j < hasta; j++) {
+                contenido.add(autor(j));
+            }
+            return new SliceImpl<>(contenido, pagina, hasta < idAutor.length);
+        }
+
+        /*
+         Mismas condiciones que ConsultaLibros: el índice marca un bit por autor
+         (posición = orden por nombre) y la página se arma recorriendo los bits.
+        */
+        Slice<AutorResumen> listarAutoresVivosEntre(int desde, int hasta, Pageable pagina) {
+            long[] marcas = new long[(idAutor.length + 63) >>> 6];
+            vidas.marcar(desde, hasta, marcas);
+            long saltar = pagina.getOffset();
+            int tamano = pagina.getPageSize();
+            List<AutorResumen> contenido = new ArrayList<>(tamano);
+            for (int palabra = 0; palabra < marcas.length; palabra++) {
+                for (long bits = marcas[palabra]; bits != 0; bits &= bits - 1) {
+                    int j = (palabra << 6) + Long.numberOfTrailingZeros(bits);
+                    if (saltar > 0) {
+                        saltar--;
+                    } else if (contenido.size() < tamano) {
+                        contenido.add(autor(j));
+                    } else {
+                        // Hay al menos uno más: existe una página siguiente
+                        return new SliceImpl<>(contenido, pagina, true);
+                    }
+                }
+            }
+            return new SliceImpl<>(contenido, pagina, false);
+        }
+
+        // Intervalos de vida de los autores que la política permite ubicar
+        private IndiceVidas indexarVidas(PoliticaVidas politica) {
+            int m = idAutor.length;
+            int[] inicios = new int[m];
+            int[] fines = new int[m];
+            int[] posiciones = new int[m];
+            int cantidad = 0;
+            for (int j = 0; j < m; j++) {
+                Integer nac = nacimiento[j] == SIN_ANIO ? null : nacimiento[j];
+                Integer def = defuncion[j] == SIN_ANIO ? null : defuncion[j];
+                Integer inicio = politica.inicio(nac, def);
+                Integer fin = politica.fin(nac, def);
+                if (inicio != null && fin != null) {
+                    inicios[cantidad] = inicio;
+                    fines[cantidad] = fin;
+                    posiciones[cantidad++] = j;
+                }
+            }
+            return new IndiceVidas(inicios, fines, posiciones, cantidad);
+        }
+
+        List<LibroResumen> masDescargados(int cantidad) {
+            int hasta = Math.min(cantidad, porDescargas.length);
+            List<LibroResumen> contenido = new ArrayList<>(hasta);
+            for (int p = 0; p < hasta; p++) {
+                contenido.add(libro(porDescargas[p]));
+            }
+            return contenido;
+        }
+
+        // Copia: DoubleSummaryStatistics es mutable
+        DoubleSummaryStatistics estadisticasDescargas() {
+            return estadisticas.getCount() == 0 ? new DoubleSummaryStatistics()
+                    : new DoubleSummaryStatistics(estadisticas.getCount(), estadisticas.getMin(),
+                    estadisticas.getMax(), estadisticas.getSum());
+        }
+
+        private LibroResumen libro(int i) {
+            List<String> autores = new ArrayList<>(autoresInicio[i + 1] - autoresInicio[i]);
+            for (int p = autoresInicio[i]; p < autoresInicio[i + 1]; p++) {
+                autores.add(nombre[autoresIndice[p]]);
+            }
+            List<Idioma> lista = new ArrayList<>(1);
+            for (int b = 0; b < IDIOMAS.length; b++) {
+                if ((idiomas[i] & (1 << b)) != 0) lista.add(IDIOMAS[b]);
+            }
+            return new LibroResumen(idLibro[i], titulo[i], descargas[i], autores, lista);
+        }
+
+        private AutorResumen autor(int j) {
+            List<String> libros = new ArrayList<>(librosInicio[j + 1] - librosInicio[j]);
+            for (int p = librosInicio[j]; p < librosInicio[j + 1]; p++) {
+                libros.add(titulo[librosIndice[p]]);
+            }
+            return new AutorResumen(idAutor[j], nombre[j],
+                    nacimiento[j] == SIN_ANIO ? null : nacimiento[j],
+                    defuncion[j] == SIN_ANIO ? null : defuncion[j],
+                    libros);
+        }
+
+        // Vuelve a armar las filas intermedias (para incorporar pendientes)
+        List<FilaAutor> filasAutores() {
+            List<FilaAutor> filas = new ArrayList<>(idAutor.length);
+            for (int j = 0; j < idAutor.length; j++) {
+                filas.add(new FilaAutor(idAutor[j], nombre[j], nacimiento[j], defuncion[j]));
+            }
+            return filas;
+        }
+
+        List<FilaLibro> filasLibros() {
+            List<FilaLibro> filas = new ArrayList<>(idLibro.length);
+            for (int i = 0; i < idLibro.length; i++) {
+                long[] autores = new long[autoresInicio[i + 1] - autoresInicio[i]];
+                for (int p = 0; p < autores.length; p++) {
+                    autores[p] = idAutor[autoresIndice[autoresInicio[i] + p]];
+                }
+                filas.add(new FilaLibro(idLibro[i], idGutendex[i], titulo[i], descargas[i], idiomas[i], autores));
+            }
+            return filas;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.AutorResumen;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.repository.AutorRepository;
+import com.aluracursos.literalura.repository.AutorRepository.AutorFila;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.repository.LibroRepository.LibroFila;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/*
+ Consultas de solo lectura para las pantallas de listado.
+
+ Cada página se arma con dos consultas de proyección, sin importar su tamaño:
+ ✔ columnas escalares de los libros de la página (Slice), incluida
+   la máscara de idiomas
+ ✔ nombres de autores de esos libros (IN :ids)
+ Así se evitan las consultas N+1 y los productos cartesianos de cargar
+ entidades completas con sus colecciones.
+*/
+@Service
+@Transactional(readOnly = true)
+public class ConsultaLibros implements ConsultasCatalogo {
+
+    private final LibroRepository libroRepository;
+    private final AutorRepository autorRepository;
+    private final PoliticaVidas politicaVidas;
+
+    public ConsultaLibros(LibroRepository libroRepository, AutorRepository autorRepository,
+                          PoliticaVidas politicaVidas) {
+        this.libroRepository = libroRepository;
+        this.autorRepository = autorRepository;
+        this.politicaVidas = politicaVidas;
+    }
+
+    @Override
+    public Slice<LibroResumen> listar(Pageable pagina) {
+        return completar(libroRepository.listarFilas(pagina));
+    }
+
+    @Override
+    public Slice<LibroResumen> listarPorIdioma(Idioma idioma, Pageable pagina) {
+        return completar(libroRepository.listarFilasPorIdioma(idioma.bit(), pagina));
+    }
+
+    @Override
+    public Slice<AutorResumen> listarAutores(Pageable pagina) {
+        return completarAutores(autorRepository.listarFilas(pagina));
+    }
+
+    @Override
+    public Slice<AutorResumen> listarAutoresVivosEntre(int desde, int hasta, Pageable pagina) {
+        if (politicaVidas.modo() == PoliticaVidas.Modo.EXCLUIR) {
+            return completarAutores(autorRepository.listarFilasVivasEntre(desde, hasta, pagina));
+        }
+        return completarAutores(autorRepository.listarFilasVivasEntreSuponiendo(
+                desde, hasta, politicaVidas.aniosSupuestos(), pagina));
+    }
+
+    @Override
+    public List<LibroResumen> masDescargados(int cantidad) {
+        return completar(libroRepository.listarFilasPorDescargas(PageRequest.of(0, cantidad))).getContent();
+    }
+
+    // Los "cantidad" libros más descargados en un idioma
+    public List<LibroResumen> masDescargadosPorIdioma(Idioma idioma, int cantidad) {
+        return completar(libroRepository.listarFilasPorIdiomaYDescargas(idioma.bit(), PageRequest.of(0, cantidad)))
+                .getContent();
+    }
+
+    // Los "cantidad" libros más descargados de un autor
+    public List<LibroResumen> masDescargadosPorAutor(long autorId, int cantidad) {
+        return completar(libroRepository.listarFilasPorAutorYDescargas(autorId, PageRequest.of(0, cantidad)))
+                .getContent();
+    }
+
+    // Un solo SELECT con las funciones de agregado: no se cargan filas en Java
+    @Override
+    public DoubleSummaryStatistics estadisticasDescargas() {
+        LibroRepository.ResumenDescargas r = libroRepository.resumirDescargas();
+        if (r == null || r.cantidad() == null || r.cantidad() == 0) {
+            return new DoubleSummaryStatistics();
+        }
+        return new DoubleSummaryStatistics(r.cantidad(), r.minimo(), r.maximo(), r.suma());
+    }
+
+    // Libros cuyo título contiene el texto (sin distinguir mayúsculas), por título
+    public Slice<LibroResumen> buscarPorTitulo(String texto, Pageable pagina) {
+        return completar(libroRepository.buscarFilasPorTitulo(escaparLike(texto), pagina));
+    }
+
+    // Hasta "cantidad" libros cuyo título contiene la palabra, los más descargados primero
+    public List<LibroResumen> buscarCandidatos(String palabra, int cantidad) {
+        return completar(libroRepository.buscarFilasPorTituloYDescargas(escaparLike(palabra),
+                PageRequest.of(0, cantidad))).getContent();
+    }
+
+    // Resúmenes de los libros indicados, en el mismo orden (los ids que no existen se omiten)
+    public List<LibroResumen> resumenes(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, LibroFila> porId = new HashMap<>();
+        for (LibroFila fila : libroRepository.listarFilasPorIds(ids)) {
+            porId.put(fila.idLibro(), fila);
+        }
+        List<LibroFila> filas = ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+        return completar(new SliceImpl<>(filas)).getContent();
+    }
+
+    /*
+     Libro ya guardado con el mismo id de Gutendex o exactamente el mismo título.
+     Búsquedas exactas por índices únicos; los autores llegan en la misma consulta
+     y los idiomas son una columna de la fila.
+    */
+    public Optional<LibroResumen> buscarExistente(Integer idGutendex, String titulo) {
+        return libroRepository.buscarPorIdGutendex(idGutendex)
+                .or(() -> libroRepository.buscarPorTituloExacto(titulo))
+                .map(LibroResumen::de);
+    }
+
+    // Agrega los títulos de sus libros a las filas de una página de autores
+    private Slice<AutorResumen> completarAutores(Slice<AutorFila> filas) {
+        if (filas.isEmpty()) {
+            return filas.map(f -> null);
+        }
+        List<Long> ids = filas.map(AutorFila::id).getContent();
+
+        Map<Long, List<String>> titulos = new HashMap<>();
+        for (AutorRepository.TituloDeAutor t : autorRepository.buscarTitulos(ids)) {
+            titulos.computeIfAbsent(t.idAutor(), k -> new ArrayList<>(2)).add(t.titulo());
+        }
+
+        return filas.map(f -> new AutorResumen(f.id(), f.nombre(), f.nacimiento(), f.defuncion(),
+                titulos.getOrDefault(f.id(), List.of())));
+    }
+
+    /*
+     Pasa el texto a minúsculas y escapa los comodines de LIKE (% y _),
+     para que se busquen literalmente.
+    */
+    static String escaparLike(String texto) {
+        return texto.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    // Agrega los autores a las filas de una página
+    private Slice<LibroResumen> completar(Slice<LibroFila> filas) {
+        if (filas.isEmpty()) {
+            return filas.map(f -> null);
+        }
+        List<Long> ids = filas.map(LibroFila::idLibro).getContent();
+
+        Map<Long, List<String>> autores = new HashMap<>();
+        for (LibroRepository.AutorDeLibro a : libroRepository.buscarNombresDeAutores(ids)) {
+            autores.computeIfAbsent(a.idLibro(), k -> new ArrayList<>(2)).add(a.nombre());
+        }
+
+        return filas.map(f -> new LibroResumen(
+                f.idLibro(),
+                f.titulo(),
+                f.numeroDeDescargas(),
+                autores.getOrDefault(f.idLibro(), List.of()),
+                Idioma.deMascara(f.idiomas())));
+    }
+}
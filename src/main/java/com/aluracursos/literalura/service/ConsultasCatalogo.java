@@ -0,0 +1,47 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.AutorResumen;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.LibroResumen;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+
+/*
+ Consultas de lectura que usan las opciones 2 a 7 del menú.
+
+ Dos implementaciones con los mismos resultados:
+ ✔ ConsultaLibros: consultas de proyección a la base de datos
+ ✔ CatalogoEnMemoria: instantánea del catálogo en arreglos primitivos
+   (recurre a ConsultaLibros mientras la instantánea no está lista)
+*/
+public interface ConsultasCatalogo {
+
+    // Libros ordenados por título
+    Slice<LibroResumen> listar(Pageable pagina);
+
+    // Libros en el idioma indicado, ordenados por título
+    Slice<LibroResumen> listarPorIdioma(Idioma idioma, Pageable pagina);
+
+    // Autores ordenados por nombre
+    Slice<AutorResumen> listarAutores(Pageable pagina);
+
+    // Autores vivos en algún momento entre los dos años (inclusive), ordenados por nombre.
+    // Los autores a los que les falta un año se tratan según PoliticaVidas.
+    Slice<AutorResumen> listarAutoresVivosEntre(int desde, int hasta, Pageable pagina);
+
+    // Autores vivos en el año indicado
+    default Slice<AutorResumen> listarAutoresVivosEn(int anio, Pageable pagina) {
+        return listarAutoresVivosEntre(anio, anio, pagina);
+    }
+
+    // Los "cantidad" libros más descargados (a igual cantidad, por título)
+    List<LibroResumen> masDescargados(int cantidad);
+
+    // Cantidad, mínimo, máximo, suma y promedio de descargas
+    DoubleSummaryStatistics estadisticasDescargas();
+}
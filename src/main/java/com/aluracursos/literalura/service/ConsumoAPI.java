@@ -3,51 +3,268 @@ package com.aluracursos.literalura.service;
 // Aquí se suele ubicar la lógica relacionada con operaciones externas,
 // como el consumo de APIs.
 
-import java.io.IOException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+// Anotaciones de Spring: el cliente se registra como bean único (singleton)
+// y se cierra ordenadamente al apagar la aplicación.
+
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 // Clases de Java estándar usadas para realizar solicitudes HTTP.
 
+/*
+ Cliente HTTP de larga vida para la API Gutendex.
+
+ Antes se creaba un HttpClient nuevo en cada llamada, lo que implicaba
+ un pool de conexiones, un handshake TLS y un selector nuevos por búsqueda.
+ Ahora el cliente se construye UNA sola vez y se reutiliza:
+ ✔ prefiere HTTP/2 (con caída automática a HTTP/1.1)
+ ✔ mantiene vivas las conexiones entre peticiones (keep-alive)
+ ✔ usa un pool de hilos acotado en lugar del ejecutor ilimitado por defecto
+ ✔ aplica timeouts de conexión y de petición configurables
+ ✔ ofrece una variante asíncrona (sendAsync) con concurrencia acotada
+ ✔ con literalura.hilos.virtuales=true (Java 21+) las tareas internas del
+   cliente corren en hilos virtuales, uno por tarea, en lugar del pool fijo
+ ✔ cada petición pasa por Resiliencia: las respuestas 429/5xx y los errores
+   de red se reintentan, y lo que no se pudo resolver llega como ErrorGutendex
+   (nunca como un cuerpo de error que después falla al leerse como JSON)
+*/
+@Service
 public class ConsumoAPI {
-    // Clase encargada de consumir una API externa
-    // y devolver la respuesta en formato String (JSON).
+
+    // Cliente compartido por App y por cualquier proceso por lotes
+    private final HttpClient client;
+
+    // Pool acotado donde el cliente ejecuta sus tareas internas
+    private final ExecutorService ejecutor;
+
+    // Tiempo máximo de espera de cada petición completa
+    private final Duration timeoutPeticion;
+
+    // Limita cuántas peticiones asíncronas pueden estar en vuelo a la vez.
+    // Quien envía más peticiones de las permitidas espera (contrapresión).
+    private final Semaphore peticionesEnVuelo;
+
+    // Clasificación, reintentos, circuito y tasa adaptativa
+    private final Resiliencia resiliencia;
+
+    // Tiempo de conversión del JSON (el de cada intento HTTP lo mide Resiliencia)
+    private final Metricas metricas;
+
+    /*
+     Constructor usado fuera de Spring (pruebas, benchmarks).
+     Aplica los mismos valores por defecto que las propiedades de Spring.
+    */
+    public ConsumoAPI() {
+        this(Duration.ofSeconds(10), Duration.ofSeconds(30), Duration.ofSeconds(60), 4, 16);
+    }
+
+    // Igual que el constructor de Spring, con hilos de plataforma
+    public ConsumoAPI(Duration timeoutConexion, Duration timeoutPeticion, Duration keepAlive,
+                      int hilos, int maxConcurrentes) {
+        this(timeoutConexion, timeoutPeticion, keepAlive, hilos, maxConcurrentes, false, Resiliencia.porDefecto(),
+                Metricas.deshabilitadas());
+    }
+
+    // Con una etapa de resiliencia propia (por ejemplo, con esperas cortas en pruebas)
+    public ConsumoAPI(Duration timeoutConexion, Duration timeoutPeticion, Duration keepAlive,
+                      int hilos, int maxConcurrentes, boolean virtuales, Resiliencia resiliencia) {
+        this(timeoutConexion, timeoutPeticion, keepAlive, hilos, maxConcurrentes, virtuales, resiliencia,
+                Metricas.deshabilitadas());
+    }
+
+    /*
+     Constructor usado por Spring.
+     Cada valor puede sobrescribirse en application.properties, por ejemplo:
+       literalura.http.timeout-conexion=5s
+       literalura.http.hilos=8
+       literalura.http.max-concurrentes=32
+       literalura.hilos.virtuales=true     ("hilos" se ignora: un hilo virtual por tarea)
+    */
+    @Autowired
+    public ConsumoAPI(@Value("${literalura.http.timeout-conexion:10s}") Duration timeoutConexion,
+                      @Value("${literalura.http.timeout-peticion:30s}") Duration timeoutPeticion,
+                      @Value("${literalura.http.keep-alive:60s}") Duration keepAlive,
+                      @Value("${literalura.http.hilos:4}") int hilos,
+                      @Value("${literalura.http.max-concurrentes:16}") int maxConcurrentes,
+                      @Value("${literalura.hilos.virtuales:false}") boolean virtuales,
+                      Resiliencia resiliencia,
+                      Metricas metricas) {
+
+        // El keep-alive del cliente del JDK solo se configura por propiedad de sistema
+        // y se lee al crear el primer cliente; se respeta si el usuario ya la definió.
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout",
+                    String.valueOf(keepAlive.toSeconds()));
+        }
+
+        this.timeoutPeticion = timeoutPeticion;
+        this.resiliencia = resiliencia;
+        this.metricas = metricas;
+        this.peticionesEnVuelo = new Semaphore(maxConcurrentes);
+        this.ejecutor = virtuales ? Hilos.porTarea("gutendex-http", true) : crearEjecutor(hilos);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(timeoutConexion)
+                .executor(ejecutor)
+                .build();
+    }
 
     public String obtenerDatos(String url) {
         // Método que recibe una URL como String
         // y retorna la respuesta de la API en formato JSON.
 
-        HttpClient client = HttpClient.newHttpClient();
-        // Crea un cliente HTTP que se encargará de enviar la solicitud.
+        HttpRequest request = crearPeticion(url);
+        // Construye la solicitud HTTP.
+
+        HttpResponse<String> response = resiliencia.ejecutar(url,
+                () -> client.send(request, soloSiExito(HttpResponse.BodyHandlers.ofString())));
+        // Envía la solicitud HTTP de forma síncrona reutilizando las conexiones
+        // abiertas del cliente compartido. Los errores pasajeros (red, 429, 5xx)
+        // se reintentan; si no se resuelven se lanza ErrorGutendex.
+
+        String json = response.body();
+        // Extrae el cuerpo de la respuesta HTTP (contenido JSON).
+
+        return json;
+        // Retorna el JSON obtenido desde la API.
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
+    /*
+     Descarga y decodifica en un solo paso.
+     El cuerpo de la respuesta se entrega al conversor como InputStream,
+     de modo que el JSON nunca se materializa completo como String.
+    */
+    public <T> T obtenerDatos(String url, Class<T> clase, IConvierteDatos conversor) {
+        HttpRequest request = crearPeticion(url);
+        HttpResponse<InputStream> response = resiliencia.ejecutar(url,
+                () -> client.send(request, soloSiExito(HttpResponse.BodyHandlers.ofInputStream())));
+        // El conversor cierra el flujo, lo que libera la conexión para reutilizarla
+        long inicio = metricas.inicio();
+        T datos = conversor.obtenerDatos(response.body(), clase);
+        metricas.conversionJson(inicio);
+        return datos;
+    }
+
+    /*
+     Petición con cabeceras adicionales (por ejemplo If-None-Match o
+     If-Modified-Since) que devuelve la respuesta completa: código de estado,
+     cabeceras y cuerpo en bytes. La usa la caché de respuestas para
+     revalidar entradas y guardar el cuerpo tal como llegó.
+    */
+    public HttpResponse<byte[]> obtenerRespuesta(String url, Map<String, String> cabeceras) {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder()
                 .uri(URI.create(url))
-                // Convierte la URL String en un objeto URI.
-                .build();
-                // Construye la solicitud HTTP.
+                .timeout(timeoutPeticion);
+        cabeceras.forEach(peticion::header);
+        HttpRequest request = peticion.build();
+        // 304 cuenta como respuesta válida: la caché reutiliza su copia
+        return resiliencia.ejecutar(url,
+                () -> client.send(request, soloSiExito(HttpResponse.BodyHandlers.ofByteArray())));
+    }
+
+    /*
+     Variante asíncrona de obtenerDatos.
+     Devuelve inmediatamente un CompletableFuture que se completa con el JSON,
+     de modo que muchas búsquedas pueden estar en vuelo al mismo tiempo.
 
-        HttpResponse<String> response = null;
-        // Variable que almacenará la respuesta de la API.
+     Si ya hay "max-concurrentes" peticiones en curso, este método espera
+     a que se libere un permiso antes de enviar la nueva (contrapresión):
+     así un productor rápido no puede saturar a Gutendex ni la memoria.
+    */
+    public CompletableFuture<String> obtenerDatosAsync(String url) {
+        HttpRequest request = crearPeticion(url);
 
         try {
-            response = client
-                    .send(request, HttpResponse.BodyHandlers.ofString());
-            // Envía la solicitud HTTP de forma síncrona
-            // y obtiene el cuerpo de la respuesta como String.
-        } catch (IOException e) {
-            // Se lanza cuando ocurre un error de entrada/salida
-            // (problemas de red, URL inválida, etc.).
-            throw new RuntimeException(e);
+            peticionesEnVuelo.acquire();
         } catch (InterruptedException e) {
-            // Se lanza si el proceso es interrumpido mientras espera la respuesta.
-            throw new RuntimeException(e);
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
         }
 
-        String json = response.body();
-        // Extrae el cuerpo de la respuesta HTTP (contenido JSON).
+        CompletableFuture<HttpResponse<String>> respuesta;
+        try {
+            // Los reintentos se programan sin bloquear y conservan el permiso
+            respuesta = resiliencia.ejecutarAsync(url,
+                    () -> client.sendAsync(request, soloSiExito(HttpResponse.BodyHandlers.ofString())));
+        } catch (RuntimeException e) {
+            // sendAsync puede fallar antes de crear el futuro (por ejemplo, URI inválida)
+            peticionesEnVuelo.release();
+            throw e;
+        }
 
-        return json;
-        // Retorna el JSON obtenido desde la API.
+        // El permiso se devuelve al terminar, tanto si hubo éxito como error
+        return respuesta
+                .whenComplete((r, error) -> peticionesEnVuelo.release())
+                .thenApply(HttpResponse::body);
+    }
+
+    /*
+     Igual que obtenerDatosAsync(url), pero decodifica el JSON con el conversor
+     indicado dentro del mismo pipeline asíncrono (por ejemplo, a Datos.class).
+    */
+    public <T> CompletableFuture<T> obtenerDatosAsync(String url, Class<T> clase, IConvierteDatos conversor) {
+        return obtenerDatosAsync(url).thenApply(json -> {
+            long inicio = metricas.inicio();
+            T datos = conversor.obtenerDatos(json, clase);
+            metricas.conversionJson(inicio);
+            return datos;
+        });
+    }
+
+    public Resiliencia.Estado estadoResiliencia() {
+        return resiliencia.estado();
+    }
+
+    /*
+     Solo se lee el cuerpo de las respuestas 2xx; el de una respuesta de error
+     (a menudo una página HTML) se descarta y la conexión queda libre.
+    */
+    private static <T> HttpResponse.BodyHandler<T> soloSiExito(HttpResponse.BodyHandler<T> lector) {
+        return info -> info.statusCode() / 100 == 2 ? lector.apply(info)
+                : HttpResponse.BodySubscribers.replacing(null);
+    }
+
+    // Construye la petición GET común a las variantes síncrona y asíncrona
+    private HttpRequest crearPeticion(String url) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                // Convierte la URL String en un objeto URI.
+                .timeout(timeoutPeticion)
+                // Evita que una respuesta lenta bloquee indefinidamente.
+                .build();
+    }
+
+    /*
+     Libera los hilos del pool al cerrar el contexto de Spring.
+     El HttpClient no expone close() en Java 17; al terminar su ejecutor
+     las conexiones inactivas se descartan junto con el proceso.
+    */
+    @PreDestroy
+    public void cerrar() {
+        ejecutor.shutdown();
+    }
+
+    /*
+     Crea un pool de tamaño fijo con hilos daemon y nombres legibles,
+     para que no impida el apagado de la JVM ni se confunda en un volcado de hilos.
+    */
+    private static ExecutorService crearEjecutor(int hilos) {
+        return new ThreadPoolExecutor(hilos, hilos, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), Hilos.fabrica("gutendex-http", false));
     }
-}
\ No newline at end of file
+}
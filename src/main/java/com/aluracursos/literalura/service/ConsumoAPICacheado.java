@@ -0,0 +1,132 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ Búsquedas en Gutendex con caché delante de ConsumoAPI.
+
+ Para cada URL:
+ ✔ entrada fresca (dentro del TTL) en memoria o en disco → se responde sin red
+ ✔ entrada vencida con ETag o Last-Modified → petición condicional;
+   si el servidor contesta 304 se reutiliza el cuerpo guardado
+ ✔ sin entrada → descarga normal y se guarda en ambos niveles
+
+ La importación masiva del catálogo NO pasa por aquí: recorre cada página
+ una sola vez y solo llenaría la caché de entradas que nadie vuelve a pedir.
+*/
+@Service
+public class ConsumoAPICacheado {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsumoAPICacheado.class);
+
+    private final ConsumoAPI consumoAPI;
+    private final CacheRespuestas cache;
+    private final Metricas metricas;
+
+    public ConsumoAPICacheado(ConsumoAPI consumoAPI, CacheRespuestas cache) {
+        this(consumoAPI, cache, Metricas.deshabilitadas());
+    }
+
+    @Autowired
+    public ConsumoAPICacheado(ConsumoAPI consumoAPI, CacheRespuestas cache, Metricas metricas) {
+        this.consumoAPI = consumoAPI;
+        this.cache = cache;
+        this.metricas = metricas;
+        metricas.contador("literalura.cache.aciertos.memoria", "Respuestas servidas desde memoria", cache,
+                c -> c.estadisticas().aciertosMemoria());
+        metricas.contador("literalura.cache.aciertos.disco", "Respuestas servidas desde disco", cache,
+                c -> c.estadisticas().aciertosDisco());
+        metricas.contador("literalura.cache.revalidaciones", "Respuestas 304", cache,
+                c -> c.estadisticas().revalidaciones());
+        metricas.contador("literalura.cache.fallos", "Respuestas descargadas completas", cache,
+                c -> c.estadisticas().fallos());
+        metricas.medidor("literalura.cache.tasa.aciertos", "Proporción de consultas resueltas sin descargar", cache,
+                c -> c.estadisticas().tasaDeAciertos());
+    }
+
+    /*
+     Misma firma que ConsumoAPI.obtenerDatos(url, clase, conversor):
+     decodifica el cuerpo (de la caché o de la red) con el conversor indicado.
+    */
+    public <T> T obtenerDatos(String url, Class<T> clase, IConvierteDatos conversor) {
+        byte[] cuerpo = obtenerCuerpo(url);
+        long inicio = metricas.inicio();
+        T datos = conversor.obtenerDatos(new ByteArrayInputStream(cuerpo), clase);
+        metricas.conversionJson(inicio);
+        return datos;
+    }
+
+    // Cuerpo de la respuesta, desde la caché o desde Gutendex
+    public byte[] obtenerCuerpo(String url) {
+        String clave = CacheRespuestas.normalizarClave(url);
+        long ahora = System.currentTimeMillis();
+
+        CacheRespuestas.Encontrada encontrada = cache.buscar(clave);
+        CacheRespuestas.Entrada guardada = encontrada != null ? encontrada.entrada() : null;
+
+        if (guardada != null && guardada.estaFresca(cache.ttl(), ahora)) {
+            if (encontrada.desdeMemoria()) {
+                cache.registrarAciertoMemoria();
+            } else {
+                cache.registrarAciertoDisco();
+            }
+            return guardada.cuerpo();
+        }
+
+        // Vencida o ausente: se pregunta al servidor (condicional si se puede)
+        Map<String, String> cabeceras = new HashMap<>();
+        if (guardada != null && guardada.etag() != null) {
+            cabeceras.put("If-None-Match", guardada.etag());
+        }
+        if (guardada != null && guardada.ultimaModificacion() != null) {
+            cabeceras.put("If-Modified-Since", guardada.ultimaModificacion());
+        }
+
+        HttpResponse<byte[]> respuesta = consumoAPI.obtenerRespuesta(url, cabeceras);
+        String etag = respuesta.headers().firstValue("ETag").orElse(null);
+        String modificacion = respuesta.headers().firstValue("Last-Modified").orElse(null);
+
+        if (respuesta.statusCode() == 304 && guardada != null) {
+            cache.guardar(clave, guardada.revalidada(etag, modificacion, System.currentTimeMillis()));
+            cache.registrarRevalidacion();
+            return guardada.cuerpo();
+        }
+
+        if (respuesta.statusCode() / 100 != 2) {
+            // Los errores no se guardan: la próxima búsqueda vuelve a intentarlo
+            throw new ErrorGutendex(ErrorGutendex.Motivo.CLIENTE, respuesta.statusCode(), url, null,
+                    "Gutendex respondió " + respuesta.statusCode() + " para " + url, null);
+        }
+
+        cache.guardar(clave, new CacheRespuestas.Entrada(respuesta.body(), etag, modificacion,
+                System.currentTimeMillis()));
+        cache.registrarFallo();
+        return respuesta.body();
+    }
+
+    public CacheRespuestas.Estadisticas estadisticas() {
+        return cache.estadisticas();
+    }
+
+    // Deja constancia del uso de la caché al cerrar la aplicación
+    @PreDestroy
+    public void informar() {
+        CacheRespuestas.Estadisticas e = cache.estadisticas();
+        if (e.consultas() > 0) {
+            log.info("Caché de Gutendex: {} consultas, {}% aciertos ({} memoria, {} disco, {} revalidadas), "
+                            + "{} expulsiones de memoria, {} de disco",
+                    e.consultas(), Math.round(e.tasaDeAciertos() * 100), e.aciertosMemoria(),
+                    e.aciertosDisco(), e.revalidaciones(), e.expulsionesMemoria(), e.expulsionesDisco());
+        }
+    }
+}
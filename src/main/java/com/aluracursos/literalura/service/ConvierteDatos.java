@@ -6,6 +6,9 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 // Clases de la librería Jackson utilizadas para convertir JSON en objetos Java.
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /*
   Clase responsable de la conversión de datos JSON a objetos Java.
   Utiliza la biblioteca Jackson Databind para realizar el mapeo
@@ -42,4 +45,19 @@ public class ConvierteDatos implements IConvierteDatos {
             );
         }
     }
-}
\ No newline at end of file
+
+    /*
+      Conversión desde un flujo de bytes.
+      Jackson lee el flujo por bloques, sin crear un String intermedio.
+     */
+    @Override
+    public <T> T obtenerDatos(InputStream json, Class<T> clase) {
+        try (json) {
+            return objectMapper.readValue(json, clase);
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "Error al convertir el JSON a la clase: " + clase.getSimpleName(), e
+            );
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+// Contiene la lógica encargada de transformar y procesar datos externos.
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+// Records del modelo que este conversor sabe construir sin reflexión.
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+// API de streaming de Jackson (lectura token a token).
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+  Conversor JSON → Java basado en el JsonParser de streaming de Jackson.
+
+  Las páginas de Gutendex traen 32 libros con bloques grandes
+  ("formats", "summaries", "subjects", ...) que la aplicación no usa.
+  Este conversor:
+  ✔ lee el JSON token a token directamente desde el InputStream
+  ✔ construye Datos, DatosLibro y DatosAutor sin reflexión ni árbol intermedio
+  ✔ salta los campos que no interesan con skipChildren(), sin copiarlos
+  ✔ en los arreglos (results, authors, languages) salta los elementos nulos
+    o de otro tipo en lugar de cortar la lectura
+  ✔ delega en ObjectMapper cualquier otra clase que se le pida
+ */
+public class ConvierteDatosStreaming implements IConvierteDatos {
+
+    // ObjectMapper solo se usa como respaldo para clases no reconocidas.
+    // Su JsonFactory es segura entre hilos y se reutiliza para crear los parsers.
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory fabrica = objectMapper.getFactory();
+
+    @Override
+    public <T> T obtenerDatos(String json, Class<T> clase) {
+        try (JsonParser parser = fabrica.createParser(json)) {
+            return leer(parser, clase);
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "Error al convertir el JSON a la clase: " + clase.getSimpleName(), e
+            );
+        }
+    }
+
+    @Override
+    public <T> T obtenerDatos(InputStream json, Class<T> clase) {
+        // El parser cierra el flujo al cerrarse (AUTO_CLOSE_SOURCE activo por defecto)
+        try (JsonParser parser = fabrica.createParser(json)) {
+            return leer(parser, clase);
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "Error al convertir el JSON a la clase: " + clase.getSimpleName(), e
+            );
+        }
+    }
+
+    // Elige el lector manual según la clase destino
+    private <T> T leer(JsonParser parser, Class<T> clase) throws IOException {
+        parser.nextToken();
+        if (clase == Datos.class) {
+            return clase.cast(leerDatos(parser));
+        }
+        if (clase == DatosLibro.class) {
+            return clase.cast(leerLibro(parser));
+        }
+        if (clase == DatosAutor.class) {
+            return clase.cast(leerAutor(parser));
+        }
+        return objectMapper.readValue(parser, clase);
+    }
+
+    /*
+     Página de resultados: { "count": ..., "next": ..., "results": [ ... ] }
+    */
+    private Datos leerDatos(JsonParser parser) throws IOException {
+        List<DatosLibro> resultados = null;
+        Integer total = null;
+        String siguiente = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken valor = parser.nextToken();
+
+            if ("results".equals(campo) && valor == JsonToken.START_ARRAY) {
+                resultados = new ArrayList<>(32);
+                for (JsonToken elemento; (elemento = siguienteElemento(parser)) != null; ) {
+                    if (elemento == JsonToken.START_OBJECT) {
+                        resultados.add(leerLibro(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if ("count".equals(campo) && valor == JsonToken.VALUE_NUMBER_INT) {
+                total = parser.getIntValue();
+            } else if ("next".equals(campo) && valor == JsonToken.VALUE_STRING) {
+                siguiente = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Datos(resultados, total, siguiente);
+    }
+
+    /*
+     Libro: solo id, title, authors, languages y download_count.
+     El resto de campos se saltan sin construir objetos.
+    */
+    private DatosLibro leerLibro(JsonParser parser) throws IOException {
+        Integer id = null;
+        String titulo = null;
+        List<DatosAutor> autores = null;
+        List<String> idiomas = null;
+        Double descargas = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken valor = parser.nextToken();
+
+            switch (campo) {
+                case "id" -> id = valor == JsonToken.VALUE_NULL ? null : parser.getIntValue();
+                case "title" -> titulo = valor == JsonToken.VALUE_NULL ? null : parser.getText();
+                case "authors" -> {
+                    if (valor == JsonToken.START_ARRAY) {
+                        autores = new ArrayList<>(2);
+                        for (JsonToken elemento; (elemento = siguienteElemento(parser)) != null; ) {
+                            if (elemento == JsonToken.START_OBJECT) {
+                                autores.add(leerAutor(parser));
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "languages" -> {
+                    if (valor == JsonToken.START_ARRAY) {
+                        idiomas = new ArrayList<>(1);
+                        for (JsonToken elemento; (elemento = siguienteElemento(parser)) != null; ) {
+                            if (elemento == JsonToken.VALUE_STRING) {
+                                idiomas.add(parser.getText());
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "download_count" ->
+                        descargas = valor == JsonToken.VALUE_NULL ? null : parser.getDoubleValue();
+                default -> parser.skipChildren();
+            }
+        }
+        return new DatosLibro(id, titulo, autores, idiomas, descargas);
+    }
+
+    /*
+     Autor: { "name": ..., "birth_year": ..., "death_year": ... }
+    */
+    private DatosAutor leerAutor(JsonParser parser) throws IOException {
+        String nombre = null;
+        Integer nacimiento = null;
+        Integer defuncion = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken valor = parser.nextToken();
+            boolean nulo = valor == JsonToken.VALUE_NULL;
+
+            switch (campo) {
+                case "name" -> nombre = nulo ? null : parser.getText();
+                case "birth_year" -> nacimiento = nulo ? null : parser.getIntValue();
+                case "death_year" -> defuncion = nulo ? null : parser.getIntValue();
+                default -> parser.skipChildren();
+            }
+        }
+        return new DatosAutor(nombre, nacimiento, defuncion);
+    }
+
+    /*
+     Siguiente elemento de un arreglo, o null cuando el arreglo se cierra.
+     Quien llama lee los elementos que espera y salta el resto (null u otro tipo)
+     con skipChildren(), así el parser sigue alineado con el resto de la página.
+    */
+    private static JsonToken siguienteElemento(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            throw new JsonParseException(parser, "JSON incompleto: falta cerrar un arreglo");
+        }
+        return token == JsonToken.END_ARRAY ? null : token;
+    }
+}
@@ -0,0 +1,18 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.Idioma;
+
+import java.util.List;
+
+/*
+ Evento publicado por ActualizadorDescargas después de guardar
+ las nuevas cantidades de descargas de un tramo de libros.
+ Lo escuchan los rankings, las estadísticas y la instantánea en memoria.
+*/
+public record DescargasActualizadas(List<Cambio> cambios) {
+
+    // Un libro cuyo número de descargas cambió, con sus idiomas y los ids de sus autores
+    // (los rankings solo tocan los tableros de esos grupos)
+    public record Cambio(long idLibro, double anterior, double nueva, List<Idioma> idiomas, List<Long> autores) {}
+}
@@ -0,0 +1,60 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import java.time.Duration;
+
+/*
+ Error al consultar Gutendex, ya clasificado.
+
+ Antes cualquier problema llegaba como RuntimeException(IOException) o, peor,
+ como un error de Jackson al intentar leer una página de error HTML como JSON.
+ Ahora quien llama sabe qué pasó:
+ ✔ RED            no hubo respuesta (conexión rechazada, timeout, etc.)
+ ✔ LIMITE         429 Too Many Requests
+ ✔ SERVIDOR       5xx
+ ✔ CLIENTE        otros 4xx (URL mal formada, recurso inexistente): reintentar no sirve
+ ✔ CIRCUITO_ABIERTO  no se intentó: Gutendex viene fallando y se le da un respiro
+*/
+public class ErrorGutendex extends RuntimeException {
+
+    public enum Motivo {
+        RED, LIMITE, SERVIDOR, CLIENTE, CIRCUITO_ABIERTO;
+
+        // Los errores pasajeros se reintentan; los del cliente no
+        public boolean esReintentable() {
+            return this == RED || this == LIMITE || this == SERVIDOR;
+        }
+    }
+
+    private final Motivo motivo;
+    private final int codigo;
+    private final String url;
+    // Espera pedida por el servidor (Retry-After) o que falta para cerrar el circuito; null si no se sabe
+    private final Duration reintentarEn;
+
+    public ErrorGutendex(Motivo motivo, int codigo, String url, Duration reintentarEn, String mensaje,
+                         Throwable causa) {
+        super(mensaje, causa);
+        this.motivo = motivo;
+        this.codigo = codigo;
+        this.url = url;
+        this.reintentarEn = reintentarEn;
+    }
+
+    public Motivo getMotivo() {
+        return motivo;
+    }
+
+    // Código HTTP de la última respuesta, o 0 si no la hubo
+    public int getCodigo() {
+        return codigo;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Duration getReintentarEn() {
+        return reintentarEn;
+    }
+}
@@ -0,0 +1,134 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.Libro;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Estadísticas de descargas para la opción 7 del menú, general y por idioma.
+
+ ✔ se calculan UNA vez, en una sola pasada sobre dos consultas JDBC que se
+   leen fila a fila (sin cargar libros ni entidades en memoria)
+ ✔ después se mantienen con cada escritura: los libros guardados
+   (evento LibrosGuardados) y los cambios de descargas (DescargasActualizadas)
+   actualizan los bocetos en O(1)
+ ✔ consultar el resumen no depende del tamaño del catálogo
+
+ Cada boceto (BocetoDescargas) guarda cantidad, suma, mínimo y máximo exactos
+ y percentiles con 1% de error. Un libro en dos idiomas cuenta una vez en el
+ resumen general y una vez en cada idioma.
+
+ Un libro guardado justo mientras se hace la primera pasada puede contarse
+ dos veces; reconstruir() vuelve a calcular todo desde la base.
+*/
+@Service
+public class EstadisticasDescargas {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadisticasDescargas.class);
+
+    // Copia de los bocetos en un momento dado
+    public record Resumen(BocetoDescargas general, Map<Idioma, BocetoDescargas> porIdioma) {}
+
+    private final JdbcTemplate jdbc;
+
+    // null hasta la primera consulta
+    private BocetoDescargas general;
+    private Map<Idioma, BocetoDescargas> porIdioma;
+
+    // Sube después de cada cambio de los bocetos (la API la usa en los ETag)
+    private final AtomicLong generacion = new AtomicLong();
+
+    public EstadisticasDescargas(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        // Lectura fila a fila en bloques, sin traer todo el resultado a la vez
+        this.jdbc.setFetchSize(1_000);
+    }
+
+    public long generacion() {
+        return generacion.get();
+    }
+
+    public synchronized Resumen resumen() {
+        if (general == null) {
+            reconstruir();
+        }
+        Map<Idioma, BocetoDescargas> copias = new EnumMap<>(Idioma.class);
+        porIdioma.forEach((idioma, boceto) -> copias.put(idioma, boceto.copia()));
+        return new Resumen(general.copia(), Collections.unmodifiableMap(copias));
+    }
+
+    // Recalcula los bocetos con una pasada sobre la base de datos
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        BocetoDescargas nuevoGeneral = new BocetoDescargas();
+        Map<Idioma, BocetoDescargas> nuevosPorIdioma = new EnumMap<>(Idioma.class);
+
+        // Una sola pasada: los idiomas son una máscara en la misma fila
+        jdbc.query("SELECT numero_de_descargas, idiomas_mascara FROM libros", rs -> {
+            double descargas = rs.getDouble(1);
+            nuevoGeneral.agregar(descargas);
+            for (Idioma idioma : Idioma.deMascara(rs.getShort(2))) {
+                nuevosPorIdioma.computeIfAbsent(idioma, k -> new BocetoDescargas()).agregar(descargas);
+            }
+        });
+
+        general = nuevoGeneral;
+        porIdioma = nuevosPorIdioma;
+        generacion.incrementAndGet();
+        log.debug("Estadísticas de descargas calculadas: {} libros en {} ms",
+                general.cantidad(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // Libros recién insertados, solo si la transacción se confirmó
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void alGuardar(LibrosGuardados evento) {
+        if (general == null) {
+            return; // la primera consulta los leerá de la base
+        }
+        for (Libro libro : evento.libros()) {
+            double descargas = libro.getNumeroDeDescargas() != null ? libro.getNumeroDeDescargas() : 0;
+            general.agregar(descargas);
+            for (Idioma idioma : libro.getIdiomas()) {
+                porIdioma.computeIfAbsent(idioma, k -> new BocetoDescargas()).agregar(descargas);
+            }
+        }
+        generacion.incrementAndGet();
+    }
+
+    // Cantidades traídas de Gutendex por ActualizadorDescargas
+    @EventListener
+    public synchronized void alActualizarDescargas(DescargasActualizadas evento) {
+        for (DescargasActualizadas.Cambio cambio : evento.cambios()) {
+            actualizarDescargas(cambio.anterior(), cambio.nueva(), cambio.idiomas());
+        }
+    }
+
+    // Un libro ya guardado pasó de "anterior" a "nueva" cantidad de descargas
+    public synchronized void actualizarDescargas(double anterior, double nueva, Collection<Idioma> idiomas) {
+        if (general == null) {
+            return;
+        }
+        general.quitar(anterior);
+        general.agregar(nueva);
+        for (Idioma idioma : idiomas) {
+            BocetoDescargas boceto = porIdioma.computeIfAbsent(idioma, k -> new BocetoDescargas());
+            boceto.quitar(anterior);
+            boceto.agregar(nueva);
+        }
+        generacion.incrementAndGet();
+    }
+}
@@ -0,0 +1,122 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ Creación de hilos para el trabajo que espera a la red (Gutendex).
+
+ Con literalura.hilos.virtuales=true y Java 21 o superior se usan hilos
+ virtuales: cada petición bloqueante ocupa unos pocos KB de memoria en
+ lugar de una pila de ~1 MB, así que miles de descargas a la vez cuestan poco.
+
+ ✔ el proyecto compila con Java 17: la API de hilos virtuales se busca por
+   reflexión una sola vez al cargar la clase
+ ✔ si no está disponible (Java 17) se usan hilos de plataforma daemon con
+   el mismo nombre, y se avisa una vez en el log
+ ✔ los hilos de plataforma llevan nombre "<prefijo>-N" y los virtuales
+   "<prefijo>-v-N", para distinguirlos en un volcado de hilos
+*/
+public final class Hilos {
+
+    private static final Logger log = LoggerFactory.getLogger(Hilos.class);
+
+    // Thread.ofVirtual() y Executors.newThreadPerTaskExecutor(ThreadFactory), o null en Java 17
+    private static final MethodHandle DE_VIRTUALES;
+    private static final MethodHandle NOMBRE;
+    private static final MethodHandle FABRICA;
+    private static final MethodHandle POR_TAREA;
+
+    private static volatile boolean avisado;
+
+    static {
+        MethodHandle deVirtuales = null;
+        MethodHandle nombre = null;
+        MethodHandle fabrica = null;
+        MethodHandle porTarea = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> constructor = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            deVirtuales = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(constructor));
+            nombre = lookup.findVirtual(constructor, "name",
+                    MethodType.methodType(constructor, String.class, long.class));
+            fabrica = lookup.findVirtual(constructor, "factory", MethodType.methodType(ThreadFactory.class));
+            porTarea = lookup.findStatic(Executors.class, "newThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+        } catch (ReflectiveOperationException e) {
+            deVirtuales = null;
+        }
+        DE_VIRTUALES = deVirtuales;
+        NOMBRE = nombre;
+        FABRICA = fabrica;
+        POR_TAREA = porTarea;
+    }
+
+    private Hilos() {
+    }
+
+    // true si la JVM actual tiene hilos virtuales (Java 21+)
+    public static boolean virtualesDisponibles() {
+        return DE_VIRTUALES != null;
+    }
+
+    /*
+     Fábrica de hilos con nombre.
+     virtuales=true pide hilos virtuales; si la JVM no los tiene, devuelve
+     hilos de plataforma daemon.
+    */
+    public static ThreadFactory fabrica(String prefijo, boolean virtuales) {
+        if (virtuales && virtualesDisponibles()) {
+            try {
+                Object constructor = NOMBRE.invoke(DE_VIRTUALES.invoke(), prefijo + "-v-", 1L);
+                return (ThreadFactory) FABRICA.invoke(constructor);
+            } catch (Throwable e) {
+                throw new IllegalStateException("No se pudo crear la fábrica de hilos virtuales", e);
+            }
+        }
+        if (virtuales) {
+            avisarSinVirtuales();
+        }
+        AtomicInteger contador = new AtomicInteger();
+        return r -> {
+            Thread hilo = new Thread(r, prefijo + "-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+
+    /*
+     Ejecutor que crea un hilo nuevo por tarea, sin límite ni cola.
+     Pensado para hilos virtuales: el límite de concurrencia lo pone quien
+     envía las tareas (semáforo, ventana de páginas, etc.), no el pool.
+    */
+    public static ExecutorService porTarea(String prefijo, boolean virtuales) {
+        ThreadFactory fabrica = fabrica(prefijo, virtuales);
+        if (POR_TAREA != null) {
+            try {
+                return (ExecutorService) POR_TAREA.invoke(fabrica);
+            } catch (Throwable e) {
+                throw new IllegalStateException("No se pudo crear el ejecutor por tarea", e);
+            }
+        }
+        // Java 17: pool sin límite que descarta los hilos ociosos
+        return Executors.newCachedThreadPool(fabrica);
+    }
+
+    private static void avisarSinVirtuales() {
+        if (!avisado) {
+            avisado = true;
+            log.warn("literalura.hilos.virtuales=true pero la JVM ({}) no tiene hilos virtuales; "
+                    + "se usan hilos de plataforma", Runtime.version());
+        }
+    }
+}
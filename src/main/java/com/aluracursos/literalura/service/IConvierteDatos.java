@@ -3,6 +3,8 @@ package com.aluracursos.literalura.service;
 // Contiene interfaces y clases relacionadas con la lógica de negocio
 // y transformación de datos.
 
+import java.io.InputStream;
+
  /*
    Interfaz que define el contrato para la conversión de datos.
    Su objetivo principal es desacoplar la lógica de conversión
@@ -22,4 +24,15 @@ public interface IConvierteDatos {
       @return      Un objeto del tipo T con los datos del JSON convertidos.
      */
     <T> T obtenerDatos(String json, Class<T> clase);
+
+    /*
+      Variante que lee el JSON directamente desde un flujo de bytes
+      (por ejemplo, el cuerpo de una respuesta HTTP) sin materializarlo
+      antes como String.
+
+      @param json  Flujo con el contenido JSON. Se cierra al terminar la lectura.
+      @param clase Clase destino a la cual se desea mapear el JSON.
+      @return      Un objeto del tipo T con los datos del JSON convertidos.
+     */
+    <T> T obtenerDatos(InputStream json, Class<T> clase);
 }
\ No newline at end of file
@@ -0,0 +1,291 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.ProgresoImportacion;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.repository.ProgresoImportacionRepository;
+// Modelo y repositorios usados para guardar el catálogo.
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+// Spring: configuración, registro como servicio y transacciones programáticas.
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ Importación masiva del catálogo completo de Gutendex (~77.000 libros).
+
+ Funcionamiento:
+ ✔ la primera página indica el total ("count") y con él se calculan las URLs de todas las demás
+ ✔ las páginas se piden por id ascendente ("sort=ascending"): el orden no cambia entre peticiones
+ ✔ se descargan varias páginas a la vez (ventana acotada de "paginas-concurrentes")
+ ✔ las páginas se guardan EN ORDEN, cada una en su propia transacción junto con el progreso,
+   así la "última página confirmada" siempre es continua y la importación se puede reanudar
+ ✔ informa el avance (página, libros nuevos, páginas/segundo y libros/segundo) después de cada página
+   y se detiene entre dos páginas si se cancela (Avance): lo confirmado queda
+ ✔ con literalura.hilos.virtuales=true (Java 21+) cada página se descarga con una
+   llamada bloqueante en su propio hilo virtual, dentro de un AmbitoTareas:
+   si la importación falla o se interrumpe, las descargas en vuelo se cancelan
+*/
+@Service
+public class ImportadorCatalogo {
+
+    // Nombre con el que se guarda el progreso en la tabla progreso_importacion.
+    // El progreso de "catalogo-gutendex" se contaba en páginas por popularidad y
+    // no sirve para reanudar en orden de id: con otro nombre se empieza de nuevo
+    // (los libros ya guardados se descartan con dos consultas por página)
+    public static final String PROCESO = "catalogo-gutendex-por-id";
+
+    // Gutendex devuelve siempre páginas de 32 libros
+    private static final int LIBROS_POR_PAGINA = 32;
+
+    // Largo máximo de las columnas de texto (VARCHAR(255) por defecto en JPA)
+    private static final int LARGO_MAXIMO_TEXTO = 255;
+
+    // Gutendex responde 404 a una página fuera de rango: equivale a "no hay más páginas"
+    private static final Datos PAGINA_INEXISTENTE = new Datos(null, null, null);
+
+    private final ConsumoAPI consumoAPI;
+    private final LibroRepository libroRepository;
+    private final ProgresoImportacionRepository progresoRepository;
+    private final PersistenciaLotes persistenciaLotes;
+    private final CacheAutores cacheAutores;
+    private final TransactionTemplate transaccion;
+    private final IConvierteDatos conversor = new ConvierteDatosStreaming();
+
+    // Cantidad máxima de páginas descargándose a la vez
+    private final int paginasConcurrentes;
+
+    // URL base de la API (configurable para apuntar a un espejo o a un servidor de pruebas)
+    private final String urlBase;
+
+    // Descargar las páginas en hilos virtuales en lugar de con sendAsync
+    private final boolean virtuales;
+
+    public ImportadorCatalogo(ConsumoAPI consumoAPI,
+                              LibroRepository libroRepository,
+                              ProgresoImportacionRepository progresoRepository,
+                              PersistenciaLotes persistenciaLotes,
+                              CacheAutores cacheAutores,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${literalura.importacion.paginas-concurrentes:8}") int paginasConcurrentes,
+                              @Value("${literalura.gutendex.url:https://gutendex.com}") String urlBase,
+                              @Value("${literalura.hilos.virtuales:false}") boolean virtuales) {
+        this.consumoAPI = consumoAPI;
+        this.libroRepository = libroRepository;
+        this.progresoRepository = progresoRepository;
+        this.persistenciaLotes = persistenciaLotes;
+        this.cacheAutores = cacheAutores;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.paginasConcurrentes = paginasConcurrentes;
+        this.urlBase = urlBase;
+        this.virtuales = virtuales;
+    }
+
+    /*
+     Resumen de una ejecución de la importación.
+    */
+    public record ResultadoImportacion(int paginas, int libros, int ultimaPagina, int totalPaginas,
+                                       Duration duracion) {
+
+        public double paginasPorSegundo() {
+            return paginas / Math.max(duracion.toNanos() / 1e9, 0.001);
+        }
+
+        public double librosPorSegundo() {
+            return libros / Math.max(duracion.toNanos() / 1e9, 0.001);
+        }
+    }
+
+    /*
+     Importa (o reanuda) el catálogo completo.
+     Si falla una descarga, la excepción se propaga; todo lo anterior
+     ya quedó confirmado y la próxima llamada continúa desde ahí.
+    */
+    public ResultadoImportacion importar() {
+        return importar(Avance.NINGUNO);
+    }
+
+    // Igual, informando el avance y deteniéndose entre dos páginas si se cancela
+    public ResultadoImportacion importar(Avance avance) {
+        ProgresoImportacion progreso = progresoRepository.findById(PROCESO)
+                .orElseGet(() -> new ProgresoImportacion(PROCESO));
+
+        int primera = progreso.getUltimaPaginaConfirmada() + 1;
+
+        // Una sola consulta para conocer todos los autores ya guardados
+        cacheAutores.precargar();
+        long inicio = System.nanoTime();
+
+        AtomicInteger paginasGuardadas = new AtomicInteger();
+        AtomicInteger librosGuardados = new AtomicInteger();
+        Map<Integer, CompletableFuture<Datos>> enVuelo = new HashMap<>();
+        ExecutorService hilosPaginas = virtuales ? Hilos.porTarea("importacion-pagina", true) : null;
+        AmbitoTareas ambito = virtuales ? new AmbitoTareas(hilosPaginas) : null;
+        try {
+            // La primera página se pide de forma síncrona para conocer el total
+            Datos primeraPagina = descargarPagina(urlPagina(primera));
+            if (primeraPagina.resultados() == null || primeraPagina.total() == null) {
+                // Página inexistente: el catálogo ya se importó por completo
+                return resultado(paginasGuardadas, librosGuardados, progreso, inicio);
+            }
+            int totalPaginas = (primeraPagina.total() + LIBROS_POR_PAGINA - 1) / LIBROS_POR_PAGINA;
+            progreso.setTotalPaginas(totalPaginas);
+
+            int siguienteAPedir = primera + 1;
+            for (int numero = primera; numero <= totalPaginas && !avance.cancelado(); numero++) {
+
+                // Mantiene la ventana de descargas llena
+                while (siguienteAPedir <= totalPaginas && siguienteAPedir < numero + paginasConcurrentes) {
+                    enVuelo.put(siguienteAPedir, pedirPagina(siguienteAPedir, ambito));
+                    siguienteAPedir++;
+                }
+
+                Datos datos = numero == primera ? primeraPagina : enVuelo.remove(numero).join();
+                if (datos.resultados() == null) {
+                    // El catálogo se redujo mientras se importaba: no hay más páginas
+                    break;
+                }
+
+                librosGuardados.addAndGet(guardarPagina(datos.resultados(), progreso, numero));
+                paginasGuardadas.incrementAndGet();
+                informarAvance(avance, numero, totalPaginas, paginasGuardadas.get(), librosGuardados.get(), inicio);
+            }
+        } finally {
+            enVuelo.values().forEach(f -> f.cancel(true));
+            if (ambito != null) {
+                // Espera a que los hilos de las descargas canceladas terminen
+                ambito.close();
+                hilosPaginas.shutdown();
+            }
+        }
+
+        return resultado(paginasGuardadas, librosGuardados, progreso, inicio);
+    }
+
+    /*
+     Guarda los libros nuevos de una página y avanza el progreso
+     en una única transacción.
+     Devuelve cuántos libros se insertaron.
+    */
+    private int guardarPagina(List<DatosLibro> resultados, ProgresoImportacion progreso, int numero) {
+        Integer insertados = transaccion.execute(estado -> {
+            // Descarta datos incompletos o que no caben en las columnas,
+            // y repetidos dentro de la misma página (por id y por título)
+            Map<Integer, DatosLibro> porId = new LinkedHashMap<>();
+            Set<String> titulos = new HashSet<>();
+            for (DatosLibro d : resultados) {
+                if (esValido(d) && !porId.containsKey(d.id()) && titulos.add(d.titulo())) {
+                    porId.put(d.id(), d);
+                }
+            }
+
+            // Descarta los que ya estaban guardados (dos consultas por página)
+            Set<Integer> idsExistentes = porId.isEmpty() ? Set.of()
+                    : new HashSet<>(libroRepository.buscarIdsGutendexExistentes(porId.keySet()));
+            Set<String> titulosExistentes = titulos.isEmpty() ? Set.of()
+                    : new HashSet<>(libroRepository.buscarTitulosExistentes(titulos));
+
+            List<Libro> nuevos = porId.values().stream()
+                    .filter(d -> !idsExistentes.contains(d.id()) && !titulosExistentes.contains(d.titulo()))
+                    .map(Libro::new)
+                    .toList();
+
+            // INSERT en lotes JDBC dentro de esta misma transacción
+            persistenciaLotes.guardarEnLotes(nuevos);
+
+            progreso.setUltimaPaginaConfirmada(numero);
+            progresoRepository.save(progreso);
+            return nuevos.size();
+        });
+        return insertados != null ? insertados : 0;
+    }
+
+    // Un libro se puede guardar si tiene id, título y nombres que caben en las columnas
+    // (también lo usa ImportadorCatalogoLocal)
+    static boolean esValido(DatosLibro d) {
+        if (d.id() == null || d.titulo() == null || d.titulo().length() > LARGO_MAXIMO_TEXTO) {
+            return false;
+        }
+        if (d.autores() != null) {
+            for (DatosAutor a : d.autores()) {
+                if (a.nombre() == null || a.nombre().length() > LARGO_MAXIMO_TEXTO) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Descarga asíncrona de una página: sendAsync, o llamada bloqueante en un hilo virtual del ámbito
+    private CompletableFuture<Datos> pedirPagina(int numero, AmbitoTareas ambito) {
+        String url = urlPagina(numero);
+        if (ambito != null) {
+            return ambito.lanzar(() -> descargarPagina(url));
+        }
+        return consumoAPI.obtenerDatosAsync(url, Datos.class, conversor)
+                .exceptionally(e -> {
+                    Throwable causa = e.getCause() != null ? e.getCause() : e;
+                    if (esPaginaInexistente(causa)) {
+                        return PAGINA_INEXISTENTE;
+                    }
+                    throw e instanceof CompletionException c ? c : new CompletionException(causa);
+                });
+    }
+
+    // Descarga bloqueante de una página
+    private Datos descargarPagina(String url) {
+        try {
+            return consumoAPI.obtenerDatos(url, Datos.class, conversor);
+        } catch (ErrorGutendex e) {
+            if (esPaginaInexistente(e)) {
+                return PAGINA_INEXISTENTE;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean esPaginaInexistente(Throwable e) {
+        return e instanceof ErrorGutendex error && error.getCodigo() == 404;
+    }
+
+    /*
+     Sin "sort", Gutendex ordena por popularidad, y las descargas cambian ese
+     orden entre una petición y otra: páginas pedidas en paralelo (o al
+     reanudar) se solaparían o saltearían libros. Por id ascendente cada
+     página es estable.
+    */
+    private String urlPagina(int numero) {
+        return urlBase + "/books/?sort=ascending&page=" + numero;
+    }
+
+    private static void informarAvance(Avance avance, int pagina, int total, int paginas, int libros, long inicio) {
+        double segundos = Math.max((System.nanoTime() - inicio) / 1e9, 0.001);
+        avance.informar(pagina, total, String.format("página %d/%d · %d libros nuevos · %.1f páginas/s · %.1f libros/s",
+                pagina, total, libros, paginas / segundos, libros / segundos));
+    }
+
+    private ResultadoImportacion resultado(AtomicInteger paginas, AtomicInteger libros,
+                                           ProgresoImportacion progreso, long inicio) {
+        return new ResultadoImportacion(paginas.get(), libros.get(),
+                progreso.getUltimaPaginaConfirmada(),
+                progreso.getTotalPaginas() != null ? progreso.getTotalPaginas() : 0,
+                Duration.ofNanos(System.nanoTime() - inicio));
+    }
+}
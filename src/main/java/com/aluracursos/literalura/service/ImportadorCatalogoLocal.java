@@ -0,0 +1,281 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.repository.LibroRepository;
+// Modelo y repositorio usados para guardar el catálogo.
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+// Spring: configuración y registro como servicio.
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/*
+ Importación del catálogo desde el volcado local de Project Gutenberg
+ (pg_catalog.csv o pg_catalog.csv.gz), sin pedir nada a Gutendex.
+ Pensada para equipos sin salida a internet o para la primera carga completa.
+
+ Funcionamiento:
+ ✔ un solo hilo lee el archivo en streaming (LectorCatalogoCsv) y arma tramos de libros
+ ✔ varios hilos "escritores" guardan los tramos en paralelo, cada uno en su transacción
+ ✔ como mucho hay 2 tramos por escritor esperando o guardándose: si la base de datos
+   va más lenta que la lectura, la lectura espera (el heap no crece con el archivo)
+ ✔ los autores nuevos de cada tramo se insertan de a un tramo por vez
+   (PersistenciaLotes.guardarAutores, con el candado de CacheAutores), así dos
+   hilos nunca insertan el mismo autor; los libros se insertan en paralelo
+ ✔ los repetidos por id o por título se descartan contra lo ya leído del archivo
+   y contra la base de datos: volver a importar el mismo archivo no duplica nada
+ ✔ informa el avance (registros leídos, libros nuevos, registros/segundo) con cada
+   tramo y deja de leer si se cancela (Avance): los tramos ya confirmados quedan
+
+ El CSV no trae descargas: los libros quedan con 0 hasta que ActualizadorDescargas
+ (o una búsqueda en Gutendex) las actualiza.
+*/
+@Service
+public class ImportadorCatalogoLocal {
+
+    // Tramos por escritor que pueden estar en vuelo a la vez
+    private static final int TRAMOS_POR_ESCRITOR = 2;
+
+    private final LibroRepository libroRepository;
+    private final PersistenciaLotes persistenciaLotes;
+    private final CacheAutores cacheAutores;
+
+    // Archivo por defecto (el menú lo ofrece si no se escribe otro)
+    private final String archivo;
+
+    // Hilos que guardan tramos a la vez (cada uno ocupa una conexión del pool)
+    private final int escritores;
+
+    // Libros por tramo (una transacción y dos consultas de duplicados por tramo)
+    private final int tamanoTramo;
+
+    public ImportadorCatalogoLocal(LibroRepository libroRepository,
+                                   PersistenciaLotes persistenciaLotes,
+                                   CacheAutores cacheAutores,
+                                   @Value("${literalura.catalogo-local.archivo:pg_catalog.csv}") String archivo,
+                                   @Value("${literalura.catalogo-local.escritores:4}") int escritores,
+                                   @Value("${literalura.catalogo-local.tamano-tramo:1000}") int tamanoTramo) {
+        this.libroRepository = libroRepository;
+        this.persistenciaLotes = persistenciaLotes;
+        this.cacheAutores = cacheAutores;
+        this.archivo = archivo;
+        this.escritores = Math.max(1, escritores);
+        this.tamanoTramo = Math.max(1, tamanoTramo);
+    }
+
+    /*
+     Resumen de una importación: filas leídas del archivo, filas descartadas
+     (no son texto, incompletas o repetidas en el archivo) y libros insertados
+     (sin contar los que ya estaban en la base de datos).
+    */
+    public record ResultadoImportacionLocal(long registros, long descartados, int libros, Duration duracion) {
+
+        public double registrosPorSegundo() {
+            return registros / Math.max(duracion.toNanos() / 1e9, 0.001);
+        }
+
+        public double librosPorSegundo() {
+            return libros / Math.max(duracion.toNanos() / 1e9, 0.001);
+        }
+    }
+
+    public String getArchivo() {
+        return archivo;
+    }
+
+    /*
+     Importa el archivo completo.
+     Si falla un tramo, se deja de leer y la excepción se propaga; los tramos
+     ya confirmados quedan guardados y una nueva importación los salta.
+    */
+    public ResultadoImportacionLocal importar(Path ruta) {
+        return importar(ruta, Avance.NINGUNO);
+    }
+
+    /*
+     Igual, informando el avance con cada tramo. Si se cancela, deja de leer,
+     espera a los tramos que se están guardando y lanza CancellationException.
+    */
+    public ResultadoImportacionLocal importar(Path ruta, Avance avance) {
+        // Una sola consulta para conocer todos los autores ya guardados
+        cacheAutores.precargar();
+        long inicio = System.nanoTime();
+
+        Carga carga = new Carga(avance, inicio);
+        long registros;
+        try {
+            registros = LectorCatalogoCsv.leer(ruta, carga);
+            carga.enviar();
+            carga.esperar();
+        } catch (IOException e) {
+            carga.cancelar();
+            throw new UncheckedIOException("No se pudo leer " + ruta, e);
+        } catch (RuntimeException e) {
+            carga.cancelar();
+            throw e;
+        }
+        return new ResultadoImportacionLocal(registros, registros - carga.aceptados, carga.libros.get(),
+                Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    /*
+     Estado de una importación. Recibe los libros del lector (en el hilo que lee)
+     y reparte los tramos entre los escritores.
+    */
+    private final class Carga implements Consumer<DatosLibro> {
+
+        private final ExecutorService hilos = Executors.newFixedThreadPool(escritores,
+                Hilos.fabrica("catalogo-local", false));
+        private final Semaphore enVuelo = new Semaphore(escritores * TRAMOS_POR_ESCRITOR);
+        private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+        // Ids y títulos ya leídos del archivo: solo los usa el hilo lector
+        private final Set<Integer> ids = new HashSet<>();
+        private final Set<String> titulos = new HashSet<>();
+        private List<DatosLibro> tramo = new ArrayList<>(tamanoTramo);
+
+        // Libros leídos y aceptados (sin repetir) por el lector; guardados por los escritores
+        private final AtomicLong leidos = new AtomicLong();
+        private long aceptados;
+        private final AtomicInteger libros = new AtomicInteger();
+
+        private final Avance avance;
+        private final long inicio;
+
+        Carga(Avance avance, long inicio) {
+            this.avance = avance;
+            this.inicio = inicio;
+        }
+
+        @Override
+        public void accept(DatosLibro datos) {
+            leidos.incrementAndGet();
+            if (!ImportadorCatalogo.esValido(datos) || !ids.add(datos.id()) || !titulos.add(datos.titulo())) {
+                return;
+            }
+            aceptados++;
+            tramo.add(datos);
+            if (tramo.size() == tamanoTramo) {
+                enviar();
+            }
+        }
+
+        // Entrega el tramo actual a un escritor; espera si ya hay demasiados en vuelo
+        void enviar() {
+            fallarSiHuboError();
+            if (avance.cancelado()) {
+                throw new CancellationException("Importación cancelada");
+            }
+            informarAvance();
+            if (tramo.isEmpty()) {
+                return;
+            }
+            List<DatosLibro> lleno = tramo;
+            tramo = new ArrayList<>(tamanoTramo);
+            try {
+                enVuelo.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Importación interrumpida", e);
+            }
+            hilos.execute(() -> {
+                try {
+                    if (error.get() == null) {
+                        libros.addAndGet(guardarTramo(lleno));
+                    }
+                } catch (RuntimeException e) {
+                    error.compareAndSet(null, e);
+                } finally {
+                    enVuelo.release();
+                }
+            });
+        }
+
+        // Espera a que terminen los tramos enviados
+        void esperar() {
+            hilos.shutdown();
+            try {
+                while (!hilos.awaitTermination(1, TimeUnit.SECONDS)) {
+                    // Los tramos en vuelo siguen guardándose
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Importación interrumpida", e);
+            }
+            fallarSiHuboError();
+        }
+
+        // Tras un error los tramos pendientes no se guardan; se espera a los que están guardándose
+        // (así, al volver, ningún escritor sigue insertando)
+        void cancelar() {
+            error.compareAndSet(null, new IllegalStateException("Importación cancelada"));
+            hilos.shutdown();
+            try {
+                hilos.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Sin total: el lector no sabe cuántas filas quedan en el archivo
+        private void informarAvance() {
+            double segundos = Math.max((System.nanoTime() - inicio) / 1e9, 0.001);
+            avance.informar(leidos.get(), 0, String.format("%d registros leídos · %d libros nuevos · %.1f registros/s",
+                    leidos.get(), libros.get(), leidos.get() / segundos));
+        }
+
+        private void fallarSiHuboError() {
+            RuntimeException e = error.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+    }
+
+    /*
+     Guarda un tramo en un hilo escritor y devuelve cuántos libros se insertaron:
+     descarta los que ya estaban en la base de datos, inserta los autores nuevos
+     (de a un hilo por vez) y luego los libros, en su propia transacción.
+    */
+    private int guardarTramo(List<DatosLibro> tramo) {
+        Set<Integer> idsTramo = new HashSet<>();
+        Set<String> titulosTramo = new HashSet<>();
+        for (DatosLibro d : tramo) {
+            idsTramo.add(d.id());
+            titulosTramo.add(d.titulo());
+        }
+        Set<Integer> idsExistentes = new HashSet<>(libroRepository.buscarIdsGutendexExistentes(idsTramo));
+        Set<String> titulosExistentes = new HashSet<>(libroRepository.buscarTitulosExistentes(titulosTramo));
+
+        List<Libro> nuevos = tramo.stream()
+                .filter(d -> !idsExistentes.contains(d.id()) && !titulosExistentes.contains(d.titulo()))
+                .map(Libro::new)
+                .toList();
+        if (nuevos.isEmpty()) {
+            return 0;
+        }
+
+        persistenciaLotes.guardarAutores(nuevos);
+        return persistenciaLotes.guardarEnLotes(nuevos);
+    }
+
+}
@@ -0,0 +1,287 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.Autor;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.LibroResumen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Búsqueda de texto sobre los libros guardados (títulos y autores) con IndiceTexto.
+
+ ✔ al arrancar, en segundo plano, abre el índice guardado en disco mapeándolo
+   en memoria; si no existe o no coincide con la base (cantidad de libros y
+   mayor id), lo vuelve a armar con dos SELECT planos por JDBC
+ ✔ se actualiza con cada guardado (evento LibrosGuardados, después del COMMIT):
+   los libros nuevos van a los agregados en memoria del índice
+ ✔ cuando los agregados pasan de literalura.indice.compactar-con libros,
+   se vuelve a armar el archivo en segundo plano
+ ✔ reconstruir() lo vuelve a armar desde la base cuando se pida
+ ✔ mientras no está listo (o si está desactivado), buscar() usa el LIKE
+   de ConsultaLibros
+
+ Configuración:
+   literalura.indice.habilitado=true
+   literalura.indice.directorio=/ruta/al/indice   (vacío = solo memoria)
+   literalura.indice.compactar-con=20000
+*/
+@Service
+public class IndiceLibros {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceLibros.class);
+
+    private static final String ARCHIVO = "libros.idx";
+
+    // Libro guardado a la espera de incorporarse a un índice en construcción
+    private record Entrada(long idLibro, String titulo, List<String> autores) {}
+
+    private final ConsultaLibros consultaLibros;
+    private final JdbcTemplate jdbc;
+    private final boolean habilitado;
+    private final Path directorio;
+    private final int compactarCon;
+
+    // Índice vigente (null hasta que termina la primera carga)
+    private volatile IndiceTexto actual;
+
+    // Guardados que llegan mientras se arma un índice nuevo (se aplican al terminar)
+    private final List<Entrada> pendientes = new ArrayList<>();
+    private boolean reconstruyendo;
+
+    private final Object reconstruccion = new Object();
+    private final AtomicBoolean compactando = new AtomicBoolean();
+
+    // Sube después de cada cambio del índice vigente (la API la usa en los ETag)
+    private final AtomicLong generacion = new AtomicLong();
+
+    public IndiceLibros(ConsultaLibros consultaLibros, DataSource dataSource,
+                        @Value("${literalura.indice.habilitado:true}") boolean habilitado,
+                        @Value("${literalura.indice.directorio:${user.home}/.literalura/indice}") String directorio,
+                        @Value("${literalura.indice.compactar-con:20000}") int compactarCon) {
+        this.consultaLibros = consultaLibros;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.habilitado = habilitado;
+        this.directorio = directorio == null || directorio.isBlank() ? null : Path.of(directorio);
+        this.compactarCon = compactarCon;
+    }
+
+    // ---------------- CICLO DE VIDA ----------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (!habilitado) {
+            return;
+        }
+        Thread hilo = new Thread(this::abrir, "indice-libros");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    public boolean estaListo() {
+        return actual != null;
+    }
+
+    // Cuenta los cambios del índice; sube después de aplicarlos
+    public long generacion() {
+        return generacion.get();
+    }
+
+    // Usa el archivo guardado si corresponde a la base; si no, lo vuelve a armar
+    void abrir() {
+        if (directorio != null && Files.isRegularFile(directorio.resolve(ARCHIVO))) {
+            try {
+                long inicio = System.nanoTime();
+                IndiceTexto guardado = new IndiceTexto(mapear(directorio.resolve(ARCHIVO)));
+                if (coincideConLaBase(guardado)) {
+                    synchronized (this) {
+                        if (actual == null) {
+                            pendientes.forEach(e -> guardado.agregar(e.idLibro(), e.titulo(), e.autores()));
+                            pendientes.clear();
+                            actual = guardado;
+                            generacion.incrementAndGet();
+                        }
+                    }
+                    log.info("Índice de búsqueda abierto: {} libros en {} ms",
+                            guardado.cantidadBase(), (System.nanoTime() - inicio) / 1_000_000);
+                    return;
+                }
+                log.info("El índice de búsqueda no coincide con la base; se vuelve a armar");
+            } catch (IOException | IllegalArgumentException | DataAccessException e) {
+                log.warn("No se pudo abrir el índice de búsqueda; se vuelve a armar: {}", e.getMessage());
+            }
+        }
+        reconstruir();
+    }
+
+    /*
+     Vuelve a armar el índice con todos los libros de la base.
+     Los guardados que llegan mientras tanto se aplican encima
+     (los que ya estaban en la base se ignoran por id).
+    */
+    public void reconstruir() {
+        synchronized (reconstruccion) {
+            synchronized (this) {
+                reconstruyendo = true;
+            }
+            try {
+                long inicio = System.nanoTime();
+                IndiceTexto nuevo = new IndiceTexto(guardar(leerBase().construir()));
+                synchronized (this) {
+                    pendientes.forEach(e -> nuevo.agregar(e.idLibro(), e.titulo(), e.autores()));
+                    pendientes.clear();
+                    actual = nuevo;
+                    generacion.incrementAndGet();
+                }
+                log.info("Índice de búsqueda listo: {} libros en {} ms",
+                        nuevo.cantidadBase(), (System.nanoTime() - inicio) / 1_000_000);
+            } catch (DataAccessException e) {
+                log.warn("No se pudo armar el índice de búsqueda; se buscará con LIKE: {}", e.getMessage());
+            } finally {
+                synchronized (this) {
+                    reconstruyendo = false;
+                    // Con un índice vigente los pendientes ya están en él
+                    if (actual != null) {
+                        pendientes.clear();
+                    }
+                }
+            }
+        }
+    }
+
+    // Recibe los libros insertados, solo si la transacción se confirmó
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alGuardar(LibrosGuardados evento) {
+        if (!habilitado) {
+            return;
+        }
+        IndiceTexto vigente;
+        synchronized (this) {
+            vigente = actual;
+            for (Libro libro : evento.libros()) {
+                List<String> autores = libro.getAutores() == null ? List.of()
+                        : libro.getAutores().stream().map(Autor::getNombre).toList();
+                if (vigente != null) {
+                    vigente.agregar(libro.getIdLibro(), libro.getTitulo(), autores);
+                }
+                if (vigente == null || reconstruyendo) {
+                    pendientes.add(new Entrada(libro.getIdLibro(), libro.getTitulo(), autores));
+                }
+            }
+        }
+        generacion.incrementAndGet();
+        if (vigente != null && vigente.cantidadAgregados() >= compactarCon && compactando.compareAndSet(false, true)) {
+            Thread hilo = new Thread(() -> {
+                try {
+                    reconstruir();
+                } finally {
+                    compactando.set(false);
+                }
+            }, "indice-libros-compactar");
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+    }
+
+    // ---------------- BÚSQUEDA ----------------
+
+    /*
+     Libros guardados cuyo título o autores coinciden con el texto,
+     los más relevantes primero (ver IndiceTexto).
+    */
+    public Slice<LibroResumen> buscar(String texto, Pageable pagina) {
+        IndiceTexto indice = actual;
+        if (indice == null) {
+            return consultaLibros.buscarPorTitulo(texto, pagina);
+        }
+        int cantidad = pagina.getPageSize();
+        // Uno de más para saber si hay página siguiente
+        List<Long> ids = indice.buscar(texto, (int) pagina.getOffset(), cantidad + 1).ids();
+        boolean hayMas = ids.size() > cantidad;
+        return new SliceImpl<>(consultaLibros.resumenes(hayMas ? ids.subList(0, cantidad) : ids), pagina, hayMas);
+    }
+
+    // ---------------- CONSTRUCCIÓN Y ARCHIVO ----------------
+
+    private IndiceTexto.Constructor leerBase() {
+        Map<Long, List<String>> autores = new HashMap<>();
+        jdbc.query("SELECT la.libro_id_libro, a.nombre FROM libro_autor la JOIN autores a ON a.id = la.autor_id",
+                rs -> {
+                    autores.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>(2)).add(rs.getString(2));
+                });
+        IndiceTexto.Constructor constructor = new IndiceTexto.Constructor();
+        jdbc.query("SELECT id_libro, titulo FROM libros", rs -> {
+            long id = rs.getLong(1);
+            constructor.agregar(id, rs.getString(2), autores.getOrDefault(id, List.of()));
+        });
+        return constructor;
+    }
+
+    private boolean coincideConLaBase(IndiceTexto indice) {
+        Map<String, Object> fila = jdbc.queryForMap("SELECT COUNT(*) AS cantidad, MAX(id_libro) AS mayor FROM libros");
+        long cantidad = ((Number) fila.get("cantidad")).longValue();
+        Number mayor = (Number) fila.get("mayor");
+        return cantidad == indice.cantidadBase() && (mayor == null ? 0 : mayor.longValue()) == indice.mayorIdBase();
+    }
+
+    /*
+     Escribe el segmento en un archivo temporal, lo mueve sobre el anterior
+     y lo mapea en memoria. Sin directorio (o si falla el disco) queda en el heap.
+    */
+    private ByteBuffer guardar(ByteBuffer segmento) {
+        if (directorio == null) {
+            return segmento;
+        }
+        Path destino = directorio.resolve(ARCHIVO);
+        Path temporal = directorio.resolve(ARCHIVO + ".tmp");
+        try {
+            Files.createDirectories(directorio);
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (segmento.hasRemaining()) {
+                    canal.write(segmento);
+                }
+                canal.force(true);
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return mapear(destino);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar el índice de búsqueda en {}; queda solo en memoria: {}",
+                    directorio, e.getMessage());
+            return segmento.rewind();
+        }
+    }
+
+    // El mapeo sigue válido después de cerrar el canal
+    private static ByteBuffer mapear(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+    }
+}
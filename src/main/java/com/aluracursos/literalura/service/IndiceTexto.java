@@ -0,0 +1,602 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ Índice invertido de palabras → libros sobre los títulos y los nombres de autores.
+
+ Las palabras se normalizan como en Relevancia (minúsculas, sin acentos:
+ "Misérables", "miserables" y "MISERABLES" son la misma palabra).
+
+ Dos segmentos:
+ ✔ base: inmutable, en un ByteBuffer con el formato de abajo; puede ser un
+   archivo mapeado en memoria (MappedByteBuffer), así el índice no ocupa heap
+   y el sistema operativo carga solo las páginas que se consultan
+ ✔ agregados: los libros guardados después de armar la base, en memoria
+   (TreeMap de palabras); se vacía al volver a armar la base
+
+ Consultas:
+ ✔ cada palabra se busca exacta; la última (o la que termina en "*") también
+   como prefijo ("dick" → "dickens")
+ ✔ una palabra sin coincidencias (o que termina en "~") se busca aproximada:
+   hasta 1 error en palabras de 4 a 7 letras y 2 desde 8 letras, con la
+   misma primera letra (letra cambiada, agregada, quitada o dos letras invertidas)
+ ✔ primero los libros que tienen todas las palabras; si no hay ninguno,
+   los que tienen alguna
+ ✔ orden: coincidencias en el título pesan más que en el autor, las exactas
+   más que los prefijos y estos más que las aproximadas; a igual puntaje, títulos
+   más cortos y luego el id más bajo
+
+ Formato de la base (enteros big-endian):
+   int  MAGICO, int libros, int palabras, int apariciones
+   long idLibro[libros]                   (orden ascendente)
+   int  largo[libros]                     (palabras del título)
+   int  palabraInicio[palabras + 1]       (desplazamiento en el bloque de texto)
+   int  aparicionInicio[palabras + 1]
+   int  aparicion[apariciones]            (libro << 1 | campo; campo 0 = título, 1 = autor)
+   byte texto[...]                        (palabras en UTF-8, en orden de bytes)
+*/
+public final class IndiceTexto {
+
+    public static final int MAGICO = 0x4C_49_54_31; // "LIT1"
+    private static final int CABECERA = 16;
+
+    private static final float TITULO = 1.0f;
+    private static final float AUTOR = 0.8f;
+    private static final float EXACTA = 1.0f;
+    private static final float PREFIJO = 0.7f;
+    private static final float APROXIMADA = 0.5f;
+
+    // Palabras de un prefijo que se consideran como máximo (las primeras en orden)
+    private static final int EXPANSIONES_MAXIMAS = 128;
+
+    /*
+     Una página de resultados: ids de libro en orden de relevancia y
+     total de libros que coinciden.
+    */
+    public record Resultado(List<Long> ids, int total) {
+        public static final Resultado VACIO = new Resultado(List.of(), 0);
+    }
+
+    // ---------------- SEGMENTO BASE ----------------
+
+    private final ByteBuffer base;
+    private final int librosBase;
+    private final int palabrasBase;
+    private final int desdeIds;
+    private final int desdeLargos;
+    private final int desdePalabras;
+    private final int desdeApariciones;
+    private final int desdeAparicion;
+    private final int desdeTexto;
+
+    // ---------------- AGREGADOS (en memoria) ----------------
+
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Enteros> agregados = new TreeMap<>();
+    private final Set<Long> idsAgregados = new HashSet<>();
+    private long[] idAgregado = new long[16];
+    private int[] largoAgregado = new int[16];
+    private int librosAgregados;
+
+    // Abre un segmento base armado con Constructor (en memoria o mapeado desde un archivo)
+    public IndiceTexto(ByteBuffer base) {
+        if (base.limit() < CABECERA || base.getInt(0) != MAGICO) {
+            throw new IllegalArgumentException("No es un índice de texto de Literalura");
+        }
+        this.base = base;
+        librosBase = base.getInt(4);
+        palabrasBase = base.getInt(8);
+        int apariciones = base.getInt(12);
+        desdeIds = CABECERA;
+        desdeLargos = desdeIds + 8 * librosBase;
+        desdePalabras = desdeLargos + 4 * librosBase;
+        desdeApariciones = desdePalabras + 4 * (palabrasBase + 1);
+        desdeAparicion = desdeApariciones + 4 * (palabrasBase + 1);
+        desdeTexto = desdeAparicion + 4 * apariciones;
+        if (desdeTexto + base.getInt(desdePalabras + 4 * palabrasBase) != base.limit()) {
+            throw new IllegalArgumentException("Índice de texto incompleto o dañado");
+        }
+    }
+
+    public int cantidadBase() {
+        return librosBase;
+    }
+
+    public int cantidadAgregados() {
+        candado.readLock().lock();
+        try {
+            return librosAgregados;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // Mayor id de libro de la base (0 si está vacía)
+    public long mayorIdBase() {
+        return librosBase == 0 ? 0 : base.getLong(desdeIds + 8 * (librosBase - 1));
+    }
+
+    public boolean contiene(long idLibro) {
+        candado.readLock().lock();
+        try {
+            return posicionEnBase(idLibro) >= 0 || idsAgregados.contains(idLibro);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /*
+     Agrega un libro guardado después de armar la base.
+     Un libro que ya está (en la base o en los agregados) se ignora.
+    */
+    public void agregar(long idLibro, String titulo, Collection<String> autores) {
+        candado.writeLock().lock();
+        try {
+            if (posicionEnBase(idLibro) >= 0 || !idsAgregados.add(idLibro)) {
+                return;
+            }
+            if (librosAgregados == idAgregado.length) {
+                idAgregado = Arrays.copyOf(idAgregado, librosAgregados * 2);
+                largoAgregado = Arrays.copyOf(largoAgregado, librosAgregados * 2);
+            }
+            int libro = librosBase + librosAgregados;
+            List<String> delTitulo = Relevancia.palabras(titulo);
+            idAgregado[librosAgregados] = idLibro;
+            largoAgregado[librosAgregados] = Math.max(1, delTitulo.size());
+            librosAgregados++;
+            for (String palabra : new HashSet<>(delTitulo)) {
+                agregados.computeIfAbsent(palabra, p -> new Enteros()).agregar(libro << 1);
+            }
+            for (String palabra : palabrasDeAutores(autores)) {
+                agregados.computeIfAbsent(palabra, p -> new Enteros()).agregar(libro << 1 | 1);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // ---------------- BÚSQUEDA ----------------
+
+    // Palabra de la consulta con su forma de búsqueda
+    private record Termino(String palabra, byte[] bytes, boolean prefijo, boolean aproximada) {}
+
+    /*
+     Los "cantidad" libros más relevantes a partir de la posición "desde".
+    */
+    public Resultado buscar(String consulta, int desde, int cantidad) {
+        List<Termino> terminos = terminos(consulta);
+        if (terminos.isEmpty()) {
+            return Resultado.VACIO;
+        }
+        candado.readLock().lock();
+        try {
+            int libros = librosBase + librosAgregados;
+            float[] puntaje = new float[libros];
+            byte[] coincidencias = new byte[libros];
+            float[] mejor = new float[libros];
+            Enteros tocados = new Enteros();
+
+            for (Termino t : terminos) {
+                tocados.n = 0;
+                int encontradas = sumarExacta(t, mejor, tocados);
+                if (t.prefijo()) {
+                    encontradas += sumarPrefijo(t, mejor, tocados);
+                }
+                if (encontradas == 0 || t.aproximada()) {
+                    sumarAproximadas(t, mejor, tocados);
+                }
+                for (int i = 0; i < tocados.n; i++) {
+                    int libro = tocados.v[i];
+                    puntaje[libro] += mejor[libro];
+                    coincidencias[libro]++;
+                    mejor[libro] = 0;
+                }
+            }
+            return ordenar(puntaje, coincidencias, terminos.size(), desde, cantidad);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private static List<Termino> terminos(String consulta) {
+        List<Termino> terminos = new ArrayList<>();
+        if (consulta == null) {
+            return terminos;
+        }
+        String[] partes = consulta.trim().split("\\s+");
+        for (int i = 0; i < partes.length; i++) {
+            String parte = partes[i];
+            boolean prefijo = parte.endsWith("*") || i == partes.length - 1;
+            boolean aproximada = parte.endsWith("~");
+            List<String> palabras = Relevancia.palabras(parte);
+            for (int j = 0; j < palabras.size(); j++) {
+                boolean ultima = j == palabras.size() - 1;
+                String palabra = palabras.get(j);
+                terminos.add(new Termino(palabra, palabra.getBytes(StandardCharsets.UTF_8),
+                        prefijo && ultima, aproximada && ultima));
+            }
+        }
+        // Una palabra repetida en la consulta cuenta una vez
+        Set<String> vistas = new HashSet<>();
+        terminos.removeIf(t -> !vistas.add(t.palabra()));
+        return terminos;
+    }
+
+    private int sumarExacta(Termino t, float[] mejor, Enteros tocados) {
+        int encontradas = 0;
+        int p = buscarPalabra(t.bytes());
+        if (p >= 0) {
+            sumarBase(p, EXACTA, mejor, tocados);
+            encontradas++;
+        }
+        Enteros agregada = agregados.get(t.palabra());
+        if (agregada != null) {
+            sumar(agregada, EXACTA, mejor, tocados);
+            encontradas++;
+        }
+        return encontradas;
+    }
+
+    private int sumarPrefijo(Termino t, float[] mejor, Enteros tocados) {
+        int encontradas = 0;
+        for (int p = limiteInferior(t.bytes()); p < palabrasBase && encontradas < EXPANSIONES_MAXIMAS
+                && empiezaCon(p, t.bytes()); p++) {
+            if (largoPalabra(p) != t.bytes().length) {
+                sumarBase(p, PREFIJO, mejor, tocados);
+                encontradas++;
+            }
+        }
+        for (Map.Entry<String, Enteros> e : agregados.subMap(t.palabra(), false,
+                t.palabra() + Character.MAX_VALUE, false).entrySet()) {
+            if (e.getKey().startsWith(t.palabra()) && encontradas++ < EXPANSIONES_MAXIMAS) {
+                sumar(e.getValue(), PREFIJO, mejor, tocados);
+            }
+        }
+        return encontradas;
+    }
+
+    private void sumarAproximadas(Termino t, float[] mejor, Enteros tocados) {
+        String palabra = t.palabra();
+        int errores = palabra.length() >= 8 ? 2 : palabra.length() >= 4 ? 1 : 0;
+        if (errores == 0) {
+            return;
+        }
+        // Solo palabras con la misma primera letra: un tramo contiguo del diccionario
+        String primera = palabra.substring(0, Character.charCount(palabra.codePointAt(0)));
+        byte[] bytesPrimera = primera.getBytes(StandardCharsets.UTF_8);
+        for (int p = limiteInferior(bytesPrimera); p < palabrasBase && empiezaCon(p, bytesPrimera); p++) {
+            int largo = largoPalabra(p);
+            if (Math.abs(largo - t.bytes().length) > errores * 2) {
+                continue;
+            }
+            int distancia = distancia(palabra, palabraBase(p), errores);
+            if (distancia > 0 && distancia <= errores) {
+                sumarBase(p, APROXIMADA / distancia, mejor, tocados);
+            }
+        }
+        for (Map.Entry<String, Enteros> e : agregados.subMap(primera, true,
+                primera + Character.MAX_VALUE, false).entrySet()) {
+            int distancia = distancia(palabra, e.getKey(), errores);
+            if (distancia > 0 && distancia <= errores) {
+                sumar(e.getValue(), APROXIMADA / distancia, mejor, tocados);
+            }
+        }
+    }
+
+    private void sumarBase(int palabra, float peso, float[] mejor, Enteros tocados) {
+        int desde = base.getInt(desdeApariciones + 4 * palabra);
+        int hasta = base.getInt(desdeApariciones + 4 * (palabra + 1));
+        for (int i = desde; i < hasta; i++) {
+            anotar(base.getInt(desdeAparicion + 4 * i), peso, mejor, tocados);
+        }
+    }
+
+    private static void sumar(Enteros apariciones, float peso, float[] mejor, Enteros tocados) {
+        for (int i = 0; i < apariciones.n; i++) {
+            anotar(apariciones.v[i], peso, mejor, tocados);
+        }
+    }
+
+    // Guarda el mejor peso de la palabra actual para el libro
+    private static void anotar(int aparicion, float peso, float[] mejor, Enteros tocados) {
+        int libro = aparicion >>> 1;
+        float valor = peso * ((aparicion & 1) == 0 ? TITULO : AUTOR);
+        if (mejor[libro] == 0) {
+            tocados.agregar(libro);
+        }
+        if (valor > mejor[libro]) {
+            mejor[libro] = valor;
+        }
+    }
+
+    /*
+     Ordena los libros con todas las palabras (o, si no hay, con alguna)
+     empaquetando (puntaje, libro) en un long: sin objetos por resultado.
+    */
+    private Resultado ordenar(float[] puntaje, byte[] coincidencias, int palabras, int desde, int cantidad) {
+        int requeridas = palabras;
+        int total = contar(coincidencias, requeridas);
+        if (total == 0) {
+            requeridas = 1;
+            total = contar(coincidencias, requeridas);
+        }
+        if (total == 0 || desde >= total) {
+            return new Resultado(List.of(), total);
+        }
+
+        long[] orden = new long[total];
+        int k = 0;
+        for (int libro = 0; libro < coincidencias.length; libro++) {
+            if (coincidencias[libro] >= requeridas) {
+                // Títulos cortos primero; el puntaje es positivo, así sus bits ordenan como el valor
+                float valor = puntaje[libro] + 0.05f / largo(libro);
+                orden[k++] = ((long) Float.floatToIntBits(valor) << 32) | (Integer.MAX_VALUE - libro);
+            }
+        }
+        Arrays.sort(orden);
+
+        int hasta = Math.min(total, desde + cantidad);
+        List<Long> ids = new ArrayList<>(hasta - desde);
+        for (int i = desde; i < hasta; i++) {
+            int libro = Integer.MAX_VALUE - (int) orden[total - 1 - i];
+            ids.add(idLibro(libro));
+        }
+        return new Resultado(ids, total);
+    }
+
+    private static int contar(byte[] coincidencias, int requeridas) {
+        int total = 0;
+        for (byte c : coincidencias) {
+            if (c >= requeridas) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    // ---------------- ACCESO A LA BASE ----------------
+
+    private long idLibro(int libro) {
+        return libro < librosBase ? base.getLong(desdeIds + 8 * libro) : idAgregado[libro - librosBase];
+    }
+
+    private int largo(int libro) {
+        return libro < librosBase ? base.getInt(desdeLargos + 4 * libro) : largoAgregado[libro - librosBase];
+    }
+
+    private int posicionEnBase(long idLibro) {
+        int bajo = 0;
+        int alto = librosBase - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            long id = base.getLong(desdeIds + 8 * medio);
+            if (id < idLibro) {
+                bajo = medio + 1;
+            } else if (id > idLibro) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+
+    private int inicioPalabra(int p) {
+        return desdeTexto + base.getInt(desdePalabras + 4 * p);
+    }
+
+    private int largoPalabra(int p) {
+        return base.getInt(desdePalabras + 4 * (p + 1)) - base.getInt(desdePalabras + 4 * p);
+    }
+
+    private String palabraBase(int p) {
+        byte[] bytes = new byte[largoPalabra(p)];
+        base.get(inicioPalabra(p), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Compara la palabra p del diccionario con "bytes" (orden de bytes sin signo)
+    private int comparar(int p, byte[] bytes) {
+        int inicio = inicioPalabra(p);
+        int largo = largoPalabra(p);
+        int n = Math.min(largo, bytes.length);
+        for (int i = 0; i < n; i++) {
+            int c = Integer.compare(base.get(inicio + i) & 0xFF, bytes[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(largo, bytes.length);
+    }
+
+    private boolean empiezaCon(int p, byte[] prefijo) {
+        if (largoPalabra(p) < prefijo.length) {
+            return false;
+        }
+        int inicio = inicioPalabra(p);
+        for (int i = 0; i < prefijo.length; i++) {
+            if (base.get(inicio + i) != prefijo[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int buscarPalabra(byte[] bytes) {
+        int p = limiteInferior(bytes);
+        return p < palabrasBase && comparar(p, bytes) == 0 ? p : -1;
+    }
+
+    // Primera palabra del diccionario >= bytes
+    private int limiteInferior(byte[] bytes) {
+        int bajo = 0;
+        int alto = palabrasBase;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (comparar(medio, bytes) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /*
+     Distancia de edición (con trasposición de dos letras vecinas) entre a y b;
+     devuelve maximo + 1 en cuanto se sabe que la supera.
+    */
+    static int distancia(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        int[] anterior2 = new int[b.length() + 1];
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int menorFila = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int valor = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + costo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    valor = Math.min(valor, anterior2[j - 2] + 1);
+                }
+                actual[j] = valor;
+                menorFila = Math.min(menorFila, valor);
+            }
+            if (menorFila > maximo) {
+                return maximo + 1;
+            }
+            int[] libre = anterior2;
+            anterior2 = anterior;
+            anterior = actual;
+            actual = libre;
+        }
+        return anterior[b.length()];
+    }
+
+    private static Set<String> palabrasDeAutores(Collection<String> autores) {
+        Set<String> palabras = new HashSet<>();
+        for (String autor : autores) {
+            palabras.addAll(Relevancia.palabras(autor));
+        }
+        return palabras;
+    }
+
+    // ---------------- CONSTRUCCIÓN DE LA BASE ----------------
+
+    /*
+     Arma un segmento base a partir de los libros (en cualquier orden).
+     Uso: agregar(...) por cada libro y luego construir().
+    */
+    public static final class Constructor {
+
+        private record Libro(long id, List<String> titulo, Set<String> autores) {}
+
+        private final List<Libro> libros = new ArrayList<>();
+
+        public Constructor agregar(long idLibro, String titulo, Collection<String> autores) {
+            libros.add(new Libro(idLibro, Relevancia.palabras(titulo), palabrasDeAutores(autores)));
+            return this;
+        }
+
+        public int cantidad() {
+            return libros.size();
+        }
+
+        public ByteBuffer construir() {
+            libros.sort((a, b) -> Long.compare(a.id(), b.id()));
+
+            // Apariciones por palabra, en orden de libro
+            Map<String, Enteros> porPalabra = new HashMap<>();
+            int apariciones = 0;
+            for (int libro = 0; libro < libros.size(); libro++) {
+                for (String palabra : new HashSet<>(libros.get(libro).titulo())) {
+                    porPalabra.computeIfAbsent(palabra, p -> new Enteros()).agregar(libro << 1);
+                    apariciones++;
+                }
+                for (String palabra : libros.get(libro).autores()) {
+                    porPalabra.computeIfAbsent(palabra, p -> new Enteros()).agregar(libro << 1 | 1);
+                    apariciones++;
+                }
+            }
+
+            // Diccionario en orden de bytes UTF-8 (el que usa la búsqueda binaria)
+            byte[][] palabras = porPalabra.keySet().stream()
+                    .map(p -> p.getBytes(StandardCharsets.UTF_8))
+                    .sorted(Arrays::compareUnsigned)
+                    .toArray(byte[][]::new);
+            int bytesTexto = 0;
+            for (byte[] p : palabras) {
+                bytesTexto += p.length;
+            }
+
+            int n = libros.size();
+            int tamano = CABECERA + 8 * n + 4 * n + 8 * (palabras.length + 1) + 4 * apariciones + bytesTexto;
+            ByteBuffer salida = ByteBuffer.allocate(tamano);
+            salida.putInt(MAGICO).putInt(n).putInt(palabras.length).putInt(apariciones);
+            for (Libro libro : libros) {
+                salida.putLong(libro.id());
+            }
+            for (Libro libro : libros) {
+                salida.putInt(Math.max(1, libro.titulo().size()));
+            }
+            int desplazamiento = 0;
+            for (byte[] p : palabras) {
+                salida.putInt(desplazamiento);
+                desplazamiento += p.length;
+            }
+            salida.putInt(desplazamiento);
+            desplazamiento = 0;
+            List<Enteros> listas = new ArrayList<>(palabras.length);
+            for (byte[] p : palabras) {
+                Enteros lista = porPalabra.get(new String(p, StandardCharsets.UTF_8));
+                listas.add(lista);
+                salida.putInt(desplazamiento);
+                desplazamiento += lista.n;
+            }
+            salida.putInt(desplazamiento);
+            for (Enteros lista : listas) {
+                for (int i = 0; i < lista.n; i++) {
+                    salida.putInt(lista.v[i]);
+                }
+            }
+            for (byte[] p : palabras) {
+                salida.put(p);
+            }
+            return salida.flip();
+        }
+    }
+
+    // Lista creciente de int sin cajas
+    private static final class Enteros {
+        int[] v = new int[4];
+        int n;
+
+        void agregar(int valor) {
+            if (n == v.length) {
+                v = Arrays.copyOf(v, n * 2);
+            }
+            v[n++] = valor;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import java.util.Arrays;
+
+/*
+ Índice de intervalos [inicio, fin] (años de vida) para responder
+ "¿quiénes vivían en el año X?" o "¿quiénes vivieron en algún momento entre X e Y?".
+
+ ✔ los intervalos se ordenan por año de inicio
+ ✔ encima, un árbol de segmentos implícito (en un arreglo) guarda el mayor
+   año de fin de cada tramo
+ ✔ una consulta toma solo los que empezaron antes de "hasta" (búsqueda binaria)
+   y baja por el árbol descartando los tramos cuyo mayor fin es anterior a "desde"
+
+ El costo es O(log n + k·log n) para k resultados, en lugar de recorrer
+ todos los autores. Es inmutable: se arma de nuevo junto con la instantánea.
+*/
+public final class IndiceVidas {
+
+    private final int[] inicio;     // ordenado de menor a mayor
+    private final int[] fin;
+    private final int[] posicion;   // dato asociado a cada intervalo (posición del autor)
+    private final int hojas;        // potencia de 2 >= cantidad de intervalos
+    private final int[] mayorFin;   // árbol: nodo 1 = raíz, hijos de i = 2i y 2i+1
+
+    public IndiceVidas(int[] inicios, int[] fines, int[] posiciones, int cantidad) {
+        // Orden por inicio empaquetando (inicio, índice) en un long: sin objetos intermedios
+        long[] orden = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            orden[i] = ((long) inicios[i] << 32) | (i & 0xFFFF_FFFFL);
+        }
+        Arrays.sort(orden);
+
+        inicio = new int[cantidad];
+        fin = new int[cantidad];
+        posicion = new int[cantidad];
+        for (int p = 0; p < cantidad; p++) {
+            int i = (int) orden[p];
+            inicio[p] = inicios[i];
+            fin[p] = fines[i];
+            posicion[p] = posiciones[i];
+        }
+
+        hojas = Integer.highestOneBit(Math.max(1, cantidad - 1)) << 1;
+        mayorFin = new int[2 * hojas];
+        Arrays.fill(mayorFin, Integer.MIN_VALUE);
+        System.arraycopy(fin, 0, mayorFin, hojas, cantidad);
+        for (int nodo = hojas - 1; nodo >= 1; nodo--) {
+            mayorFin[nodo] = Math.max(mayorFin[2 * nodo], mayorFin[2 * nodo + 1]);
+        }
+    }
+
+    public int cantidad() {
+        return inicio.length;
+    }
+
+    /*
+     Marca en "marcas" (un bit por posición) los intervalos que se cruzan
+     con [desde, hasta]: inicio <= hasta y fin >= desde.
+     Devuelve cuántos marcó.
+    */
+    public int marcar(int desde, int hasta, long[] marcas) {
+        int candidatos = primerInicioMayorA(hasta);
+        if (candidatos == 0) {
+            return 0;
+        }
+        return marcar(1, 0, hojas, candidatos, desde, marcas);
+    }
+
+    private int marcar(int nodo, int izquierda, int derecha, int candidatos, int desde, long[] marcas) {
+        if (izquierda >= candidatos || mayorFin[nodo] < desde) {
+            return 0;
+        }
+        if (nodo >= hojas) {
+            int p = posicion[nodo - hojas];
+            marcas[p >>> 6] |= 1L << p;
+            return 1;
+        }
+        int medio = (izquierda + derecha) >>> 1;
+        return marcar(2 * nodo, izquierda, medio, candidatos, desde, marcas)
+                + marcar(2 * nodo + 1, medio, derecha, candidatos, desde, marcas);
+    }
+
+    // Cantidad de intervalos con inicio <= anio (búsqueda binaria)
+    private int primerInicioMayorA(int anio) {
+        int bajo = 0;
+        int alto = inicio.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (inicio[medio] <= anio) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+}
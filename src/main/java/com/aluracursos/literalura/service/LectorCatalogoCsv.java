@@ -0,0 +1,333 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/*
+ Lector en streaming del catálogo de Project Gutenberg (pg_catalog.csv),
+ el volcado que publica gutenberg.org con una fila por obra:
+
+   Text#,Type,Issued,Title,Language,Authors,Subjects,LoCC,Bookshelves
+   1342,Text,1998-06-01,Pride and Prejudice,en,"Austen, Jane, 1775-1817",...
+
+ ✔ el archivo se recorre con FileChannel.map en ventanas de 64 MB: los bytes
+   quedan fuera del heap y el sistema operativo los lee por adelantado
+ ✔ un .csv.gz se lee por un canal con búfer directo, sin descomprimirlo a disco
+ ✔ CSV según RFC 4180: campos entre comillas con comas, saltos de línea y
+   comillas dobladas ("") adentro
+ ✔ solo se decodifican a String las columnas que se usan; el resto se salta
+ ✔ cada fila de tipo "Text" se entrega como DatosLibro, igual que si viniera de Gutendex
+
+ Diferencias con Gutendex: el CSV no trae descargas (se usa 0) y en "Authors"
+ mezcla autores con traductores, editores, etc. ("Pope, Alexander, 1688-1744 [Translator]");
+ como en Gutendex, solo se toman los autores (las entradas sin rol).
+*/
+public final class LectorCatalogoCsv {
+
+    // Bytes mapeados a la vez; un archivo más grande se recorre en varias ventanas
+    private static final long VENTANA = 64L * 1024 * 1024;
+
+    // Búfer de lectura para los archivos comprimidos
+    private static final int BUFER_COMPRIMIDO = 256 * 1024;
+
+    // Columnas que se usan (el resto no se decodifica)
+    private static final List<String> COLUMNAS = List.of("Text#", "Type", "Title", "Language", "Authors");
+    private static final int ID = 0, TIPO = 1, TITULO = 2, IDIOMAS = 3, AUTORES = 4;
+
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final Consumer<DatosLibro> destino;
+
+    // Posición de cada columna usada en la fila, según el encabezado (-1 hasta leerlo)
+    private final int[] posiciones = new int[COLUMNAS.size()];
+    private final String[] valores = new String[COLUMNAS.size()];
+    private List<String> encabezado = new ArrayList<>();
+
+    // Estado del autómata; se conserva entre ventanas
+    private byte[] campo = new byte[256];
+    private int largo;
+    private int columna;
+    private boolean entreComillas;
+    private boolean comillaPendiente;
+    private boolean inicio = true;
+
+    private long filas;
+
+    private LectorCatalogoCsv(Consumer<DatosLibro> destino) {
+        this.destino = destino;
+        Arrays.fill(posiciones, -1);
+    }
+
+    /*
+     Lee el archivo completo y entrega cada libro a "destino", en el orden del archivo.
+     Devuelve la cantidad de filas de datos leídas (de cualquier tipo).
+    */
+    public static long leer(Path archivo, Consumer<DatosLibro> destino) throws IOException {
+        LectorCatalogoCsv lector = new LectorCatalogoCsv(destino);
+        if (archivo.getFileName().toString().endsWith(".gz")) {
+            try (InputStream entrada = new GZIPInputStream(Files.newInputStream(archivo), BUFER_COMPRIMIDO);
+                 ReadableByteChannel canal = Channels.newChannel(entrada)) {
+                ByteBuffer bufer = ByteBuffer.allocateDirect(BUFER_COMPRIMIDO);
+                while (canal.read(bufer) >= 0) {
+                    bufer.flip();
+                    lector.procesar(bufer);
+                    bufer.clear();
+                }
+            }
+        } else {
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                long tamano = canal.size();
+                for (long desde = 0; desde < tamano; desde += VENTANA) {
+                    MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_ONLY, desde,
+                            Math.min(VENTANA, tamano - desde));
+                    lector.procesar(ventana);
+                }
+            }
+        }
+        lector.terminar();
+        return lector.filas;
+    }
+
+    // Autómata CSV: recorre los bytes de la ventana acumulando el campo actual
+    private void procesar(ByteBuffer bytes) {
+        if (inicio) {
+            saltarBom(bytes);
+        }
+        while (bytes.hasRemaining()) {
+            byte b = bytes.get();
+            if (entreComillas) {
+                if (comillaPendiente) {
+                    comillaPendiente = false;
+                    if (b == '"') {
+                        agregar(b);
+                        continue;
+                    }
+                    // La comilla anterior cerraba el campo: este byte va fuera de las comillas
+                    entreComillas = false;
+                } else {
+                    if (b == '"') {
+                        comillaPendiente = true;
+                    } else {
+                        agregar(b);
+                    }
+                    continue;
+                }
+            }
+            switch (b) {
+                case '"' -> {
+                    if (largo == 0) {
+                        entreComillas = true;
+                    } else {
+                        agregar(b);
+                    }
+                }
+                case ',' -> cerrarCampo();
+                case '\n' -> {
+                    // Una línea en blanco no es una fila
+                    if (columna > 0 || largo > 0) {
+                        cerrarCampo();
+                        cerrarFila();
+                    }
+                }
+                case '\r' -> { }
+                default -> agregar(b);
+            }
+        }
+    }
+
+    // El BOM de UTF-8 solo puede aparecer en los primeros bytes del archivo
+    private void saltarBom(ByteBuffer bytes) {
+        if (bytes.remaining() < BOM.length) {
+            return;
+        }
+        inicio = false;
+        int posicion = bytes.position();
+        for (int i = 0; i < BOM.length; i++) {
+            if (bytes.get(posicion + i) != BOM[i]) {
+                return;
+            }
+        }
+        bytes.position(posicion + BOM.length);
+    }
+
+    private void agregar(byte b) {
+        if (largo == campo.length) {
+            campo = Arrays.copyOf(campo, largo * 2);
+        }
+        campo[largo++] = b;
+    }
+
+    private void cerrarCampo() {
+        if (posiciones[ID] < 0) {
+            encabezado.add(texto());
+        } else {
+            for (int i = 0; i < posiciones.length; i++) {
+                if (posiciones[i] == columna) {
+                    valores[i] = texto();
+                }
+            }
+        }
+        largo = 0;
+        columna++;
+    }
+
+    private void cerrarFila() {
+        if (posiciones[ID] < 0) {
+            leerEncabezado();
+        } else {
+            filas++;
+            DatosLibro libro = aLibro();
+            if (libro != null) {
+                destino.accept(libro);
+            }
+        }
+        Arrays.fill(valores, null);
+        columna = 0;
+    }
+
+    // Último registro sin salto de línea final
+    private void terminar() {
+        if (entreComillas && comillaPendiente) {
+            entreComillas = false;
+            comillaPendiente = false;
+        }
+        if (largo > 0 || columna > 0) {
+            cerrarCampo();
+            cerrarFila();
+        }
+    }
+
+    private void leerEncabezado() {
+        for (int i = 0; i < COLUMNAS.size(); i++) {
+            posiciones[i] = encabezado.indexOf(COLUMNAS.get(i));
+            if (posiciones[i] < 0) {
+                throw new IllegalArgumentException("El archivo no es un pg_catalog.csv: falta la columna "
+                        + COLUMNAS.get(i) + " (encabezado: " + encabezado + ")");
+            }
+        }
+        encabezado = null;
+    }
+
+    private String texto() {
+        return new String(campo, 0, largo, StandardCharsets.UTF_8);
+    }
+
+    /*
+     Convierte la fila en DatosLibro.
+     Devuelve null para lo que no es un libro (audiolibros, imágenes, etc.)
+     o para filas sin un número válido.
+    */
+    private DatosLibro aLibro() {
+        if (!"Text".equals(valores[TIPO])) {
+            return null;
+        }
+        Integer id = entero(valores[ID]);
+        if (id == null) {
+            return null;
+        }
+        String titulo = valores[TITULO] == null || valores[TITULO].isBlank() ? null : valores[TITULO].strip();
+        return new DatosLibro(id, titulo, autores(valores[AUTORES]), idiomas(valores[IDIOMAS]), 0.0);
+    }
+
+    // "en; fr" → ["en", "fr"]
+    static List<String> idiomas(String campo) {
+        if (campo == null || campo.isBlank()) {
+            return List.of();
+        }
+        List<String> idiomas = new ArrayList<>(2);
+        for (String codigo : campo.split(";")) {
+            if (!codigo.isBlank()) {
+                idiomas.add(codigo.strip());
+            }
+        }
+        return idiomas;
+    }
+
+    /*
+     "Austen, Jane, 1775-1817; Homer, 751? BCE-651? BCE; Pope, Alexander, 1688-1744 [Translator]"
+     → Austen (1775-1817) y Homero (-751 a -651); Pope se omite por ser traductor.
+     Los años "?" o "active 1200" quedan en null; antes de Cristo son negativos, como en Gutendex.
+    */
+    static List<DatosAutor> autores(String campo) {
+        if (campo == null || campo.isBlank()) {
+            return List.of();
+        }
+        List<DatosAutor> autores = new ArrayList<>(1);
+        for (String entrada : campo.split(";")) {
+            entrada = entrada.strip();
+            if (entrada.isEmpty() || entrada.endsWith("]")) {
+                continue;
+            }
+            String nombre = entrada;
+            Integer nacimiento = null;
+            Integer defuncion = null;
+
+            int coma = entrada.lastIndexOf(',');
+            String fechas = coma < 0 ? "" : entrada.substring(coma + 1).strip();
+            int guion = separadorFechas(fechas);
+            if (guion >= 0) {
+                nombre = entrada.substring(0, coma).strip();
+                nacimiento = anio(fechas.substring(0, guion));
+                defuncion = anio(fechas.substring(guion + 1));
+            }
+            autores.add(new DatosAutor(nombre, nacimiento, defuncion));
+        }
+        return autores;
+    }
+
+    // Posición del guion de "1775-1817", "-1817", "1775-" o "751? BCE-651? BCE"; -1 si no son fechas
+    private static int separadorFechas(String fechas) {
+        int guion = fechas.indexOf('-');
+        if (guion < 0) {
+            return -1;
+        }
+        for (int i = 0; i < fechas.length(); i++) {
+            char c = fechas.charAt(i);
+            if (!Character.isDigit(c) && c != '-' && c != '?' && c != ' ' && "BCE".indexOf(c) < 0) {
+                return -1;
+            }
+        }
+        return guion;
+    }
+
+    // "1564" → 1564, "751? BCE" → -751, "" o "?" → null
+    private static Integer anio(String texto) {
+        String limpio = texto.replace("?", "").strip();
+        boolean antesDeCristo = limpio.endsWith("BCE");
+        Integer anio = entero(antesDeCristo ? limpio.substring(0, limpio.length() - 3).strip() : limpio);
+        return anio != null && antesDeCristo ? -anio : anio;
+    }
+
+    private static Integer entero(String texto) {
+        if (texto == null || texto.isEmpty() || texto.length() > 9) {
+            return null;
+        }
+        int valor = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+}
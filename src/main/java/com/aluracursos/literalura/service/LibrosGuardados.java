@@ -0,0 +1,17 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.Libro;
+
+import java.util.List;
+
+/*
+ Evento publicado por PersistenciaLotes con los libros recién insertados.
+ Los oyentes lo reciben después del COMMIT (@TransactionalEventListener),
+ así nunca ven libros de una transacción que terminó revirtiéndose.
+
+ Las entidades ya están desvinculadas del contexto de persistencia,
+ con sus ids, autores e idiomas cargados: los oyentes solo deben leerlas.
+*/
+public record LibrosGuardados(List<Libro> libros) {
+}
@@ -0,0 +1,57 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ Limita cuántas operaciones por segundo se hacen (por ejemplo, peticiones a Gutendex).
+
+ ✔ reparte las operaciones de forma pareja: una cada 1/tasa segundos
+ ✔ quien llama antes de tiempo espera (dormir el hilo) hasta su turno
+ ✔ reservar no espera: devuelve cuánto falta, para programar la operación
+   (por ejemplo, con un ejecutor diferido) sin ocupar un hilo
+ ✔ la tasa se puede cambiar mientras se usa
+
+ Es seguro usarlo desde varios hilos: los turnos se asignan en orden de llegada.
+*/
+public final class LimitadorTasa {
+
+    private long intervaloNanos;
+    private long proximoTurno = System.nanoTime();
+
+    public LimitadorTasa(double operacionesPorSegundo) {
+        setTasa(operacionesPorSegundo);
+    }
+
+    public synchronized void setTasa(double operacionesPorSegundo) {
+        if (operacionesPorSegundo <= 0) {
+            throw new IllegalArgumentException("La tasa debe ser positiva: " + operacionesPorSegundo);
+        }
+        this.intervaloNanos = (long) (TimeUnit.SECONDS.toNanos(1) / operacionesPorSegundo);
+    }
+
+    public synchronized double getTasa() {
+        return (double) TimeUnit.SECONDS.toNanos(1) / intervaloNanos;
+    }
+
+    // Espera hasta el próximo turno libre
+    public void adquirir() throws InterruptedException {
+        long espera = reservar();
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+    }
+
+    // Reserva el próximo turno sin esperar; devuelve los nanosegundos que faltan (0 si ya es el turno)
+    public long reservar() {
+        return Math.max(0, reservarTurno() - System.nanoTime());
+    }
+
+    // Reserva el próximo turno y devuelve cuándo empieza (System.nanoTime)
+    private synchronized long reservarTurno() {
+        long ahora = System.nanoTime();
+        long turno = Math.max(proximoTurno, ahora);
+        proximoTurno = turno + intervaloNanos;
+        return turno;
+    }
+}
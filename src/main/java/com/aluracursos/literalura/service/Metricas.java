@@ -0,0 +1,306 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/*
+ Métricas de los caminos calientes, con Micrometer.
+
+   literalura.gutendex.peticiones   tiempo de cada intento HTTP (resultado=exito|error)
+   literalura.gutendex.bytes        bytes recibidos por respuesta
+   literalura.json.conversion       lectura + conversión del JSON a records
+   literalura.bd.guardado           tiempo de cada guardado en lote
+   literalura.bd.filas.insertadas   libros insertados
+   literalura.bd.consultas          cada método de repositorio (repositorio, metodo, resultado)
+   literalura.menu.consultas        cada consulta del menú (metodo)
+   + medidores que registra cada servicio (caché, reintentos, circuito, tasa)
+
+ ✔ deshabilitadas por defecto (literalura.metricas.habilitadas=false): cada
+   punto de medición es una comparación con un booleano y no crea objetos;
+   inicio() devuelve 0 sin leer el reloj
+ ✔ los medidores se registran UNA vez al arrancar y se guardan en campos:
+   medir no busca por nombre ni arma etiquetas en cada llamada
+ ✔ se vuelcan en formato Prometheus a un archivo (para el "textfile collector"
+   de node_exporter, o para consultarlo a mano) y/o como resumen en el log
+
+ Propiedades:
+   literalura.metricas.habilitadas=false
+   literalura.metricas.volcar-cada=1m        (0 = no volcar periódicamente)
+   literalura.metricas.archivo=              (vacío = solo log)
+*/
+@Component
+public class Metricas {
+
+    private static final Logger log = LoggerFactory.getLogger(Metricas.class);
+
+    private static final Metricas DESHABILITADAS = new Metricas(false, Duration.ZERO, "");
+
+    private final boolean habilitadas;
+    private final PrometheusMeterRegistry registro;
+    private final Path archivo;
+    private final ScheduledExecutorService volcado;
+
+    private final Timer httpExito;
+    private final Timer httpError;
+    private final DistributionSummary httpBytes;
+    private final Timer conversionJson;
+    private final Timer guardado;
+    private final Counter filasInsertadas;
+
+    // Un temporizador por método de repositorio y resultado (se crean en la primera llamada)
+    private final Map<Method, Timer> consultasExito = new ConcurrentHashMap<>();
+    private final Map<Method, Timer> consultasError = new ConcurrentHashMap<>();
+
+    // Sin métricas, para usar fuera de Spring (pruebas, benchmarks)
+    public static Metricas deshabilitadas() {
+        return DESHABILITADAS;
+    }
+
+    @Autowired
+    public Metricas(@Value("${literalura.metricas.habilitadas:false}") boolean habilitadas,
+                    @Value("${literalura.metricas.volcar-cada:1m}") Duration volcarCada,
+                    @Value("${literalura.metricas.archivo:}") String archivo) {
+        this.habilitadas = habilitadas;
+        this.archivo = archivo.isBlank() ? null : Path.of(archivo);
+        if (!habilitadas) {
+            this.registro = null;
+            this.volcado = null;
+            this.httpExito = null;
+            this.httpError = null;
+            this.httpBytes = null;
+            this.conversionJson = null;
+            this.guardado = null;
+            this.filasInsertadas = null;
+            return;
+        }
+
+        this.registro = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        this.httpExito = temporizador("literalura.gutendex.peticiones", "Intentos HTTP a Gutendex")
+                .tag("resultado", "exito").register(registro);
+        this.httpError = temporizador("literalura.gutendex.peticiones", "Intentos HTTP a Gutendex")
+                .tag("resultado", "error").register(registro);
+        this.httpBytes = DistributionSummary.builder("literalura.gutendex.bytes")
+                .description("Bytes recibidos por respuesta").baseUnit("bytes")
+                .publishPercentiles(0.5, 0.99).register(registro);
+        this.conversionJson = temporizador("literalura.json.conversion", "Lectura y conversión del JSON")
+                .register(registro);
+        this.guardado = temporizador("literalura.bd.guardado", "Guardado de un lote de libros")
+                .register(registro);
+        this.filasInsertadas = Counter.builder("literalura.bd.filas.insertadas")
+                .description("Libros insertados").register(registro);
+
+        if (volcarCada.isZero() || volcarCada.isNegative()) {
+            this.volcado = null;
+        } else {
+            this.volcado = Executors.newSingleThreadScheduledExecutor(Hilos.fabrica("metricas-volcado", false));
+            volcado.scheduleAtFixedRate(this::volcar, volcarCada.toMillis(), volcarCada.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean habilitadas() {
+        return habilitadas;
+    }
+
+    // Marca de tiempo para pasar después a los métodos de registro (0 si están deshabilitadas)
+    public long inicio() {
+        return habilitadas ? System.nanoTime() : 0;
+    }
+
+    // Un intento HTTP terminado; bytes < 0 si no se conoce el tamaño
+    public void peticionHttp(long inicio, boolean exito, long bytes) {
+        if (!habilitadas) {
+            return;
+        }
+        (exito ? httpExito : httpError).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (bytes >= 0) {
+            httpBytes.record(bytes);
+        }
+    }
+
+    public void conversionJson(long inicio) {
+        if (habilitadas) {
+            conversionJson.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void guardado(long inicio, int filas) {
+        if (habilitadas) {
+            guardado.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            filasInsertadas.increment(filas);
+        }
+    }
+
+    // Llamada a un método de repositorio (la mide Spring Data, ver MetricasConfig)
+    public void consultaBd(Class<?> repositorio, Method metodo, long nanos, boolean exito) {
+        if (!habilitadas) {
+            return;
+        }
+        Map<Method, Timer> porMetodo = exito ? consultasExito : consultasError;
+        Timer timer = porMetodo.get(metodo);
+        if (timer == null) {
+            timer = porMetodo.computeIfAbsent(metodo, m -> temporizador("literalura.bd.consultas",
+                    "Métodos de repositorio")
+                    .tag("repositorio", repositorio.getSimpleName())
+                    .tag("metodo", m.getName())
+                    .tag("resultado", exito ? "exito" : "error")
+                    .register(registro));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /*
+     Envuelve un servicio para medir cada método de la interfaz
+     (literalura.menu.consultas, etiqueta metodo=nombre).
+     Deshabilitadas: devuelve el mismo objeto, sin envoltorio.
+    */
+    @SuppressWarnings("unchecked")
+    public <T> T medir(Class<T> interfaz, T objetivo) {
+        if (!habilitadas) {
+            return objetivo;
+        }
+        Map<Method, Timer> timers = new HashMap<>();
+        for (Method metodo : interfaz.getMethods()) {
+            timers.put(metodo, temporizador("literalura.menu.consultas", "Consultas del menú")
+                    .tag("metodo", metodo.getName()).register(registro));
+        }
+        InvocationHandler manejador = (proxy, metodo, args) -> {
+            Timer timer = timers.get(metodo);
+            if (timer == null) {
+                return invocar(objetivo, metodo, args); // equals, hashCode, toString
+            }
+            long inicio = System.nanoTime();
+            try {
+                return invocar(objetivo, metodo, args);
+            } finally {
+                timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        };
+        return (T) Proxy.newProxyInstance(interfaz.getClassLoader(), new Class<?>[]{interfaz}, manejador);
+    }
+
+    // Valor que se lee al volcar, por ejemplo el tamaño de una caché
+    public <T> void medidor(String nombre, String descripcion, T objeto, ToDoubleFunction<T> valor) {
+        if (habilitadas) {
+            Gauge.builder(nombre, objeto, valor).description(descripcion).register(registro);
+        }
+    }
+
+    // Contador mantenido por otro objeto (solo crece), leído al volcar
+    public <T> void contador(String nombre, String descripcion, T objeto, ToDoubleFunction<T> valor) {
+        if (habilitadas) {
+            FunctionCounter.builder(nombre, objeto, valor).description(descripcion).register(registro);
+        }
+    }
+
+    // Todas las métricas en formato de texto de Prometheus ("" si están deshabilitadas)
+    public String prometheus() {
+        return habilitadas ? registro.scrape() : "";
+    }
+
+    // Escribe el archivo Prometheus (si se configuró) y un resumen en el log
+    public void volcar() {
+        if (!habilitadas) {
+            return;
+        }
+        try {
+            if (archivo != null) {
+                // Escritura atómica: quien lee nunca ve un archivo a medias
+                Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+                Files.writeString(temporal, registro.scrape(), StandardCharsets.UTF_8);
+                Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            if (log.isInfoEnabled()) {
+                log.info("Métricas:{}", resumen());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudieron volcar las métricas: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (volcado != null) {
+            volcado.shutdownNow();
+            volcar();
+        }
+    }
+
+    // Una línea por medidor con uso: cantidad, media, máximo y percentiles
+    private String resumen() {
+        StringBuilder texto = new StringBuilder();
+        for (Meter medidor : registro.getMeters()) {
+            String nombre = medidor.getId().getName() + medidor.getId().getTags().stream()
+                    .map(t -> t.getKey() + "=" + t.getValue())
+                    .reduce((a, b) -> a + "," + b).map(t -> "{" + t + "}").orElse("");
+            if (medidor instanceof Timer t) {
+                if (t.count() == 0) continue;
+                HistogramSnapshot s = t.takeSnapshot();
+                texto.append(String.format("%n  %s: %d · media %.2f ms · máx %.2f ms%s", nombre, s.count(),
+                        s.mean(TimeUnit.MILLISECONDS), s.max(TimeUnit.MILLISECONDS), percentiles(s, true)));
+            } else if (medidor instanceof DistributionSummary d) {
+                if (d.count() == 0) continue;
+                HistogramSnapshot s = d.takeSnapshot();
+                texto.append(String.format("%n  %s: %d · media %.0f · máx %.0f%s", nombre, s.count(),
+                        s.mean(), s.max(), percentiles(s, false)));
+            } else {
+                medidor.measure().forEach(m -> texto.append(String.format("%n  %s: %.2f", nombre, m.getValue())));
+            }
+        }
+        return texto.toString();
+    }
+
+    private static String percentiles(HistogramSnapshot s, boolean tiempo) {
+        StringBuilder texto = new StringBuilder();
+        for (ValueAtPercentile p : s.percentileValues()) {
+            texto.append(String.format(" · p%.0f %.2f", p.percentile() * 100,
+                    tiempo ? p.value(TimeUnit.MILLISECONDS) : p.value()));
+        }
+        return texto.toString();
+    }
+
+    private static Timer.Builder temporizador(String nombre, String descripcion) {
+        return Timer.builder(nombre).description(descripcion).publishPercentiles(0.5, 0.9, 0.99);
+    }
+
+    private static Object invocar(Object objetivo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(objetivo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.Autor;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.repository.LibroRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/*
+ Ruta de escritura masiva de libros y sus autores (los idiomas van en la fila del libro).
+
+ Guarda la lista en tramos del tamaño del lote JDBC:
+ ✔ autores resueltos con CacheAutores → los existentes se reutilizan por id
+   y los nuevos se insertan una sola vez
+ ✔ saveAll por tramo → Hibernate agrupa los INSERT en lotes
+ ✔ flush al final de cada tramo → envía el lote a la base de datos
+ ✔ clear → vacía el contexto de persistencia para que la memoria no crezca
+   con cada libro importado
+ ✔ publica LibrosGuardados, que los oyentes reciben tras el COMMIT
+   (por ejemplo, el catálogo en memoria)
+
+ Cualquier importación (catálogo completo, archivos locales, etc.) debe pasar por aquí.
+*/
+@Service
+public class PersistenciaLotes {
+
+    private final LibroRepository libroRepository;
+    private final CacheAutores cacheAutores;
+    private final ApplicationEventPublisher eventos;
+    private final Metricas metricas;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Libros por tramo; igual al hibernate.jdbc.batch_size configurado
+    private final int tamanoLote;
+
+    public PersistenciaLotes(LibroRepository libroRepository,
+                             CacheAutores cacheAutores,
+                             ApplicationEventPublisher eventos,
+                             @Value("${literalura.jpa.tamano-lote:50}") int tamanoLote,
+                             Metricas metricas) {
+        this.libroRepository = libroRepository;
+        this.cacheAutores = cacheAutores;
+        this.eventos = eventos;
+        this.tamanoLote = tamanoLote;
+        this.metricas = metricas;
+    }
+
+    /*
+     Inserta los libros en tramos y devuelve cuántos se guardaron.
+     Si ya hay una transacción en curso se une a ella; si no, abre una propia.
+     Tras la llamada, las entidades quedan desvinculadas del contexto.
+    */
+    @Transactional
+    public int guardarEnLotes(List<Libro> libros) {
+        long inicio = metricas.inicio();
+        for (int desde = 0; desde < libros.size(); desde += tamanoLote) {
+            List<Libro> tramo = libros.subList(desde, Math.min(desde + tamanoLote, libros.size()));
+            List<Autor> autoresNuevos = cacheAutores.resolver(tramo, entityManager);
+            libroRepository.saveAll(tramo);
+            entityManager.flush();
+            entityManager.clear();
+            // Tras el flush los autores nuevos ya tienen id y se pueden reutilizar
+            cacheAutores.registrar(autoresNuevos);
+        }
+        metricas.guardado(inicio, libros.size());
+        if (!libros.isEmpty()) {
+            eventos.publishEvent(new LibrosGuardados(List.copyOf(libros)));
+        }
+        return libros.size();
+    }
+
+    /*
+     Inserta solo los autores nuevos de los libros (los existentes quedan con su id)
+     y devuelve cuántos se insertaron. Los libros no se guardan: después,
+     guardarEnLotes los enlaza por id sin volver a insertar ningún autor.
+
+     Sirve para guardar libros desde varios hilos: esta transacción corta toma
+     el candado de inserción de CacheAutores y, tras su COMMIT, los
+     guardarEnLotes en paralelo encuentran todos los autores sin esperarlo.
+    */
+    @Transactional
+    public int guardarAutores(List<Libro> libros) {
+        int insertados = 0;
+        for (int desde = 0; desde < libros.size(); desde += tamanoLote) {
+            List<Libro> tramo = libros.subList(desde, Math.min(desde + tamanoLote, libros.size()));
+            List<Autor> autoresNuevos = cacheAutores.resolver(tramo, entityManager);
+            entityManager.flush();
+            entityManager.clear();
+            cacheAutores.registrar(autoresNuevos);
+            insertados += autoresNuevos.size();
+        }
+        return insertados;
+    }
+}
@@ -0,0 +1,71 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/*
+ Qué hacer con los autores a los que les falta un año (vida "abierta").
+ Gutendex deja fecha_de_defuncion en null si el autor vive o si no se conoce,
+ y a veces tampoco informa el nacimiento.
+
+ Modos (literalura.autores.vida-abierta):
+ ✔ EXCLUIR  (por defecto): solo cuentan los autores con ambos años,
+   igual que la consulta original por año
+ ✔ ABIERTA: el año que falta no limita; sin defunción = vivo desde que nació
+ ✔ ESTIMADA: el año que falta se estima a literalura.autores.vida-maxima años
+   (100 por defecto) del año conocido
+
+ Un autor sin ningún año queda siempre fuera: no hay forma de ubicarlo.
+*/
+@Component
+public class PoliticaVidas {
+
+    public enum Modo { EXCLUIR, ABIERTA, ESTIMADA }
+
+    // Distancia que usa ABIERTA: más que cualquier año de la historia escrita
+    private static final int SIN_LIMITE = 1_000_000;
+
+    private final Modo modo;
+    private final int vidaMaxima;
+
+    public PoliticaVidas(@Value("${literalura.autores.vida-abierta:EXCLUIR}") Modo modo,
+                         @Value("${literalura.autores.vida-maxima:100}") int vidaMaxima) {
+        this.modo = modo;
+        this.vidaMaxima = vidaMaxima;
+    }
+
+    public Modo modo() {
+        return modo;
+    }
+
+    /*
+     Años que se suponen cuando falta el de nacimiento o el de defunción
+     (se restan o suman al año conocido). En EXCLUIR no se usa.
+    */
+    public int aniosSupuestos() {
+        return modo == Modo.ABIERTA ? SIN_LIMITE : vidaMaxima;
+    }
+
+    // Primer año de vida según la política, o null si el autor no cuenta
+    public Integer inicio(Integer nacimiento, Integer defuncion) {
+        if (nacimiento != null && defuncion != null) {
+            return nacimiento;
+        }
+        if (modo == Modo.EXCLUIR || (nacimiento == null && defuncion == null)) {
+            return null;
+        }
+        return nacimiento != null ? nacimiento : defuncion - aniosSupuestos();
+    }
+
+    // Último año de vida según la política, o null si el autor no cuenta
+    public Integer fin(Integer nacimiento, Integer defuncion) {
+        if (nacimiento != null && defuncion != null) {
+            return defuncion;
+        }
+        if (modo == Modo.EXCLUIR || (nacimiento == null && defuncion == null)) {
+            return null;
+        }
+        return defuncion != null ? defuncion : nacimiento + aniosSupuestos();
+    }
+}
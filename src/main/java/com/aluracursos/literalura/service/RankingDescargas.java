@@ -0,0 +1,260 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import com.aluracursos.literalura.model.Autor;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.LibroResumen;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/*
+ Rankings de los libros más descargados, mantenidos con cada escritura
+ en lugar de recalcularse con cada consulta.
+
+ ✔ un tablero general, uno por idioma y uno por autor (los de autor se
+   guardan para los últimos literalura.ranking.autores-en-memoria consultados)
+ ✔ cada tablero es un conjunto ordenado (TreeSet) acotado a 2·K libros:
+   K = literalura.ranking.tamano (10 por defecto) y K más de holgura
+ ✔ se llena la primera vez que se consulta, con ORDER BY ... LIMIT sobre el índice
+   idx_libro_descargas (ConsultaLibros)
+ ✔ los libros guardados (evento LibrosGuardados) y los cambios de descargas
+   (actualizarDescargas) se aplican en O(log K) sobre los tableros cargados
+   del libro: el general y los de sus idiomas y autores
+
+ Cuando un tablero ya no puede garantizar su orden (bajaron las descargas de
+ sus libros y quedan menos de K, o un libro que no está en él superó al último)
+ se descarta y la próxima consulta lo vuelve a leer de la base.
+ Pedir más de K libros también va directo a la base.
+*/
+@Service
+public class RankingDescargas {
+
+    // Más descargados primero; a igual cantidad, por título (igual que el ORDER BY)
+    private static final Comparator<LibroResumen> ORDEN = Comparator
+            .comparingDouble((LibroResumen l) -> -descargas(l))
+            .thenComparing(LibroResumen::titulo, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(LibroResumen::idLibro);
+
+    private final ConsultaLibros consultaLibros;
+    private final int tamano;
+    private final int capacidad;
+
+    // Tableros cargados (null o ausente = se lee de la base al consultar)
+    private Tablero general;
+    private final Map<Idioma, Tablero> porIdioma = new EnumMap<>(Idioma.class);
+    private final Map<Long, Tablero> porAutor;
+
+    // Sube después de cada cambio de los tableros (la API la usa en los ETag)
+    private final AtomicLong generacion = new AtomicLong();
+
+    public RankingDescargas(ConsultaLibros consultaLibros,
+                            @Value("${literalura.ranking.tamano:10}") int tamano,
+                            @Value("${literalura.ranking.autores-en-memoria:1000}") int autoresEnMemoria) {
+        this.consultaLibros = consultaLibros;
+        this.tamano = tamano;
+        this.capacidad = 2 * tamano;
+        // LRU por orden de acceso: los autores consultados hace más tiempo se descartan
+        this.porAutor = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Tablero> mayor) {
+                return size() > autoresEnMemoria;
+            }
+        };
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public long generacion() {
+        return generacion.get();
+    }
+
+    // ---------------- CONSULTAS ----------------
+
+    public synchronized List<LibroResumen> top(int cantidad) {
+        if (cantidad > tamano) {
+            return consultaLibros.masDescargados(cantidad);
+        }
+        if (general == null) {
+            general = cargar(consultaLibros::masDescargados);
+        }
+        return general.primeros(cantidad);
+    }
+
+    public synchronized List<LibroResumen> topPorIdioma(Idioma idioma, int cantidad) {
+        if (cantidad > tamano) {
+            return consultaLibros.masDescargadosPorIdioma(idioma, cantidad);
+        }
+        return porIdioma.computeIfAbsent(idioma,
+                i -> cargar(n -> consultaLibros.masDescargadosPorIdioma(i, n))).primeros(cantidad);
+    }
+
+    public synchronized List<LibroResumen> topPorAutor(long autorId, int cantidad) {
+        if (cantidad > tamano) {
+            return consultaLibros.masDescargadosPorAutor(autorId, cantidad);
+        }
+        return porAutor.computeIfAbsent(autorId,
+                a -> cargar(n -> consultaLibros.masDescargadosPorAutor(a, n))).primeros(cantidad);
+    }
+
+    // ---------------- ESCRITURAS ----------------
+
+    // Libros recién insertados, solo si la transacción se confirmó
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void alGuardar(LibrosGuardados evento) {
+        for (Libro libro : evento.libros()) {
+            LibroResumen resumen = LibroResumen.de(libro);
+            ofrecer(general, resumen);
+            for (Idioma idioma : libro.getIdiomas()) {
+                ofrecer(porIdioma.get(idioma), resumen);
+            }
+            for (Autor autor : libro.getAutores()) {
+                ofrecer(porAutor.get(autor.getId()), resumen);
+            }
+        }
+        generacion.incrementAndGet();
+    }
+
+    // Cantidades traídas de Gutendex por ActualizadorDescargas
+    @EventListener
+    public synchronized void alActualizarDescargas(DescargasActualizadas evento) {
+        for (DescargasActualizadas.Cambio cambio : evento.cambios()) {
+            actualizarDescargas(cambio.idLibro(), cambio.nueva(), cambio.idiomas(), cambio.autores());
+        }
+    }
+
+    /*
+     Nueva cantidad de descargas de un libro ya guardado.
+     Solo se tocan el tablero general y los de sus idiomas y autores: los tableros
+     donde está lo reubican; en los que no está, si ahora superaría al último,
+     se descartan. Los tableros de otros grupos no cambian.
+    */
+    public synchronized void actualizarDescargas(long idLibro, double descargas,
+                                                 Collection<Idioma> idiomas, Collection<Long> autores) {
+        if (general != null && !general.actualizar(idLibro, descargas)) {
+            general = null;
+        }
+        for (Idioma idioma : idiomas) {
+            Tablero tablero = porIdioma.get(idioma);
+            if (tablero != null && !tablero.actualizar(idLibro, descargas)) {
+                porIdioma.remove(idioma);
+            }
+        }
+        for (Long autor : autores) {
+            Tablero tablero = porAutor.get(autor);
+            if (tablero != null && !tablero.actualizar(idLibro, descargas)) {
+                porAutor.remove(autor);
+            }
+        }
+        generacion.incrementAndGet();
+    }
+
+    // Descarta todos los tableros (por ejemplo, después de cambios hechos por fuera de la aplicación)
+    public synchronized void olvidar() {
+        general = null;
+        porIdioma.clear();
+        porAutor.clear();
+        generacion.incrementAndGet();
+    }
+
+    private void ofrecer(Tablero tablero, LibroResumen libro) {
+        if (tablero != null) {
+            tablero.ofrecer(libro);
+        }
+    }
+
+    private Tablero cargar(IntFunction<List<LibroResumen>> consulta) {
+        List<LibroResumen> libros = consulta.apply(capacidad);
+        // Si la base devolvió menos que la capacidad, el tablero tiene TODOS los libros del grupo
+        return new Tablero(capacidad, libros, libros.size() < capacidad);
+    }
+
+    private static double descargas(LibroResumen libro) {
+        return libro.numeroDeDescargas() != null ? libro.numeroDeDescargas() : 0;
+    }
+
+    /*
+     Los mejores libros de un grupo, como mucho "capacidad".
+     "completo" indica que el grupo no tiene más libros que los guardados aquí;
+     si no lo es, puede haber libros fuera del tablero por debajo del último.
+    */
+    private final class Tablero {
+
+        private final int capacidad;
+        private final TreeSet<LibroResumen> libros = new TreeSet<>(ORDEN);
+        private final Map<Long, LibroResumen> porId = new HashMap<>();
+        private boolean completo;
+
+        // "ordenados" viene de la base, ya en el orden del ranking
+        Tablero(int capacidad, List<LibroResumen> ordenados, boolean completo) {
+            this.capacidad = capacidad;
+            this.completo = completo;
+            for (LibroResumen libro : ordenados) {
+                libros.add(libro);
+                porId.put(libro.idLibro(), libro);
+            }
+        }
+
+        void ofrecer(LibroResumen libro) {
+            LibroResumen anterior = porId.remove(libro.idLibro());
+            if (anterior != null) {
+                libros.remove(anterior);
+            }
+            if (!completo && !libros.isEmpty() && ORDEN.compare(libro, libros.last()) > 0) {
+                return; // no entra: detrás del último puede haber libros que no están en el tablero
+            }
+            libros.add(libro);
+            porId.put(libro.idLibro(), libro);
+            if (libros.size() > capacidad) {
+                porId.remove(libros.pollLast().idLibro());
+                completo = false;
+            }
+        }
+
+        // Devuelve false si el tablero ya no es confiable y hay que volver a leerlo
+        boolean actualizar(long idLibro, double descargas) {
+            LibroResumen actual = porId.remove(idLibro);
+            if (actual == null) {
+                // No está: solo importa si ahora superaría al último de un tablero recortado
+                return completo || (!libros.isEmpty() && descargas < descargas(libros.last()));
+            }
+            libros.remove(actual);
+            LibroResumen nuevo = new LibroResumen(actual.idLibro(), actual.titulo(), descargas,
+                    actual.autores(), actual.idiomas());
+            if (completo || libros.isEmpty() || ORDEN.compare(nuevo, libros.last()) < 0) {
+                libros.add(nuevo);
+                porId.put(idLibro, nuevo);
+            }
+            // Quedó detrás del último: puede haber libros fuera del tablero que lo superen
+            return completo || libros.size() >= tamano();
+        }
+
+        List<LibroResumen> primeros(int cantidad) {
+            List<LibroResumen> primeros = new ArrayList<>(Math.min(cantidad, libros.size()));
+            for (LibroResumen libro : libros) {
+                if (primeros.size() == cantidad) {
+                    break;
+                }
+                primeros.add(libro);
+            }
+            return primeros;
+        }
+    }
+}
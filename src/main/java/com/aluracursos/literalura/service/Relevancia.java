@@ -0,0 +1,121 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/*
+ Puntaje de relevancia de un libro para una búsqueda por texto.
+
+ ✔ la consulta y el título se comparan por palabras, sin mayúsculas ni acentos
+   ("Misérables" = "miserables")
+ ✔ cada palabra de la consulta que está en el título suma; la última también
+   cuenta si es el comienzo de una palabra ("quij" → "Quijote")
+ ✔ las palabras que no están en el título pero sí en un autor suman la mitad
+ ✔ un título igual a la consulta, o que empieza con ella, suma más
+ ✔ entre títulos con las mismas coincidencias gana el más corto
+   (menos palabras que no se buscaron)
+
+ Un libro sin ninguna palabra en común tiene puntaje 0 (no es un resultado).
+ Las descargas no entran en el puntaje: desempatan al ordenar.
+*/
+public final class Relevancia {
+
+    private static final double POR_PALABRA = 100;
+    private static final double TITULO_IGUAL = 60;
+    private static final double TITULO_EMPIEZA = 30;
+    private static final double PRECISION = 10;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private Relevancia() {
+    }
+
+    // "Les Misérables, Tome I" → [les, miserables, tome, i]
+    public static List<String> palabras(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String plano = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        List<String> palabras = new ArrayList<>();
+        for (String palabra : SEPARADORES.split(plano.toLowerCase(Locale.ROOT))) {
+            if (!palabra.isEmpty()) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+
+    /*
+     Puntaje de un título (y sus autores) para las palabras de la consulta,
+     ya normalizadas con palabras().
+    */
+    public static double puntaje(List<String> consulta, String titulo, List<String> autores) {
+        if (consulta.isEmpty()) {
+            return 0;
+        }
+        List<String> delTitulo = palabras(titulo);
+        Set<String> enTitulo = new HashSet<>(delTitulo);
+        Set<String> enAutores = new HashSet<>();
+        for (String autor : autores) {
+            enAutores.addAll(palabras(autor));
+        }
+
+        int coincidenTitulo = 0;
+        int coincidenAutor = 0;
+        for (int i = 0; i < consulta.size(); i++) {
+            String palabra = consulta.get(i);
+            boolean ultima = i == consulta.size() - 1;
+            if (enTitulo.contains(palabra) || (ultima && algunaEmpiezaCon(delTitulo, palabra))) {
+                coincidenTitulo++;
+            } else if (enAutores.contains(palabra)) {
+                coincidenAutor++;
+            }
+        }
+        if (coincidenTitulo + coincidenAutor == 0) {
+            return 0;
+        }
+
+        double puntaje = POR_PALABRA * (coincidenTitulo + 0.5 * coincidenAutor) / consulta.size();
+        String frase = String.join(" ", consulta);
+        String tituloPlano = String.join(" ", delTitulo);
+        if (tituloPlano.equals(frase)) {
+            puntaje += TITULO_IGUAL;
+        } else if (tituloPlano.startsWith(frase)) {
+            puntaje += TITULO_EMPIEZA;
+        }
+        // Un título sin palabras (vacío o solo signos) no suma precisión: 0/0 sería NaN
+        if (!delTitulo.isEmpty()) {
+            puntaje += PRECISION * coincidenTitulo / delTitulo.size();
+        }
+        return puntaje;
+    }
+
+    // true si el título contiene todas las palabras de la consulta
+    public static boolean cubre(List<String> consulta, String titulo) {
+        List<String> delTitulo = palabras(titulo);
+        for (int i = 0; i < consulta.size(); i++) {
+            String palabra = consulta.get(i);
+            boolean ultima = i == consulta.size() - 1;
+            if (!delTitulo.contains(palabra) && !(ultima && algunaEmpiezaCon(delTitulo, palabra))) {
+                return false;
+            }
+        }
+        return !consulta.isEmpty();
+    }
+
+    private static boolean algunaEmpiezaCon(List<String> palabras, String prefijo) {
+        for (String palabra : palabras) {
+            if (palabra.startsWith(prefijo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,519 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ Etapa de resiliencia por la que pasa cada petición de ConsumoAPI a Gutendex.
+
+ ✔ clasifica la respuesta: 2xx/304 = éxito, 429 = límite, 5xx = servidor,
+   otros 4xx = cliente, sin respuesta = red (ver ErrorGutendex.Motivo)
+ ✔ reintenta los errores pasajeros con espera exponencial con jitter
+   ("full jitter": al azar entre 0 y base·2^intento, con tope) para que
+   muchos clientes no vuelvan a la vez
+ ✔ respeta Retry-After (segundos o fecha HTTP); si pide esperar más que el
+   tope, no reintenta y lo informa en el error
+ ✔ circuito: tras "fallos-para-abrir" intentos seguidos con error de red o
+   5xx se deja de llamar a Gutendex durante "tiempo-abierto"; después pasa
+   UNA petición de prueba (semiabierto) que lo cierra o lo vuelve a abrir
+ ✔ tasa adaptativa (AIMD, como el control de congestión de TCP): sin límite
+   mientras todo va bien; ante un 429/503 la tasa baja a la mitad de la
+   observada (como mucho una vez por segundo) y con cada éxito sube un poco
+   (+incremento peticiones/s por cada segundo de tráfico), buscando la tasa
+   más alta que el servidor sostiene
+
+ Propiedades (literalura.http.*):
+   reintentos=3  espera-base=500ms  espera-maxima=30s
+   fallos-para-abrir=5  tiempo-abierto=30s
+   tasa-minima=0.5  tasa-maxima=0 (0 = sin techo)  incremento=2
+*/
+@Component
+public class Resiliencia {
+
+    private static final Logger log = LoggerFactory.getLogger(Resiliencia.class);
+
+    // Por encima de esta tasa (sin techo configurado) se vuelve a "sin límite"
+    private static final double TASA_SIN_LIMITE = 1_000;
+    // Varios 429 que llegan juntos cuentan como una sola señal de congestión
+    private static final long NANOS_ENTRE_REDUCCIONES = TimeUnit.SECONDS.toNanos(1);
+
+    public enum EstadoCircuito { CERRADO, ABIERTO, SEMIABIERTO }
+
+    // Fotografía para informes y métricas
+    public record Estado(EstadoCircuito circuito, double tasa, long peticiones, long reintentos,
+                         long limitadas, long aperturas) {}
+
+    // Un envío HTTP (síncrono o asíncrono) que se puede repetir
+    @FunctionalInterface
+    public interface Envio<T> {
+        HttpResponse<T> enviar() throws IOException, InterruptedException;
+    }
+
+    @FunctionalInterface
+    public interface EnvioAsync<T> {
+        CompletableFuture<HttpResponse<T>> enviar();
+    }
+
+    private final int reintentos;
+    private final Duration esperaBase;
+    private final Duration esperaMaxima;
+    private final int fallosParaAbrir;
+    private final Duration tiempoAbierto;
+    private final double tasaMinima;
+    private final double tasaMaxima;
+    private final double incremento;
+    private final Metricas metricas;
+
+    // AIMD: null mientras no haya límite
+    private LimitadorTasa limitador;
+    private long ultimaReduccion = System.nanoTime() - NANOS_ENTRE_REDUCCIONES;
+
+    // Medición de la tasa real en ventanas de un segundo
+    private long inicioVentana = System.nanoTime();
+    private int enVentana;
+    private double tasaMedida;
+
+    // Circuito
+    private EstadoCircuito circuito = EstadoCircuito.CERRADO;
+    private int fallosSeguidos;
+    private long abiertoHasta;
+    private boolean pruebaEnCurso;
+
+    // Contadores
+    private long peticiones;
+    private long reintentosHechos;
+    private long limitadas;
+    private long aperturas;
+
+    // Valores por defecto, para usar fuera de Spring
+    public static Resiliencia porDefecto() {
+        return new Resiliencia(3, Duration.ofMillis(500), Duration.ofSeconds(30), 5, Duration.ofSeconds(30),
+                0.5, 0, 2);
+    }
+
+    // Sin métricas, para usar fuera de Spring
+    public Resiliencia(int reintentos, Duration esperaBase, Duration esperaMaxima, int fallosParaAbrir,
+                       Duration tiempoAbierto, double tasaMinima, double tasaMaxima, double incremento) {
+        this(reintentos, esperaBase, esperaMaxima, fallosParaAbrir, tiempoAbierto, tasaMinima, tasaMaxima,
+                incremento, Metricas.deshabilitadas());
+    }
+
+    @Autowired
+    public Resiliencia(@Value("${literalura.http.reintentos:3}") int reintentos,
+                       @Value("${literalura.http.espera-base:500ms}") Duration esperaBase,
+                       @Value("${literalura.http.espera-maxima:30s}") Duration esperaMaxima,
+                       @Value("${literalura.http.fallos-para-abrir:5}") int fallosParaAbrir,
+                       @Value("${literalura.http.tiempo-abierto:30s}") Duration tiempoAbierto,
+                       @Value("${literalura.http.tasa-minima:0.5}") double tasaMinima,
+                       @Value("${literalura.http.tasa-maxima:0}") double tasaMaxima,
+                       @Value("${literalura.http.incremento:2}") double incremento,
+                       Metricas metricas) {
+        this.reintentos = reintentos;
+        this.esperaBase = esperaBase;
+        this.esperaMaxima = esperaMaxima;
+        this.fallosParaAbrir = fallosParaAbrir;
+        this.tiempoAbierto = tiempoAbierto;
+        this.tasaMinima = tasaMinima;
+        this.tasaMaxima = tasaMaxima > 0 ? tasaMaxima : Double.POSITIVE_INFINITY;
+        this.incremento = incremento;
+        if (tasaMaxima > 0) {
+            this.limitador = new LimitadorTasa(tasaMaxima);
+        }
+        this.metricas = metricas;
+        metricas.contador("literalura.gutendex.reintentos", "Reintentos", this, r -> r.estado().reintentos());
+        metricas.contador("literalura.gutendex.limitadas", "Respuestas 429", this, r -> r.estado().limitadas());
+        metricas.contador("literalura.gutendex.circuito.aperturas", "Aperturas del circuito", this,
+                r -> r.estado().aperturas());
+        metricas.medidor("literalura.gutendex.circuito.abierto", "1 si el circuito no está cerrado", this,
+                r -> r.estado().circuito() == EstadoCircuito.CERRADO ? 0 : 1);
+        // Sin límite se informa 0
+        metricas.medidor("literalura.gutendex.tasa", "Peticiones por segundo permitidas (AIMD)", this,
+                r -> Double.isInfinite(r.estado().tasa()) ? 0 : r.estado().tasa());
+    }
+
+    /*
+     Envía la petición con reintentos, en el hilo que llama.
+     Devuelve la respuesta exitosa (2xx o 304) o lanza ErrorGutendex.
+    */
+    public <T> HttpResponse<T> ejecutar(String url, Envio<T> envio) {
+        for (int intento = 1; ; intento++) {
+            HttpResponse<T> respuesta = null;
+            ErrorGutendex error;
+            boolean prueba = permitir(url);
+            boolean clasificado = false;
+            try {
+                esperarTurno();
+                long inicio = metricas.inicio();
+                try {
+                    respuesta = envio.enviar();
+                } catch (IOException e) {
+                    medir(inicio, null, false);
+                    throw e;
+                }
+                clasificado = true;
+                error = evaluar(url, respuesta, null);
+                medir(inicio, respuesta, error == null);
+            } catch (IOException e) {
+                clasificado = true;
+                error = evaluar(url, null, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ErrorGutendex(ErrorGutendex.Motivo.RED, 0, url, null, "Petición interrumpida", e);
+            } finally {
+                // Interrumpida o con una excepción inesperada: no dice nada de Gutendex
+                if (prueba && !clasificado) {
+                    liberarPrueba();
+                }
+            }
+            if (error == null) {
+                return respuesta;
+            }
+            Duration espera = esperaAntesDeReintentar(error, intento);
+            if (espera == null) {
+                throw error;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(espera.toNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw error;
+            }
+        }
+    }
+
+    /*
+     Igual que ejecutar, sin bloquear: cada reintento y cada turno del
+     limitador de tasa se programan con un ejecutor diferido. El futuro
+     falla con ErrorGutendex.
+    */
+    public <T> CompletableFuture<HttpResponse<T>> ejecutarAsync(String url, EnvioAsync<T> envio) {
+        return intentarAsync(url, envio, 1);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> intentarAsync(String url, EnvioAsync<T> envio, int intento) {
+        boolean prueba;
+        try {
+            prueba = permitir(url);
+        } catch (ErrorGutendex e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // Con la tasa limitada, el envío se programa para su turno en vez de dormir el hilo
+        long turno = reservarTurno();
+        if (turno <= 0) {
+            return enviarAsync(url, envio, intento, prueba);
+        }
+        if (!prueba) {
+            return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(turno, TimeUnit.NANOSECONDS))
+                    .thenCompose(v -> enviarAsync(url, envio, intento, false));
+        }
+        // Si quien llama cancela antes del turno, thenCompose ya no envía: la prueba se libera aquí.
+        // La marca decide quién se queda con la prueba (el envío o la cancelación), nunca los dos
+        AtomicBoolean tomada = new AtomicBoolean();
+        CompletableFuture<HttpResponse<T>> resultado = CompletableFuture
+                .runAsync(() -> {}, CompletableFuture.delayedExecutor(turno, TimeUnit.NANOSECONDS))
+                .thenCompose(v -> tomada.compareAndSet(false, true)
+                        ? enviarAsync(url, envio, intento, true)
+                        : CompletableFuture.<HttpResponse<T>>failedFuture(
+                                new CancellationException("Prueba cancelada antes de su turno")));
+        resultado.whenComplete((respuesta, fallo) -> {
+            if (tomada.compareAndSet(false, true)) {
+                liberarPrueba();
+            }
+        });
+        return resultado;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> enviarAsync(String url, EnvioAsync<T> envio, int intento,
+                                                               boolean prueba) {
+        long inicio = metricas.inicio();
+        CompletableFuture<HttpResponse<T>> enviado;
+        try {
+            enviado = envio.enviar();
+        } catch (RuntimeException e) {
+            if (prueba) {
+                liberarPrueba();
+            }
+            throw e;
+        }
+        return enviado.handle((respuesta, fallo) -> {
+            if (respuesta == null && causa(fallo) instanceof CancellationException cancelada) {
+                // Cancelada por quien la pidió: tampoco dice nada de Gutendex
+                if (prueba) {
+                    liberarPrueba();
+                }
+                return CompletableFuture.<HttpResponse<T>>failedFuture(cancelada);
+            }
+            ErrorGutendex error = evaluar(url, respuesta, causa(fallo));
+            medir(inicio, respuesta, error == null);
+            if (error == null) {
+                return CompletableFuture.completedFuture(respuesta);
+            }
+            Duration espera = esperaAntesDeReintentar(error, intento);
+            if (espera == null) {
+                return CompletableFuture.<HttpResponse<T>>failedFuture(error);
+            }
+            return CompletableFuture.runAsync(() -> {},
+                            CompletableFuture.delayedExecutor(espera.toNanos(), TimeUnit.NANOSECONDS))
+                    .thenCompose(v -> intentarAsync(url, envio, intento + 1));
+        }).thenCompose(f -> f);
+    }
+
+    public synchronized Estado estado() {
+        return new Estado(circuito, limitador != null ? limitador.getTasa() : Double.POSITIVE_INFINITY,
+                peticiones, reintentosHechos, limitadas, aperturas);
+    }
+
+    // ---------------- clasificación ----------------
+
+    /*
+     null si la respuesta es un éxito; si no, el error clasificado.
+     Actualiza el circuito y la tasa según el resultado.
+    */
+    private <T> ErrorGutendex evaluar(String url, HttpResponse<T> respuesta, Throwable fallo) {
+        if (respuesta == null) {
+            registrarFallo(false);
+            String detalle = fallo != null ? fallo.getClass().getSimpleName() + ": " + fallo.getMessage() : "sin respuesta";
+            return new ErrorGutendex(ErrorGutendex.Motivo.RED, 0, url, null,
+                    "No se pudo conectar con Gutendex (" + detalle + ")", fallo);
+        }
+        int codigo = respuesta.statusCode();
+        if (codigo / 100 == 2 || codigo == 304) {
+            registrarExito();
+            return null;
+        }
+        Duration reintentarEn = respuesta.headers().firstValue("Retry-After")
+                .map(Resiliencia::leerRetryAfter).orElse(null);
+        ErrorGutendex.Motivo motivo = codigo == 429 ? ErrorGutendex.Motivo.LIMITE
+                : codigo / 100 == 5 ? ErrorGutendex.Motivo.SERVIDOR
+                : ErrorGutendex.Motivo.CLIENTE;
+        if (motivo == ErrorGutendex.Motivo.LIMITE || codigo == 503) {
+            reducirTasa();
+        }
+        if (motivo == ErrorGutendex.Motivo.SERVIDOR) {
+            registrarFallo(false);
+        } else {
+            // 429 y 4xx: Gutendex respondió, el circuito no se abre por ellos
+            registrarFallo(true);
+        }
+        return new ErrorGutendex(motivo, codigo, url, reintentarEn,
+                "Gutendex respondió " + codigo + " para " + url, null);
+    }
+
+    // Espera antes del próximo intento, o null si no hay que reintentar
+    private Duration esperaAntesDeReintentar(ErrorGutendex error, int intento) {
+        if (!error.getMotivo().esReintentable() || intento > reintentos) {
+            return null;
+        }
+        Duration espera;
+        if (error.getReintentarEn() != null) {
+            if (error.getReintentarEn().compareTo(esperaMaxima) > 0) {
+                return null; // el servidor pide más de lo que estamos dispuestos a esperar
+            }
+            // Lo pedido más un 10% al azar, para no volver todos en el mismo instante
+            long base = error.getReintentarEn().toNanos();
+            espera = Duration.ofNanos(base + ThreadLocalRandom.current().nextLong(base / 10 + 1));
+        } else {
+            long tope = Math.min(esperaMaxima.toNanos(), esperaBase.toNanos() << Math.min(intento - 1, 20));
+            espera = Duration.ofNanos(ThreadLocalRandom.current().nextLong(tope + 1));
+        }
+        synchronized (this) {
+            reintentosHechos++;
+        }
+        log.debug("Reintento {} de {} en {} ms: {}", intento, error.getUrl(), espera.toMillis(), error.getMessage());
+        return espera;
+    }
+
+    // Tiempo y tamaño de un intento; el tamaño solo se calcula con las métricas habilitadas
+    private void medir(long inicio, HttpResponse<?> respuesta, boolean exito) {
+        if (metricas.habilitadas()) {
+            metricas.peticionHttp(inicio, exito, bytesRecibidos(respuesta));
+        }
+    }
+
+    private static long bytesRecibidos(HttpResponse<?> respuesta) {
+        if (respuesta == null) {
+            return -1;
+        }
+        Object cuerpo = respuesta.body();
+        if (cuerpo instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (cuerpo instanceof String texto) {
+            return texto.length();
+        }
+        // Flujo todavía sin leer: se usa la cabecera, si vino
+        return respuesta.headers().firstValueAsLong("Content-Length").orElse(-1);
+    }
+
+    // Retry-After: segundos ("120") o fecha HTTP ("Wed, 21 Oct 2015 07:28:00 GMT")
+    static Duration leerRetryAfter(String valor) {
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(valor.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime fecha = ZonedDateTime.parse(valor.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration hasta = Duration.between(ZonedDateTime.now(fecha.getZone()), fecha);
+                return hasta.isNegative() ? Duration.ZERO : hasta;
+            } catch (DateTimeParseException ignorada) {
+                return null;
+            }
+        }
+    }
+
+    private static Throwable causa(Throwable fallo) {
+        return fallo instanceof CompletionException && fallo.getCause() != null ? fallo.getCause() : fallo;
+    }
+
+    // ---------------- circuito ----------------
+
+    /*
+     Deja pasar la petición o lanza CIRCUITO_ABIERTO. Devuelve true si es la
+     petición de prueba del circuito semiabierto: quien la recibe debe
+     clasificar su resultado (evaluar) o devolverla (liberarPrueba).
+    */
+    private synchronized boolean permitir(String url) {
+        if (circuito == EstadoCircuito.ABIERTO) {
+            long falta = abiertoHasta - System.nanoTime();
+            if (falta > 0) {
+                throw new ErrorGutendex(ErrorGutendex.Motivo.CIRCUITO_ABIERTO, 0, url, Duration.ofNanos(falta),
+                        "Gutendex no responde; se vuelve a intentar en " + Duration.ofNanos(falta).toSeconds() + " s",
+                        null);
+            }
+            circuito = EstadoCircuito.SEMIABIERTO;
+            pruebaEnCurso = false;
+        }
+        if (circuito == EstadoCircuito.SEMIABIERTO) {
+            if (pruebaEnCurso) {
+                throw new ErrorGutendex(ErrorGutendex.Motivo.CIRCUITO_ABIERTO, 0, url, tiempoAbierto,
+                        "Gutendex no responde; hay una petición de prueba en curso", null);
+            }
+            pruebaEnCurso = true;
+        }
+        peticiones++;
+        contarEnVentana();
+        return circuito == EstadoCircuito.SEMIABIERTO;
+    }
+
+    // La prueba terminó sin resultado (interrumpida, cancelada): la próxima petición vuelve a probar
+    private synchronized void liberarPrueba() {
+        if (circuito == EstadoCircuito.SEMIABIERTO) {
+            pruebaEnCurso = false;
+        }
+    }
+
+    private synchronized void registrarExito() {
+        fallosSeguidos = 0;
+        if (circuito != EstadoCircuito.CERRADO) {
+            log.info("Gutendex responde de nuevo: circuito cerrado");
+            circuito = EstadoCircuito.CERRADO;
+        }
+        aumentarTasa();
+    }
+
+    // respondio = hubo respuesta HTTP (429 o 4xx): no cuenta como caída pero libera la prueba
+    private synchronized void registrarFallo(boolean respondio) {
+        if (respondio) {
+            if (circuito == EstadoCircuito.SEMIABIERTO) {
+                pruebaEnCurso = false;
+            }
+            return;
+        }
+        fallosSeguidos++;
+        if (circuito == EstadoCircuito.SEMIABIERTO || fallosSeguidos >= fallosParaAbrir) {
+            if (circuito != EstadoCircuito.ABIERTO) {
+                aperturas++;
+                log.warn("Gutendex falló {} veces seguidas: circuito abierto durante {} s",
+                        fallosSeguidos, tiempoAbierto.toSeconds());
+            }
+            circuito = EstadoCircuito.ABIERTO;
+            abiertoHasta = System.nanoTime() + tiempoAbierto.toNanos();
+            pruebaEnCurso = false;
+        }
+    }
+
+    // ---------------- tasa adaptativa (AIMD) ----------------
+
+    private void esperarTurno() throws InterruptedException {
+        LimitadorTasa actual;
+        synchronized (this) {
+            actual = limitador;
+        }
+        if (actual != null) {
+            actual.adquirir();
+        }
+    }
+
+    // Nanosegundos hasta el turno reservado (0 si no hay límite o ya es el turno)
+    private long reservarTurno() {
+        LimitadorTasa actual;
+        synchronized (this) {
+            actual = limitador;
+        }
+        return actual != null ? actual.reservar() : 0;
+    }
+
+    // Suma "incremento" peticiones/s por cada segundo de tráfico a la tasa actual
+    private void aumentarTasa() {
+        if (limitador == null) {
+            return;
+        }
+        double tasa = limitador.getTasa();
+        double nueva = Math.min(tasaMaxima, tasa + incremento / tasa);
+        if (tasaMaxima == Double.POSITIVE_INFINITY && nueva >= TASA_SIN_LIMITE) {
+            limitador = null;
+            return;
+        }
+        limitador.setTasa(nueva);
+    }
+
+    // Mitad de la tasa actual (o de la medida, si no había límite), como mucho una vez por segundo
+    private synchronized void reducirTasa() {
+        limitadas++;
+        long ahora = System.nanoTime();
+        if (ahora - ultimaReduccion < NANOS_ENTRE_REDUCCIONES) {
+            return;
+        }
+        ultimaReduccion = ahora;
+        double actual = limitador != null ? limitador.getTasa() : tasaObservada(ahora);
+        double nueva = Math.max(tasaMinima, Math.min(tasaMaxima, actual / 2));
+        if (limitador == null) {
+            limitador = new LimitadorTasa(nueva);
+        } else {
+            limitador.setTasa(nueva);
+        }
+        log.info("Gutendex pide bajar el ritmo: {} peticiones/s", String.format("%.1f", nueva));
+    }
+
+    private void contarEnVentana() {
+        long ahora = System.nanoTime();
+        long transcurrido = ahora - inicioVentana;
+        if (transcurrido >= TimeUnit.SECONDS.toNanos(1)) {
+            tasaMedida = enVentana / (transcurrido / 1e9);
+            inicioVentana = ahora;
+            enVentana = 0;
+        }
+        enVentana++;
+    }
+
+    private double tasaObservada(long ahora) {
+        double enCurso = enVentana / Math.max((ahora - inicioVentana) / 1e9, 0.001);
+        return Math.max(tasaMinima, Math.max(tasaMedida, Math.min(enCurso, enVentana)));
+    }
+}
@@ -0,0 +1,344 @@
+package com.aluracursos.literalura.service;
+// Paquete de servicios.
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/*
+ Trabajos largos en segundo plano (importaciones, actualización de descargas,
+ búsquedas en Gutendex), para que el menú de consola siga respondiendo
+ mientras corren.
+
+ ✔ cada trabajo tiene un número, un estado, su avance (Avance.informar) y su resultado
+ ✔ corren en un pool de "simultaneos" hilos; los que no entran esperan "en cola"
+ ✔ la cancelación es cooperativa: la tarea consulta Avance.cancelado() entre
+   páginas o tramos y termina dejando confirmado lo ya guardado. No se
+   interrumpe el hilo: una interrupción en medio de una escritura JDBC puede
+   cerrar la conexión (o el archivo de H2) a mitad de la transacción
+ ✔ enviarUnico rechaza un trabajo si ya hay otro activo con la misma clave
+   (dos importaciones a la vez se pisarían el progreso guardado)
+ ✔ se conservan los últimos "historial" trabajos terminados
+ ✔ al cerrar la aplicación se cancelan los activos y se espera a que
+   confirmen la página o el tramo que están guardando
+
+ Propiedades:
+   literalura.trabajos.simultaneos=4
+   literalura.trabajos.historial=50
+*/
+@Service
+public class Trabajos {
+
+    private static final Logger log = LoggerFactory.getLogger(Trabajos.class);
+
+    // Clave compartida por las importaciones (Gutendex y archivo local): una a la vez
+    public static final String IMPORTACION = "importacion";
+
+    // Espera máxima al cerrar a que los trabajos cancelados terminen su tramo
+    private static final long SEGUNDOS_AL_CERRAR = 30;
+
+    public enum Estado {
+        EN_COLA("en cola"),
+        EN_CURSO("en curso"),
+        TERMINADO("terminado"),
+        FALLIDO("fallido"),
+        CANCELADO("cancelado");
+
+        private final String descripcion;
+
+        Estado(String descripcion) {
+            this.descripcion = descripcion;
+        }
+
+        public String getDescripcion() {
+            return descripcion;
+        }
+
+        public boolean activo() {
+            return this == EN_COLA || this == EN_CURSO;
+        }
+    }
+
+    private final ExecutorService hilos;
+    private final int historial;
+
+    // Por número: el listado sale en el orden en que se enviaron
+    private final Map<Long, Trabajo<?>> trabajos = new ConcurrentSkipListMap<>();
+    private long ultimoId;
+
+    public Trabajos(@Value("${literalura.trabajos.simultaneos:4}") int simultaneos,
+                    @Value("${literalura.trabajos.historial:50}") int historial) {
+        this.hilos = Executors.newFixedThreadPool(Math.max(1, simultaneos), Hilos.fabrica("trabajo", false));
+        this.historial = Math.max(1, historial);
+    }
+
+    /*
+     Envía una tarea. "resumen" arma la línea que se muestra al terminar
+     a partir del resultado (puede recibir null si la tarea lo devuelve).
+    */
+    public <T> Trabajo<T> enviar(String nombre, Function<Avance, T> tarea, Function<? super T, String> resumen) {
+        return registrar(null, nombre, tarea, resumen);
+    }
+
+    // Como enviar, salvo que ya haya un trabajo activo con la misma clave
+    public synchronized <T> Trabajo<T> enviarUnico(String clave, String nombre, Function<Avance, T> tarea,
+                                                   Function<? super T, String> resumen) {
+        for (Trabajo<?> trabajo : trabajos.values()) {
+            if (clave.equals(trabajo.clave) && trabajo.estado().activo()) {
+                throw new IllegalStateException("Ya hay un trabajo en curso: #" + trabajo.id() + " " + trabajo.nombre());
+            }
+        }
+        return registrar(clave, nombre, tarea, resumen);
+    }
+
+    public List<Trabajo<?>> listar() {
+        return List.copyOf(trabajos.values());
+    }
+
+    public Optional<Trabajo<?>> buscar(long id) {
+        return Optional.ofNullable(trabajos.get(id));
+    }
+
+    public long activos() {
+        return trabajos.values().stream().filter(t -> t.estado().activo()).count();
+    }
+
+    /*
+     Pide cancelar un trabajo. Uno en cola se cancela en el acto; uno en curso
+     termina cuando la tarea vuelve a consultar Avance.cancelado().
+     Devuelve false si el trabajo no existe o ya había terminado.
+    */
+    public synchronized boolean cancelar(long id) {
+        Trabajo<?> trabajo = trabajos.get(id);
+        return trabajo != null && trabajo.cancelar();
+    }
+
+    // Terminados que todavía no se avisaron (cada uno se devuelve una sola vez)
+    public List<Trabajo<?>> terminadosSinAviso() {
+        List<Trabajo<?>> terminados = new ArrayList<>();
+        for (Trabajo<?> trabajo : trabajos.values()) {
+            if (!trabajo.estado().activo() && trabajo.avisado.compareAndSet(false, true)) {
+                terminados.add(trabajo);
+            }
+        }
+        return terminados;
+    }
+
+    @PreDestroy
+    public void detener() {
+        trabajos.values().forEach(Trabajo::cancelar);
+        hilos.shutdown();
+        try {
+            if (!hilos.awaitTermination(SEGUNDOS_AL_CERRAR, TimeUnit.SECONDS)) {
+                log.warn("Quedaron trabajos sin terminar al cerrar la aplicación");
+                hilos.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            hilos.shutdownNow();
+        }
+    }
+
+    private synchronized <T> Trabajo<T> registrar(String clave, String nombre, Function<Avance, T> tarea,
+                                                  Function<? super T, String> resumen) {
+        Trabajo<T> trabajo = new Trabajo<>(++ultimoId, clave, nombre, tarea, resumen);
+        trabajos.put(trabajo.id(), trabajo);
+        try {
+            trabajo.futuro = hilos.submit(trabajo::ejecutar);
+        } catch (RejectedExecutionException e) {
+            trabajos.remove(trabajo.id());
+            throw new IllegalStateException("La aplicación se está cerrando", e);
+        }
+        podar();
+        return trabajo;
+    }
+
+    // Descarta los terminados más viejos que exceden el historial
+    private void podar() {
+        long terminados = trabajos.values().stream().filter(t -> !t.estado().activo()).count();
+        for (Trabajo<?> trabajo : trabajos.values()) {
+            if (terminados <= historial) {
+                return;
+            }
+            if (!trabajo.estado().activo()) {
+                trabajos.remove(trabajo.id());
+                terminados--;
+            }
+        }
+    }
+
+    /*
+     Un trabajo enviado. Es el Avance que recibe su tarea.
+    */
+    public static final class Trabajo<T> implements Avance {
+
+        private final long id;
+        private final String clave;
+        private final String nombre;
+        private final Function<Avance, T> tarea;
+        private final Function<? super T, String> resumenDe;
+        private final CompletableFuture<T> resultado = new CompletableFuture<>();
+        private final AtomicBoolean avisado = new AtomicBoolean();
+
+        private volatile Future<?> futuro;
+        private volatile Estado estado = Estado.EN_COLA;
+        private volatile boolean cancelado;
+        private volatile long hechos;
+        private volatile long total;
+        private volatile String detalle = "";
+        private volatile String resumen = "";
+        private volatile Throwable error;
+        private volatile long inicio;
+        private volatile long fin;
+
+        private Trabajo(long id, String clave, String nombre, Function<Avance, T> tarea,
+                        Function<? super T, String> resumenDe) {
+            this.id = id;
+            this.clave = clave;
+            this.nombre = nombre;
+            this.tarea = tarea;
+            this.resumenDe = resumenDe;
+        }
+
+        @Override
+        public void informar(long hechos, long total, String detalle) {
+            this.hechos = hechos;
+            this.total = total;
+            this.detalle = detalle;
+        }
+
+        @Override
+        public boolean cancelado() {
+            return cancelado;
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public String nombre() {
+            return nombre;
+        }
+
+        public Estado estado() {
+            return estado;
+        }
+
+        public String detalle() {
+            return detalle;
+        }
+
+        // Porcentaje hecho, o -1 si la tarea no informó un total
+        public int porcentaje() {
+            long t = total;
+            return t > 0 ? (int) Math.min(100, hechos * 100 / t) : -1;
+        }
+
+        // Línea final: el resumen del resultado o el motivo del fallo
+        public String resumen() {
+            return resumen;
+        }
+
+        public Throwable error() {
+            return error;
+        }
+
+        // Tiempo en curso (hasta ahora o hasta que terminó); cero mientras espera en cola
+        public Duration duracion() {
+            if (inicio == 0) {
+                return Duration.ZERO;
+            }
+            return Duration.ofNanos((fin != 0 ? fin : System.nanoTime()) - inicio);
+        }
+
+        // Resultado de la tarea si terminó sin error (también si se canceló a mitad), o null
+        public T resultado() {
+            return resultado.isDone() && !resultado.isCompletedExceptionally() ? resultado.join() : null;
+        }
+
+        // Espera a que termine (de cualquier forma); false si pasó la espera
+        public boolean esperar(Duration espera) throws InterruptedException {
+            try {
+                resultado.get(espera.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException | CancellationException e) {
+                // El estado y el error ya quedaron registrados
+            }
+            return true;
+        }
+
+        // Quien ya mostró el resultado (por ejemplo, el menú que lo esperaba) evita el aviso
+        public void marcarAvisado() {
+            avisado.set(true);
+        }
+
+        private boolean cancelar() {
+            if (!estado.activo()) {
+                return false;
+            }
+            cancelado = true;
+            // Todavía en la cola: no llega a ejecutarse
+            Future<?> enCola = futuro;
+            if (estado == Estado.EN_COLA && enCola != null && enCola.cancel(false)) {
+                terminar(Estado.CANCELADO, "cancelado antes de empezar", null, null);
+            }
+            return true;
+        }
+
+        private void ejecutar() {
+            if (cancelado) {
+                terminar(Estado.CANCELADO, "cancelado antes de empezar", null, null);
+                return;
+            }
+            inicio = System.nanoTime();
+            estado = Estado.EN_CURSO;
+            try {
+                T valor = tarea.apply(this);
+                terminar(cancelado ? Estado.CANCELADO : Estado.TERMINADO, resumenDe.apply(valor), valor, null);
+            } catch (CancellationException e) {
+                terminar(Estado.CANCELADO, String.valueOf(e.getMessage()), null, e);
+            } catch (RuntimeException | Error e) {
+                // El motivo queda en el resumen (lo muestra el menú); la traza, solo en depuración
+                log.debug("El trabajo #{} ({}) falló", id, nombre, e);
+                terminar(cancelado ? Estado.CANCELADO : Estado.FALLIDO, String.valueOf(e.getMessage()), null, e);
+                if (e instanceof Error grave) {
+                    throw grave;
+                }
+            }
+        }
+
+        // El estado se escribe antes de completar: quien espera el resultado ya lo ve final
+        private void terminar(Estado estadoFinal, String resumen, T valor, Throwable error) {
+            this.fin = System.nanoTime();
+            this.resumen = resumen;
+            this.error = error;
+            this.estado = estadoFinal;
+            if (error != null) {
+                resultado.completeExceptionally(error);
+            } else {
+                resultado.complete(valor);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.aluracursos.literalura.api;
+
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.service.PersistenciaLotes;
+import com.aluracursos.literalura.service.RankingDescargas;
+import com.aluracursos.literalura.soporte.LibrosDePrueba;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"literalura.api.habilitada=true", "literalura.api.puerto=0"})
+class ServidorApiTest {
+
+	@Autowired
+	private ServidorApi servidor;
+
+	@Autowired
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	private LibroRepository libroRepository;
+
+	@Autowired
+	private RankingDescargas ranking;
+
+	private final HttpClient cliente = HttpClient.newHttpClient();
+
+	// La importación local lee el archivo configurado: el catálogo de prueba
+	@DynamicPropertySource
+	static void archivoDelCatalogo(DynamicPropertyRegistry propiedades) {
+		propiedades.add("literalura.catalogo-local.archivo", () -> {
+			try {
+				return Path.of(ServidorApiTest.class.getResource("/catalogo/pg_catalog.csv").toURI()).toString();
+			} catch (URISyntaxException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@BeforeEach
+	void guardarLibros() {
+		if (!libroRepository.existePorIdGutendex(920_000)) {
+			persistenciaLotes.guardarEnLotes(LibrosDePrueba.libros(920_000, 60));
+		}
+	}
+
+	@Test
+	void listaPaginadoConEtagYGzip() throws Exception {
+		HttpResponse<byte[]> primera = get("/api/libros?tamano=2", null, false);
+		assertThat(primera.statusCode()).isEqualTo(200);
+		JsonNode pagina = mapper.readTree(primera.body());
+		assertThat(pagina.get("contenido")).hasSize(2);
+		assertThat(pagina.get("haySiguiente").asBoolean()).isTrue();
+		String etag = primera.headers().firstValue("ETag").orElseThrow();
+
+		// Misma versión del catálogo: 304 sin cuerpo
+		assertThat(get("/api/libros?tamano=2", etag, false).statusCode()).isEqualTo(304);
+
+		// Un guardado cambia la versión
+		persistenciaLotes.guardarEnLotes(List.of(new Libro(new DatosLibro(920_999, "Nuevo en la API",
+				List.of(new DatosAutor("Autora, Nueva", 1900, 1980)), List.of("es"), 1.0))));
+		assertThat(get("/api/libros?tamano=2", etag, false).statusCode()).isEqualTo(200);
+
+		// Respuestas grandes comprimidas si el cliente acepta gzip
+		HttpResponse<byte[]> comprimida = get("/api/libros/idioma/es?tamano=100", null, true);
+		assertThat(comprimida.headers().firstValue("Content-Encoding")).hasValue("gzip");
+		JsonNode enEspanol;
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(comprimida.body()))) {
+			enEspanol = mapper.readTree(gzip);
+		}
+		assertThat(enEspanol.get("contenido").size()).isGreaterThan(5);
+		enEspanol.get("contenido").forEach(l -> assertThat(l.get("idiomas").toString()).contains("\"es\""));
+	}
+
+	@Test
+	void elEtagCambiaCuandoCambiaUnServicioEnMemoria() throws Exception {
+		HttpResponse<byte[]> primera = get("/api/libros/top?cantidad=3", null, false);
+		String etag = primera.headers().firstValue("ETag").orElseThrow();
+		assertThat(get("/api/libros/top?cantidad=3", etag, false).statusCode()).isEqualTo(304);
+
+		// Sin evento de por medio: los tableros se descartan y la próxima respuesta puede cambiar
+		ranking.olvidar();
+		assertThat(get("/api/libros/top?cantidad=3", etag, false).statusCode()).isEqualTo(200);
+	}
+
+	@Test
+	void consultasEstadisticasYErrores() throws Exception {
+		JsonNode top = json("/api/libros/top?cantidad=3");
+		assertThat(top).hasSize(3);
+		assertThat(top.get(0).get("descargas").asDouble()).isGreaterThanOrEqualTo(top.get(1).get("descargas").asDouble());
+
+		JsonNode vivos = json("/api/autores/vivos?anio=1530&tamano=100");
+		assertThat(vivos.get("contenido")).isNotEmpty();
+		vivos.get("contenido").forEach(a -> assertThat(a.get("nacimiento").asInt()).isLessThanOrEqualTo(1530));
+
+		assertThat(json("/api/estadisticas").get("general").get("cantidad").asLong()).isGreaterThanOrEqualTo(60);
+		assertThat(json("/api/libros/buscar?q=prueba%20920001").get("contenido").get(0).get("titulo").asText())
+				.isEqualTo("Libro de prueba 920001");
+
+		assertThat(get("/api/libros/idioma/xx", null, false).statusCode()).isEqualTo(400);
+		assertThat(get("/api/libros?tamano=500", null, false).statusCode()).isEqualTo(400);
+		assertThat(get("/api/nada", null, false).statusCode()).isEqualTo(404);
+		assertThat(get("/metrics", null, false).statusCode()).isEqualTo(404);
+	}
+
+	@Test
+	void importaEnSegundoPlano() throws Exception {
+		// Un cliente no puede elegir qué archivo del servidor se abre
+		assertThat(post("/api/importaciones?fuente=local&archivo=/etc/passwd").statusCode()).isEqualTo(400);
+
+		HttpResponse<byte[]> lanzada = post("/api/importaciones?fuente=local");
+		assertThat(lanzada.statusCode()).isEqualTo(202);
+
+		JsonNode estado = json("/api/importaciones");
+		long limite = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+		while (estado.get("estado").asText().equals("en curso") && System.nanoTime() < limite) {
+			Thread.sleep(50);
+			estado = json("/api/importaciones");
+		}
+		assertThat(estado.get("estado").asText()).isEqualTo("terminada");
+		assertThat(estado.get("resultado").get("libros").asInt()).isPositive();
+	}
+
+	private JsonNode json(String ruta) throws IOException, InterruptedException {
+		HttpResponse<byte[]> respuesta = get(ruta, null, false);
+		assertThat(respuesta.statusCode()).as(ruta).isEqualTo(200);
+		return mapper.readTree(respuesta.body());
+	}
+
+	private HttpResponse<byte[]> post(String ruta) throws IOException, InterruptedException {
+		return cliente.send(HttpRequest.newBuilder(url(ruta)).POST(HttpRequest.BodyPublishers.noBody()).build(),
+				HttpResponse.BodyHandlers.ofByteArray());
+	}
+
+	private HttpResponse<byte[]> get(String ruta, String etag, boolean gzip) throws IOException, InterruptedException {
+		HttpRequest.Builder peticion = HttpRequest.newBuilder(url(ruta)).GET();
+		if (etag != null) {
+			peticion.header("If-None-Match", etag);
+		}
+		if (gzip) {
+			peticion.header("Accept-Encoding", "gzip");
+		}
+		return cliente.send(peticion.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+
+	private URI url(String ruta) {
+		return URI.create("http://127.0.0.1:" + servidor.puertoLocal() + ruta);
+	}
+}
@@ -0,0 +1,81 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.service.CacheRespuestas;
+import com.aluracursos.literalura.service.ConsumoAPI;
+import com.aluracursos.literalura.service.ConsumoAPICacheado;
+import com.aluracursos.literalura.service.ConvierteDatosStreaming;
+import com.aluracursos.literalura.service.IConvierteDatos;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ Latencia de una búsqueda de título a través de ConsumoAPICacheado,
+ contra un Gutendex simulado con 20 ms de latencia:
+ ✔ frio: URL nunca vista, siempre va a la red
+ ✔ memoria: entrada fresca en el nivel de memoria
+ ✔ disco: memoria sin espacio, la entrada se lee y descomprime del disco
+ ✔ revalidacion: TTL vencido, petición condicional con respuesta 304
+
+ El modo SampleTime informa percentiles (p0.50, p0.99) además de la media.
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="CacheRespuestasBenchmark"
+*/
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheRespuestasBenchmark {
+
+    @Param({"frio", "memoria", "disco", "revalidacion"})
+    public String escenario;
+
+    private ServidorGutendexSimulado servidor;
+    private ConsumoAPI consumoAPI;
+    private ConsumoAPICacheado cacheado;
+    private final IConvierteDatos conversor = new ConvierteDatosStreaming();
+    private Path directorio;
+    private String url;
+    private long contador;
+
+    @Setup
+    public void iniciar() throws IOException {
+        servidor = new ServidorGutendexSimulado(Duration.ofMillis(20));
+        consumoAPI = new ConsumoAPI();
+        directorio = Files.createTempDirectory("cache-bench");
+
+        Duration ttl = escenario.equals("revalidacion") ? Duration.ZERO : Duration.ofHours(1);
+        long maxMemoria = escenario.equals("disco") ? 0 : 16 * 1024 * 1024;
+        cacheado = new ConsumoAPICacheado(consumoAPI,
+                new CacheRespuestas(ttl, maxMemoria, 256L * 1024 * 1024, directorio));
+
+        url = servidor.urlBase() + "/books/?search=dickens";
+        cacheado.obtenerCuerpo(url);
+    }
+
+    @TearDown
+    public void detener() throws IOException {
+        consumoAPI.cerrar();
+        servidor.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Datos buscar() {
+        String pedida = escenario.equals("frio") ? url + "+" + (contador++) : url;
+        return cacheado.obtenerDatos(pedida, Datos.class, conversor);
+    }
+}
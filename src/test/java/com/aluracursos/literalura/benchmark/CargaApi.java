@@ -0,0 +1,192 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.LiteraluraHpgApplication;
+import com.aluracursos.literalura.api.ServidorApi;
+import com.aluracursos.literalura.service.CatalogoEnMemoria;
+import com.aluracursos.literalura.service.Hilos;
+import com.aluracursos.literalura.service.IndiceLibros;
+import com.aluracursos.literalura.soporte.PobladorBase;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+/*
+ Prueba de carga de la API HTTP (ServidorApi): para cada endpoint, "clientes"
+ hilos piden sin pausa durante "segundos" y se informa:
+ ✔ peticiones por segundo
+ ✔ latencia p50, p99 y máxima (ms)
+ ✔ respuestas con error (estado distinto de 200/304)
+
+ Sin -Durl arranca la aplicación (sin consola) con una base H2 nueva de
+ "libros" libros sintéticos y espera a que el catálogo en memoria y el índice
+ de texto estén listos. Con -Durl=http://host:puerto mide un servidor ya levantado.
+
+ Cada petición varía la página, el idioma o el texto buscado. Las peticiones
+ aceptan gzip, como un navegador; "libros (ETag)" repite la misma página con
+ If-None-Match para medir las respuestas 304.
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec@carga
+   mvn -Pbenchmark exec:exec@carga -Dcarga.args="libros=50000 clientes=64 segundos=15"
+*/
+public final class CargaApi {
+
+    private static final String[] IDIOMAS = {"en", "es", "fr", "pt", "de", "it"};
+
+    private record Endpoint(String nombre, IntFunction<String> ruta, boolean condicional) {}
+
+    private record Resultado(long peticiones, long errores, double segundos, long[] latencias) {}
+
+    private CargaApi() {}
+
+    public static void main(String[] args) throws Exception {
+        int libros = argumento(args, "libros", 20_000);
+        int clientes = argumento(args, "clientes", 32);
+        int segundos = argumento(args, "segundos", 10);
+        String url = System.getProperty("url");
+
+        ConfigurableApplicationContext contexto = null;
+        if (url == null) {
+            contexto = new SpringApplicationBuilder(LiteraluraHpgApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties("spring.datasource.url=jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1",
+                            "spring.jpa.hibernate.ddl-auto=create-drop",
+                            "logging.level.root=WARN",
+                            "literalura.consola.habilitada=false",
+                            "literalura.cache.directorio=",
+                            "literalura.indice.directorio=",
+                            "literalura.descargas.actualizar-cada=0",
+                            "literalura.api.habilitada=true",
+                            "literalura.api.puerto=0")
+                    .run();
+            System.out.println("Poblando la base con " + libros + " libros...");
+            PobladorBase.poblar(contexto, libros);
+            contexto.getBean(CatalogoEnMemoria.class).reconstruir();
+            contexto.getBean(IndiceLibros.class).reconstruir();
+            url = "http://127.0.0.1:" + contexto.getBean(ServidorApi.class).puertoLocal();
+        }
+
+        List<Endpoint> endpoints = List.of(
+                new Endpoint("libros", i -> "/api/libros?pagina=" + i % 50, false),
+                new Endpoint("libros (ETag)", i -> "/api/libros?pagina=0", true),
+                new Endpoint("idioma", i -> "/api/libros/idioma/" + IDIOMAS[i % IDIOMAS.length] + "?pagina=" + i % 20, false),
+                new Endpoint("buscar", i -> "/api/libros/buscar?q=prueba%20" + i % Math.max(1, libros), false),
+                new Endpoint("vivos", i -> "/api/autores/vivos?anio=" + (1500 + i % 450), false),
+                new Endpoint("top", i -> "/api/libros/top?cantidad=10&idioma=" + IDIOMAS[i % IDIOMAS.length], false),
+                new Endpoint("estadisticas", i -> "/api/estadisticas", false));
+
+        HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        System.out.printf("%nServidor %s · %d clientes · %d s por endpoint%n%n", url, clientes, segundos);
+        System.out.printf("%-16s %10s %10s %9s %9s %9s %8s%n",
+                "Endpoint", "Peticiones", "req/s", "p50 ms", "p99 ms", "máx ms", "Errores");
+        try {
+            for (Endpoint endpoint : endpoints) {
+                // Calentamiento corto del endpoint antes de medir
+                medir(cliente, url, endpoint, clientes, 1);
+                Resultado r = medir(cliente, url, endpoint, clientes, segundos);
+                System.out.printf("%-16s %10d %10.0f %9.2f %9.2f %9.2f %8d%n", endpoint.nombre(), r.peticiones(),
+                        r.peticiones() / r.segundos(), ms(percentil(r.latencias(), 0.50)),
+                        ms(percentil(r.latencias(), 0.99)), ms(percentil(r.latencias(), 1.0)), r.errores());
+            }
+        } finally {
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+    }
+
+    private static Resultado medir(HttpClient cliente, String url, Endpoint endpoint, int clientes, int segundos)
+            throws Exception {
+        String etag = endpoint.condicional()
+                ? cliente.send(HttpRequest.newBuilder(URI.create(url + endpoint.ruta().apply(0))).build(),
+                        HttpResponse.BodyHandlers.discarding()).headers().firstValue("ETag").orElse(null)
+                : null;
+        long inicio = System.nanoTime();
+        long fin = inicio + Duration.ofSeconds(segundos).toNanos();
+
+        List<Future<long[]>> tareas = new ArrayList<>();
+        long[] errores = new long[clientes];
+        ExecutorService hilos = Hilos.porTarea("carga", true);
+        try {
+            for (int c = 0; c < clientes; c++) {
+                int numero = c;
+                tareas.add(hilos.submit(() -> {
+                    long[] latencias = new long[1024];
+                    int n = 0;
+                    ThreadLocalRandom azar = ThreadLocalRandom.current();
+                    while (System.nanoTime() < fin) {
+                        HttpRequest.Builder peticion = HttpRequest.newBuilder(
+                                URI.create(url + endpoint.ruta().apply(azar.nextInt(1 << 20))))
+                                .header("Accept-Encoding", "gzip");
+                        if (etag != null) {
+                            peticion.header("If-None-Match", etag);
+                        }
+                        long t0 = System.nanoTime();
+                        int estado;
+                        try {
+                            estado = cliente.send(peticion.build(), HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+                        } catch (IOException e) {
+                            estado = -1;
+                        }
+                        if (n == latencias.length) {
+                            latencias = Arrays.copyOf(latencias, n * 2);
+                        }
+                        latencias[n++] = System.nanoTime() - t0;
+                        if (estado != 200 && estado != 304) {
+                            errores[numero]++;
+                        }
+                    }
+                    return Arrays.copyOf(latencias, n);
+                }));
+            }
+            long[] todas = new long[0];
+            for (Future<long[]> tarea : tareas) {
+                long[] propias = tarea.get();
+                int previas = todas.length;
+                todas = Arrays.copyOf(todas, previas + propias.length);
+                System.arraycopy(propias, 0, todas, previas, propias.length);
+            }
+            Arrays.sort(todas);
+            return new Resultado(todas.length, Arrays.stream(errores).sum(),
+                    (System.nanoTime() - inicio) / 1e9, todas);
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    private static long percentil(long[] ordenadas, double q) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int i = (int) Math.ceil(q * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(ordenadas.length - 1, i))];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    // "clave=valor" entre los argumentos, o el valor por defecto
+    private static int argumento(String[] args, String clave, int porDefecto) {
+        for (String arg : args) {
+            if (arg.startsWith(clave + "=")) {
+                return Integer.parseInt(arg.substring(clave.length() + 1));
+            }
+        }
+        return porDefecto;
+    }
+}
@@ -0,0 +1,97 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.model.AutorResumen;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.service.CatalogoEnMemoria;
+import com.aluracursos.literalura.service.ConsultaLibros;
+import com.aluracursos.literalura.service.ConsultasCatalogo;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.PobladorBase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Opciones 2 a 7 del menú sobre 50.000 libros (H2 embebida):
+ ✔ repositorio: ConsultaLibros (consultas JPQL por página)
+ ✔ memoria: CatalogoEnMemoria (arreglos por columna, sin JPA)
+
+ Cada operación es lo que muestra el menú al elegir la opción:
+ la primera página de 10 resultados, el top 10 o las estadísticas.
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="CatalogoBenchmark -prof gc"
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CatalogoBenchmark {
+
+    private static final int LIBROS = 50_000;
+    private static final PageRequest PRIMERA_PAGINA = PageRequest.of(0, 10);
+
+    @Param({"repositorio", "memoria"})
+    public String fuente;
+
+    private ConfigurableApplicationContext contexto;
+    private ConsultasCatalogo consultas;
+    private int anio;
+
+    @Setup
+    public void iniciar() {
+        contexto = ContextoPersistencia.iniciar();
+        PobladorBase.poblar(contexto, LIBROS);
+        if (fuente.equals("memoria")) {
+            CatalogoEnMemoria catalogo = contexto.getBean(CatalogoEnMemoria.class);
+            catalogo.reconstruir();
+            consultas = catalogo;
+        } else {
+            consultas = contexto.getBean(ConsultaLibros.class);
+        }
+    }
+
+    @TearDown
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Slice<LibroResumen> listarLibros() {
+        return consultas.listar(PRIMERA_PAGINA);
+    }
+
+    @Benchmark
+    public Slice<AutorResumen> listarAutores() {
+        return consultas.listarAutores(PRIMERA_PAGINA);
+    }
+
+    // El año cambia en cada llamada para no medir siempre la misma respuesta
+    @Benchmark
+    public Slice<AutorResumen> autoresVivos() {
+        anio = anio >= 1950 ? 1500 : anio + 7;
+        return consultas.listarAutoresVivosEn(anio, PRIMERA_PAGINA);
+    }
+
+    @Benchmark
+    public Slice<LibroResumen> librosPorIdioma() {
+        return consultas.listarPorIdioma(Idioma.FRANCES, PRIMERA_PAGINA);
+    }
+
+    @Benchmark
+    public List<LibroResumen> top10() {
+        return consultas.masDescargados(10);
+    }
+
+    @Benchmark
+    public double estadisticas() {
+        return consultas.estadisticasDescargas().getAverage();
+    }
+}
@@ -0,0 +1,83 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.service.ImportadorCatalogoLocal;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Carga completa de un pg_catalog.csv sintético del tamaño del catálogo real
+ (~77.000 obras, ~40.000 autores, columnas de temas y estantes incluidas)
+ en una base H2 vacía, con ImportadorCatalogoLocal.
+
+ Cada medición es una carga completa (SingleShotTime) en un contexto nuevo:
+ el tiempo incluye leer el archivo, descartar repetidos y guardar libros y autores.
+ "escritores" = hilos que guardan tramos en paralelo.
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="CatalogoLocalBenchmark -prof gc"
+*/
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+@State(Scope.Benchmark)
+public class CatalogoLocalBenchmark {
+
+    private static final int OBRAS = 77_000;
+    private static final int AUTORES = 40_000;
+
+    @Param({"1", "4"})
+    public int escritores;
+
+    private Path archivo;
+    private ConfigurableApplicationContext contexto;
+    private ImportadorCatalogoLocal importador;
+
+    @Setup(Level.Trial)
+    public void generarArchivo() throws IOException {
+        archivo = Files.createTempFile("pg_catalog", ".csv");
+        try (BufferedWriter salida = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            salida.write("Text#,Type,Issued,Title,Language,Authors,Subjects,LoCC,Bookshelves\r\n");
+            for (int i = 1; i <= OBRAS; i++) {
+                // Una de cada 40 filas es un audiolibro; una de cada 5 obras tiene traductor
+                String tipo = i % 40 == 0 ? "Sound" : "Text";
+                int autor = i % AUTORES;
+                String autores = "Autor " + autor + ", Nombre, " + (1500 + autor % 400) + "-" + (1560 + autor % 400)
+                        + (i % 5 == 0 ? "; Traductor " + (i % 1000) + ", Nombre, 1800-1870 [Translator]" : "");
+                salida.write(i + "," + tipo + ",2004-07-01,\"Obra " + i + ", tomo único\","
+                        + (i % 3 == 0 ? "en; fr" : "en") + ",\"" + autores + "\","
+                        + "\"Ficción -- Siglo XIX; Novelas de aventuras\",PR,\"Category: Novels; Best Books Ever\"\r\n");
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void iniciar() {
+        contexto = ContextoPersistencia.iniciar("literalura.catalogo-local.escritores=" + escritores);
+        importador = contexto.getBean(ImportadorCatalogoLocal.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void detener() {
+        contexto.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void borrarArchivo() throws IOException {
+        Files.deleteIfExists(archivo);
+    }
+
+    @Benchmark
+    public ImportadorCatalogoLocal.ResultadoImportacionLocal cargaCompleta() {
+        return importador.importar(archivo);
+    }
+}
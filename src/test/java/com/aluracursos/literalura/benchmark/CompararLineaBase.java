@@ -0,0 +1,127 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ Compara un resultado de JMH (formato JSON) con la línea base grabada en
+ benchmarks/ y marca las regresiones:
+ ✔ tiempo o rendimiento (la métrica principal; en thrpt más es mejor,
+   en los demás modos menos es mejor)
+ ✔ bytes asignados por operación (gc.alloc.rate.norm, si se midió con -prof gc)
+
+ Una diferencia cuenta como regresión solo si supera el umbral (por
+ defecto 10 %) Y el margen de error sumado de ambas mediciones: el ruido
+ de una corrida corta no debe romper la comparación. En memoria se
+ ignoran diferencias de menos de 16 bytes (una referencia o un objeto chico).
+
+ Termina con código 1 si hubo alguna regresión.
+
+ Ejecución (después de correr los benchmarks, que escriben target/jmh-resultado.json):
+   mvn -Pbenchmark exec:exec@comparar
+   mvn -Pbenchmark exec:exec@comparar -Dlinea.base=benchmarks/otra.json -Dumbral=0.2
+*/
+public final class CompararLineaBase {
+
+    private static final String ASIGNACION = "gc.alloc.rate.norm";
+    private static final double BYTES_IGNORADOS = 16;
+
+    private record Medicion(String modo, double valor, double error, String unidad, double bytes) {}
+
+    private CompararLineaBase() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararLineaBase <linea-base.json> <resultado.json> [umbral]");
+            System.exit(2);
+        }
+        Map<String, Medicion> base = leer(Path.of(args[0]));
+        Map<String, Medicion> actual = leer(Path.of(args[1]));
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+
+        int regresiones = 0;
+        System.out.printf("%-70s %14s %14s %9s %12s%n", "Benchmark", "Base", "Actual", "Cambio", "B/op");
+        for (Map.Entry<String, Medicion> entrada : new TreeMap<>(actual).entrySet()) {
+            Medicion nueva = entrada.getValue();
+            Medicion anterior = base.get(entrada.getKey());
+            if (anterior == null) {
+                System.out.printf("%-70s %14s %14s %9s%n", entrada.getKey(), "-",
+                        formato(nueva.valor(), nueva.unidad()), "nuevo");
+                continue;
+            }
+            if (!anterior.unidad().equals(nueva.unidad()) || !anterior.modo().equals(nueva.modo())) {
+                System.out.printf("%-70s unidad o modo distinto (%s %s -> %s %s), no se compara%n",
+                        entrada.getKey(), anterior.modo(), anterior.unidad(), nueva.modo(), nueva.unidad());
+                continue;
+            }
+
+            // Positivo = peor, en cualquier modo
+            boolean masEsMejor = nueva.modo().equals("thrpt");
+            double empeora = (masEsMejor ? anterior.valor() - nueva.valor() : nueva.valor() - anterior.valor());
+            boolean regresionTiempo = empeora > umbral * anterior.valor()
+                    && empeora > anterior.error() + nueva.error();
+
+            boolean regresionBytes = false;
+            String bytes = "";
+            if (!Double.isNaN(anterior.bytes()) && !Double.isNaN(nueva.bytes())) {
+                double diferencia = nueva.bytes() - anterior.bytes();
+                regresionBytes = diferencia > Math.max(umbral * anterior.bytes(), BYTES_IGNORADOS);
+                bytes = String.format("%.0f->%.0f", anterior.bytes(), nueva.bytes());
+            }
+
+            String marca = regresionTiempo || regresionBytes ? "  <- REGRESION" : "";
+            System.out.printf("%-70s %14s %14s %+8.1f%% %12s%s%n", entrada.getKey(),
+                    formato(anterior.valor(), anterior.unidad()), formato(nueva.valor(), nueva.unidad()),
+                    100 * (nueva.valor() - anterior.valor()) / anterior.valor(), bytes, marca);
+            if (!marca.isEmpty()) {
+                regresiones++;
+            }
+        }
+        for (String sinMedir : base.keySet()) {
+            if (!actual.containsKey(sinMedir)) {
+                System.out.printf("%-70s (en la linea base, no medido ahora)%n", sinMedir);
+            }
+        }
+
+        if (regresiones > 0) {
+            System.out.printf("%nRegresiones por encima del %2$.0f %%: %1$d%n", regresiones, umbral * 100);
+            System.exit(1);
+        }
+        System.out.printf("%nSin regresiones por encima del %.0f %%%n", umbral * 100);
+    }
+
+    // Clave: clase.método + parámetros ("PersistenciaBenchmark.lotes tamanoLote=50")
+    private static Map<String, Medicion> leer(Path archivo) throws IOException {
+        Map<String, Medicion> mediciones = new LinkedHashMap<>();
+        for (JsonNode resultado : new ObjectMapper().readTree(archivo.toFile())) {
+            // Sin el paquete: "com.aluracursos...PersistenciaBenchmark.lotes" → "PersistenciaBenchmark.lotes"
+            String nombre = resultado.path("benchmark").asText();
+            int metodo = nombre.lastIndexOf('.');
+            StringBuilder clave = new StringBuilder(nombre.substring(nombre.lastIndexOf('.', metodo - 1) + 1));
+            for (Map.Entry<String, JsonNode> parametro : resultado.path("params").properties()) {
+                clave.append(' ').append(parametro.getKey()).append('=').append(parametro.getValue().asText());
+            }
+            JsonNode principal = resultado.path("primaryMetric");
+            JsonNode asignacion = resultado.path("secondaryMetrics").path(ASIGNACION);
+            // Con una sola iteración JMH no calcula el error ("NaN")
+            double error = principal.path("scoreError").asDouble(0);
+            mediciones.put(clave.toString(), new Medicion(
+                    resultado.path("mode").asText(),
+                    principal.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error,
+                    principal.path("scoreUnit").asText(),
+                    asignacion.isMissingNode() ? Double.NaN : asignacion.path("score").asDouble()));
+        }
+        return mediciones;
+    }
+
+    private static String formato(double valor, String unidad) {
+        return String.format(valor >= 100 ? "%.0f %s" : "%.3f %s", valor, unidad);
+    }
+}
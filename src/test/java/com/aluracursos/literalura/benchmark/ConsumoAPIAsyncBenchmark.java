@@ -0,0 +1,66 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.service.ConsumoAPI;
+import com.aluracursos.literalura.service.ConvierteDatos;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Prueba de carga de la API asíncrona de ConsumoAPI contra un Gutendex simulado
+ con 20 ms de latencia por respuesta.
+
+ Cada invocación lanza BUSQUEDAS búsquedas de título (decodificadas a Datos)
+ y espera a que terminen todas; "concurrentes" fija cuántas pueden estar en vuelo.
+ Gracias a @OperationsPerInvocation el resultado se lee directamente en búsquedas/segundo.
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="ConsumoAPIAsyncBenchmark"
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConsumoAPIAsyncBenchmark {
+
+    private static final int BUSQUEDAS = 256;
+
+    @Param({"1", "16", "256"})
+    public int concurrentes;
+
+    private ServidorGutendexSimulado servidor;
+    private ConsumoAPI consumoAPI;
+    private final ConvierteDatos convierteDatos = new ConvierteDatos();
+    private String url;
+
+    @Setup
+    public void iniciar() {
+        servidor = new ServidorGutendexSimulado(Duration.ofMillis(20));
+        consumoAPI = new ConsumoAPI(Duration.ofSeconds(10), Duration.ofSeconds(30),
+                Duration.ofSeconds(60), 4, concurrentes);
+        url = servidor.urlBase() + "/books/?search=";
+    }
+
+    @TearDown
+    public void detener() {
+        consumoAPI.cerrar();
+        servidor.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BUSQUEDAS)
+    public int busquedasConcurrentes() {
+        CompletableFuture<?>[] futuros = new CompletableFuture<?>[BUSQUEDAS];
+        for (int i = 0; i < BUSQUEDAS; i++) {
+            futuros[i] = consumoAPI.obtenerDatosAsync(url + "libro+" + i, Datos.class, convierteDatos);
+        }
+        CompletableFuture.allOf(futuros).join();
+        return futuros.length;
+    }
+}
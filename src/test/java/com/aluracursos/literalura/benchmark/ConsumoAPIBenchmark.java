@@ -0,0 +1,58 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.service.ConsumoAPI;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Compara la latencia por petición y las asignaciones de memoria entre:
+ ✔ clienteNuevoPorPeticion: comportamiento anterior (HttpClient.newHttpClient() en cada llamada)
+ ✔ clienteCompartido: ConsumoAPI actual, con un único cliente reutilizado
+
+ Ejecución (con el perfilador gc de JMH para ver bytes asignados por operación):
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="ConsumoAPIBenchmark -prof gc"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConsumoAPIBenchmark {
+
+    private ServidorGutendexSimulado servidor;
+    private ConsumoAPI consumoAPI;
+    private String url;
+
+    @Setup
+    public void iniciar() {
+        servidor = new ServidorGutendexSimulado();
+        consumoAPI = new ConsumoAPI();
+        url = servidor.urlBase() + "/books/?search=pride";
+    }
+
+    @TearDown
+    public void detener() {
+        consumoAPI.cerrar();
+        servidor.close();
+    }
+
+    @Benchmark
+    public String clienteNuevoPorPeticion() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    public String clienteCompartido() {
+        return consumoAPI.obtenerDatos(url);
+    }
+}
@@ -0,0 +1,49 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.service.ConvierteDatos;
+import com.aluracursos.literalura.service.ConvierteDatosStreaming;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Bytes asignados y tiempo por página de Gutendex (32 libros) según la forma de decodificar:
+ ✔ stringYDatabind: comportamiento anterior (cuerpo como String + ObjectMapper.readValue)
+ ✔ streamYDatabind: ObjectMapper leyendo directamente del InputStream
+ ✔ streamYParserManual: ConvierteDatosStreaming (JsonParser, salta campos no usados)
+
+ Ejecución (gc.alloc.rate.norm = bytes asignados por página):
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="ConvierteDatosBenchmark -prof gc"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConvierteDatosBenchmark {
+
+    private final byte[] pagina = ServidorGutendexSimulado.leerRecurso(ServidorGutendexSimulado.PAGINA_LIBROS);
+    private final ConvierteDatos convierteDatos = new ConvierteDatos();
+    private final ConvierteDatosStreaming convierteDatosStreaming = new ConvierteDatosStreaming();
+
+    @Benchmark
+    public Datos stringYDatabind() {
+        String json = new String(pagina, StandardCharsets.UTF_8);
+        return convierteDatos.obtenerDatos(json, Datos.class);
+    }
+
+    @Benchmark
+    public Datos streamYDatabind() {
+        return convierteDatos.obtenerDatos(new ByteArrayInputStream(pagina), Datos.class);
+    }
+
+    @Benchmark
+    public Datos streamYParserManual() {
+        return convierteDatosStreaming.obtenerDatos(new ByteArrayInputStream(pagina), Datos.class);
+    }
+}
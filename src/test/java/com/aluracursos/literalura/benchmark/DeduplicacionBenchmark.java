@@ -0,0 +1,84 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.service.ConsultaLibros;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.LibrosDePrueba;
+import com.aluracursos.literalura.soporte.PobladorBase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Comprobaciones de duplicado por segundo con 100.000 libros guardados (H2 embebida).
+ Cada invocación pregunta por un libro guardado elegido al azar:
+ ✔ likeTitulo: la consulta anterior, upper(titulo) LIKE '%...%' (recorre la tabla)
+ ✔ porIdOTitulo: ConsultaLibros.buscarExistente, igualdad exacta por id de Gutendex
+   y luego por título (índices únicos), cargando el libro encontrado
+ ✔ existePorId: solo el índice del id de Gutendex, sin cargar la entidad
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="DeduplicacionBenchmark"
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class DeduplicacionBenchmark {
+
+    private static final int LIBROS = 100_000;
+
+    private ConfigurableApplicationContext contexto;
+    private LibroRepository repository;
+    private ConsultaLibros consultaLibros;
+    private EntityManager entityManager;
+
+    @Setup
+    public void iniciar() {
+        contexto = ContextoPersistencia.iniciar();
+        PobladorBase.poblar(contexto, LIBROS);
+        repository = contexto.getBean(LibroRepository.class);
+        consultaLibros = contexto.getBean(ConsultaLibros.class);
+        entityManager = contexto.getBean(EntityManagerFactory.class).createEntityManager();
+    }
+
+    @TearDown
+    public void detener() {
+        entityManager.close();
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Libro> likeTitulo() {
+        String titulo = LibrosDePrueba.datos(ThreadLocalRandom.current().nextInt(LIBROS)).titulo();
+        List<Libro> encontrados = entityManager
+                .createQuery("SELECT l FROM Libro l WHERE upper(l.titulo) LIKE upper(:titulo)", Libro.class)
+                .setParameter("titulo", "%" + titulo + "%")
+                .setMaxResults(2)
+                .getResultList();
+        entityManager.clear();
+        return encontrados;
+    }
+
+    @Benchmark
+    public Optional<LibroResumen> porIdOTitulo() {
+        // Un título que no está guardado: se prueban ambos índices (el caso más caro)
+        return consultaLibros.buscarExistente(-1,
+                LibrosDePrueba.datos(ThreadLocalRandom.current().nextInt(LIBROS)).titulo());
+    }
+
+    @Benchmark
+    public boolean existePorId() {
+        return repository.existePorIdGutendex(ThreadLocalRandom.current().nextInt(LIBROS));
+    }
+}
@@ -0,0 +1,66 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.service.ConsultaLibros;
+import com.aluracursos.literalura.service.EstadisticasDescargas;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.PobladorBase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ Pantalla de estadísticas (opción 7) sobre 100.000 libros (H2 embebida):
+ ✔ agregadosSql: COUNT/MIN/MAX/SUM en un SELECT (sin percentiles ni idiomas)
+ ✔ pasadaCompleta: EstadisticasDescargas.reconstruir(), la pasada que se hace una sola vez
+ ✔ resumenMantenido: copia de los bocetos ya calculados (general + por idioma,
+   con percentiles), lo que cuesta cada consulta después de la primera
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="EstadisticasBenchmark"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class EstadisticasBenchmark {
+
+    private static final int LIBROS = 100_000;
+
+    private ConfigurableApplicationContext contexto;
+    private ConsultaLibros consultaLibros;
+    private EstadisticasDescargas estadisticas;
+
+    @Setup
+    public void iniciar() {
+        contexto = ContextoPersistencia.iniciar();
+        PobladorBase.poblar(contexto, LIBROS);
+        consultaLibros = contexto.getBean(ConsultaLibros.class);
+        estadisticas = contexto.getBean(EstadisticasDescargas.class);
+        estadisticas.reconstruir();
+    }
+
+    @TearDown
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public double agregadosSql() {
+        return consultaLibros.estadisticasDescargas().getAverage();
+    }
+
+    @Benchmark
+    public double pasadaCompleta() {
+        estadisticas.reconstruir();
+        return estadisticas.resumen().general().promedio();
+    }
+
+    @Benchmark
+    public double resumenMantenido() {
+        EstadisticasDescargas.Resumen resumen = estadisticas.resumen();
+        return resumen.general().cuantil(0.5) + resumen.general().cuantil(0.99);
+    }
+}
@@ -0,0 +1,93 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.service.AmbitoTareas;
+import com.aluracursos.literalura.service.ConsumoAPI;
+import com.aluracursos.literalura.service.ConvierteDatosStreaming;
+import com.aluracursos.literalura.service.Hilos;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Descargas bloqueantes de páginas de Gutendex (simulado, 100 ms de latencia),
+ "concurrentes" a la vez dentro de un AmbitoTareas, con:
+ ✔ plataforma: pool fijo de hilos de plataforma, uno por descarga simultánea
+ ✔ virtuales:  un hilo virtual por descarga (Hilos.porTarea)
+
+ El tiempo es el de una ráfaga completa (ideal: algo más de 100 ms).
+ Al terminar cada fork se imprime el pico de memoria residente (VmHWM de
+ /proc/self/status): como cada combinación corre en su propia JVM, el pico
+ corresponde a ese modo y esa concurrencia. El servidor simulado usa hilos
+ virtuales en ambos modos, así su costo no depende del modo medido.
+
+ Los hilos virtuales necesitan Java 21 (el proyecto compila con 17):
+   mvn -Pbenchmark test-compile exec:exec \
+     -Djmh.args="HilosVirtualesBenchmark -jvm /ruta/a/jdk-21/bin/java"
+ En Java 17 el modo "virtuales" cae a hilos de plataforma y lo avisa.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HilosVirtualesBenchmark {
+
+    @Param({"plataforma", "virtuales"})
+    public String modo;
+
+    @Param({"100", "1000"})
+    public int concurrentes;
+
+    private ServidorGutendexSimulado servidor;
+    private ConsumoAPI consumoAPI;
+    private ExecutorService hilos;
+    private final ConvierteDatosStreaming conversor = new ConvierteDatosStreaming();
+    private String url;
+
+    @Setup
+    public void iniciar() {
+        boolean virtuales = modo.equals("virtuales");
+        if (virtuales && !Hilos.virtualesDisponibles()) {
+            System.out.println("AVISO: esta JVM (" + Runtime.version() + ") no tiene hilos virtuales");
+        }
+        servidor = new ServidorGutendexSimulado(Duration.ofMillis(100),
+                Hilos.porTarea("gutendex-simulado", true));
+        consumoAPI = new ConsumoAPI();
+        hilos = virtuales ? Hilos.porTarea("descarga", true)
+                : Executors.newFixedThreadPool(concurrentes, Hilos.fabrica("descarga", false));
+        url = servidor.urlBase() + "/books/?page=";
+    }
+
+    @TearDown
+    public void detener() throws IOException {
+        hilos.shutdownNow();
+        consumoAPI.cerrar();
+        servidor.close();
+        Files.readAllLines(Path.of("/proc/self/status")).stream()
+                .filter(l -> l.startsWith("VmHWM") || l.startsWith("Threads"))
+                .forEach(l -> System.out.println(modo + "/" + concurrentes + " " + l.replaceAll("\\s+", " ")));
+    }
+
+    @Benchmark
+    public int rafagaDeDescargas() {
+        try (AmbitoTareas ambito = new AmbitoTareas(hilos)) {
+            CompletableFuture<?>[] paginas = new CompletableFuture<?>[concurrentes];
+            for (int i = 0; i < concurrentes; i++) {
+                String pagina = url + (i + 1);
+                paginas[i] = ambito.lanzar(() -> consumoAPI.obtenerDatos(pagina, Datos.class, conversor));
+            }
+            CompletableFuture.allOf(paginas).join();
+            return paginas.length;
+        }
+    }
+}
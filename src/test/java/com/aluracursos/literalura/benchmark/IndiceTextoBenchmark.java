@@ -0,0 +1,124 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.service.IndiceTexto;
+import com.aluracursos.literalura.service.Relevancia;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Búsqueda de texto sobre 100.000 libros sintéticos (títulos de 2 a 8 palabras
+ de un vocabulario de 30.000, 40.000 autores):
+ ✔ recorrido: puntuar todos los títulos con Relevancia (lo que haría un LIKE
+   sin índice, más la normalización de acentos)
+ ✔ indice: IndiceTexto con la base en un ByteBuffer (como el archivo mapeado)
+
+ "consulta": dos palabras exactas, dos palabras con la última incompleta
+ (prefijo) o una palabra con una letra cambiada (aproximada).
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="IndiceTextoBenchmark -prof gc"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndiceTextoBenchmark {
+
+    private static final String[] SILABAS = {"ra", "mo", "ta", "ni", "lu", "ce", "do", "bri", "sa", "pe",
+            "quin", "to", "gar", "vel", "so", "mi", "ler", "an", "cha", "zu", "fe", "ol", "di", "nes"};
+
+    @Param({"100000"})
+    public int libros;
+
+    @Param({"exacta", "prefijo", "aproximada"})
+    public String consulta;
+
+    private String[] titulos;
+    private IndiceTexto indice;
+    private final List<String> consultas = new ArrayList<>();
+    private int siguiente;
+
+    @Setup
+    public void iniciar() {
+        Random azar = new Random(7);
+        String[] vocabulario = new String[30_000];
+        for (int i = 0; i < vocabulario.length; i++) {
+            vocabulario[i] = palabra(azar, 2 + azar.nextInt(3));
+        }
+        String[] autores = new String[40_000];
+        for (int i = 0; i < autores.length; i++) {
+            autores[i] = palabra(azar, 3) + ", " + palabra(azar, 2);
+        }
+
+        titulos = new String[libros];
+        IndiceTexto.Constructor constructor = new IndiceTexto.Constructor();
+        for (int i = 0; i < libros; i++) {
+            StringBuilder titulo = new StringBuilder();
+            int palabras = 2 + azar.nextInt(7);
+            for (int j = 0; j < palabras; j++) {
+                // Las palabras frecuentes se repiten mucho, como en los títulos reales
+                int k = (int) (vocabulario.length * Math.pow(azar.nextDouble(), 3));
+                titulo.append(j == 0 ? "" : " ").append(vocabulario[k]);
+            }
+            titulos[i] = titulo.toString();
+            constructor.agregar(i + 1, titulos[i], List.of(autores[azar.nextInt(autores.length)]));
+        }
+        indice = new IndiceTexto(constructor.construir());
+
+        // Consultas armadas con palabras de títulos existentes
+        for (int q = 0; q < 64; q++) {
+            List<String> palabras = Relevancia.palabras(titulos[azar.nextInt(libros)]);
+            String primera = palabras.get(0);
+            String segunda = palabras.get(1);
+            consultas.add(switch (consulta) {
+                case "exacta" -> primera + " " + segunda;
+                case "prefijo" -> primera + " " + segunda.substring(0, Math.max(2, segunda.length() - 2));
+                default -> cambiarLetra(azar, primera.length() >= 4 ? primera : primera + segunda);
+            });
+        }
+    }
+
+    private static String palabra(Random azar, int silabas) {
+        StringBuilder palabra = new StringBuilder();
+        for (int i = 0; i < silabas; i++) {
+            palabra.append(SILABAS[azar.nextInt(SILABAS.length)]);
+        }
+        return palabra.toString();
+    }
+
+    // Cambia una letra que no sea la primera
+    private static String cambiarLetra(Random azar, String palabra) {
+        char[] letras = palabra.toCharArray();
+        int i = 1 + azar.nextInt(letras.length - 1);
+        letras[i] = letras[i] == 'x' ? 'y' : 'x';
+        return new String(letras);
+    }
+
+    private String siguienteConsulta() {
+        siguiente = (siguiente + 1) & 63;
+        return consultas.get(siguiente);
+    }
+
+    @Benchmark
+    public int recorrido() {
+        List<String> palabras = Relevancia.palabras(siguienteConsulta());
+        int encontrados = 0;
+        for (String titulo : titulos) {
+            if (Relevancia.puntaje(palabras, titulo, List.of()) > 0) {
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+
+    @Benchmark
+    public IndiceTexto.Resultado indice() {
+        return indice.buscar(siguienteConsulta(), 0, 10);
+    }
+}
@@ -0,0 +1,84 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.service.IndiceVidas;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ "Autores vivos" sobre 300.000 vidas sintéticas (años -800 a 2000, de 20 a 99 años):
+ ✔ recorrido: comparar nacimiento y defunción de todos los autores
+   (lo que hacía la instantánea antes del índice)
+ ✔ indice: IndiceVidas, búsqueda binaria + árbol de mayor año de fin
+
+ Se mide un año puntual y un rango de 50 años; ambos devuelven los mismos
+ autores marcados en un bitmap.
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="IndiceVidasBenchmark"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndiceVidasBenchmark {
+
+    @Param({"300000"})
+    public int autores;
+
+    @Param({"0", "50"})
+    public int anchoRango;
+
+    private int[] nacimiento;
+    private int[] defuncion;
+    private IndiceVidas indice;
+    private long[] marcas;
+    private int anio;
+
+    @Setup
+    public void iniciar() {
+        Random azar = new Random(7);
+        nacimiento = new int[autores];
+        defuncion = new int[autores];
+        int[] posiciones = new int[autores];
+        for (int j = 0; j < autores; j++) {
+            nacimiento[j] = -800 + azar.nextInt(2_800);
+            defuncion[j] = nacimiento[j] + 20 + azar.nextInt(80);
+            posiciones[j] = j;
+        }
+        indice = new IndiceVidas(nacimiento, defuncion, posiciones, autores);
+        marcas = new long[(autores + 63) >>> 6];
+    }
+
+    // El año cambia en cada llamada dentro del período poblado
+    private int siguienteAnio() {
+        anio = anio >= 1950 ? 1000 : anio + 13;
+        return anio;
+    }
+
+    @Benchmark
+    public int recorrido() {
+        int desde = siguienteAnio();
+        int hasta = desde + anchoRango;
+        Arrays.fill(marcas, 0);
+        int marcados = 0;
+        for (int j = 0; j < autores; j++) {
+            if (nacimiento[j] <= hasta && defuncion[j] >= desde) {
+                marcas[j >>> 6] |= 1L << j;
+                marcados++;
+            }
+        }
+        return marcados;
+    }
+
+    @Benchmark
+    public int indice() {
+        int desde = siguienteAnio();
+        Arrays.fill(marcas, 0);
+        return indice.marcar(desde, desde + anchoRango, marcas);
+    }
+}
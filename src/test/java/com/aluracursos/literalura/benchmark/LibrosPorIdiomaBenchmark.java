@@ -0,0 +1,82 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.service.ConsultaLibros;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.PobladorBase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Latencia y memoria asignada de la opción "Listar libros por idioma" (H2 embebida):
+ ✔ findAllYFiltrar: comportamiento anterior (findAll + filtro en Java de todos los libros)
+ ✔ primeraPagina: filtro en la base de datos (bitand sobre la máscara de idiomas,
+   recorriendo el índice de títulos) y Slice de 10 libros (proyecciones)
+
+ idioma=ESPANOL es uno de cada seis libros: la primera página aparece al
+ principio del índice. idioma=LATIN es uno de cada diez mil (se marcan al
+ preparar la base), menos que una página: H2 no tiene índices parciales y
+ recorre todo el índice de títulos. Es el caso que en PostgreSQL cubren los
+ índices parciales por idioma (ver MigracionEsquema).
+
+ Ejecución (gc.alloc.rate.norm = bytes asignados por consulta):
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="LibrosPorIdiomaBenchmark -prof gc"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class LibrosPorIdiomaBenchmark {
+
+    @Param({"10000", "100000"})
+    public int libros;
+
+    @Param({"ESPANOL", "LATIN"})
+    public Idioma idioma;
+
+    private ConfigurableApplicationContext contexto;
+    private LibroRepository repository;
+    private ConsultaLibros consultaLibros;
+    private TransactionTemplate transaccion;
+
+    @Setup
+    public void iniciar() {
+        contexto = ContextoPersistencia.iniciar();
+        PobladorBase.poblar(contexto, libros);
+        contexto.getBean(JdbcTemplate.class).update(
+                "UPDATE libros SET idiomas_mascara = ? WHERE MOD(id, 10000) = 0", Idioma.LATIN.bit());
+        repository = contexto.getBean(LibroRepository.class);
+        consultaLibros = contexto.getBean(ConsultaLibros.class);
+        transaccion = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+        transaccion.setReadOnly(true);
+    }
+
+    @TearDown
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Libro> findAllYFiltrar() {
+        return transaccion.execute(estado -> repository.findAll().stream()
+                .filter(l -> l.getIdiomas().contains(idioma))
+                .toList());
+    }
+
+    @Benchmark
+    public List<LibroResumen> primeraPagina() {
+        return consultaLibros.listarPorIdioma(idioma, PageRequest.of(0, 10)).getContent();
+    }
+}
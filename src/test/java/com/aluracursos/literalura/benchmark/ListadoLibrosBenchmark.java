@@ -0,0 +1,112 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.model.Autor;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.service.ConsultaLibros;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.PobladorBase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ Recorrido completo de 50.000 libros (H2 embebida), tal como lo haría
+ "Listar libros registrados" página a página hasta el final:
+ ✔ entidades: findAll paginado de entidades Libro y acceso perezoso a autores e idiomas
+   (con BatchSize, una consulta extra por colección y por tramo de 50 libros)
+ ✔ proyecciones: ConsultaLibros, tres consultas por página y ninguna entidad administrada
+
+ Con @OperationsPerInvocation el resultado se lee en libros/segundo.
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="ListadoLibrosBenchmark -prof gc"
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ListadoLibrosBenchmark {
+
+    private static final int LIBROS = 50_000;
+
+    @Param({"100", "1000"})
+    public int tamanoPagina;
+
+    private ConfigurableApplicationContext contexto;
+    private LibroRepository repository;
+    private ConsultaLibros consultaLibros;
+    private TransactionTemplate transaccion;
+
+    @Setup
+    public void iniciar() {
+        contexto = ContextoPersistencia.iniciar();
+        PobladorBase.poblar(contexto, LIBROS);
+        repository = contexto.getBean(LibroRepository.class);
+        consultaLibros = contexto.getBean(ConsultaLibros.class);
+        transaccion = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+        transaccion.setReadOnly(true);
+    }
+
+    @TearDown
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIBROS)
+    public long entidades() {
+        long suma = 0;
+        // Mismo orden que el listado por proyecciones
+        Pageable pagina = PageRequest.of(0, tamanoPagina, Sort.by("titulo"));
+        boolean hayMas = true;
+        while (hayMas) {
+            Pageable actual = pagina;
+            // Una transacción por página, como haría la consola al pedir "ver más"
+            long[] parcial = new long[2];
+            transaccion.executeWithoutResult(estado -> {
+                Slice<Libro> libros = repository.findAll(actual);
+                for (Libro l : libros) {
+                    for (Autor a : l.getAutores()) {
+                        parcial[0] += a.getNombre().length();
+                    }
+                    parcial[0] += l.getIdiomas().size();
+                }
+                parcial[1] = libros.hasNext() ? 1 : 0;
+            });
+            suma += parcial[0];
+            hayMas = parcial[1] == 1;
+            pagina = pagina.next();
+        }
+        return suma;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIBROS)
+    public long proyecciones() {
+        long suma = 0;
+        Slice<LibroResumen> libros = consultaLibros.listar(PageRequest.of(0, tamanoPagina));
+        while (true) {
+            for (LibroResumen l : libros) {
+                for (String autor : l.autores()) {
+                    suma += autor.length();
+                }
+                suma += l.idiomas().size();
+            }
+            if (!libros.hasNext()) {
+                return suma;
+            }
+            libros = consultaLibros.listar(libros.nextPageable());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.service.ConvierteDatosStreaming;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Costo de pasar de los records de Gutendex a las entidades, sin base de datos:
+ ✔ libros: new Libro(DatosLibro) para los 32 libros de la página grabada
+   (autores, máscara de idiomas y descargas)
+ ✔ idiomaConocido / idiomaDesconocido: Idioma.desdeCodigo con un código que
+   existe y con uno que no
+ ✔ idiomaDesconocidoConExcepcion: comportamiento anterior (recorrer
+   Idioma.values() con equalsIgnoreCase, lanzar y atrapar una excepción)
+
+ Ejecución (gc.alloc.rate.norm = bytes asignados por operación):
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="MapeoLibrosBenchmark -prof gc"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapeoLibrosBenchmark {
+
+    private List<DatosLibro> pagina;
+
+    // No final: que el JIT no pliegue la búsqueda como constante
+    private String codigoConocido = "fr";
+    private String codigoDesconocido = "xx";
+
+    @Setup
+    public void iniciar() {
+        byte[] json = ServidorGutendexSimulado.leerRecurso(ServidorGutendexSimulado.PAGINA_LIBROS);
+        pagina = new ConvierteDatosStreaming().obtenerDatos(new ByteArrayInputStream(json), Datos.class)
+                .resultados();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(32)
+    public void libros(Blackhole bh) {
+        for (DatosLibro datos : pagina) {
+            bh.consume(new Libro(datos));
+        }
+    }
+
+    @Benchmark
+    public Idioma idiomaConocido() {
+        return Idioma.desdeCodigo(codigoConocido);
+    }
+
+    @Benchmark
+    public Idioma idiomaDesconocido() {
+        return Idioma.desdeCodigo(codigoDesconocido);
+    }
+
+    @Benchmark
+    public Idioma idiomaDesconocidoConExcepcion() {
+        try {
+            for (Idioma idioma : Idioma.values()) {
+                if (idioma.getLenguajeGutendex().equalsIgnoreCase(codigoDesconocido)) {
+                    return idioma;
+                }
+            }
+            throw new IllegalArgumentException("Ningún idioma encontrado para: " + codigoDesconocido);
+        } catch (IllegalArgumentException e) {
+            return Idioma.DESCONOCIDO;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.service.PersistenciaLotes;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.LibrosDePrueba;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Filas por segundo al guardar libros (cada uno con su autor y su idioma)
+ en una base H2 embebida:
+ ✔ saveIndividual: un libro por transacción (sus autores se resuelven igual
+   que en los lotes: Libro.autores no tiene cascade)
+ ✔ lotes: PersistenciaLotes (saveAll por tramos + flush/clear, lotes JDBC)
+
+ "tamanoLote" = hibernate.jdbc.batch_size (1 equivale a no agrupar).
+ El resultado se expresa en libros/segundo (LIBROS por invocación).
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="PersistenciaBenchmark"
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenciaBenchmark {
+
+    private static final int LIBROS = 1_000;
+
+    @Param({"1", "50"})
+    public int tamanoLote;
+
+    private ConfigurableApplicationContext contexto;
+    private PersistenciaLotes persistenciaLotes;
+    private int siguiente;
+    private List<Libro> libros;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoPersistencia.iniciar("literalura.jpa.tamano-lote=" + tamanoLote);
+        persistenciaLotes = contexto.getBean(PersistenciaLotes.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepararLibros() {
+        libros = LibrosDePrueba.libros(siguiente, LIBROS);
+        siguiente += LIBROS;
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIBROS)
+    public void saveIndividual() {
+        for (Libro libro : libros) {
+            persistenciaLotes.guardarEnLotes(List.of(libro));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIBROS)
+    public int lotes() {
+        return persistenciaLotes.guardarEnLotes(libros);
+    }
+}
@@ -0,0 +1,95 @@
+package com.aluracursos.literalura.benchmark;
+
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.service.ConsultaLibros;
+import com.aluracursos.literalura.service.RankingDescargas;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.PobladorBase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Top 10 de descargas sobre 100.000 libros (H2 embebida):
+ ✔ baseConsulta*: ORDER BY numero_de_descargas DESC LIMIT 10 (con índice) en cada pedido
+ ✔ ranking*: tableros de RankingDescargas, mantenidos con cada escritura
+ ✔ actualizarDescargas: costo de mantener los tableros cuando cambia un libro
+
+ Ejecución:
+   mvn -Pbenchmark test-compile exec:exec -Djmh.args="RankingBenchmark"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RankingBenchmark {
+
+    private static final int LIBROS = 100_000;
+
+    private ConfigurableApplicationContext contexto;
+    private ConsultaLibros consultaLibros;
+    private RankingDescargas ranking;
+    private long[] ids;
+    private List<List<Idioma>> idiomas;
+    private Map<Long, List<Long>> autores;
+    private int siguiente;
+
+    @Setup
+    public void iniciar() {
+        contexto = ContextoPersistencia.iniciar();
+        PobladorBase.poblar(contexto, LIBROS);
+        consultaLibros = contexto.getBean(ConsultaLibros.class);
+        ranking = contexto.getBean(RankingDescargas.class);
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        List<Map<String, Object>> filas = jdbc.queryForList("SELECT id_libro, idiomas_mascara FROM libros");
+        ids = filas.stream().mapToLong(f -> ((Number) f.get("id_libro")).longValue()).toArray();
+        idiomas = filas.stream().map(f -> Idioma.deMascara(((Number) f.get("idiomas_mascara")).intValue())).toList();
+        autores = new HashMap<>();
+        jdbc.query("SELECT libro_id_libro, autor_id FROM libro_autor", (RowCallbackHandler) rs ->
+                autores.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getLong(2)));
+    }
+
+    @TearDown
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<LibroResumen> baseConsultaGeneral() {
+        return consultaLibros.masDescargados(10);
+    }
+
+    @Benchmark
+    public List<LibroResumen> baseConsultaPorIdioma() {
+        return consultaLibros.masDescargadosPorIdioma(Idioma.FRANCES, 10);
+    }
+
+    @Benchmark
+    public List<LibroResumen> rankingGeneral() {
+        return ranking.top(10);
+    }
+
+    @Benchmark
+    public List<LibroResumen> rankingPorIdioma() {
+        return ranking.topPorIdioma(Idioma.FRANCES, 10);
+    }
+
+    // Libros al azar con descargas por debajo del top: el caso común de una actualización
+    @Benchmark
+    public List<LibroResumen> actualizarDescargas() {
+        siguiente = (siguiente + 7_919) % ids.length;
+        ranking.actualizarDescargas(ids[siguiente], siguiente % 1_000, idiomas.get(siguiente),
+                autores.getOrDefault(ids[siguiente], List.of()));
+        return ranking.top(10);
+    }
+}
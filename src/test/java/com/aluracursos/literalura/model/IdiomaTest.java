@@ -0,0 +1,41 @@
+package com.aluracursos.literalura.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdiomaTest {
+
+	@Test
+	void losCodigosSeResuelvenSinDistinguirMayusculasNiLanzar() {
+		for (Idioma idioma : Idioma.values()) {
+			String codigo = idioma.getLenguajeGutendex();
+			if (codigo.length() == 2) {
+				assertThat(Idioma.desdeCodigo(codigo)).isEqualTo(idioma);
+				assertThat(Idioma.desdeCodigo(codigo.toUpperCase())).isEqualTo(idioma);
+			}
+		}
+		for (String desconocido : new String[]{null, "", "x", "xx", "e1", "e[", "esp", "unknown"}) {
+			assertThat(Idioma.desdeCodigo(desconocido)).isEqualTo(Idioma.DESCONOCIDO);
+		}
+
+		// En el menú, un código mal escrito sigue siendo un error
+		assertThat(Idioma.fromString("FR")).isEqualTo(Idioma.FRANCES);
+		assertThat(Idioma.fromString("unknown")).isEqualTo(Idioma.DESCONOCIDO);
+		assertThatThrownBy(() -> Idioma.fromString("xx")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void laMascaraConservaLosIdiomasEnOrdenDeDeclaracion() {
+		assertThat(Idioma.deMascara(0)).isEmpty();
+		assertThat(Idioma.deMascara(Idioma.LATIN.bit())).containsExactly(Idioma.LATIN);
+		assertThat(Idioma.deMascara(Idioma.mascara(List.of(Idioma.LATIN, Idioma.INGLES, Idioma.DESCONOCIDO))))
+				.containsExactly(Idioma.INGLES, Idioma.LATIN, Idioma.DESCONOCIDO);
+
+		Libro libro = new Libro(new DatosLibro(1, "Libro", List.of(), List.of("la", "EN", "??", "la"), 1.0));
+		assertThat(libro.getIdiomas()).containsExactly(Idioma.INGLES, Idioma.LATIN, Idioma.DESCONOCIDO);
+	}
+}
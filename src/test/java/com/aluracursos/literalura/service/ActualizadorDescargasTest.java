@@ -0,0 +1,107 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Contexto propio (otra propiedad): la base solo tiene los libros de la página grabada
+@SpringBootTest(classes = ContextoPersistencia.class, properties = "literalura.descargas.tramo=32")
+class ActualizadorDescargasTest {
+
+	@Autowired
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	private LibroRepository libroRepository;
+
+	@Autowired
+	private RankingDescargas ranking;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private ApplicationContext contexto;
+
+	private ServidorGutendexSimulado servidor;
+	private ConsumoAPI consumoAPI;
+	private List<DatosLibro> pagina;
+
+	@BeforeEach
+	void guardarLaPaginaConDescargasViejas() {
+		servidor = new ServidorGutendexSimulado();
+		consumoAPI = new ConsumoAPI();
+		pagina = new ConvierteDatosStreaming()
+				.obtenerDatos(new ByteArrayInputStream(servidor.cuerpo()), Datos.class).resultados();
+		if (libroRepository.existePorIdGutendex(pagina.get(0).id())) {
+			return;
+		}
+		// La mitad de los libros se guarda con una cantidad vieja (1 descarga)
+		List<Libro> libros = new ArrayList<>();
+		for (int i = 0; i < pagina.size(); i++) {
+			DatosLibro d = pagina.get(i);
+			libros.add(new Libro(i % 2 == 0 ? d
+					: new DatosLibro(d.id(), d.titulo(), d.autores(), d.idiomas(), 1.0)));
+		}
+		persistenciaLotes.guardarEnLotes(libros);
+	}
+
+	@AfterEach
+	void detener() {
+		consumoAPI.cerrar();
+		servidor.close();
+	}
+
+	@Test
+	void unaPeticionPorTramoYSoloSeActualizanLasFilasQueCambiaron() {
+		// Antes: el ranking todavía ve las cantidades viejas
+		ranking.top(3);
+
+		ActualizadorDescargas actualizador = new ActualizadorDescargas(consumoAPI, dataSource,
+				contexto, servidor.urlBase(), Duration.ZERO, Duration.ZERO, 32, 1_000, false);
+
+		ActualizadorDescargas.Resultado resultado = actualizador.actualizar();
+
+		assertThat(resultado.revisados()).isEqualTo(pagina.size());
+		assertThat(resultado.peticiones()).isEqualTo(1);
+		assertThat(resultado.peticionesAhorradas()).isEqualTo(pagina.size() - 1);
+		assertThat(resultado.actualizados()).isEqualTo(pagina.size() / 2);
+		for (DatosLibro d : pagina) {
+			assertThat(jdbc.queryForObject("SELECT numero_de_descargas FROM libros WHERE id = ?",
+					Double.class, d.id())).isEqualTo(d.numeroDeDescargas());
+		}
+
+		// El ranking recibió los cambios por evento
+		List<String> esperados = pagina.stream()
+				.sorted(Comparator.comparing(DatosLibro::numeroDeDescargas).reversed()
+						.thenComparing(DatosLibro::titulo))
+				.limit(3).map(DatosLibro::titulo).toList();
+		assertThat(ranking.top(3)).extracting(LibroResumen::titulo).isEqualTo(esperados);
+
+		// Una segunda pasada no encuentra nada que cambiar
+		assertThat(actualizador.actualizar().actualizados()).isZero();
+	}
+}
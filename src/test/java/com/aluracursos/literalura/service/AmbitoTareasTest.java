@@ -0,0 +1,83 @@
+package com.aluracursos.literalura.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AmbitoTareasTest {
+
+	// Hilos virtuales si la JVM los tiene; si no, hilos de plataforma (mismo comportamiento)
+	private final ExecutorService hilos = Hilos.porTarea("prueba-ambito", true);
+
+	@AfterEach
+	void detener() {
+		hilos.shutdownNow();
+	}
+
+	@Test
+	void unaTareaQueFallaCancelaALasDemas() throws Exception {
+		CountDownLatch esperando = new CountDownLatch(1);
+		AtomicBoolean interrumpida = new AtomicBoolean();
+		CompletableFuture<String> lenta;
+		CompletableFuture<String> falla;
+
+		try (AmbitoTareas ambito = new AmbitoTareas(hilos)) {
+			lenta = ambito.lanzar(() -> {
+				esperando.countDown();
+				try {
+					Thread.sleep(60_000); // una petición que no responde
+				} catch (InterruptedException e) {
+					interrumpida.set(true);
+					throw e;
+				}
+				return "nunca";
+			});
+			assertThat(esperando.await(5, TimeUnit.SECONDS)).isTrue();
+			falla = ambito.lanzar(() -> {
+				throw new IllegalStateException("página 3 no disponible");
+			});
+
+			assertThatThrownBy(falla::join).hasCauseInstanceOf(IllegalStateException.class);
+		}
+
+		// Al salir del try la tarea lenta ya fue interrumpida y terminó
+		assertThat(interrumpida).isTrue();
+		assertThat(lenta).isCompletedExceptionally();
+	}
+
+	@Test
+	void cerrarElAmbitoCancelaLasTareasPendientesYEsperaASusHilos() throws Exception {
+		CountDownLatch empezo = new CountDownLatch(1);
+		AtomicBoolean enCurso = new AtomicBoolean();
+		CompletableFuture<Integer> pendiente;
+		try (AmbitoTareas ambito = new AmbitoTareas(hilos)) {
+			assertThat(ambito.lanzar(() -> 42).join()).isEqualTo(42);
+			pendiente = ambito.lanzar(() -> {
+				enCurso.set(true);
+				empezo.countDown();
+				try {
+					Thread.sleep(60_000);
+				} finally {
+					enCurso.set(false);
+				}
+				return 0;
+			});
+			assertThat(empezo.await(5, TimeUnit.SECONDS)).isTrue();
+		}
+
+		// Interrumpida en pleno sleep: terminó con error y su hilo ya salió
+		assertThat(pendiente).isCompletedExceptionally();
+		assertThat(enCurso).isFalse();
+		AmbitoTareas cerrado = new AmbitoTareas(hilos);
+		cerrado.close();
+		assertThatThrownBy(() -> cerrado.lanzar(() -> 1)).isInstanceOf(IllegalStateException.class);
+	}
+}
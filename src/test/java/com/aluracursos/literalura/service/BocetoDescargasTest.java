@@ -0,0 +1,74 @@
+package com.aluracursos.literalura.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BocetoDescargasTest {
+
+	@Test
+	void losPercentilesTienenMenosDeUnoPorCientoDeError() {
+		Random azar = new Random(11);
+		double[] valores = new double[100_000];
+		BocetoDescargas boceto = new BocetoDescargas();
+		for (int i = 0; i < valores.length; i++) {
+			// Cola larga, como las descargas reales: muchos libros con pocas, pocos con muchas
+			valores[i] = Math.floor(Math.exp(azar.nextGaussian() * 2 + 5));
+			boceto.agregar(valores[i]);
+		}
+		Arrays.sort(valores);
+
+		for (double q : new double[]{0.1, 0.5, 0.9, 0.99, 0.999}) {
+			double exacto = valores[(int) Math.floor(q * (valores.length - 1))];
+			assertThat(boceto.cuantil(q)).isCloseTo(exacto, within(Math.max(1, exacto * BocetoDescargas.ERROR_RELATIVO)));
+		}
+		assertThat(boceto.cantidad()).isEqualTo(valores.length);
+		assertThat(boceto.minimo()).isEqualTo(valores[0]);
+		assertThat(boceto.maximo()).isEqualTo(valores[valores.length - 1]);
+		assertThat(boceto.suma()).isCloseTo(Arrays.stream(valores).sum(), within(1e-3));
+	}
+
+	@Test
+	void combinarEquivaleAAgregarTodoEnUno() {
+		BocetoDescargas a = new BocetoDescargas();
+		BocetoDescargas b = new BocetoDescargas();
+		BocetoDescargas todo = new BocetoDescargas();
+		for (int i = 0; i < 1_000; i++) {
+			(i % 2 == 0 ? a : b).agregar(i * 3.0);
+			todo.agregar(i * 3.0);
+		}
+
+		a.combinar(b);
+
+		assertThat(a.cantidad()).isEqualTo(todo.cantidad());
+		assertThat(a.suma()).isEqualTo(todo.suma());
+		assertThat(a.cuantil(0.5)).isEqualTo(todo.cuantil(0.5));
+		assertThat(a.cuantil(0.95)).isEqualTo(todo.cuantil(0.95));
+	}
+
+	@Test
+	void quitarDeshaceAgregar() {
+		BocetoDescargas boceto = new BocetoDescargas();
+		boceto.agregar(10);
+		boceto.agregar(500);
+		boceto.agregar(0);
+
+		boceto.quitar(500);
+		boceto.agregar(20);
+
+		assertThat(boceto.cantidad()).isEqualTo(3);
+		assertThat(boceto.suma()).isEqualTo(30);
+		assertThat(boceto.maximo()).isCloseTo(20, within(20 * BocetoDescargas.ERROR_RELATIVO));
+		assertThat(boceto.minimo()).isZero();
+
+		boceto.quitar(0);
+		boceto.quitar(10);
+		boceto.quitar(20);
+		assertThat(boceto.cantidad()).isZero();
+		assertThat(boceto.cuantil(0.5)).isZero();
+	}
+}
@@ -0,0 +1,111 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ContextoPersistencia.class)
+class BuscadorLibrosTest {
+
+	@Autowired
+	private ConsultaLibros consultaLibros;
+
+	@Autowired
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	private IndiceLibros indiceLibros;
+
+	@TempDir
+	Path directorio;
+
+	private ServidorGutendexSimulado servidor;
+	private ConsumoAPI consumoAPI;
+	private BuscadorLibros buscador;
+
+	@BeforeEach
+	void iniciar() {
+		servidor = new ServidorGutendexSimulado();
+		consumoAPI = new ConsumoAPI();
+		ConsumoAPICacheado cacheado = new ConsumoAPICacheado(consumoAPI,
+				new CacheRespuestas(Duration.ofMinutes(10), 1024 * 1024, 1024 * 1024, directorio));
+		buscador = new BuscadorLibros(cacheado, consultaLibros, indiceLibros, servidor.urlBase(), false);
+	}
+
+	@AfterEach
+	void detener() {
+		buscador.detener();
+		consumoAPI.cerrar();
+		servidor.close();
+	}
+
+	@Test
+	void ordenaTodosLosCandidatosYAdelantaLaPaginaSiguiente() throws Exception {
+		try (BuscadorLibros.Busqueda busqueda = buscador.buscar("Great Expectations")) {
+			List<BuscadorLibros.Candidato> pagina = busqueda.siguientePagina(10);
+
+			// El título exacto primero; el que solo comparte una palabra, después
+			assertThat(pagina).extracting(BuscadorLibros.Candidato::titulo)
+					.startsWith("Great Expectations", "The Great Gatsby");
+			assertThat(busqueda.soloLocal()).isFalse();
+
+			// La página 2 de Gutendex se pide sin esperar a que el usuario la solicite
+			long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+			while (servidor.peticiones() < 2 && System.nanoTime() < limite) {
+				Thread.sleep(10);
+			}
+			assertThat(servidor.peticiones()).isEqualTo(2);
+		}
+
+		// Sin acentos ni mayúsculas, y la última palabra puede estar incompleta
+		List<String> consulta = Relevancia.palabras("MISERABLES");
+		assertThat(Relevancia.puntaje(consulta, "Les Misérables", List.of())).isPositive();
+		assertThat(Relevancia.cubre(Relevancia.palabras("don quij"), "Don Quijote")).isTrue();
+		// Las descargas solo desempatan
+		assertThat(Relevancia.puntaje(Relevancia.palabras("dracula"), "Dracula", List.of()))
+				.isGreaterThan(Relevancia.puntaje(Relevancia.palabras("dracula"), "Dracula's Guest", List.of()));
+	}
+
+	@Test
+	void unTituloSinPalabrasPuntuaSoloPorElAutor() {
+		List<String> consulta = Relevancia.palabras("twain");
+		double soloAutor = Relevancia.puntaje(consulta, "Otro libro", List.of("Twain, Mark"));
+		for (String titulo : new String[] {"", "...", "¿?", null}) {
+			assertThat(Relevancia.puntaje(consulta, titulo, List.of("Twain, Mark"))).isEqualTo(soloAutor);
+		}
+		assertThat(soloAutor).isPositive().isFinite();
+	}
+
+	@Test
+	void unaBusquedaQueYaEstaEnLaBddNoUsaLaRed() {
+		BuscadorLibros.Candidato elegido;
+		try (BuscadorLibros.Busqueda busqueda = buscador.buscar("moby dick")) {
+			elegido = busqueda.siguientePagina(10).get(0);
+		}
+		assertThat(elegido.titulo()).isEqualTo("Moby Dick; Or, The Whale");
+		persistenciaLotes.guardarEnLotes(List.of(new Libro(elegido.datos())));
+		int peticiones = servidor.peticiones();
+
+		try (BuscadorLibros.Busqueda busqueda = buscador.buscar("Moby Dick")) {
+			List<BuscadorLibros.Candidato> pagina = busqueda.siguientePagina(10);
+
+			assertThat(busqueda.soloLocal()).isTrue();
+			assertThat(pagina).hasSize(1);
+			assertThat(pagina.get(0).guardado()).isNotNull();
+			assertThat(pagina.get(0).autores()).containsExactlyElementsOf(elegido.autores());
+		}
+		assertThat(servidor.peticiones()).isEqualTo(peticiones);
+	}
+}
@@ -0,0 +1,158 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.AutorResumen;
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ContextoPersistencia.class)
+class CatalogoEnMemoriaTest {
+
+	@Autowired
+	private CatalogoEnMemoria catalogo;
+
+	@Autowired
+	private ConsultaLibros consultaLibros;
+
+	@Autowired
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	private LibroRepository libroRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private ApplicationEventPublisher eventos;
+
+	@BeforeEach
+	void guardarLibrosYCargarInstantanea() {
+		if (!libroRepository.existePorIdGutendex(900_101)) {
+			DatosAutor austen = new DatosAutor("Austen, Jane", 1775, 1817);
+			DatosAutor shelley = new DatosAutor("Shelley, Mary Wollstonecraft", 1797, 1851);
+			DatosAutor anonimo = new DatosAutor("Anónimo", null, null);
+			persistenciaLotes.guardarEnLotes(List.of(
+					new Libro(new DatosLibro(900_101, "Pride and Prejudice", List.of(austen), List.of("en"), 900.0)),
+					new Libro(new DatosLibro(900_102, "Emma", List.of(austen), List.of("en", "fr"), 300.0)),
+					new Libro(new DatosLibro(900_103, "Frankenstein", List.of(shelley), List.of("en"), 900.0)),
+					new Libro(new DatosLibro(900_104, "Lazarillo de Tormes", List.of(anonimo), List.of("es"), 50.0))));
+		}
+		catalogo.reconstruir();
+	}
+
+	@Test
+	void respondeLoMismoQueLaBaseDeDatos() {
+		assertThat(catalogo.estaLista()).isTrue();
+
+		assertThat(todos(catalogo.listar(PageRequest.of(0, 2)), catalogo, null))
+				.isEqualTo(todos(consultaLibros.listar(PageRequest.of(0, 2)), consultaLibros, null));
+		for (Idioma idioma : List.of(Idioma.INGLES, Idioma.FRANCES, Idioma.ESPANOL, Idioma.LATIN)) {
+			assertThat(todos(catalogo.listarPorIdioma(idioma, PageRequest.of(0, 2)), catalogo, idioma))
+					.isEqualTo(todos(consultaLibros.listarPorIdioma(idioma, PageRequest.of(0, 2)), consultaLibros, idioma));
+		}
+
+		assertThat(catalogo.listarAutores(PageRequest.of(0, 50)).getContent())
+				.isEqualTo(consultaLibros.listarAutores(PageRequest.of(0, 50)).getContent());
+		for (int anio : new int[]{1775, 1800, 1817, 1818, 1851}) {
+			assertThat(catalogo.listarAutoresVivosEn(anio, PageRequest.of(0, 50)).getContent())
+					.isEqualTo(consultaLibros.listarAutoresVivosEn(anio, PageRequest.of(0, 50)).getContent());
+		}
+		for (int[] rango : new int[][]{{1700, 1776}, {1818, 1850}, {1852, 1900}}) {
+			assertThat(catalogo.listarAutoresVivosEntre(rango[0], rango[1], PageRequest.of(0, 50)).getContent())
+					.isEqualTo(consultaLibros.listarAutoresVivosEntre(rango[0], rango[1], PageRequest.of(0, 50)).getContent());
+		}
+
+		// Empate en 900 descargas: se desempata por título, igual que el ORDER BY
+		assertThat(catalogo.masDescargados(3)).isEqualTo(consultaLibros.masDescargados(3));
+
+		DoubleSummaryStatistics enMemoria = catalogo.estadisticasDescargas();
+		DoubleSummaryStatistics enBase = consultaLibros.estadisticasDescargas();
+		assertThat(enMemoria.getCount()).isEqualTo(enBase.getCount());
+		assertThat(enMemoria.getSum()).isEqualTo(enBase.getSum());
+		assertThat(enMemoria.getMax()).isEqualTo(enBase.getMax());
+		assertThat(enMemoria.getMin()).isEqualTo(enBase.getMin());
+	}
+
+	@Test
+	void unLibroGuardadoApareceSinReconstruir() throws InterruptedException {
+		DatosAutor stoker = new DatosAutor("Stoker, Bram", 1847, 1912);
+		long generacion = catalogo.generacion();
+		persistenciaLotes.guardarEnLotes(List.of(
+				new Libro(new DatosLibro(900_105, "Dracula", List.of(stoker), List.of("en"), 1_000_000.0))));
+
+		// Se incorpora en segundo plano: las consultas no esperan a la instantánea nueva
+		assertThat(esperarGeneracion(generacion)).isTrue();
+		assertThat(catalogo.masDescargados(1)).extracting(LibroResumen::titulo).containsExactly("Dracula");
+		assertThat(catalogo.listarAutoresVivosEn(1900, PageRequest.of(0, 50)).getContent())
+				.extracting(AutorResumen::nombre).contains("Stoker, Bram");
+	}
+
+	@Test
+	void lasDescargasNuevasSeAplicanSinReconstruir() throws InterruptedException {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		long idLibro = jdbc.queryForObject("SELECT id_libro FROM libros WHERE id = 900104", Long.class);
+		double anterior = jdbc.queryForObject("SELECT numero_de_descargas FROM libros WHERE id_libro = ?",
+				Double.class, idLibro);
+		long generacion = catalogo.generacion();
+
+		// Como ActualizadorDescargas: primero la base, después el evento
+		jdbc.update("UPDATE libros SET numero_de_descargas = 950 WHERE id_libro = ?", idLibro);
+		eventos.publishEvent(new DescargasActualizadas(List.of(
+				new DescargasActualizadas.Cambio(idLibro, anterior, 950.0, List.of(Idioma.ESPANOL), List.of()))));
+
+		assertThat(esperarGeneracion(generacion)).isTrue();
+		assertThat(catalogo.masDescargados(10)).isEqualTo(consultaLibros.masDescargados(10));
+		assertThat(todos(catalogo.listarPorIdioma(Idioma.ESPANOL, PageRequest.of(0, 2)), catalogo, Idioma.ESPANOL))
+				.isEqualTo(todos(consultaLibros.listarPorIdioma(Idioma.ESPANOL, PageRequest.of(0, 2)),
+						consultaLibros, Idioma.ESPANOL));
+		DoubleSummaryStatistics enMemoria = catalogo.estadisticasDescargas();
+		DoubleSummaryStatistics enBase = consultaLibros.estadisticasDescargas();
+		assertThat(enMemoria.getSum()).isEqualTo(enBase.getSum());
+		assertThat(enMemoria.getMax()).isEqualTo(enBase.getMax());
+		assertThat(enMemoria.getMin()).isEqualTo(enBase.getMin());
+	}
+
+	// Espera (como mucho 5 s) a que se instale una instantánea posterior a la generación dada
+	private boolean esperarGeneracion(long generacion) throws InterruptedException {
+		long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (catalogo.generacion() == generacion && System.nanoTime() < limite) {
+			Thread.sleep(10);
+		}
+		return catalogo.generacion() != generacion;
+	}
+
+	// Recorre todas las páginas de un listado
+	// (la base no garantiza el orden de autores e idiomas dentro de un libro: se ordenan)
+	private static List<LibroResumen> todos(Slice<LibroResumen> pagina, ConsultasCatalogo consultas, Idioma idioma) {
+		List<LibroResumen> libros = new ArrayList<>(pagina.getContent());
+		while (pagina.hasNext()) {
+			pagina = idioma == null ? consultas.listar(pagina.nextPageable())
+					: consultas.listarPorIdioma(idioma, pagina.nextPageable());
+			libros.addAll(pagina.getContent());
+		}
+		return libros.stream().map(l -> new LibroResumen(l.idLibro(), l.titulo(), l.numeroDeDescargas(),
+				l.autores().stream().sorted().toList(), l.idiomas().stream().sorted().toList())).toList();
+	}
+}
@@ -0,0 +1,104 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ContextoPersistencia.class,
+		properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ConsultaLibrosTest {
+
+	@Autowired
+	private ConsultaLibros consultaLibros;
+
+	@Autowired
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	private LibroRepository libroRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics estadisticas;
+
+	@BeforeEach
+	void guardarLibrosEnLatin() {
+		estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		if (libroRepository.existePorIdGutendex(10657)) {
+			return;
+		}
+		DatosAutor cesar = new DatosAutor("Caesar, Julius", -100, -44);
+		DatosAutor hircio = new DatosAutor("Hirtius, Aulus", -90, -43);
+		DatosAutor ciceron = new DatosAutor("Cicero, Marcus Tullius", -106, -43);
+		persistenciaLotes.guardarEnLotes(List.of(
+				new Libro(new DatosLibro(10657, "Commentarii de Bello Gallico", List.of(cesar, hircio), List.of("la"), 120.0)),
+				new Libro(new DatosLibro(14988, "De Officiis", List.of(ciceron), List.of("la", "en"), 80.0))));
+	}
+
+	@Test
+	void unaPaginaSeArmaConDosConsultas() {
+		estadisticas.clear();
+
+		Slice<LibroResumen> pagina = consultaLibros.listarPorIdioma(Idioma.LATIN, PageRequest.of(0, 10));
+
+		// Filas (con la máscara de idiomas) + autores, sin importar cuántos libros tenga la página
+		assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(estadisticas.getEntityLoadCount()).isZero();
+		assertThat(pagina.getContent()).extracting(LibroResumen::titulo)
+				.containsExactly("Commentarii de Bello Gallico", "De Officiis");
+		assertThat(pagina.getContent().get(0).autores())
+				.containsExactlyInAnyOrder("Caesar, Julius", "Hirtius, Aulus");
+		assertThat(pagina.getContent().get(1).idiomas())
+				.containsExactlyInAnyOrder(Idioma.LATIN, Idioma.INGLES);
+	}
+
+	@Test
+	void elDetalleTraeLosAutoresEnLaMismaConsulta() {
+		estadisticas.clear();
+
+		Libro libro = libroRepository.buscarPorIdGutendex(14988).orElseThrow();
+
+		assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(Hibernate.isInitialized(libro.getAutores())).isTrue();
+		// Sin producto cartesiano con los idiomas: el autor aparece una sola vez
+		assertThat(libro.getAutores()).extracting("nombre").containsExactly("Cicero, Marcus Tullius");
+
+		assertThat(consultaLibros.buscarExistente(14988, "otro título").orElseThrow().idiomas())
+				.containsExactlyInAnyOrder(Idioma.LATIN, Idioma.INGLES);
+	}
+
+	@Test
+	void losDuplicadosSeDetectanPorIdDeGutendexOPorTitulo() {
+		assertThat(consultaLibros.buscarExistente(10657, "Otro título")).get()
+				.extracting(LibroResumen::titulo).isEqualTo("Commentarii de Bello Gallico");
+		assertThat(consultaLibros.buscarExistente(-1, "De Officiis")).isPresent();
+		// Un título que solo CONTIENE el texto no es un duplicado
+		assertThat(consultaLibros.buscarExistente(-1, "Officiis")).isEmpty();
+	}
+
+	@Test
+	void laBusquedaPorTituloNoDistingueMayusculasNiInterpretaComodines() {
+		assertThat(consultaLibros.buscarPorTitulo("BELLO", PageRequest.of(0, 10)).getContent())
+				.extracting(LibroResumen::titulo).containsExactly("Commentarii de Bello Gallico");
+		assertThat(consultaLibros.buscarPorTitulo("de%gallico", PageRequest.of(0, 10))).isEmpty();
+	}
+}
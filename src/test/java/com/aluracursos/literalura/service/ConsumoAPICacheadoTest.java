@@ -0,0 +1,98 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsumoAPICacheadoTest {
+
+	@TempDir
+	Path directorio;
+
+	private ServidorGutendexSimulado servidor;
+	private ConsumoAPI consumoAPI;
+	private final IConvierteDatos conversor = new ConvierteDatosStreaming();
+
+	@BeforeEach
+	void iniciar() {
+		servidor = new ServidorGutendexSimulado();
+		consumoAPI = new ConsumoAPI();
+	}
+
+	@AfterEach
+	void detener() {
+		consumoAPI.cerrar();
+		servidor.close();
+	}
+
+	private ConsumoAPICacheado cacheado(Duration ttl, long maxBytesMemoria) {
+		return new ConsumoAPICacheado(consumoAPI,
+				new CacheRespuestas(ttl, maxBytesMemoria, 1024 * 1024, directorio));
+	}
+
+	@Test
+	void laMismaBusquedaNormalizadaSeRespondeDesdeMemoria() {
+		ConsumoAPICacheado api = cacheado(Duration.ofMinutes(10), 1024 * 1024);
+
+		Datos primera = api.obtenerDatos(servidor.urlBase() + "/books/?search=Don+Quijote", Datos.class, conversor);
+		Datos segunda = api.obtenerDatos(servidor.urlBase() + "/books/?search=don%20%20QUIJOTE", Datos.class, conversor);
+
+		assertThat(servidor.peticiones()).isEqualTo(1);
+		assertThat(segunda).isEqualTo(primera);
+		assertThat(api.estadisticas().fallos()).isEqualTo(1);
+		assertThat(api.estadisticas().aciertosMemoria()).isEqualTo(1);
+	}
+
+	@Test
+	void elNivelDeDiscoSobreviveAUnReinicio() {
+		String url = servidor.urlBase() + "/books/?search=dickens";
+		cacheado(Duration.ofMinutes(10), 1024 * 1024).obtenerCuerpo(url);
+
+		// Una instancia nueva con el mismo directorio equivale a reiniciar la aplicación
+		ConsumoAPICacheado reiniciado = cacheado(Duration.ofMinutes(10), 1024 * 1024);
+		byte[] cuerpo = reiniciado.obtenerCuerpo(url);
+
+		assertThat(cuerpo).isEqualTo(servidor.cuerpo());
+		assertThat(servidor.peticiones()).isEqualTo(1);
+		assertThat(reiniciado.estadisticas().aciertosDisco()).isEqualTo(1);
+	}
+
+	@Test
+	void unaEntradaVencidaSeRevalidaConEtag() {
+		ConsumoAPICacheado api = cacheado(Duration.ZERO, 1024 * 1024);
+		String url = servidor.urlBase() + "/books/?search=austen";
+
+		api.obtenerCuerpo(url);
+		byte[] cuerpo = api.obtenerCuerpo(url);
+
+		// Dos peticiones, pero la segunda fue un 304 sin cuerpo
+		assertThat(servidor.peticiones()).isEqualTo(2);
+		assertThat(cuerpo).isEqualTo(servidor.cuerpo());
+		assertThat(api.estadisticas().revalidaciones()).isEqualTo(1);
+	}
+
+	@Test
+	void laMemoriaExpulsaLasMenosUsadasAlSuperarElLimite() {
+		// Cabe una sola respuesta en memoria
+		ConsumoAPICacheado api = cacheado(Duration.ofMinutes(10), servidor.cuerpo().length + 1);
+
+		api.obtenerCuerpo(servidor.urlBase() + "/books/?search=uno");
+		api.obtenerCuerpo(servidor.urlBase() + "/books/?search=dos");
+		api.obtenerCuerpo(servidor.urlBase() + "/books/?search=uno");
+
+		CacheRespuestas.Estadisticas estadisticas = api.estadisticas();
+		assertThat(estadisticas.entradasMemoria()).isEqualTo(1);
+		assertThat(estadisticas.expulsionesMemoria()).isEqualTo(2);
+		// "uno" ya no estaba en memoria, pero sí en disco
+		assertThat(estadisticas.aciertosDisco()).isEqualTo(1);
+		assertThat(servidor.peticiones()).isEqualTo(2);
+	}
+}
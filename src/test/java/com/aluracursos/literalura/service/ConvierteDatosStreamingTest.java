@@ -0,0 +1,54 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConvierteDatosStreamingTest {
+
+	private final byte[] pagina = ServidorGutendexSimulado.leerRecurso(ServidorGutendexSimulado.PAGINA_LIBROS);
+
+	@Test
+	void produceLosMismosDatosQueObjectMapper() {
+		Datos esperado = new ConvierteDatos().obtenerDatos(new ByteArrayInputStream(pagina), Datos.class);
+		Datos obtenido = new ConvierteDatosStreaming().obtenerDatos(new ByteArrayInputStream(pagina), Datos.class);
+
+		assertThat(obtenido.resultados()).hasSize(32);
+		assertThat(obtenido).isEqualTo(esperado);
+	}
+
+	@Test
+	void aceptaValoresNulosYCamposDesconocidos() {
+		String json = """
+				{"id": null, "title": "Sin autor", "authors": [], "extra": {"a": [1, 2]},
+				 "languages": ["es"], "download_count": null}""";
+
+		DatosLibro libro = new ConvierteDatosStreaming().obtenerDatos(json, DatosLibro.class);
+
+		assertThat(libro).isEqualTo(new DatosLibro(null, "Sin autor", java.util.List.of(), java.util.List.of("es"), null));
+	}
+
+	@Test
+	void saltaLosElementosNulosSinPerderElRestoDeLaPagina() {
+		String json = """
+				{"count": 3, "next": null, "results": [
+				 {"id": 1, "title": "Uno", "authors": [null, {"name": "Autora", "birth_year": 1900, "death_year": null}],
+				  "languages": [null, "es", 7], "download_count": 10},
+				 null,
+				 {"id": 2, "title": "Dos", "authors": [3, "texto", [1]], "languages": ["en"], "download_count": 20}]}""";
+
+		Datos datos = new ConvierteDatosStreaming().obtenerDatos(json, Datos.class);
+
+		assertThat(datos.total()).isEqualTo(3);
+		assertThat(datos.resultados()).containsExactly(
+				new DatosLibro(1, "Uno", List.of(new DatosAutor("Autora", 1900, null)), List.of("es"), 10.0),
+				new DatosLibro(2, "Dos", List.of(), List.of("en"), 20.0));
+	}
+}
@@ -0,0 +1,67 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ContextoPersistencia.class)
+class EstadisticasDescargasTest {
+
+	@Autowired
+	private EstadisticasDescargas estadisticas;
+
+	@Autowired
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	private LibroRepository libroRepository;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Test
+	void coincideConLosAgregadosDeLaBaseYSeMantieneConCadaGuardado() {
+		if (!libroRepository.existePorIdGutendex(900_301)) {
+			DatosAutor autor = new DatosAutor("Verne, Jules", 1828, 1905);
+			persistenciaLotes.guardarEnLotes(List.of(
+					new Libro(new DatosLibro(900_301, "Vingt mille lieues sous les mers", List.of(autor), List.of("fr"), 700.0)),
+					new Libro(new DatosLibro(900_302, "Around the World in Eighty Days", List.of(autor), List.of("en", "fr"), 1_300.0))));
+		}
+		estadisticas.reconstruir();
+
+		EstadisticasDescargas.Resumen resumen = estadisticas.resumen();
+		assertThat(resumen.general().cantidad()).isEqualTo(contar(null));
+		assertThat(resumen.general().suma()).isEqualTo(
+				jdbc.queryForObject("SELECT SUM(numero_de_descargas) FROM libros", Double.class));
+		assertThat(resumen.porIdioma().get(Idioma.FRANCES).cantidad()).isEqualTo(contar(Idioma.FRANCES));
+
+		persistenciaLotes.guardarEnLotes(List.of(new Libro(new DatosLibro(900_303, "Michel Strogoff",
+				List.of(new DatosAutor("Verne, Jules", 1828, 1905)), List.of("fr"), 90_000.0))));
+		estadisticas.actualizarDescargas(700.0, 800.0, Set.of(Idioma.FRANCES));
+
+		EstadisticasDescargas.Resumen despues = estadisticas.resumen();
+		assertThat(despues.general().cantidad()).isEqualTo(resumen.general().cantidad() + 1);
+		assertThat(despues.general().maximo()).isGreaterThanOrEqualTo(90_000.0);
+		assertThat(despues.porIdioma().get(Idioma.FRANCES).suma())
+				.isEqualTo(resumen.porIdioma().get(Idioma.FRANCES).suma() + 90_000.0 + 100.0);
+	}
+
+	private long contar(Idioma idioma) {
+		return idioma == null
+				? jdbc.queryForObject("SELECT COUNT(*) FROM libros", Long.class)
+				: jdbc.queryForObject("SELECT COUNT(*) FROM libros WHERE BITAND(idiomas_mascara, CAST(? AS INT)) <> 0",
+						Long.class, idioma.bit());
+	}
+}
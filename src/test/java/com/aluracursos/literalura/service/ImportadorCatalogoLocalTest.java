@@ -0,0 +1,116 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.Autor;
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.repository.AutorRepository;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Tramos de 2 libros y 3 escritores: el archivo de prueba se guarda en varios tramos en paralelo
+@SpringBootTest(classes = ContextoPersistencia.class,
+		properties = {"literalura.catalogo-local.tamano-tramo=2", "literalura.catalogo-local.escritores=3"})
+class ImportadorCatalogoLocalTest {
+
+	@Autowired
+	private ImportadorCatalogoLocal importador;
+
+	@Autowired
+	private LibroRepository libroRepository;
+
+	@Autowired
+	private AutorRepository autorRepository;
+
+	@TempDir
+	private Path temporal;
+
+	@Test
+	void leeElCsvYElCsvComprimidoIgual() throws Exception {
+		Path csv = catalogo();
+		Path gz = temporal.resolve("pg_catalog.csv.gz");
+		try (OutputStream salida = new GZIPOutputStream(Files.newOutputStream(gz))) {
+			Files.copy(csv, salida);
+		}
+
+		List<DatosLibro> libros = new ArrayList<>();
+		assertThat(LectorCatalogoCsv.leer(csv, libros::add)).isEqualTo(11);
+		List<DatosLibro> comprimidos = new ArrayList<>();
+		assertThat(LectorCatalogoCsv.leer(gz, comprimidos::add)).isEqualTo(11);
+		assertThat(comprimidos).isEqualTo(libros);
+
+		// El audiolibro (Type=Sound) no se entrega
+		assertThat(libros).hasSize(10);
+		assertThat(libros.get(0)).isEqualTo(new DatosLibro(1342, "Pride and Prejudice",
+				List.of(new DatosAutor("Austen, Jane", 1775, 1817)), List.of("en"), 0.0));
+		// Traductores e ilustradores no son autores; antes de Cristo, años negativos
+		assertThat(libros.get(1).autores()).containsExactly(new DatosAutor("Tolstoy, Leo, graf", 1828, 1910));
+		assertThat(libros.get(2).autores()).containsExactly(new DatosAutor("Homer", -751, -651));
+		// Comillas dobladas y salto de línea dentro del campo; varios idiomas
+		DatosLibro comentado = libros.get(4);
+		assertThat(comentado.titulo()).startsWith("El \"Quijote\" comentado").endsWith("Tomo primero");
+		assertThat(comentado.idiomas()).containsExactly("es", "en");
+		assertThat(comentado.autores()).containsExactly(new DatosAutor("Anónimo", null, null));
+	}
+
+	@Test
+	void guardaEnParaleloSinRepetirLibrosNiAutores() throws Exception {
+		ImportadorCatalogoLocal.ResultadoImportacionLocal resultado = importador.importar(catalogo());
+
+		// 11 filas: un audiolibro, un título repetido y uno sin título quedan fuera
+		assertThat(resultado.registros()).isEqualTo(11);
+		assertThat(resultado.descartados()).isEqualTo(3);
+		assertThat(resultado.libros()).isEqualTo(8);
+		assertThat(libroRepository.count()).isEqualTo(8);
+
+		// Dickens aparece en tres libros que caen en tramos distintos
+		List<Autor> dickens = autorRepository.findAll().stream()
+				.filter(a -> a.getNombre().equals("Dickens, Charles"))
+				.toList();
+		assertThat(dickens).hasSize(1);
+		assertThat(dickens.get(0).getFechaDeNacimiento()).isEqualTo(1812);
+
+		// Volver a importar el mismo archivo no agrega nada
+		long autores = autorRepository.count();
+		assertThat(importador.importar(catalogo()).libros()).isZero();
+		assertThat(libroRepository.count()).isEqualTo(8);
+		assertThat(autorRepository.count()).isEqualTo(autores);
+	}
+
+	@Test
+	void cancelarDejaDeLeerSinGuardarLosTramosPendientes() throws Exception {
+		long antes = libroRepository.count();
+		Avance cancelado = new Avance() {
+			@Override
+			public void informar(long hechos, long total, String detalle) {
+			}
+
+			@Override
+			public boolean cancelado() {
+				return true;
+			}
+		};
+
+		assertThatThrownBy(() -> importador.importar(catalogo(), cancelado))
+				.isInstanceOf(CancellationException.class);
+		assertThat(libroRepository.count()).isEqualTo(antes);
+	}
+
+	private Path catalogo() throws Exception {
+		return Path.of(getClass().getResource("/catalogo/pg_catalog.csv").toURI());
+	}
+}
@@ -0,0 +1,79 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.repository.ProgresoImportacionRepository;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Contexto propio (otra propiedad): la base solo tiene los libros importados aquí
+@SpringBootTest(classes = ContextoPersistencia.class, properties = "literalura.importacion.paginas-concurrentes=3")
+class ImportadorCatalogoTest {
+
+	@Autowired
+	private LibroRepository libroRepository;
+
+	@Autowired
+	private ProgresoImportacionRepository progresoRepository;
+
+	@Autowired
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	private CacheAutores cacheAutores;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${literalura.importacion.paginas-concurrentes}")
+	private int paginasConcurrentes;
+
+	private final ServidorGutendexSimulado servidor = new ServidorGutendexSimulado();
+	private final ConsumoAPI consumoAPI = new ConsumoAPI();
+
+	@AfterEach
+	void detener() {
+		consumoAPI.cerrar();
+		servidor.close();
+	}
+
+	@Test
+	void pideLasPaginasEnOrdenDeIdYInformaLibrosPorSegundo() {
+		ImportadorCatalogo importador = new ImportadorCatalogo(consumoAPI, libroRepository, progresoRepository,
+				persistenciaLotes, cacheAutores, transactionManager, paginasConcurrentes, servidor.urlBase(), false);
+		List<String> detalles = new ArrayList<>();
+		// Se cancela tras la primera página (las que estaban en vuelo se descartan)
+		Avance unaPagina = new Avance() {
+			@Override
+			public void informar(long hechos, long total, String detalle) {
+				detalles.add(detalle);
+			}
+
+			@Override
+			public boolean cancelado() {
+				return !detalles.isEmpty();
+			}
+		};
+
+		ImportadorCatalogo.ResultadoImportacion resultado = importador.importar(unaPagina);
+
+		assertThat(resultado.paginas()).isEqualTo(1);
+		assertThat(resultado.libros()).isEqualTo(32);
+		// El orden por popularidad cambia entre peticiones: las páginas se piden por id ascendente
+		assertThat(servidor.rutas()).isNotEmpty()
+				.allSatisfy(ruta -> assertThat(ruta).matches("/books/\\?sort=ascending&page=\\d+"))
+				.contains("/books/?sort=ascending&page=1");
+		assertThat(detalles).singleElement().asString().contains("32 libros nuevos").contains("libros/s");
+		assertThat(resultado.librosPorSegundo()).isPositive();
+	}
+}
@@ -0,0 +1,109 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ContextoPersistencia.class)
+class IndiceLibrosTest {
+
+	@Autowired
+	private IndiceLibros indiceLibros;
+
+	@Autowired
+	private ConsultaLibros consultaLibros;
+
+	@Autowired
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void encuentraSinAcentosPorPrefijoYConErrores() {
+		IndiceTexto indice = new IndiceTexto(new IndiceTexto.Constructor()
+				.agregar(3, "Les Misérables", List.of("Hugo, Victor"))
+				.agregar(1, "Notre-Dame de Paris", List.of("Hugo, Victor"))
+				.agregar(2, "Great Expectations", List.of("Dickens, Charles"))
+				.agregar(4, "A Christmas Carol in Prose; Being a Ghost Story of Christmas", List.of("Dickens, Charles"))
+				.agregar(5, "Don Quijote", List.of("Cervantes Saavedra, Miguel de"))
+				.construir());
+
+		assertThat(ids(indice, "MISERABLES")).containsExactly(3L);
+		assertThat(ids(indice, "misérables hugo")).containsExactly(3L);
+		// La última palabra es un prefijo; "*" marca prefijo en cualquier posición
+		assertThat(ids(indice, "dick")).containsExactly(2L, 4L);
+		assertThat(ids(indice, "christ* carol")).containsExactly(4L);
+		// Errores de tipeo: letra cambiada, faltante o dos letras invertidas
+		assertThat(ids(indice, "quijotr")).containsExactly(5L);
+		assertThat(ids(indice, "expectatons")).containsExactly(2L);
+		assertThat(ids(indice, "cervnates")).containsExactly(5L);
+		// El título pesa más que el autor; a igual puntaje, el título más corto
+		assertThat(ids(indice, "paris hugo")).containsExactly(1L);
+		assertThat(ids(indice, "hugo")).containsExactly(3L, 1L);
+		// Sin un libro con todas las palabras, los que tienen alguna
+		assertThat(indice.buscar("quijote miserables", 0, 10).total()).isEqualTo(2);
+
+		// Los agregados se buscan igual que la base; un id repetido se ignora
+		indice.agregar(6, "Quijote apócrifo", List.of("Avellaneda, Alonso Fernández de"));
+		indice.agregar(5, "Don Quijote", List.of("Cervantes Saavedra, Miguel de"));
+		assertThat(ids(indice, "quijote")).containsExactly(5L, 6L);
+		assertThat(ids(indice, "avellanada")).containsExactly(6L);
+		assertThat(indice.cantidadAgregados()).isEqualTo(1);
+
+		assertThat(IndiceTexto.distancia("carol", "craol", 2)).isEqualTo(1);
+		assertThat(IndiceTexto.distancia("carol", "xyz", 1)).isEqualTo(2);
+	}
+
+	@Test
+	void seActualizaConCadaGuardadoYSeReabreDesdeElArchivo() {
+		DatosAutor autora = new DatosAutor("Vortigern, Zenobia", 1801, 1870);
+		persistenciaLotes.guardarEnLotes(List.of(
+				new Libro(new DatosLibro(910_001, "Crónicas de Xalthorn", List.of(autora), List.of("es"), 10.0))));
+		indiceLibros.reconstruir();
+		assertThat(indiceLibros.estaListo()).isTrue();
+
+		// Guardado después de armar el índice: entra por el evento LibrosGuardados
+		persistenciaLotes.guardarEnLotes(List.of(
+				new Libro(new DatosLibro(910_002, "El regreso a Xalthorn", List.of(autora), List.of("es"), 5.0))));
+
+		Slice<LibroResumen> pagina = indiceLibros.buscar("xaltorn", PageRequest.of(0, 1));
+		assertThat(pagina.getContent()).extracting(LibroResumen::titulo).containsExactly("Crónicas de Xalthorn");
+		assertThat(pagina.hasNext()).isTrue();
+		assertThat(indiceLibros.buscar("vortigern regreso", PageRequest.of(0, 10)).getContent())
+				.extracting(LibroResumen::titulo).containsExactly("El regreso a Xalthorn");
+
+		// Con directorio: el archivo se escribe, se mapea y se vuelve a abrir sin rearmarlo
+		IndiceLibros enDisco = new IndiceLibros(consultaLibros, dataSource, true, directorio.toString(), 20_000);
+		enDisco.abrir();
+		assertThat(directorio.resolve("libros.idx")).isRegularFile();
+		long escrito = directorio.resolve("libros.idx").toFile().lastModified();
+
+		IndiceLibros reabierto = new IndiceLibros(consultaLibros, dataSource, true, directorio.toString(), 20_000);
+		reabierto.abrir();
+		assertThat(directorio.resolve("libros.idx").toFile().lastModified()).isEqualTo(escrito);
+		assertThat(reabierto.buscar("zenobia", PageRequest.of(0, 10)).getContent())
+				.extracting(LibroResumen::titulo).containsExactlyInAnyOrder("Crónicas de Xalthorn", "El regreso a Xalthorn");
+	}
+
+	private static List<Long> ids(IndiceTexto indice, String consulta) {
+		return indice.buscar(consulta, 0, 10).ids();
+	}
+}
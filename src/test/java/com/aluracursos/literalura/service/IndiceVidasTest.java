@@ -0,0 +1,71 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.AutorResumen;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceVidasTest {
+
+	@Test
+	void marcaLosMismosIntervalosQueUnRecorridoCompleto() {
+		Random azar = new Random(42);
+		int cantidad = 5_000;
+		int[] inicios = new int[cantidad];
+		int[] fines = new int[cantidad];
+		int[] posiciones = new int[cantidad];
+		for (int i = 0; i < cantidad; i++) {
+			inicios[i] = -500 + azar.nextInt(2_500);
+			fines[i] = inicios[i] + azar.nextInt(100);
+			posiciones[i] = i;
+		}
+		IndiceVidas indice = new IndiceVidas(inicios, fines, posiciones, cantidad);
+
+		for (int consulta = 0; consulta < 200; consulta++) {
+			int desde = -600 + azar.nextInt(2_800);
+			int hasta = desde + (consulta % 2 == 0 ? 0 : azar.nextInt(60));
+			long[] marcas = new long[(cantidad + 63) >>> 6];
+
+			int marcados = indice.marcar(desde, hasta, marcas);
+
+			int esperados = 0;
+			for (int i = 0; i < cantidad; i++) {
+				boolean vivo = inicios[i] <= hasta && fines[i] >= desde;
+				assertThat((marcas[i >>> 6] & (1L << i)) != 0).isEqualTo(vivo);
+				esperados += vivo ? 1 : 0;
+			}
+			assertThat(marcados).isEqualTo(esperados);
+		}
+	}
+
+	@Test
+	void laPoliticaDecideQueHacerConLosAniosQueFaltan() {
+		List<CatalogoEnMemoria.FilaAutor> autores = List.of(
+				new CatalogoEnMemoria.FilaAutor(1, "Completo", 1800, 1860),
+				new CatalogoEnMemoria.FilaAutor(2, "Sin defunción", 1900, CatalogoEnMemoria.SIN_ANIO),
+				new CatalogoEnMemoria.FilaAutor(3, "Sin nacimiento", CatalogoEnMemoria.SIN_ANIO, 1850),
+				new CatalogoEnMemoria.FilaAutor(4, "Sin años", CatalogoEnMemoria.SIN_ANIO, CatalogoEnMemoria.SIN_ANIO));
+
+		assertThat(vivosEn(autores, PoliticaVidas.Modo.EXCLUIR, 1750, 2100)).containsExactly("Completo");
+		assertThat(vivosEn(autores, PoliticaVidas.Modo.ABIERTA, 2100, 2100)).containsExactly("Sin defunción");
+		assertThat(vivosEn(autores, PoliticaVidas.Modo.ABIERTA, 1000, 1000)).containsExactly("Sin nacimiento");
+		// Con vida máxima de 100 años: vivo hasta 2000, nacido en 1750
+		assertThat(vivosEn(autores, PoliticaVidas.Modo.ESTIMADA, 2000, 2000)).containsExactly("Sin defunción");
+		assertThat(vivosEn(autores, PoliticaVidas.Modo.ESTIMADA, 2001, 2100)).isEmpty();
+		assertThat(vivosEn(autores, PoliticaVidas.Modo.ESTIMADA, 1700, 1750)).containsExactly("Sin nacimiento");
+	}
+
+	private static List<String> vivosEn(List<CatalogoEnMemoria.FilaAutor> autores, PoliticaVidas.Modo modo,
+										int desde, int hasta) {
+		CatalogoEnMemoria.Instantanea instantanea =
+				new CatalogoEnMemoria.Instantanea(new ArrayList<>(), autores, new PoliticaVidas(modo, 100));
+		return instantanea.listarAutoresVivosEntre(desde, hasta, PageRequest.of(0, 10)).getContent().stream()
+				.map(AutorResumen::nombre)
+				.toList();
+	}
+}
@@ -0,0 +1,90 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ContextoPersistencia.class,
+		properties = {"literalura.metricas.habilitadas=true", "literalura.metricas.volcar-cada=0"})
+class MetricasTest {
+
+	@Autowired
+	private Metricas metricas;
+
+	@Autowired
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	private LibroRepository libroRepository;
+
+	@Autowired
+	private CatalogoEnMemoria catalogo;
+
+	@Test
+	void deshabilitadasNoMidenNiEnvuelven() {
+		Metricas deshabilitadas = Metricas.deshabilitadas();
+
+		assertThat(deshabilitadas.inicio()).isZero();
+		assertThat(deshabilitadas.medir(ConsultasCatalogo.class, catalogo)).isSameAs(catalogo);
+		assertThat(deshabilitadas.prometheus()).isEmpty();
+	}
+
+	@Test
+	void seMidenElGuardadoLosRepositoriosYLasConsultasDelMenu() {
+		List<Libro> libros = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			libros.add(new Libro(new DatosLibro(900_500 + i, "Medido " + i,
+					List.of(new DatosAutor("Autor " + i, 1800, 1870)), List.of("es"), 10.0 * i)));
+		}
+		persistenciaLotes.guardarEnLotes(libros);
+		libroRepository.existePorIdGutendex(900_500);
+
+		ConsultasCatalogo medidas = metricas.medir(ConsultasCatalogo.class, catalogo);
+		assertThat(medidas).isNotSameAs(catalogo);
+		assertThat(medidas.listar(PageRequest.of(0, 10))).isNotEmpty();
+
+		String texto = metricas.prometheus();
+		assertThat(texto).contains("literalura_bd_filas_insertadas_total 5.0");
+		assertThat(texto).containsPattern(
+				"literalura_bd_consultas_seconds_count\\{metodo=\"existePorIdGutendex\",repositorio=\"LibroRepository\",resultado=\"exito\"} 1");
+		assertThat(texto).containsPattern("literalura_menu_consultas_seconds_count\\{metodo=\"listar\"} 1");
+	}
+
+	@Test
+	void seMidenLosIntentosHttpYLaConversion() {
+		try (ServidorGutendexSimulado servidor = new ServidorGutendexSimulado()) {
+			servidor.fallar(1, 503);
+			Resiliencia resiliencia = new Resiliencia(3, Duration.ofMillis(10), Duration.ofSeconds(2), 5,
+					Duration.ofSeconds(30), 1, 0, 2, metricas);
+			ConsumoAPI consumoAPI = new ConsumoAPI(Duration.ofSeconds(10), Duration.ofSeconds(30),
+					Duration.ofSeconds(60), 4, 16, false, resiliencia, metricas);
+			try {
+				Datos datos = consumoAPI.obtenerDatos(servidor.urlBase() + "/books/?page=1", Datos.class,
+						new ConvierteDatosStreaming());
+				assertThat(datos.resultados()).hasSize(32);
+			} finally {
+				consumoAPI.cerrar();
+			}
+		}
+
+		String texto = metricas.prometheus();
+		assertThat(texto).contains("literalura_gutendex_peticiones_seconds_count{resultado=\"error\"} 1");
+		assertThat(texto).contains("literalura_gutendex_peticiones_seconds_count{resultado=\"exito\"} 1");
+		assertThat(texto).contains("literalura_gutendex_reintentos_total 1.0");
+		assertThat(texto).contains("literalura_json_conversion_seconds_count 1");
+	}
+}
@@ -0,0 +1,127 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.repository.AutorRepository;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import com.aluracursos.literalura.soporte.LibrosDePrueba;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ContextoPersistencia.class,
+		properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PersistenciaLotesTest {
+
+	@Autowired
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	private LibroRepository libroRepository;
+
+	@Autowired
+	private AutorRepository autorRepository;
+
+	@Autowired
+	private CacheAutores cacheAutores;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transacciones;
+
+	@Test
+	void agrupaLosInsertEnLotesJdbc() {
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		// Igual que en una importación masiva: los autores conocidos se cargan de una vez
+		cacheAutores.precargar();
+		long librosAntes = libroRepository.count();
+		estadisticas.clear();
+
+		persistenciaLotes.guardarEnLotes(LibrosDePrueba.libros(0, 200));
+
+		assertThat(libroRepository.count() - librosAntes).isEqualTo(200);
+		// 200 libros + 200 autores + 200 filas de libro_autor: sin lotes serían al menos 600 sentencias
+		// más una consulta a la secuencia por fila
+		assertThat(estadisticas.getPrepareStatementCount()).isLessThan(60);
+	}
+
+	@Test
+	void guardaCadaAutorUnaSolaVez() {
+		DatosAutor dickens = new DatosAutor("Dickens, Charles", 1812, 1870);
+		DatosAutor anonimo = new DatosAutor("Anónimo", null, null);
+		long autoresAntes = autorRepository.count();
+		// Ids de Gutendex fuera del rango de LibrosDePrueba (el id es único)
+
+		persistenciaLotes.guardarEnLotes(List.of(
+				new Libro(new DatosLibro(900_098, "A Tale of Two Cities", List.of(dickens), List.of("en"), 1.0)),
+				new Libro(new DatosLibro(901_400, "Great Expectations", List.of(dickens), List.of("en"), 2.0)),
+				new Libro(new DatosLibro(900_007, "Cantar", List.of(anonimo), List.of("es"), 3.0))));
+		persistenciaLotes.guardarEnLotes(List.of(
+				new Libro(new DatosLibro(900_046, "A Christmas Carol", List.of(dickens), List.of("en"), 4.0)),
+				new Libro(new DatosLibro(900_008, "Lazarillo", List.of(anonimo), List.of("es"), 5.0))));
+
+		assertThat(autorRepository.count() - autoresAntes).isEqualTo(2);
+	}
+
+	@Test
+	void variosEscritoresALaVezNoRepitenUnAutorNuevo() throws Exception {
+		cacheAutores.precargar();
+		long autoresAntes = autorRepository.count();
+		// Años desconocidos: la clave única no los distingue, solo la caché lo evita
+		DatosAutor desconocido = new DatosAutor("Autor sin fechas", null, null);
+		DatosAutor compartido = new DatosAutor("Autor compartido", 1900, 1950);
+
+		ExecutorService hilos = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> guardados = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				int id = 910_000 + i;
+				guardados.add(hilos.submit(() -> persistenciaLotes.guardarEnLotes(List.of(new Libro(
+						new DatosLibro(id, "Libro concurrente " + id, List.of(desconocido, compartido),
+								List.of("en"), 1.0))))));
+			}
+			for (Future<Integer> guardado : guardados) {
+				assertThat(guardado.get(30, TimeUnit.SECONDS)).isEqualTo(1);
+			}
+		} finally {
+			hilos.shutdown();
+		}
+
+		assertThat(autorRepository.count() - autoresAntes).isEqualTo(2);
+	}
+
+	@Test
+	void unaTransaccionRevertidaNoDejaAutoresEnLaCache() {
+		cacheAutores.precargar();
+		DatosAutor autor = new DatosAutor("Autor de un lote revertido", 1801, 1870);
+		Libro libro = new Libro(new DatosLibro(920_000, "Libro revertido", List.of(autor), List.of("en"), 1.0));
+
+		new TransactionTemplate(transacciones).executeWithoutResult(estado -> {
+			persistenciaLotes.guardarEnLotes(List.of(libro));
+			estado.setRollbackOnly();
+		});
+
+		// Con el id del autor revertido en la caché, este libro quedaría enlazado a una fila inexistente
+		persistenciaLotes.guardarEnLotes(List.of(
+				new Libro(new DatosLibro(920_001, "Libro confirmado", List.of(autor), List.of("en"), 1.0))));
+		assertThat(autorRepository.findAll()).filteredOn(a -> a.getNombre().equals(autor.nombre())).hasSize(1);
+	}
+}
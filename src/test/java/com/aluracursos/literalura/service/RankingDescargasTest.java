@@ -0,0 +1,134 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Idioma;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.model.LibroResumen;
+import com.aluracursos.literalura.repository.AutorRepository;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.soporte.ContextoPersistencia;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Tableros chicos (K = 2, capacidad 4) para que los recortes y recargas ocurran con pocos libros
+@SpringBootTest(classes = ContextoPersistencia.class, properties = "literalura.ranking.tamano=2")
+class RankingDescargasTest {
+
+	private static final DatosAutor TWAIN = new DatosAutor("Twain, Mark", 1835, 1910);
+
+	@Autowired
+	private RankingDescargas ranking;
+
+	@Autowired
+	private ConsultaLibros consultaLibros;
+
+	@Autowired
+	private PersistenciaLotes persistenciaLotes;
+
+	@Autowired
+	private LibroRepository libroRepository;
+
+	@Autowired
+	private AutorRepository autorRepository;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@BeforeEach
+	void guardarLibros() {
+		if (libroRepository.existePorIdGutendex(900_200)) {
+			return;
+		}
+		List<Libro> libros = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			DatosAutor autor = i % 3 == 0 ? TWAIN : new DatosAutor("Autor " + i, 1800, 1880);
+			libros.add(new Libro(new DatosLibro(900_200 + i, "Libro " + (char) ('A' + i), List.of(autor),
+					List.of(i % 2 == 0 ? "en" : "fr"), 100.0 * i)));
+		}
+		persistenciaLotes.guardarEnLotes(libros);
+	}
+
+	@Test
+	void losLibrosGuardadosEntranSinReleerLaBase() {
+		assertThat(ranking.top(2)).isEqualTo(consultaLibros.masDescargados(2));
+
+		persistenciaLotes.guardarEnLotes(List.of(new Libro(new DatosLibro(900_299, "Tom Sawyer",
+				List.of(TWAIN), List.of("fr"), 50_000.0))));
+
+		assertThat(ranking.top(2)).extracting(LibroResumen::titulo).first().isEqualTo("Tom Sawyer");
+		assertThat(ranking.topPorIdioma(Idioma.FRANCES, 1)).extracting(LibroResumen::titulo)
+				.containsExactly("Tom Sawyer");
+		long twain = autorRepository.buscarIdPorClave("Twain, Mark", 1835, 1910).get(0);
+		assertThat(ranking.topPorAutor(twain, 2)).isEqualTo(consultaLibros.masDescargadosPorAutor(twain, 2));
+	}
+
+	@Test
+	void losCambiosDeDescargasMantienenElMismoOrdenQueLaBase() {
+		long twain = autorRepository.buscarIdPorClave("Twain, Mark", 1835, 1910).get(0);
+		List<Long> ids = jdbc.queryForList("SELECT id_libro FROM libros", Long.class);
+		Random azar = new Random(3);
+
+		for (int paso = 0; paso < 200; paso++) {
+			long id = ids.get(azar.nextInt(ids.size()));
+			// Pocos valores distintos: también se prueban los empates (desempate por título)
+			double descargas = 100.0 * azar.nextInt(15);
+			cambiar(id, descargas);
+
+			assertThat(ranking.top(2)).isEqualTo(consultaLibros.masDescargados(2));
+			assertThat(ranking.topPorIdioma(Idioma.INGLES, 2))
+					.isEqualTo(consultaLibros.masDescargadosPorIdioma(Idioma.INGLES, 2));
+			assertThat(ranking.topPorAutor(twain, 2)).isEqualTo(consultaLibros.masDescargadosPorAutor(twain, 2));
+		}
+	}
+
+	@Test
+	void unCambioNoDescartaLosTablerosDeOtrosGrupos() {
+		long twain = autorRepository.buscarIdPorClave("Twain, Mark", 1835, 1910).get(0);
+		long libroC = jdbc.queryForObject("SELECT id_libro FROM libros WHERE id = 900202", Long.class);
+		double descargasC = jdbc.queryForObject("SELECT numero_de_descargas FROM libros WHERE id_libro = ?",
+				Double.class, libroC);
+		ranking.olvidar();
+		List<LibroResumen> frances = ranking.topPorIdioma(Idioma.FRANCES, 2);
+		List<LibroResumen> deTwain = ranking.topPorAutor(twain, 2);
+		LibroResumen primeroFrances = frances.get(0);
+		LibroResumen primeroTwain = deTwain.get(0);
+		try {
+			// Cambios por fuera de la aplicación: solo se verían si el tablero se vuelve a leer
+			jdbc.update("UPDATE libros SET numero_de_descargas = 1000000 WHERE id_libro IN (?, ?)",
+					primeroFrances.idLibro(), primeroTwain.idLibro());
+
+			// "Libro C" está en inglés y no es de Twain: supera al último de esos tableros sin estar en ellos
+			cambiar(libroC, 5_000.0);
+
+			assertThat(ranking.topPorIdioma(Idioma.FRANCES, 2)).isEqualTo(frances);
+			assertThat(ranking.topPorAutor(twain, 2)).isEqualTo(deTwain);
+		} finally {
+			jdbc.update("UPDATE libros SET numero_de_descargas = ? WHERE id_libro = ?",
+					primeroFrances.numeroDeDescargas(), primeroFrances.idLibro());
+			jdbc.update("UPDATE libros SET numero_de_descargas = ? WHERE id_libro = ?",
+					primeroTwain.numeroDeDescargas(), primeroTwain.idLibro());
+			jdbc.update("UPDATE libros SET numero_de_descargas = ? WHERE id_libro = ?", descargasC, libroC);
+			ranking.olvidar();
+		}
+	}
+
+	// Como ActualizadorDescargas: guarda la cantidad y avisa con los idiomas y autores del libro
+	private void cambiar(long idLibro, double descargas) {
+		jdbc.update("UPDATE libros SET numero_de_descargas = ? WHERE id_libro = ?", descargas, idLibro);
+		int mascara = jdbc.queryForObject("SELECT idiomas_mascara FROM libros WHERE id_libro = ?",
+				Integer.class, idLibro);
+		List<Long> autores = jdbc.queryForList("SELECT autor_id FROM libro_autor WHERE libro_id_libro = ?",
+				Long.class, idLibro);
+		ranking.actualizarDescargas(idLibro, descargas, Idioma.deMascara(mascara), autores);
+	}
+}
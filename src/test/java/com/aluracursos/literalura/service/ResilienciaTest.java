@@ -0,0 +1,220 @@
+package com.aluracursos.literalura.service;
+
+import com.aluracursos.literalura.model.Datos;
+import com.aluracursos.literalura.soporte.ServidorGutendexSimulado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResilienciaTest {
+
+	private ServidorGutendexSimulado servidor;
+	private Resiliencia resiliencia;
+	private ConsumoAPI consumoAPI;
+	private String url;
+	private final IConvierteDatos conversor = new ConvierteDatosStreaming();
+
+	@BeforeEach
+	void iniciar() {
+		servidor = new ServidorGutendexSimulado();
+		// Esperas cortas para que la prueba sea rápida; el circuito se abre con 3 fallos
+		resiliencia = new Resiliencia(3, Duration.ofMillis(10), Duration.ofSeconds(2), 3,
+				Duration.ofMillis(300), 1, 0, 2);
+		consumoAPI = new ConsumoAPI(Duration.ofSeconds(10), Duration.ofSeconds(30), Duration.ofSeconds(60),
+				4, 16, false, resiliencia);
+		url = servidor.urlBase() + "/books/?page=1";
+	}
+
+	@AfterEach
+	void detener() {
+		consumoAPI.cerrar();
+		servidor.close();
+	}
+
+	@Test
+	void losErroresPasajerosSeReintentanHastaObtenerLaPagina() {
+		servidor.fallar(1, 503);
+		servidor.fallar(1, 0); // conexión cortada
+		servidor.fallar(1, 502);
+
+		Datos datos = consumoAPI.obtenerDatos(url, Datos.class, conversor);
+
+		assertThat(datos.resultados()).hasSize(32);
+		assertThat(servidor.peticiones()).isEqualTo(4);
+		// El HttpClient del JDK ya repite una vez un GET cuya conexión se cortó
+		assertThat(resiliencia.estado().reintentos()).isBetween(2L, 3L);
+	}
+
+	@Test
+	void seRespetaRetryAfter() {
+		servidor.fallar(1, 429, "1");
+
+		long inicio = System.nanoTime();
+		consumoAPI.obtenerDatos(url, Datos.class, conversor);
+
+		assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isGreaterThanOrEqualTo(Duration.ofSeconds(1));
+		assertThat(servidor.peticiones()).isEqualTo(2);
+	}
+
+	@Test
+	void losErroresDelClienteNoSeReintentanNiLleganAlConversor() {
+		servidor.fallar(1, 404);
+
+		assertThatThrownBy(() -> consumoAPI.obtenerDatos(url, Datos.class, conversor))
+				.isInstanceOfSatisfying(ErrorGutendex.class, e -> {
+					assertThat(e.getMotivo()).isEqualTo(ErrorGutendex.Motivo.CLIENTE);
+					assertThat(e.getCodigo()).isEqualTo(404);
+				});
+		assertThat(servidor.peticiones()).isEqualTo(1);
+
+		// Un Retry-After más largo que la espera máxima no se espera
+		servidor.fallar(1, 429, "3600");
+		assertThatThrownBy(() -> consumoAPI.obtenerDatos(url, Datos.class, conversor))
+				.isInstanceOfSatisfying(ErrorGutendex.class,
+						e -> assertThat(e.getReintentarEn()).isEqualTo(Duration.ofHours(1)));
+		assertThat(servidor.peticiones()).isEqualTo(2);
+	}
+
+	@Test
+	void elCircuitoSeAbreConFallosSeguidosYSeCierraConLaPrueba() throws InterruptedException {
+		servidor.fallar(3, 500);
+
+		assertThatThrownBy(() -> consumoAPI.obtenerDatos(url, Datos.class, conversor))
+				.isInstanceOfSatisfying(ErrorGutendex.class,
+						e -> assertThat(e.getMotivo()).isEqualTo(ErrorGutendex.Motivo.CIRCUITO_ABIERTO));
+		assertThat(servidor.peticiones()).isEqualTo(3);
+
+		// Abierto: falla al instante, sin llegar al servidor
+		assertThatThrownBy(() -> consumoAPI.obtenerDatosAsync(url).join())
+				.hasCauseInstanceOf(ErrorGutendex.class);
+		assertThat(servidor.peticiones()).isEqualTo(3);
+		assertThat(resiliencia.estado().circuito()).isEqualTo(Resiliencia.EstadoCircuito.ABIERTO);
+
+		// Pasado el tiempo abierto, una petición de prueba exitosa lo cierra
+		Thread.sleep(350);
+		assertThat(consumoAPI.obtenerDatos(url, Datos.class, conversor).resultados()).hasSize(32);
+		assertThat(resiliencia.estado().circuito()).isEqualTo(Resiliencia.EstadoCircuito.CERRADO);
+		assertThat(resiliencia.estado().aperturas()).isEqualTo(1);
+	}
+
+	@Test
+	void unaPruebaInterrumpidaNoDejaElCircuitoTomado() throws Exception {
+		servidor.fallar(3, 500);
+		assertThatThrownBy(() -> consumoAPI.obtenerDatos(url, Datos.class, conversor))
+				.isInstanceOf(ErrorGutendex.class);
+		assertThat(resiliencia.estado().circuito()).isEqualTo(Resiliencia.EstadoCircuito.ABIERTO);
+		Thread.sleep(350);
+
+		// La prueba del semiabierto se interrumpe mientras espera la respuesta
+		CountDownLatch enviando = new CountDownLatch(1);
+		AtomicReference<Throwable> fallo = new AtomicReference<>();
+		Thread hilo = new Thread(() -> {
+			try {
+				resiliencia.ejecutar(url, () -> {
+					enviando.countDown();
+					Thread.sleep(10_000);
+					return null;
+				});
+			} catch (RuntimeException e) {
+				fallo.set(e);
+			}
+		});
+		hilo.start();
+		assertThat(enviando.await(5, TimeUnit.SECONDS)).isTrue();
+		hilo.interrupt();
+		hilo.join(5_000);
+		assertThat(fallo.get()).isInstanceOfSatisfying(ErrorGutendex.class,
+				e -> assertThat(e.getMotivo()).isEqualTo(ErrorGutendex.Motivo.RED));
+
+		// Tampoco la retiene un envío asíncrono que falla antes de empezar
+		assertThatThrownBy(() -> resiliencia.ejecutarAsync(url, () -> {
+			throw new IllegalStateException("cliente cerrado");
+		})).isInstanceOf(IllegalStateException.class);
+
+		// La siguiente petición vuelve a probar y cierra el circuito
+		assertThat(consumoAPI.obtenerDatos(url, Datos.class, conversor).resultados()).hasSize(32);
+		assertThat(resiliencia.estado().circuito()).isEqualTo(Resiliencia.EstadoCircuito.CERRADO);
+	}
+
+	@Test
+	void unaPruebaCanceladaAntesDeSuTurnoNoDejaElCircuitoTomado() throws Exception {
+		// Un turno cada 500 ms y el circuito abierto solo 50 ms:
+		// la prueba del semiabierto tiene que esperar su turno del limitador
+		Resiliencia limitada = new Resiliencia(0, Duration.ofMillis(10), Duration.ofSeconds(2), 3,
+				Duration.ofMillis(50), 1, 2, 2);
+		for (int i = 0; i < 3; i++) {
+			assertThatThrownBy(() -> limitada.ejecutar(url, () -> {
+				throw new IOException("conexión rechazada");
+			})).isInstanceOf(ErrorGutendex.class);
+		}
+		assertThat(limitada.estado().circuito()).isEqualTo(Resiliencia.EstadoCircuito.ABIERTO);
+		Thread.sleep(100);
+
+		HttpClient cliente = HttpClient.newHttpClient();
+		CompletableFuture<HttpResponse<Void>> prueba = limitada.ejecutarAsync(url, () -> cliente.sendAsync(
+				HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding()));
+		assertThat(prueba.cancel(true)).isTrue();
+		// Pasa el turno reservado: el envío ya no ocurre
+		Thread.sleep(600);
+		assertThat(servidor.peticiones()).isZero();
+
+		// La siguiente petición vuelve a probar y cierra el circuito
+		assertThat(limitada.ejecutarAsync(url, () -> cliente.sendAsync(
+				HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding()))
+				.get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+		assertThat(limitada.estado().circuito()).isEqualTo(Resiliencia.EstadoCircuito.CERRADO);
+	}
+
+	@Test
+	void conLaTasaLimitadaLosEnviosAsincronosNoBloqueanAlQueLlama() {
+		Resiliencia limitada = new Resiliencia(0, Duration.ofMillis(10), Duration.ofSeconds(2), 3,
+				Duration.ofMillis(300), 1, 5, 2);
+		HttpClient cliente = HttpClient.newHttpClient();
+		List<CompletableFuture<HttpResponse<Void>>> envios = new ArrayList<>();
+
+		// 5 por segundo: el último turno llega a los ~0,8 s, pero pedirlos no espera
+		long inicio = System.nanoTime();
+		for (int i = 0; i < 5; i++) {
+			envios.add(limitada.ejecutarAsync(url, () -> cliente.sendAsync(
+					HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding())));
+		}
+		assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofMillis(400));
+
+		CompletableFuture.allOf(envios.toArray(CompletableFuture[]::new)).join();
+		assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isGreaterThanOrEqualTo(Duration.ofMillis(700));
+		assertThat(servidor.peticiones()).isEqualTo(5);
+	}
+
+	@Test
+	void laTasaSeAdaptaAlLimiteDelServidor() {
+		servidor.limitarA(20);
+
+		List<CompletableFuture<Datos>> paginas = new ArrayList<>();
+		for (int i = 0; i < 60; i++) {
+			paginas.add(consumoAPI.obtenerDatosAsync(url, Datos.class, conversor));
+		}
+		CompletableFuture.allOf(paginas.toArray(CompletableFuture[]::new)).join();
+
+		// Todas llegaron; el servidor respondió 429 y la tasa bajó a su alcance
+		// (después de bajar vuelve a subir de a poco, así que ronda el límite)
+		Resiliencia.Estado estado = resiliencia.estado();
+		assertThat(estado.limitadas()).isPositive();
+		assertThat(estado.tasa()).isLessThan(30);
+	}
+}
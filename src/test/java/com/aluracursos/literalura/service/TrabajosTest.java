@@ -0,0 +1,121 @@
+package com.aluracursos.literalura.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrabajosTest {
+
+	// Un solo hilo: el segundo trabajo espera en cola mientras corre el primero
+	private final Trabajos trabajos = new Trabajos(1, 2);
+
+	@AfterEach
+	void detener() {
+		trabajos.detener();
+	}
+
+	@Test
+	void informaElAvanceYGuardaElResultado() throws Exception {
+		CountDownLatch seguir = new CountDownLatch(1);
+		Trabajos.Trabajo<Integer> trabajo = trabajos.enviar("Contar", avance -> {
+			avance.informar(1, 4, "1 de 4");
+			esperar(seguir);
+			avance.informar(4, 4, "4 de 4");
+			return 4;
+		}, n -> n + " contados");
+
+		assertThat(esperarDetalle(trabajo, "1 de 4")).isTrue();
+		assertThat(trabajo.estado()).isEqualTo(Trabajos.Estado.EN_CURSO);
+		assertThat(trabajo.porcentaje()).isEqualTo(25);
+		assertThat(trabajos.terminadosSinAviso()).isEmpty();
+
+		seguir.countDown();
+		assertThat(trabajo.esperar(Duration.ofSeconds(5))).isTrue();
+		assertThat(trabajo.estado()).isEqualTo(Trabajos.Estado.TERMINADO);
+		assertThat(trabajo.resultado()).isEqualTo(4);
+		assertThat(trabajo.resumen()).isEqualTo("4 contados");
+
+		// El aviso de fin se entrega una sola vez
+		assertThat(trabajos.terminadosSinAviso()).containsExactly(trabajo);
+		assertThat(trabajos.terminadosSinAviso()).isEmpty();
+
+		// Un fallo queda registrado con su motivo
+		Trabajos.Trabajo<Object> falla = trabajos.enviar("Fallar", avance -> {
+			throw new IllegalStateException("Gutendex no responde");
+		}, String::valueOf);
+		assertThat(falla.esperar(Duration.ofSeconds(5))).isTrue();
+		assertThat(falla.estado()).isEqualTo(Trabajos.Estado.FALLIDO);
+		assertThat(falla.resumen()).isEqualTo("Gutendex no responde");
+		assertThat(falla.resultado()).isNull();
+
+		// Solo se conservan los últimos terminados ("historial" = 2)
+		trabajos.enviar("Otro", avance -> 0, String::valueOf).esperar(Duration.ofSeconds(5));
+		trabajos.enviar("Uno más", avance -> 0, String::valueOf);
+		assertThat(trabajos.buscar(trabajo.id())).isEmpty();
+	}
+
+	@Test
+	void laCancelacionEsCooperativaYLosDeLaColaNoLleganACorrer() throws Exception {
+		CountDownLatch empezo = new CountDownLatch(1);
+		Trabajos.Trabajo<Integer> importacion = trabajos.enviarUnico(Trabajos.IMPORTACION, "Importar", avance -> {
+			empezo.countDown();
+			int paginas = 0;
+			do {
+				paginas++;
+				LockSupport.parkNanos(1_000_000);
+			} while (!avance.cancelado());
+			return paginas;
+		}, n -> n + " páginas");
+		assertThat(empezo.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// Otra importación a la vez se rechaza
+		assertThatThrownBy(() -> trabajos.enviarUnico(Trabajos.IMPORTACION, "Importar otra vez", avance -> 0,
+				String::valueOf)).isInstanceOf(IllegalStateException.class).hasMessageContaining("#" + importacion.id());
+
+		AtomicBoolean corrio = new AtomicBoolean();
+		Trabajos.Trabajo<Integer> enCola = trabajos.enviar("En cola", avance -> {
+			corrio.set(true);
+			return 0;
+		}, String::valueOf);
+		assertThat(enCola.estado()).isEqualTo(Trabajos.Estado.EN_COLA);
+		assertThat(trabajos.cancelar(enCola.id())).isTrue();
+		assertThat(enCola.estado()).isEqualTo(Trabajos.Estado.CANCELADO);
+
+		// La tarea en curso termina en su próxima consulta y conserva lo hecho
+		assertThat(trabajos.cancelar(importacion.id())).isTrue();
+		assertThat(importacion.esperar(Duration.ofSeconds(5))).isTrue();
+		assertThat(importacion.estado()).isEqualTo(Trabajos.Estado.CANCELADO);
+		assertThat(importacion.resultado()).isPositive();
+		assertThat(trabajos.cancelar(importacion.id())).isFalse();
+
+		// Libre la clave, se puede volver a importar
+		assertThat(trabajos.enviarUnico(Trabajos.IMPORTACION, "Importar", avance -> 1, String::valueOf)
+				.esperar(Duration.ofSeconds(5))).isTrue();
+		assertThat(corrio).isFalse();
+		assertThat(trabajos.activos()).isZero();
+	}
+
+	private static void esperar(CountDownLatch seguir) {
+		try {
+			seguir.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static boolean esperarDetalle(Trabajos.Trabajo<?> trabajo, String detalle) throws InterruptedException {
+		long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!trabajo.detalle().equals(detalle) && System.nanoTime() < limite) {
+			Thread.sleep(10);
+		}
+		return trabajo.detalle().equals(detalle);
+	}
+}
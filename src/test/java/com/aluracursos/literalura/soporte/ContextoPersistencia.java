@@ -0,0 +1,59 @@
+package com.aluracursos.literalura.soporte;
+
+import com.aluracursos.literalura.config.MetricasConfig;
+import com.aluracursos.literalura.config.PersistenciaConfig;
+import com.aluracursos.literalura.model.Libro;
+import com.aluracursos.literalura.repository.LibroRepository;
+import com.aluracursos.literalura.service.CacheAutores;
+import com.aluracursos.literalura.service.CatalogoEnMemoria;
+import com.aluracursos.literalura.service.ConsultaLibros;
+import com.aluracursos.literalura.service.EstadisticasDescargas;
+import com.aluracursos.literalura.service.ImportadorCatalogoLocal;
+import com.aluracursos.literalura.service.IndiceLibros;
+import com.aluracursos.literalura.service.Metricas;
+import com.aluracursos.literalura.service.PersistenciaLotes;
+import com.aluracursos.literalura.service.PoliticaVidas;
+import com.aluracursos.literalura.service.RankingDescargas;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ Contexto de Spring reducido para benchmarks de persistencia:
+ entidades, repositorios y servicios de escritura, de importación local, de consulta y de búsqueda de texto sobre una base H2 en memoria,
+ sin el menú de consola (CommandLineRunner) de la aplicación.
+*/
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EntityScan(basePackageClasses = Libro.class)
+@EnableJpaRepositories(basePackageClasses = LibroRepository.class)
+@Import({PersistenciaConfig.class, PersistenciaLotes.class, CacheAutores.class,
+        ConsultaLibros.class, CatalogoEnMemoria.class, PoliticaVidas.class, RankingDescargas.class,
+        EstadisticasDescargas.class, Metricas.class, MetricasConfig.class, ImportadorCatalogoLocal.class,
+        IndiceLibros.class})
+public class ContextoPersistencia {
+
+    /*
+     Arranca el contexto con una base H2 nueva y las propiedades extra indicadas
+     (formato "clave=valor").
+    */
+    public static ConfigurableApplicationContext iniciar(String... propiedades) {
+        List<String> todas = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:bench" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "logging.level.root=WARN"));
+        todas.addAll(List.of(propiedades));
+        return new SpringApplicationBuilder(ContextoPersistencia.class)
+                .web(WebApplicationType.NONE)
+                .properties(todas.toArray(String[]::new))
+                .run();
+    }
+}
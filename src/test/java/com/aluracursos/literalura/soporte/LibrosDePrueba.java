@@ -0,0 +1,38 @@
+package com.aluracursos.literalura.soporte;
+
+import com.aluracursos.literalura.model.DatosAutor;
+import com.aluracursos.literalura.model.DatosLibro;
+import com.aluracursos.literalura.model.Libro;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ Genera libros sintéticos con autores e idiomas variados
+ para poblar bases de datos de pruebas y benchmarks.
+*/
+public final class LibrosDePrueba {
+
+    private static final String[] IDIOMAS = {"en", "es", "fr", "pt", "de", "it"};
+
+    private LibrosDePrueba() {}
+
+    public static DatosLibro datos(int numero) {
+        int autor = numero % 5_000;
+        return new DatosLibro(
+                numero,
+                "Libro de prueba " + numero,
+                List.of(new DatosAutor("Autor " + autor, 1500 + autor % 400, 1560 + autor % 400)),
+                List.of(IDIOMAS[numero % IDIOMAS.length]),
+                (double) ((numero * 7919L) % 100_000));
+    }
+
+    // Libros numerados desde "desde" (inclusive), "cantidad" en total
+    public static List<Libro> libros(int desde, int cantidad) {
+        List<Libro> libros = new ArrayList<>(cantidad);
+        for (int i = desde; i < desde + cantidad; i++) {
+            libros.add(new Libro(datos(i)));
+        }
+        return libros;
+    }
+}
@@ -0,0 +1,24 @@
+package com.aluracursos.literalura.soporte;
+
+import com.aluracursos.literalura.service.CacheAutores;
+import com.aluracursos.literalura.service.PersistenciaLotes;
+import org.springframework.context.ApplicationContext;
+
+/*
+ Llena una base de pruebas con "cantidad" libros sintéticos (LibrosDePrueba),
+ por tramos para no retener todo el catálogo en memoria.
+*/
+public final class PobladorBase {
+
+    private static final int TRAMO = 5_000;
+
+    private PobladorBase() {}
+
+    public static void poblar(ApplicationContext contexto, int cantidad) {
+        PersistenciaLotes persistencia = contexto.getBean(PersistenciaLotes.class);
+        contexto.getBean(CacheAutores.class).precargar();
+        for (int desde = 0; desde < cantidad; desde += TRAMO) {
+            persistencia.guardarEnLotes(LibrosDePrueba.libros(desde, Math.min(TRAMO, cantidad - desde)));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.aluracursos.literalura.soporte;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ Servidor HTTP local que imita la API Gutendex para pruebas y benchmarks.
+ ✔ responde siempre con una página grabada (src/test/resources/gutendex)
+ ✔ permite inyectar latencia para simular la red
+ ✔ envía un ETag y responde 304 a las peticiones condicionales que lo repiten
+ ✔ cuenta las peticiones recibidas y guarda la ruta de cada una
+ ✔ inyecta fallas: N respuestas con un código de error (y Retry-After),
+   conexiones cortadas sin respuesta, o un límite de peticiones por segundo
+   por encima del cual responde 429
+ ✔ escucha en un puerto libre de 127.0.0.1
+*/
+public class ServidorGutendexSimulado implements AutoCloseable {
+
+    // Página de ejemplo con 32 libros, idéntica en forma a la respuesta real
+    public static final String PAGINA_LIBROS = "/gutendex/pagina-libros.json";
+
+    private final HttpServer servidor;
+    private final ExecutorService hilos;
+    private final byte[] cuerpo;
+    private final Duration latencia;
+    private final AtomicInteger peticiones = new AtomicInteger();
+    private final Queue<String> rutas = new ConcurrentLinkedQueue<>();
+
+    // Fallas programadas, en orden; código 0 = cortar la conexión sin responder
+    private record Falla(int codigo, String retryAfter) {}
+    private final Queue<Falla> fallas = new ConcurrentLinkedQueue<>();
+
+    // Límite de peticiones por segundo (0 = sin límite) y ventana actual
+    private volatile double limitePorSegundo;
+    private long inicioVentana = System.nanoTime();
+    private int enVentana;
+
+    // ETag fijo: el contenido grabado nunca cambia
+    public static final String ETAG = "\"pagina-libros-v1\"";
+
+    public ServidorGutendexSimulado() {
+        this(Duration.ZERO);
+    }
+
+    public ServidorGutendexSimulado(Duration latencia) {
+        this(latencia, Executors.newCachedThreadPool());
+    }
+
+    // Con hilos propios (por ejemplo virtuales, para que el servidor no pese en la memoria medida)
+    public ServidorGutendexSimulado(Duration latencia, ExecutorService hilos) {
+        this.cuerpo = leerRecurso(PAGINA_LIBROS);
+        this.latencia = latencia;
+        try {
+            this.servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.hilos = hilos;
+        servidor.setExecutor(hilos);
+        servidor.createContext("/books/", this::responder);
+        servidor.start();
+    }
+
+    // URL base equivalente a "https://gutendex.com"
+    public String urlBase() {
+        return "http://127.0.0.1:" + servidor.getAddress().getPort();
+    }
+
+    public byte[] cuerpo() {
+        return cuerpo;
+    }
+
+    // Cantidad de peticiones atendidas desde que arrancó el servidor
+    public int peticiones() {
+        return peticiones.get();
+    }
+
+    // Ruta y consulta de cada petición atendida ("/books/?page=2"), en orden de llegada
+    public List<String> rutas() {
+        return List.copyOf(rutas);
+    }
+
+    // Las próximas "veces" peticiones responden "codigo" (0 = conexión cortada)
+    public void fallar(int veces, int codigo) {
+        fallar(veces, codigo, null);
+    }
+
+    public void fallar(int veces, int codigo, String retryAfter) {
+        for (int i = 0; i < veces; i++) {
+            fallas.add(new Falla(codigo, retryAfter));
+        }
+    }
+
+    // Responde 429 a las peticiones que superen "porSegundo" en cada segundo
+    public void limitarA(double porSegundo) {
+        this.limitePorSegundo = porSegundo;
+    }
+
+    private synchronized boolean superaElLimite() {
+        if (limitePorSegundo <= 0) {
+            return false;
+        }
+        long ahora = System.nanoTime();
+        if (ahora - inicioVentana >= 1_000_000_000L) {
+            inicioVentana = ahora;
+            enVentana = 0;
+        }
+        return ++enVentana > limitePorSegundo;
+    }
+
+    private void responder(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            peticiones.incrementAndGet();
+            rutas.add(intercambio.getRequestURI().toString());
+            if (!latencia.isZero()) {
+                Thread.sleep(latencia.toMillis());
+            }
+            Falla falla = fallas.poll();
+            if (falla == null && superaElLimite()) {
+                falla = new Falla(429, null);
+            }
+            if (falla != null) {
+                if (falla.codigo() == 0) {
+                    // Sin respuesta: el cliente ve la conexión cerrada (IOException)
+                    return;
+                }
+                if (falla.retryAfter() != null) {
+                    intercambio.getResponseHeaders().set("Retry-After", falla.retryAfter());
+                }
+                byte[] error = "<html><body>Error</body></html>".getBytes();
+                intercambio.getResponseHeaders().set("Content-Type", "text/html");
+                intercambio.sendResponseHeaders(falla.codigo(), error.length);
+                try (OutputStream salida = intercambio.getResponseBody()) {
+                    salida.write(error);
+                }
+                return;
+            }
+            intercambio.getResponseHeaders().set("ETag", ETAG);
+            if (ETAG.equals(intercambio.getRequestHeaders().getFirst("If-None-Match"))) {
+                intercambio.sendResponseHeaders(304, -1);
+                return;
+            }
+            intercambio.getResponseHeaders().set("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static byte[] leerRecurso(String ruta) {
+        try (InputStream entrada = ServidorGutendexSimulado.class.getResourceAsStream(ruta)) {
+            if (entrada == null) {
+                throw new IllegalStateException("Recurso no encontrado: " + ruta);
+            }
+            return entrada.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        hilos.shutdownNow();
+    }
+}